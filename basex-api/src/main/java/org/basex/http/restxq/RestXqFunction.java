@@ -69,15 +69,14 @@ public final class RestXqFunction extends WebFunction {
   public RestXqPath path;
   /** Singleton id (can be {@code null}). */
   String singleton;
+  /** Error (can be {@code null}). */
+  RestXqError error;
+  /** Permission (can be {@code null}). */
+  RestXqPerm permission;
 
   /** Post/Put variable (can be {@code null}). */
   private QNm requestBody;
 
-  /** Error (can be {@code null}). */
-  private RestXqError error;
-  /** Error (can be {@code null}). */
-  private RestXqPerm permission;
-
   /**
    * Constructor.
    * @param function associated user function
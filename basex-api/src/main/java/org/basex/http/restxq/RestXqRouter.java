@@ -0,0 +1,144 @@
+package org.basex.http.restxq;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.http.*;
+import org.basex.http.web.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Routing structure for RESTXQ functions, which is created whenever the module cache is updated.
+ * Functions are indexed in a trie, which is keyed by the literal segments of their path templates.
+ * Each function is attached to the node of its longest literal prefix and grouped by its HTTP
+ * methods. For a request, only the functions attached to the nodes along its path are checked.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class RestXqRouter {
+  /** Root node of the path trie. */
+  private final Node root = new Node();
+  /** Error functions. */
+  private final ArrayList<RestXqFunction> errors = new ArrayList<>();
+  /** Permission functions. */
+  private final ArrayList<RestXqFunction> permissions = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param modules web modules
+   */
+  public RestXqRouter(final Collection<WebModule> modules) {
+    for(final WebModule module : modules) {
+      for(final RestXqFunction func : module.functions()) add(func);
+    }
+  }
+
+  /**
+   * Returns RESTXQ and permissions functions that match the current request.
+   * @param conn HTTP connection
+   * @param error error code (assigned if error function is to be called)
+   * @param perm permission flag
+   * @return list of matching functions, ordered by specifity
+   */
+  public List<RestXqFunction> find(final HTTPConnection conn, final QNm error,
+      final boolean perm) {
+
+    final ArrayList<RestXqFunction> list = new ArrayList<>();
+    if(perm || error != null) {
+      for(final RestXqFunction func : perm ? permissions : errors) {
+        if(func.matches(conn, error, perm)) list.add(func);
+      }
+    } else {
+      // visit all nodes along the request path (which starts with a slash)
+      final String path = conn.path();
+      final int pl = path.length();
+      Node node = root;
+      node.find(conn, list);
+      for(int s = 1; s < pl && node != null;) {
+        int e = path.indexOf('/', s);
+        if(e == -1) e = pl;
+        node = node.children.get(path.substring(s, e));
+        if(node != null) node.find(conn, list);
+        s = e + 1;
+      }
+    }
+    Collections.sort(list);
+    return list;
+  }
+
+  /**
+   * Adds a function.
+   * @param func function
+   */
+  private void add(final RestXqFunction func) {
+    if(func.permission != null) permissions.add(func);
+    if(func.error != null) errors.add(func);
+    if(func.path == null) return;
+
+    // follow literal segments of the path template
+    final String template = func.path.toString();
+    final int tl = template.length();
+    Node node = root;
+    for(int s = template.startsWith("/") ? 1 : 0; s < tl;) {
+      int e = template.indexOf('/', s);
+      if(e == -1) e = tl;
+      final String segment = literal(template.substring(s, e));
+      if(segment == null) break;
+      node = node.children.computeIfAbsent(segment, k -> new Node());
+      s = e + 1;
+    }
+
+    // functions without methods are applicable to all methods
+    if(func.methods.isEmpty()) {
+      node.add("", func);
+    } else {
+      for(final String method : func.methods) node.add(method, func);
+    }
+  }
+
+  /**
+   * Returns the decoded literal of a path segment.
+   * @param segment path segment
+   * @return literal, or {@code null} if the segment contains a template or cannot be indexed
+   */
+  private static String literal(final String segment) {
+    if(segment.isEmpty() || segment.indexOf('{') != -1) return null;
+    final byte[] decoded = decodeUri(token(segment));
+    if(decoded == null || contains(decoded, '/')) return null;
+    return string(decoded);
+  }
+
+  /** Trie node. */
+  private static final class Node {
+    /** Child nodes, indexed by path segments. */
+    private final HashMap<String, Node> children = new HashMap<>();
+    /** Functions, indexed by HTTP methods (empty string: functions for all methods). */
+    private final HashMap<String, ArrayList<RestXqFunction>> functions = new HashMap<>();
+
+    /**
+     * Adds a function.
+     * @param method HTTP method
+     * @param func function
+     */
+    void add(final String method, final RestXqFunction func) {
+      functions.computeIfAbsent(method, k -> new ArrayList<>()).add(func);
+    }
+
+    /**
+     * Adds the functions of this node that match the current request.
+     * @param conn HTTP connection
+     * @param list list of matching functions
+     */
+    void find(final HTTPConnection conn, final ArrayList<RestXqFunction> list) {
+      for(final String method : new String[] { conn.method, "" }) {
+        final ArrayList<RestXqFunction> funcs = functions.get(method);
+        if(funcs == null) continue;
+        for(final RestXqFunction func : funcs) {
+          if(func.matches(conn, null, false)) list.add(func);
+        }
+      }
+    }
+  }
+}
@@ -38,6 +38,10 @@ public final class WebModules {
 
   /** Module cache. */
   private HashMap<String, WebModule> modules = new HashMap<>();
+  /** Routing structure for RESTXQ functions. */
+  private RestXqRouter router = new RestXqRouter(modules.values());
+  /** WebSocket functions, indexed by their paths. */
+  private HashMap<String, ArrayList<WsFunction>> wsPaths = new HashMap<>();
   /** Current parsing state. */
   private boolean parsed;
   /** Last access. */
@@ -139,15 +143,7 @@ public final class WebModules {
   private List<RestXqFunction> find(final HTTPConnection conn, final QNm error, final boolean perm)
       throws QueryException, IOException {
 
-    // collect and sort all functions
-    final ArrayList<RestXqFunction> list = new ArrayList<>();
-    for(final WebModule mod : cache(conn.context).values()) {
-      for(final RestXqFunction func : mod.functions()) {
-        if(func.matches(conn, error, perm)) list.add(func);
-      }
-    }
-    Collections.sort(list);
-    return list;
+    return router(conn.context).find(conn, error, perm);
   }
 
   /**
@@ -173,8 +169,9 @@ public final class WebModules {
   public ArrayList<WsFunction> findWs(final WebSocket ws, final Annotation ann)
       throws QueryException, IOException {
     final ArrayList<WsFunction> funcs = new ArrayList<>();
-    for(final WebModule mod : cache(ws.context).values()) {
-      for(final WsFunction func : mod.wsFunctions()) {
+    final ArrayList<WsFunction> cands = wsPaths(ws.context).get(ws.path.toString());
+    if(cands != null) {
+      for(final WsFunction func : cands) {
         if(func.matches(ann, ws.path)) funcs.add(func);
       }
     }
@@ -295,13 +292,10 @@ public final class WebModules {
   /**
    * Updates the module cache. Parses new modules and discards obsolete ones.
    * @param ctx database context
-   * @return module cache
    * @throws QueryException query exception
    * @throws IOException I/O exception
    */
-  private synchronized HashMap<String, WebModule> cache(final Context ctx)
-      throws QueryException, IOException {
-
+  private synchronized void cache(final Context ctx) throws QueryException, IOException {
     if(!parsed) {
       if(!path.exists()) throw HTTPCode.NO_RESTXQ.get();
 
@@ -309,9 +303,43 @@ public final class WebModules {
       cache(ctx, path, map, modules);
       modules = map;
       parsed = cached;
+
+      // create routing structures
+      router = new RestXqRouter(map.values());
+      final HashMap<String, ArrayList<WsFunction>> paths = new HashMap<>();
+      for(final WebModule module : map.values()) {
+        for(final WsFunction func : module.wsFunctions()) {
+          paths.computeIfAbsent(func.path.toString(), k -> new ArrayList<>()).add(func);
+        }
+      }
+      wsPaths = paths;
     }
     last = System.currentTimeMillis();
-    return modules;
+  }
+
+  /**
+   * Updates the module cache and returns the routing structure for RESTXQ functions.
+   * @param ctx database context
+   * @return routing structure
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private synchronized RestXqRouter router(final Context ctx) throws QueryException, IOException {
+    cache(ctx);
+    return router;
+  }
+
+  /**
+   * Updates the module cache and returns the WebSocket functions, indexed by their paths.
+   * @param ctx database context
+   * @return functions
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private synchronized HashMap<String, ArrayList<WsFunction>> wsPaths(final Context ctx)
+      throws QueryException, IOException {
+    cache(ctx);
+    return wsPaths;
   }
 
   /**
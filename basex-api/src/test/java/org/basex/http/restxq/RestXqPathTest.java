@@ -52,6 +52,23 @@ public final class RestXqPathTest extends RestXqTest {
     get(f, "var/y", "y");
   }
 
+  /**
+   * Chooses between functions with literal and template segments.
+   * @throws Exception exception
+   */
+  @Test
+  public void getRouting() throws Exception {
+    final String f = "declare %R:path('/a/b') function m:a() { 'ab' };" +
+        "declare %R:path('/a/{$x}') function m:b($x) { 'a' || $x };" +
+        "declare %R:path('/a/b/{$x=.+}') function m:c($x) { 'ab' || $x };" +
+        "declare %R:path('/c%20d') function m:d() { 'cd' };";
+    get(f, "a/b", "ab");
+    get(f, "a/c", "ac");
+    get(f, "a/b/c/d", "abc/d");
+    get(f, "c%20d", "cd");
+    getE(f, "a");
+  }
+
   /**
    * Retrieves paths with namespace declarations.
    * @throws Exception exception
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.api.client.*;
@@ -23,8 +24,10 @@ import org.basex.util.*;
  * @author Andreas Weiler
  */
 public final class BaseXServer extends CLI implements Runnable {
-  /** New sessions. */
-  private final HashSet<ClientListener> authorizing = new HashSet<>();
+  /** New sessions, and tasks for stopping authentication after timeout. */
+  private final HashMap<ClientListener, TimerTask> authorizing = new HashMap<>();
+  /** Timer for authentication timeouts. */
+  private final Timer timer = new Timer(true);
   /** Indicates if server is running. */
   private volatile boolean running;
   /** Indicates if server is to be stopped. */
@@ -39,6 +42,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private boolean quiet;
   /** Stop file. */
   private IOFile stopFile;
+  /** Dispatcher for client sessions ({@code null} if a thread is started for each session). */
+  private ClientSelector selector;
 
   /**
    * Main method, launching the server process.
@@ -99,7 +104,15 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      final int threads = sopts.get(StaticOptions.SERVERTHREADS);
+      if(threads > 0) {
+        // sockets created by channels can be registered with a selector
+        socket = ServerSocketChannel.open().socket();
+        selector = new ClientSelector(threads);
+        selector.start();
+      } else {
+        socket = new ServerSocket();
+      }
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(getClass(), port);
@@ -150,15 +163,19 @@ public final class BaseXServer extends CLI implements Runnable {
           // create client listener, stop authentication after timeout
           final ClientListener cl = new ClientListener(s, context, this);
           if(ka > 0) {
-            cl.timeout.schedule(new TimerTask() {
+            final TimerTask task = new TimerTask() {
               @Override
               public void run() {
                 cl.close();
               }
-            }, ka);
-            authorizing.add(cl);
+            };
+            synchronized(authorizing) {
+              authorizing.put(cl, task);
+            }
+            timer.schedule(task, ka);
           }
-          cl.start();
+          if(selector != null) selector.add(cl);
+          else cl.start();
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -188,11 +205,17 @@ public final class BaseXServer extends CLI implements Runnable {
   private synchronized void close() {
     if(!running) return;
 
-    for(final ClientListener cl : authorizing) {
+    final ArrayList<ClientListener> clients;
+    synchronized(authorizing) {
+      clients = new ArrayList<>(authorizing.keySet());
+    }
+    for(final ClientListener cl : clients) {
       remove(cl);
       cl.close();
     }
     context.sessions.close();
+    timer.cancel();
+    if(selector != null) selector.close();
 
     try {
       // close interactive input if server was stopped by another process
@@ -339,8 +362,8 @@ public final class BaseXServer extends CLI implements Runnable {
    */
   public void remove(final ClientListener client) {
     synchronized(authorizing) {
-      client.timeout.cancel();
-      authorizing.remove(client);
+      final TimerTask task = authorizing.remove(client);
+      if(task != null) task.cancel();
     }
   }
 }
@@ -88,7 +88,7 @@ public abstract class Builder extends Job {
    * @param value document name
    * @throws IOException I/O exception
    */
-  public final void openDoc(final byte[] value) throws IOException {
+  public void openDoc(final byte[] value) throws IOException {
     path.index(0, Data.DOC, level);
     parStack.set(level++, meta.size);
     addDoc(value);
@@ -99,7 +99,7 @@ public abstract class Builder extends Job {
    * Closes a document node.
    * @throws IOException I/O exception
    */
-  public final void closeDoc() throws IOException {
+  public void closeDoc() throws IOException {
     final int pre = parStack.get(--level);
     setSize(pre, meta.size - pre);
     ++meta.ndocs;
@@ -113,7 +113,7 @@ public abstract class Builder extends Job {
    * @param nsp namespaces
    * @throws IOException I/O exception
    */
-  public final void openElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
+  public void openElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
     addElem(name, att, nsp);
     ++level;
   }
@@ -125,7 +125,7 @@ public abstract class Builder extends Job {
    * @param nsp namespaces
    * @throws IOException I/O exception
    */
-  public final void emptyElem(final byte[] name, final Atts att, final Atts nsp)
+  public void emptyElem(final byte[] name, final Atts att, final Atts nsp)
       throws IOException {
     addElem(name, att, nsp);
     final int pre = parStack.get(level);
@@ -137,7 +137,7 @@ public abstract class Builder extends Job {
    * Closes an element.
    * @throws IOException I/O exception
    */
-  public final void closeElem() throws IOException {
+  public void closeElem() throws IOException {
     checkStop();
     --level;
     final int pre = parStack.get(level);
@@ -150,7 +150,7 @@ public abstract class Builder extends Job {
    * @param value text value
    * @throws IOException I/O exception
    */
-  public final void text(final byte[] value) throws IOException {
+  public void text(final byte[] value) throws IOException {
     if(value.length != 0) addText(value, Data.TEXT);
   }
 
@@ -159,7 +159,7 @@ public abstract class Builder extends Job {
    * @param value comment text
    * @throws IOException I/O exception
    */
-  public final void comment(final byte[] value) throws IOException {
+  public void comment(final byte[] value) throws IOException {
     addText(value, Data.COMM);
   }
 
@@ -168,7 +168,7 @@ public abstract class Builder extends Job {
    * @param pi processing instruction name and value
    * @throws IOException I/O exception
    */
-  public final void pi(final byte[] pi) throws IOException {
+  public void pi(final byte[] pi) throws IOException {
     addText(pi, Data.PI);
   }
 
@@ -0,0 +1,205 @@
+package org.basex.build;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class caches the events of a parser. The events can later be sent to another builder.
+ * It is used by the {@link DirParser} to parse documents in parallel and add them to the
+ * database in the original order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class CacheBuilder extends Builder {
+  /** Event: open document. */
+  private static final int OPENDOC = 0;
+  /** Event: close document. */
+  private static final int CLOSEDOC = 1;
+  /** Event: open element. */
+  private static final int OPENELEM = 2;
+  /** Event: empty element. */
+  private static final int EMPTYELEM = 3;
+  /** Event: close element. */
+  private static final int CLOSEELEM = 4;
+  /** Event: text. */
+  private static final int TEXT = 5;
+  /** Event: comment. */
+  private static final int COMMENT = 6;
+  /** Event: processing instruction. */
+  private static final int PI = 7;
+
+  /** Cached events and numbers of attributes and namespaces. */
+  private final IntList events = new IntList();
+  /** Cached tokens. */
+  private final TokenList tokens = new TokenList();
+
+  /**
+   * Constructor.
+   * @param parser parser
+   */
+  CacheBuilder(final Parser parser) {
+    super("", parser);
+  }
+
+  /**
+   * Parses the input and caches all events.
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  CacheBuilder cache() throws IOException {
+    try {
+      parser.parse(this);
+    } finally {
+      parser.close();
+    }
+    return this;
+  }
+
+  /**
+   * Sends the cached events to the specified builder.
+   * @param builder builder
+   * @throws IOException I/O exception
+   */
+  void replay(final Builder builder) throws IOException {
+    final Atts atts = new Atts(), nsp = new Atts();
+    final int es = events.size();
+    int t = 0;
+    for(int e = 0; e < es; e++) {
+      final int event = events.get(e);
+      switch(event) {
+        case OPENDOC:
+          builder.openDoc(tokens.get(t++));
+          break;
+        case CLOSEDOC:
+          builder.closeDoc();
+          break;
+        case OPENELEM:
+        case EMPTYELEM:
+          final byte[] name = tokens.get(t++);
+          atts.reset();
+          for(int a = events.get(++e); a > 0; a--) atts.add(tokens.get(t++), tokens.get(t++));
+          nsp.reset();
+          for(int n = events.get(++e); n > 0; n--) nsp.add(tokens.get(t++), tokens.get(t++));
+          if(event == OPENELEM) builder.openElem(name, atts, nsp);
+          else builder.emptyElem(name, atts, nsp);
+          break;
+        case CLOSEELEM:
+          builder.closeElem();
+          break;
+        case TEXT:
+          builder.text(tokens.get(t++));
+          break;
+        case COMMENT:
+          builder.comment(tokens.get(t++));
+          break;
+        default:
+          builder.pi(tokens.get(t++));
+          break;
+      }
+    }
+  }
+
+  @Override
+  public void openDoc(final byte[] value) {
+    events.add(OPENDOC);
+    tokens.add(value);
+  }
+
+  @Override
+  public void closeDoc() {
+    events.add(CLOSEDOC);
+  }
+
+  @Override
+  public void openElem(final byte[] name, final Atts att, final Atts nsp) {
+    events.add(OPENELEM);
+    add(name, att, nsp);
+  }
+
+  @Override
+  public void emptyElem(final byte[] name, final Atts att, final Atts nsp) {
+    events.add(EMPTYELEM);
+    add(name, att, nsp);
+  }
+
+  @Override
+  public void closeElem() {
+    events.add(CLOSEELEM);
+  }
+
+  @Override
+  public void text(final byte[] value) {
+    if(value.length == 0) return;
+    events.add(TEXT);
+    tokens.add(value);
+  }
+
+  @Override
+  public void comment(final byte[] value) {
+    events.add(COMMENT);
+    tokens.add(value);
+  }
+
+  @Override
+  public void pi(final byte[] pi) {
+    events.add(PI);
+    tokens.add(pi);
+  }
+
+  /**
+   * Caches the name, attributes and namespaces of an element.
+   * @param name name of element
+   * @param att attributes
+   * @param nsp namespaces
+   */
+  private void add(final byte[] name, final Atts att, final Atts nsp) {
+    tokens.add(name);
+    for(final Atts atts : new Atts[] { att, nsp }) {
+      final int as = atts.size();
+      events.add(as);
+      for(int a = 0; a < as; a++) tokens.add(atts.name(a)).add(atts.value(a));
+    }
+  }
+
+  // the following methods will never be called
+
+  @Override
+  public Data build() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public DataClip dataClip() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addDoc(final byte[] value) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addElem(final int dist, final int nameId, final int asize, final int uriId,
+      final boolean ne) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addAttr(final int nameId, final byte[] value, final int dist, final int uriId) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addText(final byte[] value, final int dist, final byte kind) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void setSize(final int pre, final int size) {
+    throw Util.notExpected();
+  }
+}
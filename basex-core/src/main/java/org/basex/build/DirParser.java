@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
@@ -19,12 +20,19 @@ import org.basex.util.list.*;
  * This class recursively scans files and directories and parses all
  * relevant files.
  *
+ * If {@link MainOptions#PARSETHREADS} is greater than 1, small documents are parsed by
+ * worker threads. The events of each document are cached by a {@link CacheBuilder} and
+ * sent to the database builder in the original order. The resulting database is identical to the
+ * one created by sequential parsing.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public final class DirParser extends Parser {
   /** Number of skipped files to log. */
   private static final int SKIPLOG = 10;
+  /** Maximum size of documents that are parsed in parallel. */
+  private static final int CACHESIZE = 1 << 20;
   /** Skipped files. */
   private final StringList skipped = new StringList();
   /** File pattern. */
@@ -46,9 +54,18 @@ public final class DirParser extends Parser {
   private final boolean rawParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of parser threads. */
+  private final int threads;
   /** Database path for storing binary files. */
   private IOFile rawPath;
 
+  /** Parser threads (assigned if documents are parsed in parallel). */
+  private ExecutorService pool;
+  /** Inputs of the documents that are parsed in parallel. */
+  private final ArrayDeque<IO> inputs = new ArrayDeque<>();
+  /** Cached events of the documents that are parsed in parallel. */
+  private final ArrayDeque<Future<CacheBuilder>> caches = new ArrayDeque<>();
+
   /** Last source. */
   private IO lastSrc;
   /** Parser reference. */
@@ -78,6 +95,7 @@ public final class DirParser extends Parser {
     addRaw = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     rawParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = options.get(MainOptions.PARSETHREADS);
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -97,7 +115,25 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.filesize = 0;
     build.meta.original = original;
-    parse(build, source);
+    final IO input = source;
+    if(threads > 1 && !rawParser && (input.isDir() || archives && input.isArchive())) {
+      pool = Executors.newFixedThreadPool(threads, r -> {
+        final Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    try {
+      parse(build, input);
+      while(!caches.isEmpty()) replay(build);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+        inputs.clear();
+        caches.clear();
+      }
+    }
   }
 
   /**
@@ -204,7 +240,23 @@ public final class DirParser extends Parser {
         if(rawPath != null) {
           Store.store(source.inputSource(), new IOFile(rawPath, targ + name));
         }
+      } else if(pool != null && l != -1 && l <= CACHESIZE) {
+        // parse small document in parallel
+        IO in = source;
+        if(!(in instanceof IOFile || in instanceof IOContent)) {
+          // read contents of archive entries
+          in = new IOContent(source.read(), source.path());
+          in.name(name);
+        }
+        final IO input = in;
+        final String trg = targ;
+        inputs.add(input);
+        caches.add(pool.submit(() -> cache(input, trg)));
+        if(caches.size() >= threads << 2) replay(builder);
       } else {
+        // add documents that are parsed in parallel
+        while(!caches.isEmpty()) replay(builder);
+
         // store input as XML
         boolean ok = true;
         IO in = source;
@@ -237,6 +289,65 @@ public final class DirParser extends Parser {
     }
   }
 
+  /**
+   * Parses a document and caches its events.
+   * @param input input
+   * @param targ target path
+   * @return cached events, or {@code null} if the document is corrupt and will be skipped
+   * @throws IOException I/O exception
+   */
+  private CacheBuilder cache(final IO input, final String targ) throws IOException {
+    IO in = input;
+    if(skipCorrupt) {
+      // parse file twice to ensure that it is well-formed
+      try {
+        if(!(input instanceof IOContent || dtd)) {
+          in = new IOContent(input.read());
+          in.name(input.name());
+        }
+        MemBuilder.build("", Parser.singleParser(in, options, targ));
+      } catch(final IOException ex) {
+        Util.debug(ex);
+        return null;
+      }
+    }
+    return new CacheBuilder(Parser.singleParser(in, options, targ)).cache();
+  }
+
+  /**
+   * Waits until the next document has been parsed in parallel and adds it to the database.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void replay(final Builder builder) throws IOException {
+    final IO input = inputs.poll();
+    final CacheBuilder cache;
+    try {
+      cache = caches.poll().get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw new IOException(th);
+    }
+    if(cache != null) {
+      // assign input to include it in error messages
+      final IO src = source;
+      source = input;
+      try {
+        cache.replay(builder);
+      } finally {
+        source = src;
+      }
+    } else {
+      skipped.add(input.path());
+    }
+    // dump debug data
+    if(Prop.debug && (++c & 0x3FF) == 0) Util.err(";");
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
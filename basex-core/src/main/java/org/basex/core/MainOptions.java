@@ -35,6 +35,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as raw files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing documents in directories and archives. */
+  public static final NumberOption PARSETHREADS = new NumberOption("PARSETHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -81,6 +83,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for creating typed numeric and temporal indexes with text and attribute indexes. */
+  public static final BooleanOption NUMINDEX = new BooleanOption("NUMINDEX", false);
 
   /** Text index: names to include. */
   public static final StringOption TEXTINCLUDE = new StringOption("TEXTINCLUDE", "");
@@ -99,8 +103,14 @@ public final class MainOptions extends Options {
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
+  /** Flag for memory-mapped read access to database files. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Flag for logging updates in a write-ahead log. */
+  public static final BooleanOption WAL = new BooleanOption("WAL", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
+  /** Memory budget for creating indexes, in megabytes (0: derived from the maximum heap size). */
+  public static final NumberOption INDEXMEMORY = new NumberOption("INDEXMEMORY", 0);
 
   // Full-Text
 
@@ -143,6 +153,10 @@ public final class MainOptions extends Options {
   public static final BooleanOption ENFORCEINDEX = new BooleanOption("ENFORCEINDEX", false);
   /** Deep node copies. */
   public static final BooleanOption COPYNODE = new BooleanOption("COPYNODE", true);
+  /** Parallel evaluation of FLWOR expressions, simple maps and paths. */
+  public static final BooleanOption PARALLELIZE = new BooleanOption("PARALLELIZE", false);
+  /** Maximum number of tuples sorted in main memory (0: no limit). */
+  public static final NumberOption SORTLIMIT = new NumberOption("SORTLIMIT", 0);
 
   // Serialize
 
@@ -3,6 +3,7 @@ package org.basex.core;
 import java.util.*;
 
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -33,6 +34,12 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size of the global table cache (megabytes); deactivated if set to 0. */
+  public static final NumberOption TABLECACHE = new NumberOption("TABLECACHE", 64);
+  /** Maximum number of cached query plans; deactivated if set to 0. */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 0);
+  /** Size of the cache for parsed external documents (megabytes); deactivated if set to 0. */
+  public static final NumberOption DOCCACHE = new NumberOption("DOCCACHE", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -64,12 +71,16 @@ public final class StaticOptions extends Options {
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
   /** Keep alive time (seconds) for clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
+  /** Number of worker threads for client sessions; a thread per session is used if set to 0. */
+  public static final NumberOption SERVERTHREADS = new NumberOption("SERVERTHREADS", 0);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
   public static final NumberOption LOGMSGMAXLEN = new NumberOption("LOGMSGMAXLEN", 1000);
+  /** Maximum number of queued log entries; entries are written synchronously if set to 0. */
+  public static final NumberOption LOGQUEUE = new NumberOption("LOGQUEUE", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_HTTP = new Comment("HTTP Services");
@@ -131,6 +142,7 @@ public final class StaticOptions extends Options {
     }
     if(get(IGNORECERT)) IOUrl.ignoreCert();
     if(get(IGNOREHOSTNAME)) IOUrl.ignoreHostname();
+    TableCache.get().size(get(TABLECACHE));
   }
 
   /**
@@ -176,6 +176,23 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_UPDATES = LI + "Updates: ";
+  /** Index info. */
+  String LI_BUDGET = LI + "Memory Budget: ";
+
+  /** Cache info. */
+  String TABLE_CACHE = "Table Cache";
+  /** Cache info. */
+  String QUERY_CACHE = "Query Cache";
+  /** Cache info. */
+  String DOCUMENT_CACHE = "Document Cache";
+  /** Cache info. */
+  String LI_PAGES = LI + "Pages: ";
+  /** Cache info. */
+  String LI_HITS = LI + "Hits: ";
+  /** Cache info. */
+  String LI_MISSES = LI + "Misses: ";
 
   /** Index info. */
   String HASH = "Hash";
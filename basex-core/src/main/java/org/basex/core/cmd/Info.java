@@ -46,6 +46,8 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    if(context.queries.enabled()) tb.add(NL).add(context.queries.info());
+    if(context.documents.enabled()) tb.add(NL).add(context.documents.info());
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
@@ -1,5 +1,6 @@
 package org.basex.core.cmd;
 
+import static org.basex.core.Text.*;
 import static org.basex.util.Strings.*;
 
 import java.io.*;
@@ -8,6 +9,7 @@ import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 
 /**
  * Evaluates the 'info storage' command and returns the table representation
@@ -39,6 +41,10 @@ public final class InfoStorage extends AInfo {
     }
     dp.add(start, end);
     out.print(dp.finish());
+    if(!data.inMemory()) {
+      out.print(NL);
+      out.print(TableCache.get().info());
+    }
     return true;
   }
 
@@ -3,11 +3,13 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.basex.index.stats.*;
 import org.basex.util.list.*;
 
@@ -41,13 +43,30 @@ public final class Optimize extends ACreate {
     return update(data, new Code() {
       @Override
       boolean run() throws IOException {
-        // reassign autooptimize flag
+        // reassign autooptimize, mmap and wal flags
         final boolean autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
         if(autooptimize != data.meta.autooptimize) {
           data.meta.autooptimize = autooptimize;
           data.meta.dirty = true;
         }
-        optimize(data, Optimize.this);
+        final boolean mmap = options.get(MainOptions.MMAP);
+        if(mmap != data.meta.mmap) {
+          data.meta.mmap = mmap;
+          data.meta.dirty = true;
+        }
+        final boolean wal = options.get(MainOptions.WAL);
+        if(wal != data.meta.wal) {
+          data.meta.wal = wal;
+          data.meta.dirty = true;
+        }
+        // typed numeric indexes: rebuild text and attribute index
+        final boolean numindex = options.get(MainOptions.NUMINDEX);
+        final boolean rebuild = numindex != data.meta.numindex;
+        if(rebuild) {
+          data.meta.numindex = numindex;
+          data.meta.dirty = true;
+        }
+        optimize(data, rebuild, rebuild, false, false, Optimize.this);
         return info(DB_OPTIMIZED_X, meta.name, jc().performance);
       }
     });
@@ -156,29 +175,33 @@ public final class Optimize extends ACreate {
       meta.uptodate = true;
     }
 
-    // rebuild value indexes
-    optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
-    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
-    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
-    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    // rebuild value indexes (in parallel)
+    final ArrayList<IndexType> types = new ArrayList<>();
+    optimize(IndexType.TEXT, data, meta.createtext, enforceText, types);
+    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, types);
+    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, types);
+    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, types);
+    CreateIndex.create(types, data, cmd);
+    // merge segments of updatable full-text index
+    if(data.ftIndex instanceof UpdatableFTIndex) ((UpdatableFTIndex) data.ftIndex).optimize();
   }
 
   /**
-   * Creates or deletes the specified index if the old and new state is different.
+   * Deletes the specified index or schedules it for creation if the old and new state is different.
    * @param type index type
    * @param data data reference
    * @param create new flag
    * @param enforce enforce operation
-   * @param cmd calling command instance
+   * @param types indexes to be created
    * @throws IOException I/O exception
    */
   private static void optimize(final IndexType type, final Data data, final boolean create,
-      final boolean enforce, final Optimize cmd) throws IOException {
+      final boolean enforce, final ArrayList<IndexType> types) throws IOException {
 
     // check if flags have changed
     if(create == data.meta.index(type) && !enforce) return;
     // create or drop index
-    if(create) CreateIndex.create(type, data, cmd);
+    if(create) types.add(type);
     else DropIndex.drop(type, data);
   }
 
@@ -196,9 +219,12 @@ public final class Optimize extends ACreate {
 
     if(data.meta.updindex) {
       data.idmap = new IdPreMap(md.lastid);
-      if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
-      if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
-      if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      final ArrayList<IndexType> types = new ArrayList<>();
+      if(data.meta.textindex) types.add(IndexType.TEXT);
+      if(data.meta.attrindex) types.add(IndexType.ATTRIBUTE);
+      if(data.meta.tokenindex) types.add(IndexType.TOKEN);
+      if(data.meta.ftindex) types.add(IndexType.FULLTEXT);
+      CreateIndex.create(types, data, null);
     }
   }
 }
@@ -1,9 +1,11 @@
 package org.basex.core.jobs;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
+import org.basex.data.*;
 import org.basex.util.*;
 
 /**
@@ -17,15 +19,15 @@ public abstract class Job {
   private final List<Job> children = Collections.synchronizedList(new ArrayList<Job>(0));
   /** Job context. */
   private JobContext jc = new JobContext(this);
-  /** Timer. */
-  private Timer timer;
+  /** Pending timeout ({@code null} if no timeout has been started). */
+  private ScheduledFuture<?> timer;
 
   /** This flag indicates that a job is updating. */
   public boolean updating;
   /** State of job. */
   public JobState state = JobState.SCHEDULED;
   /** Stopped flag. */
-  private boolean stopped;
+  private volatile boolean stopped;
 
   /**
    * Returns the job context.
@@ -47,7 +49,7 @@ public abstract class Job {
     state(JobState.RUNNING);
     jc.performance = new Performance();
     // non-admin users: stop process after timeout
-    if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx.soptions.get(StaticOptions.TIMEOUT));
+    if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx, ctx.soptions.get(StaticOptions.TIMEOUT));
   }
 
   /**
@@ -57,6 +59,8 @@ public abstract class Job {
   public final void unregister(final Context ctx) {
     stopTimeout();
     ctx.locking.release();
+    // force logged updates to disk (commits of concurrent jobs are forced together)
+    WriteAheadLog.sync();
     ctx.jobs.unregister(this);
   }
 
@@ -65,7 +69,9 @@ public abstract class Job {
    * @return job
    */
   public final Job active() {
-    return children.isEmpty() ? this : children.get(0).active();
+    synchronized(children) {
+      return children.isEmpty() ? this : children.get(0).active();
+    }
   }
 
   /**
@@ -77,6 +83,8 @@ public abstract class Job {
   public final <J extends Job> J pushJob(final J job) {
     children.add(job);
     job.jobContext(jc);
+    // child jobs may be added by parallel tasks after the job has been stopped
+    if(stopped) job.state(state);
     return job;
   }
 
@@ -87,6 +95,14 @@ public abstract class Job {
     children.remove(children.size() - 1);
   }
 
+  /**
+   * Removes the specified child job.
+   * @param job child job
+   */
+  public final void popJob(final Job job) {
+    children.remove(job);
+  }
+
   /**
    * Stops a job or sub job.
    */
@@ -128,12 +144,14 @@ public abstract class Job {
    * @param js new state
    */
   public void state(final JobState js) {
-    for(final Job job : children) job.state(js);
     state = js;
-    if(js == JobState.STOPPED || js == JobState.TIMEOUT || js == JobState.MEMORY) {
-      stopped = true;
-      stopTimeout();
+    final boolean stop = js == JobState.STOPPED || js == JobState.TIMEOUT ||
+        js == JobState.MEMORY;
+    if(stop) stopped = true;
+    synchronized(children) {
+      for(final Job job : children) job.state(js);
     }
+    if(stop) stopTimeout();
   }
 
   /**
@@ -176,31 +194,30 @@ public abstract class Job {
    * @param ctx job context
    */
   final void jobContext(final JobContext ctx) {
-    for(final Job job : children) job.jobContext(ctx);
+    synchronized(children) {
+      for(final Job job : children) job.jobContext(ctx);
+    }
     jc = ctx;
   }
 
   // PRIVATE FUNCTIONS ============================================================================
 
   /**
-   * Starts a timeout thread.
+   * Starts a timeout.
+   * @param ctx context
    * @param sec seconds wait; deactivated if set to 0
    */
-  private void startTimeout(final long sec) {
+  private synchronized void startTimeout(final Context ctx, final long sec) {
     if(sec == 0) return;
-    timer = new Timer(true);
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() { timeout(); }
-    }, sec * 1000L);
+    timer = ctx.jobs.startTimeout(this, sec * 1000L);
   }
 
   /**
-   * Stops the timeout thread.
+   * Stops the timeout.
    */
-  private void stopTimeout() {
+  private synchronized void stopTimeout() {
     if(timer != null) {
-      timer.cancel();
+      jc.context.jobs.stopTimeout(timer);
       timer = null;
     }
   }
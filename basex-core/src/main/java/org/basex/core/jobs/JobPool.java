@@ -2,6 +2,7 @@ package org.basex.core.jobs;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.util.Performance;
@@ -22,8 +23,16 @@ public final class JobPool {
   /** Timer tasks. */
   public final Map<String, QueryJobTask> tasks = new ConcurrentHashMap<>();
 
-  /** Timer. */
-  final Timer timer = new Timer(true);
+  /** Scheduler for timeouts, job tasks and cached results (cancelled tasks will be removed). */
+  private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+    final Thread thread = new Thread(r);
+    thread.setDaemon(true);
+    return thread;
+  });
+  /** Pool for the parallel evaluation of queries (created on demand). */
+  private ForkJoinPool pool;
+  /** Number of pending timeouts. */
+  private final AtomicInteger timeouts = new AtomicInteger();
   /** Timeout (ms). */
   private final long timeout;
 
@@ -33,6 +42,7 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    scheduler.setRemoveOnCancelPolicy(true);
   }
 
   /**
@@ -57,21 +67,69 @@ public final class JobPool {
    */
   public synchronized void close() {
     // stop running tasks and queries
-    timer.cancel();
+    scheduler.shutdownNow();
+    if(pool != null) pool.shutdownNow();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
   }
 
+  /**
+   * Returns the pool for the parallel evaluation of queries.
+   * @return pool
+   */
+  public synchronized ForkJoinPool pool() {
+    if(pool == null) pool = new ForkJoinPool();
+    return pool;
+  }
+
   /**
    * Discards a result after the timeout.
    * @param job job
    */
   public void scheduleResult(final Job job) {
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() {
-        results.remove(job.jc().id());
-      }
-    }, timeout);
+    scheduler.schedule(() -> results.remove(job.jc().id()), timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules a task.
+   * @param task task
+   * @param delay delay (ms)
+   * @param interval interval (ms); {@code 0}: run task only once
+   * @return future, which can be used to cancel the task
+   */
+  ScheduledFuture<?> schedule(final Runnable task, final long delay, final long interval) {
+    return interval > 0 ?
+      scheduler.scheduleAtFixedRate(task, delay, interval, TimeUnit.MILLISECONDS) :
+      scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts a timeout for the specified job.
+   * @param job job
+   * @param ms milliseconds to wait
+   * @return future, which must be passed on to {@link #stopTimeout(ScheduledFuture)}
+   */
+  ScheduledFuture<?> startTimeout(final Job job, final long ms) {
+    timeouts.incrementAndGet();
+    return scheduler.schedule(() -> {
+      timeouts.decrementAndGet();
+      job.timeout();
+    }, ms, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops a timeout if it has not been triggered yet.
+   * @param future future returned by {@link #startTimeout(Job, long)}
+   */
+  void stopTimeout(final ScheduledFuture<?> future) {
+    if(future.cancel(false)) timeouts.decrementAndGet();
+  }
+
+  /**
+   * Returns the number of pending timeouts.
+   * @return number of timeouts
+   */
+  public int timeouts() {
+    return timeouts.get();
   }
 }
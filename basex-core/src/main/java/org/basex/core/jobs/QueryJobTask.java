@@ -1,6 +1,6 @@
 package org.basex.core.jobs;
 
-import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Scheduled job.
@@ -8,7 +8,7 @@ import java.util.*;
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
-public final class QueryJobTask extends TimerTask {
+public final class QueryJobTask implements Runnable {
   /** Job. */
   public final QueryJob job;
   /** Job pool. */
@@ -21,6 +21,13 @@ public final class QueryJobTask extends TimerTask {
   /** Next start time. */
   public long start;
 
+  /** Delay (ms). */
+  private final long delay;
+  /** Future of the scheduled task ({@code null} if task has not been scheduled yet). */
+  private ScheduledFuture<?> future;
+  /** Cancel flag. */
+  private boolean cancelled;
+
   /**
    * Constructor.
    * @param job job
@@ -35,6 +42,7 @@ public final class QueryJobTask extends TimerTask {
     this.job = job;
     this.jobs = jobs;
     this.interval = interval;
+    this.delay = delay;
     final long time = System.currentTimeMillis();
     start = time + delay;
     end = duration == Long.MAX_VALUE ? duration : time + duration;
@@ -51,4 +59,22 @@ public final class QueryJobTask extends TimerTask {
     // skip execution if same job is still running
     if(!jobs.active.containsKey(job.jc().id())) new Thread(job).start();
   }
+
+  /**
+   * Schedules the task.
+   */
+  public synchronized void schedule() {
+    if(!cancelled) future = jobs.schedule(this, delay, interval);
+  }
+
+  /**
+   * Cancels the task.
+   * @return {@code true} if the task had not been cancelled before
+   */
+  public synchronized boolean cancel() {
+    if(cancelled) return false;
+    cancelled = true;
+    if(future != null) future.cancel(false);
+    return true;
+  }
 }
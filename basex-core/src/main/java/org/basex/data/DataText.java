@@ -12,9 +12,11 @@ public interface DataText {
   // META DATA ====================================================================================
 
   /** Database version; older version cannot open these instances. */
-  String STORAGE = "9.0.1";
+  String STORAGE = "9.1";
   /** Index version; older version cannot open indexes of these instances. */
-  String ISTORAGE = "8.6";
+  String ISTORAGE = "9.1";
+  /** Full-text index version; full-text indexes of older versions need to be rebuilt. */
+  String FTSTORAGE = "9.1";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -34,12 +36,18 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Database info. */
+  String DBMMAP = "MMAP";
+  /** Write-ahead log. */
+  String DBWAL = "WAL";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
   String DBATVIDX = "ATVINDEX";
   /** Token index. */
   String DBTOKIDX = "TOKINDEX";
+  /** Typed numeric indexes. */
+  String DBNUMIDX = "NUMINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
   /** Text index: names. */
@@ -66,6 +74,8 @@ public interface DataText {
   String DBMAXCATS = "MAXCATS";
   /** Index split size. */
   String DBSPLITS = "SPLITS";
+  /** Index memory budget. */
+  String DBINDEXMEM = "INDEXMEM";
   /** Up-to-date flag. */
   String DBUPTODATE = "UPTODATE";
   /** Last (highest) id. */
@@ -114,6 +124,8 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Write-ahead log. */
+  String DATAWAL = "wal";
 
   // XML SERIALIZATION ============================================================================
 
@@ -5,6 +5,7 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.nio.channels.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
@@ -16,6 +17,7 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -56,6 +58,14 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Memory-mapped texts ({@code null} if database is not mapped). */
+  private DataMapAccess textMap;
+  /** Memory-mapped values ({@code null} if database is not mapped). */
+  private DataMapAccess valueMap;
+  /** Indicates if the database is currently updated. */
+  private volatile boolean updating;
+  /** Write-ahead log ({@code null} if updates are not logged). */
+  private WriteAheadLog wal;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -65,6 +75,8 @@ public final class DiskData extends Data {
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
 
+    // restore database if it has not been closed properly
+    final boolean unlogged = WriteAheadLog.recover(meta);
     try(DataInput in = new DataInput(meta.dbfile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -79,6 +91,14 @@ public final class DiskData extends Data {
         }
       }
     }
+    // index structures may be incomplete: drop them (will be rebuilt by OPTIMIZE)
+    if(unlogged) {
+      meta.textindex = false;
+      meta.attrindex = false;
+      meta.tokenindex = false;
+      meta.ftindex = false;
+      meta.dirty = true;
+    }
 
     // open data and indexes
     init();
@@ -92,7 +112,12 @@ public final class DiskData extends Data {
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
+    if(meta.ftindex) {
+      if(!meta.updindex) ftIndex = new FTIndex(this);
+      else if(UpdatableFTIndex.exists(meta)) ftIndex = new UpdatableFTIndex(this);
+      // full-text indexes of older versions cannot be updated: will be rebuilt by OPTIMIZE
+      else meta.ftindex = false;
+    }
   }
 
   /**
@@ -122,9 +147,63 @@ public final class DiskData extends Data {
    * @throws IOException I/O exception
    */
   private void init() throws IOException {
-    table = new TableDiskAccess(meta, false);
     texts = new DataAccess(meta.dbfile(DATATXT));
     values = new DataAccess(meta.dbfile(DATAATV));
+    if(meta.mmap) map(null);
+    else table = new TableDiskAccess(meta, false);
+  }
+
+  /**
+   * Switches to memory-mapped, read-only access of the table and the heap files.
+   * @param lock shared lock on the table file, which will be adopted (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private void map(final FileLock lock) throws IOException {
+    table = new TableMapAccess(meta, lock);
+    textMap = new DataMapAccess(meta.dbfile(DATATXT));
+    valueMap = new DataMapAccess(meta.dbfile(DATAATV));
+  }
+
+  /**
+   * Switches back to the default access of the table and the heap files.
+   * @throws IOException I/O exception
+   */
+  private void unmap() throws IOException {
+    table.close();
+    textMap.close();
+    valueMap.close();
+    textMap = null;
+    valueMap = null;
+    table = new TableDiskAccess(meta, false);
+  }
+
+  /**
+   * Starts or stops logging updates in a write-ahead log, depending on the meta data.
+   * Memory-mapped databases are not logged. The log is created with the first update, when the
+   * database is locked for writing.
+   * @throws IOException I/O exception
+   */
+  private void log() throws IOException {
+    final boolean log = meta.wal && !meta.mmap;
+    if(log == (wal != null)) return;
+
+    flush(true);
+    if(log) {
+      wal = new WriteAheadLog(meta);
+      wal.register(DATATBL, (TableDiskAccess) table);
+      wal.register(DATATXT, texts);
+      wal.register(DATAATV, values);
+      for(final IndexType type : new IndexType[] { IndexType.TEXT, IndexType.ATTRIBUTE,
+          IndexType.TOKEN }) {
+        final Index index = index(type);
+        if(index instanceof DiskValues) ((DiskValues) index).wal(wal);
+      }
+      // files have been forced to disk when the log was closed before
+      wal.checkpoint(false);
+    } else {
+      wal.close();
+      wal = null;
+    }
   }
 
   /**
@@ -135,36 +214,80 @@ public final class DiskData extends Data {
     if(!meta.dirty) return;
 
     try(DataOutput out = new DataOutput(meta.dbfile(DATAINF))) {
-      meta.write(out);
-      out.writeToken(token(DBTAGS));
-      elemNames.write(out);
-      out.writeToken(token(DBATTS));
-      attrNames.write(out);
-      out.writeToken(token(DBPATH));
-      paths.write(out);
-      out.writeToken(token(DBNS));
-      nspaces.write(out);
-      out.writeToken(token(DBDOCS));
-      resources.write(out);
-      out.write(0);
+      write(out);
     }
     if(meta.updindex) idmap.write(meta.dbfile(DATAIDP));
     meta.dirty = false;
   }
 
+  /**
+   * Writes all meta data to the specified output stream.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    meta.write(out);
+    out.writeToken(token(DBTAGS));
+    elemNames.write(out);
+    out.writeToken(token(DBATTS));
+    attrNames.write(out);
+    out.writeToken(token(DBPATH));
+    paths.write(out);
+    out.writeToken(token(DBNS));
+    nspaces.write(out);
+    out.writeToken(token(DBDOCS));
+    resources.write(out);
+    out.write(0);
+  }
+
+  /**
+   * Commits an update to the write-ahead log. The meta data, the id mapping, and the buffered
+   * pages of all logged files are appended to the log. A checkpoint is performed instead if
+   * changes were made that are not logged, or if the log gets too large.
+   * @param force force commit to disk (otherwise, it will be forced when the locks are released)
+   * @throws IOException I/O exception
+   */
+  private void commit(final boolean force) throws IOException {
+    if(wal.checkpointRequired()) {
+      flush(true);
+      return;
+    }
+    final ArrayOutput info = new ArrayOutput();
+    try(DataOutput out = new DataOutput(info)) {
+      write(out);
+    }
+    wal.image(DATAINF, info.finish());
+    if(meta.updindex) {
+      final ArrayOutput ids = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ids)) {
+        idmap.write(out);
+      }
+      wal.image(DATAIDP, ids.finish());
+    }
+    wal.commit();
+    if(force) wal.flush();
+  }
+
   @Override
   public synchronized void close() {
     if(closed) return;
     super.close();
     try {
+      // write all changes and truncate log
+      if(wal != null) flush(true);
       write();
       table.close();
       texts.close();
       values.close();
+      if(textMap != null) {
+        textMap.close();
+        valueMap.close();
+      }
       close(IndexType.TEXT);
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      if(wal != null) wal.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -185,6 +308,7 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
+    if(wal != null) wal.unlogged();
     // close existing index
     close(type);
     final IndexBuilder ib;
@@ -195,14 +319,23 @@ public final class DiskData extends Data {
     }
     try {
       if(cmd != null) cmd.pushJob(ib);
-      set(type, ib.build());
+      final ValueIndex index = ib.build();
+      if(wal != null && index instanceof DiskValues) ((DiskValues) index).wal(wal);
+      set(type, index);
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
+    if(wal != null) {
+      try {
+        wal.unlogged();
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
+    }
     close(type);
     final Index index = index(type);
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
@@ -226,8 +359,25 @@ public final class DiskData extends Data {
 
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
+    updating = true;
+    // memory-mapped files are read-only: fall back to default access
+    if(textMap != null) {
+      try {
+        unmap();
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
+    }
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
-    if(opts.get(MainOptions.AUTOFLUSH)) {
+    try {
+      log();
+    } catch(final IOException ex) {
+      throw new BaseXException(ex);
+    }
+    if(wal != null) {
+      // updates are logged: no need to mark database as being updated
+      wal.begin();
+    } else if(opts.get(MainOptions.AUTOFLUSH)) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
@@ -239,16 +389,42 @@ public final class DiskData extends Data {
     // OPTIMIZE ALL / db:optimize(..., true) will close the database before this function is called
     if(closed) return;
 
-    // remove updating file
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
-    if(auto) {
-      final IOFile upd = meta.updateFile();
-      if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
-      if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+    try {
+      // apply buffered index updates before changes are logged or written
+      for(final IndexType type : new IndexType[] { IndexType.TEXT, IndexType.ATTRIBUTE }) {
+        final Index index = index(type);
+        if(index instanceof DiskValues) ((DiskValues) index).apply();
+      }
+      if(wal != null) {
+        // logged updates: commit changes
+        commit(auto);
+      } else {
+        // remove updating file
+        if(auto) {
+          final IOFile upd = meta.updateFile();
+          if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
+          if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+        }
+        // mapped databases: write all changes to disk before they are mapped again
+        flush(auto || meta.mmap);
+      }
+      // start or stop logging if the database options have been changed
+      log();
+      // unflushed changes: invalidate the blocks of concurrent readers
+      texts.invalidate();
+      values.invalidate();
+      if(meta.mmap) {
+        // hand over the lock: the database cannot be opened for writing in the meantime
+        map(((TableDiskAccess) table).closeShared());
+      }
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
     }
-
-    flush(auto);
-    if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
+    if(!meta.mmap && !table.lock(false)) {
+      throw Util.notExpected("Database '%': could not unlock.", meta.name);
+    }
+    updating = false;
   }
 
   @Override
@@ -261,6 +437,10 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(tokenIndex != null) tokenIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
+        // all changes have been written: truncate log
+        if(wal != null) wal.checkpoint(true);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -290,10 +470,23 @@ public final class DiskData extends Data {
     final long value = textRef(pre);
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
+    final long off = value & Compress.COMPRESS - 1;
+    if(textMap != null) {
+      final DataMapAccess dm = text ? textMap : valueMap;
+      final int l = dm.readNum(off);
+      // if text is compressed, read number of compressed bytes
+      return Compress.compressed(value) ? dm.readNum(off + Num.length(l)) : l;
+    }
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
-    // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    if(!updating) {
+      final int l = da.readNumAt(off);
+      return Compress.compressed(value) ? da.readNumAt(off + Num.length(l)) : l;
+    }
+    synchronized(da) {
+      final int l = da.readNum(off);
+      // if text is compressed, read number of compressed bytes
+      return Compress.compressed(value) ? da.readNum() : l;
+    }
   }
 
   /**
@@ -303,7 +496,11 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
+    final long off = offset & Compress.COMPRESS - 1;
+    final byte[] txt;
+    if(textMap != null) txt = (text ? textMap : valueMap).readToken(off);
+    else if(updating) txt = (text ? texts : values).readToken(off);
+    else txt = (text ? texts : values).readTokenAt(off);
     return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
   }
 
@@ -52,6 +52,12 @@ public final class MetaData {
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for memory-mapped read access. */
+  public boolean mmap;
+  /** Flag for logging updates in a write-ahead log. */
+  public boolean wal;
+  /** Flag for creating typed numeric indexes. */
+  public boolean numindex;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -85,6 +91,8 @@ public final class MetaData {
   public int maxlen;
   /** Split size for creating indexes. */
   public int splitsize;
+  /** Memory budget for creating indexes (megabytes). */
+  public int indexmemory;
 
   /** Language of full-text search index. */
   public Language language;
@@ -130,6 +138,9 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    mmap = options.get(MainOptions.MMAP);
+    wal = options.get(MainOptions.WAL);
+    numindex = options.get(MainOptions.NUMINDEX);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -139,6 +150,7 @@ public final class MetaData {
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
+    indexmemory = options.get(MainOptions.INDEXMEMORY);
   }
 
   // STATIC METHODS ===============================================================================
@@ -393,6 +405,9 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBool(v); break;
         case DBUPDIDX:   updindex = toBool(v); break;
         case DBAUTOOPT:  autooptimize = toBool(v); break;
+        case DBMMAP:     mmap = toBool(v); break;
+        case DBWAL:      wal = toBool(v); break;
+        case DBNUMIDX:   numindex = toBool(v); break;
         case DBTXTIDX:   textindex = toBool(v); break;
         case DBATVIDX:   attrindex = toBool(v); break;
         case DBTOKIDX:   tokenindex = toBool(v); break;
@@ -402,6 +417,7 @@ public final class MetaData {
         case DBTOKINC:   tokeninclude = v; break;
         case DBFTXINC:   ftinclude = v; break;
         case DBSPLITS:   splitsize = toInt(v); break;
+        case DBINDEXMEM: indexmemory = toInt(v); break;
         case DBCRTTXT:   createtext = toBool(v); break;
         case DBCRTATV:   createattr = toBool(v); break;
         case DBCRTTOK:   createtoken = toBool(v); break;
@@ -418,6 +434,11 @@ public final class MetaData {
     // check version of database indexes
     oldindex = !istorage.equals(ISTORAGE) &&
         new Version(istorage).compareTo(new Version(ISTORAGE)) > 0;
+    // full-text indexes of older versions have a different format: will be rebuilt by OPTIMIZE
+    if(ftindex && new Version(istorage).compareTo(new Version(FTSTORAGE)) < 0) {
+      ftindex = false;
+      createft = true;
+    }
     corrupt = dbfile(DATAUPD).exists();
   }
 
@@ -436,6 +457,9 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBMMAP,     mmap);
+    writeInfo(out, DBWAL,      wal);
+    writeInfo(out, DBNUMIDX,   numindex);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
@@ -445,6 +469,7 @@ public final class MetaData {
     writeInfo(out, DBTOKINC,   tokeninclude);
     writeInfo(out, DBFTXINC,   ftinclude);
     writeInfo(out, DBSPLITS,   splitsize);
+    writeInfo(out, DBINDEXMEM, indexmemory);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
@@ -473,8 +498,8 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
@@ -140,6 +140,21 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  MMAP(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.mmap; }
+  },
+  /** Property. */
+  WAL(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.wal; }
+  },
+  /** Property. */
+  NUMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.numindex; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
@@ -153,6 +168,11 @@ public enum MetaProp {
   SPLITSIZE(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.splitsize; }
+  },
+  /** Property. */
+  INDEXMEMORY(true) {
+    @Override
+    public Integer value(final MetaData meta) { return meta.indexmemory; }
   };
 
   /** Index property. */
@@ -0,0 +1,784 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.out.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Write-ahead log of a database, which allows the database files to be flushed lazily.
+ *
+ * <p>The log starts with a checkpoint: the lengths of all logged files and the contents of the
+ * files that are rewritten as a whole (meta data, table index, id mapping). When an update is
+ * committed, the buffered pages, the new file lengths and the new meta data are appended as a
+ * single group. The log is forced to disk before a database page is overwritten, and the
+ * original contents of pages that existed at the time of the checkpoint are logged before
+ * they are overwritten for the first time. Commits of concurrent writers are forced to disk
+ * together when the writers release their locks ({@link #sync()}).</p>
+ *
+ * <p>If the log exists when a database is opened, the database was not closed properly: the
+ * files are restored to the checkpoint, and all committed groups are replayed
+ * ({@link #recover(MetaData)}). Incomplete groups are discarded.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class WriteAheadLog {
+  /** Record: checkpoint. */
+  private static final int CHECKPOINT = 1;
+  /** Record: original contents of a page. */
+  private static final int UNDO = 2;
+  /** Record: new contents of a page. */
+  private static final int PAGE = 3;
+  /** Record: new file length. */
+  private static final int LENGTH = 4;
+  /** Record: new file contents. */
+  private static final int IMAGE = 5;
+  /** Record: end of a committed group. */
+  private static final int COMMIT = 6;
+  /** Record: changes that are not logged (index structures are rebuilt). */
+  private static final int UNLOGGED = 7;
+
+  /** Files that are completely rewritten and logged as images. */
+  private static final String[] IMAGES = { DATAINF, DATATBL + 'i', DATAIDP };
+  /** Maximum size of the pages logged for a single update. */
+  private static final int MAXPAGES = 1 << 24;
+  /** Maximum size of the log. If it is exceeded, a checkpoint will be performed. */
+  private static final long MAXSIZE = 1L << 26;
+
+  /** Commits of the current thread that have not been forced to disk yet. */
+  private static final ThreadLocal<HashMap<WriteAheadLog, Long>> PENDING =
+      ThreadLocal.withInitial(HashMap::new);
+
+  /** Meta data. */
+  private final MetaData meta;
+  /** Log file. */
+  private final RandomAccessFile file;
+  /** Logged files, indexed by their names. */
+  private final HashMap<String, Pages> files = new HashMap<>();
+  /** File lengths at the time of the last checkpoint. */
+  private final HashMap<String, Long> lengths = new HashMap<>();
+  /** Block positions of pages whose contents have been logged since the last checkpoint. */
+  private final HashMap<String, IntSet> logged = new HashMap<>();
+
+  /** Pages of the current update. */
+  private final ArrayOutput pages = new ArrayOutput();
+  /** Output stream for the pages of the current update. */
+  private final DataOutput out = new DataOutput(pages);
+  /** Names of the files of the logged pages. */
+  private final StringList names = new StringList();
+  /** Block positions of the logged pages. */
+  private final IntList blocks = new IntList();
+  /** Indicates if an update is running. */
+  private boolean updating;
+  /** Indicates if the pages of the current update exceed the maximum size. */
+  private boolean overflow;
+  /** Indicates if changes have been made that are not logged. */
+  private boolean unlogged;
+
+  /** Log position of the file start (the log is truncated with each checkpoint). */
+  private long base;
+  /** Size of the log file. */
+  private long size;
+  /** Log position up to which all records have been forced to disk. */
+  private long synced;
+  /** Indicates if the log is currently being forced to disk. */
+  private boolean syncing;
+
+  /**
+   * Constructor. A checkpoint must be performed after the logged files have been registered.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  WriteAheadLog(final MetaData meta) throws IOException {
+    this.meta = meta;
+    file = new RandomAccessFile(meta.dbfile(DATAWAL).file(), "rw");
+  }
+
+  /**
+   * Registers a logged file.
+   * @param name name of the file
+   * @param pg file
+   */
+  public synchronized void register(final String name, final Pages pg) {
+    files.put(name, pg);
+    pg.wal(this, name);
+  }
+
+  /**
+   * Unregisters a logged file.
+   * @param name name of the file
+   */
+  public synchronized void unregister(final String name) {
+    files.remove(name);
+  }
+
+  /**
+   * Starts an update.
+   */
+  synchronized void begin() {
+    updating = true;
+  }
+
+  /**
+   * Indicates that changes will be made that are not logged. Index structures will be dropped
+   * if the database is recovered before the next checkpoint.
+   * @throws IOException I/O exception
+   */
+  synchronized void unlogged() throws IOException {
+    if(unlogged) return;
+    unlogged = true;
+    append(new byte[] { UNLOGGED });
+    force();
+  }
+
+  /**
+   * Checks if the current update must be completed with a checkpoint.
+   * @return result of check
+   */
+  synchronized boolean checkpointRequired() {
+    return overflow || unlogged || size > MAXSIZE;
+  }
+
+  /**
+   * Called before a page of a logged file is overwritten. If the page existed at the time of the
+   * last checkpoint, its original contents are logged. If an update is running, the new contents
+   * are cached and logged with the next commit. The log is forced to disk before the method
+   * returns.
+   * @param name name of the file
+   * @param raf file to be written
+   * @param pos file position of the page
+   * @param data new contents
+   * @param len number of bytes to be written
+   * @throws IOException I/O exception
+   */
+  public void write(final String name, final RandomAccessFile raf, final long pos,
+      final byte[] data, final int len) throws IOException {
+    synchronized(this) {
+      if(updating && len > 0) page(name, pos, data, len);
+      undo(name, raf, pos, IO.BLOCKSIZE);
+    }
+    sync(end());
+  }
+
+  /**
+   * Called before a logged file is truncated. The original contents of the truncated bytes
+   * are logged, and the log is forced to disk before the method returns.
+   * @param name name of the file
+   * @param raf file to be truncated
+   * @param length new file length
+   * @throws IOException I/O exception
+   */
+  public void truncate(final String name, final RandomAccessFile raf, final long length)
+      throws IOException {
+    synchronized(this) {
+      final long cl = checkpointLength(name), end = Math.min(raf.length(), cl);
+      for(long pos = length; pos < end; pos += IO.BLOCKSIZE) {
+        final int len = (int) Math.min(IO.BLOCKSIZE, end - pos);
+        final byte[] data = new byte[len];
+        raf.seek(pos);
+        raf.readFully(data);
+        append(undo(name, pos, data));
+      }
+    }
+    sync(end());
+  }
+
+  /**
+   * Adds a page to the current update.
+   * @param name name of the file
+   * @param pos file position of the page
+   * @param data contents
+   * @param len number of bytes
+   * @throws IOException I/O exception
+   */
+  public synchronized void page(final String name, final long pos, final byte[] data,
+      final int len) throws IOException {
+    if(overflow) return;
+    if(pages.size() > MAXPAGES) {
+      overflow = true;
+      return;
+    }
+    final int block = (int) (pos / IO.BLOCKSIZE);
+    out.write1(PAGE);
+    writeString(name);
+    out.write8(pos);
+    out.write4(len);
+    out.write(data, 0, len);
+    names.add(name);
+    blocks.add(block);
+  }
+
+  /**
+   * Adds a file length to the current update.
+   * @param name name of the file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  public synchronized void length(final String name, final long length) throws IOException {
+    out.write1(LENGTH);
+    writeString(name);
+    out.write8(length);
+  }
+
+  /**
+   * Adds the contents of a file to the current update.
+   * @param name name of the file
+   * @param data file contents
+   * @throws IOException I/O exception
+   */
+  public synchronized void image(final String name, final byte[] data) throws IOException {
+    out.write1(IMAGE);
+    writeString(name);
+    out.write4(data.length);
+    out.write(data);
+  }
+
+  /**
+   * Commits the current update: logs the buffered pages of all files and appends the update to
+   * the log. The log will be forced to disk when {@link #sync()} is called by the current thread.
+   * @throws IOException I/O exception
+   */
+  synchronized void commit() throws IOException {
+    for(final Pages pg : files.values()) pg.log();
+    final byte[] group = pages.next();
+    append(group, commit(group));
+
+    final int bs = blocks.size();
+    for(int b = 0; b < bs; b++) logged(names.get(b)).add(blocks.get(b));
+    PENDING.get().put(this, end());
+    finish();
+  }
+
+  /**
+   * Forces all commits of the current thread to disk.
+   */
+  public static void sync() {
+    final HashMap<WriteAheadLog, Long> pending = PENDING.get();
+    if(pending.isEmpty()) return;
+    for(final Map.Entry<WriteAheadLog, Long> entry : pending.entrySet()) {
+      try {
+        entry.getKey().sync(entry.getValue());
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+    pending.clear();
+  }
+
+  /**
+   * Forces all records to disk that have been appended so far.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    sync(end());
+  }
+
+  /**
+   * Performs a checkpoint. All database files must have been written before.
+   * The log is truncated.
+   * @param sync force database files to disk
+   * @throws IOException I/O exception
+   */
+  synchronized void checkpoint(final boolean sync) throws IOException {
+    if(sync) {
+      for(final IOFile child : meta.path.children()) {
+        if(child.isDir()) continue;
+        try(RandomAccessFile raf = new RandomAccessFile(child.file(), "rw")) {
+          raf.getFD().sync();
+        }
+      }
+    }
+
+    // create new log, starting with the current file lengths and images
+    lengths.clear();
+    logged.clear();
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput dout = new DataOutput(ao)) {
+      dout.write1(CHECKPOINT);
+      dout.write4(files.size());
+      for(final String name : files.keySet()) {
+        final long length = meta.dbfile(name).length();
+        writeString(dout, name);
+        dout.write8(length);
+        lengths.put(name, length);
+      }
+      for(final String name : IMAGES) {
+        final IOFile img = meta.dbfile(name);
+        if(!img.exists()) continue;
+        final byte[] data = img.read();
+        dout.write1(IMAGE);
+        writeString(dout, name);
+        dout.write4(data.length);
+        dout.write(data);
+      }
+    }
+    final byte[] group = ao.finish();
+    base += size;
+    size = 0;
+    file.setLength(0);
+    append(group, commit(group));
+    force();
+    unlogged = false;
+    finish();
+  }
+
+  /**
+   * Closes and deletes the log. A checkpoint must have been performed before.
+   * @throws IOException I/O exception
+   */
+  synchronized void close() throws IOException {
+    file.close();
+    synced = Long.MAX_VALUE;
+    notifyAll();
+    meta.dbfile(DATAWAL).delete();
+  }
+
+  /**
+   * Restores a database that has not been closed properly. All files are reset to the last
+   * checkpoint, and all committed groups are replayed.
+   * @param meta meta data
+   * @return {@code true} if changes have been made that are not logged, and if the index
+   *   structures must be dropped
+   * @throws IOException I/O exception
+   */
+  static boolean recover(final MetaData meta) throws IOException {
+    final IOFile log = meta.dbfile(DATAWAL);
+    if(!log.exists()) return false;
+
+    // skip recovery if the database is opened by another process
+    try(RandomAccessFile tbl = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
+        FileLock lock = tbl.getChannel().tryLock()) {
+      return lock != null && recover(meta, log);
+    } catch(final OverlappingFileLockException ex) {
+      Util.debug(ex);
+      return false;
+    }
+  }
+
+  /**
+   * Restores a database.
+   * @param meta meta data
+   * @param log log file
+   * @return {@code true} if the index structures must be dropped
+   * @throws IOException I/O exception
+   */
+  private static boolean recover(final MetaData meta, final IOFile log) throws IOException {
+    final byte[] data = log.read();
+    final ArrayList<Record> undo = new ArrayList<>(), redo = new ArrayList<>();
+    final ArrayList<Record> group = new ArrayList<>();
+    final HashMap<String, Long> lens = new HashMap<>();
+    boolean checkpoint = false, unlogged = false;
+    final Input in = new Input(data);
+    try {
+      int start = 0;
+      while(in.pos < data.length) {
+        final int type = in.read1();
+        if(type == UNLOGGED && group.isEmpty()) {
+          unlogged = true;
+          start = in.pos;
+        } else if(type == UNDO && group.isEmpty()) {
+          final Record rec = new Record(UNDO, in.string(), in.read8(), in.bytes());
+          if(in.read4() != crc(data, start, in.pos - 4)) break;
+          undo.add(rec);
+          start = in.pos;
+        } else if(type == CHECKPOINT && !checkpoint) {
+          final int fs = in.read4();
+          for(int f = 0; f < fs; f++) {
+            final String name = in.string();
+            lens.put(name, in.read8());
+          }
+          group.add(new Record(CHECKPOINT, null, 0, null));
+        } else if(type == PAGE && checkpoint) {
+          group.add(new Record(PAGE, in.string(), in.read8(), in.bytes()));
+        } else if(type == LENGTH && checkpoint) {
+          group.add(new Record(LENGTH, in.string(), in.read8(), null));
+        } else if(type == IMAGE) {
+          group.add(new Record(IMAGE, in.string(), 0, in.bytes()));
+        } else if(type == COMMIT && !group.isEmpty()) {
+          if(in.read4() != crc(data, start, in.pos - 5)) break;
+          redo.addAll(group);
+          group.clear();
+          checkpoint = true;
+          start = in.pos;
+        } else {
+          break;
+        }
+      }
+    } catch(final EOFException ex) {
+      // incomplete record: discard remaining records
+      Util.debug(ex);
+    }
+
+    // no complete checkpoint: files have not been changed since the last checkpoint
+    if(checkpoint) {
+      Util.debug("Database '%': restoring % pages, replaying % records.", meta.name,
+          undo.size(), redo.size());
+      final HashMap<String, RandomAccessFile> rafs = new HashMap<>();
+      try {
+        // restore original pages (oldest record last) and file lengths
+        for(int u = undo.size() - 1; u >= 0; u--) undo.get(u).apply(meta, rafs);
+        for(final Map.Entry<String, Long> entry : lens.entrySet()) {
+          open(entry.getKey(), meta, rafs).setLength(entry.getValue());
+        }
+        // replay committed groups
+        for(final Record rec : redo) rec.apply(meta, rafs);
+        for(final RandomAccessFile raf : rafs.values()) raf.getFD().sync();
+      } finally {
+        for(final RandomAccessFile raf : rafs.values()) raf.close();
+      }
+      // full-text journal is not logged: updatable full-text index will be dropped
+      meta.dbfile(DATAFTX + 'd').delete();
+    }
+    if(!log.delete()) throw new IOException("Log file could not be deleted: " + log);
+    return unlogged;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Logs the original contents of a page if the page existed at the time of the last checkpoint,
+   * and if it has not been logged before.
+   * @param name name of the file
+   * @param raf file
+   * @param pos file position of the page
+   * @param len maximum number of bytes
+   * @throws IOException I/O exception
+   */
+  private void undo(final String name, final RandomAccessFile raf, final long pos,
+      final int len) throws IOException {
+    final long end = Math.min(raf.length(), checkpointLength(name));
+    if(pos >= end || !logged(name).add((int) (pos / IO.BLOCKSIZE))) return;
+
+    final byte[] data = new byte[(int) Math.min(len, end - pos)];
+    raf.seek(pos);
+    raf.readFully(data);
+    append(undo(name, pos, data));
+  }
+
+  /**
+   * Returns an undo record.
+   * @param name name of the file
+   * @param pos file position
+   * @param data original contents
+   * @return record
+   * @throws IOException I/O exception
+   */
+  private static byte[] undo(final String name, final long pos, final byte[] data)
+      throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput dout = new DataOutput(ao)) {
+      dout.write1(UNDO);
+      writeString(dout, name);
+      dout.write8(pos);
+      dout.write4(data.length);
+      dout.write(data);
+      final byte[] rec = ao.toArray();
+      dout.write4(crc(rec, 0, rec.length));
+    }
+    return ao.finish();
+  }
+
+  /**
+   * Returns the commit record for a group.
+   * @param group group
+   * @return record
+   */
+  private static byte[] commit(final byte[] group) {
+    final int crc = crc(group, 0, group.length);
+    return new byte[] { COMMIT, (byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8),
+      (byte) crc };
+  }
+
+  /**
+   * Resets the state of the current update.
+   */
+  private void finish() {
+    pages.reset();
+    names.reset();
+    blocks.reset();
+    updating = false;
+    overflow = false;
+  }
+
+  /**
+   * Returns the length of a file at the time of the last checkpoint.
+   * @param name name of the file
+   * @return length ({@code 0} if the file was registered later)
+   */
+  private long checkpointLength(final String name) {
+    final Long length = lengths.get(name);
+    return length != null ? length : 0;
+  }
+
+  /**
+   * Returns the block positions of the logged pages of a file.
+   * @param name name of the file
+   * @return positions
+   */
+  private IntSet logged(final String name) {
+    return logged.computeIfAbsent(name, n -> new IntSet());
+  }
+
+  /**
+   * Appends records to the log.
+   * @param records records
+   * @throws IOException I/O exception
+   */
+  private synchronized void append(final byte[]... records) throws IOException {
+    file.seek(size);
+    for(final byte[] rec : records) {
+      file.write(rec);
+      size += rec.length;
+    }
+  }
+
+  /**
+   * Returns the log position after the last appended record.
+   * @return position
+   */
+  private synchronized long end() {
+    return base + size;
+  }
+
+  /**
+   * Forces all appended records to disk.
+   * @throws IOException I/O exception
+   */
+  private synchronized void force() throws IOException {
+    file.getFD().sync();
+    synced = Math.max(synced, end());
+  }
+
+  /**
+   * Waits until all records up to the specified position have been forced to disk. If no other
+   * thread is currently forcing the log, the current thread forces all records that have been
+   * appended so far (group commit).
+   * @param pos log position
+   * @throws IOException I/O exception
+   */
+  private void sync(final long pos) throws IOException {
+    while(true) {
+      final long end;
+      synchronized(this) {
+        if(synced >= pos) return;
+        if(syncing) {
+          try {
+            wait();
+          } catch(final InterruptedException ex) {
+            throw new IOException(ex);
+          }
+          continue;
+        }
+        syncing = true;
+        end = end();
+      }
+      boolean ok = false;
+      try {
+        file.getChannel().force(false);
+        ok = true;
+      } finally {
+        synchronized(this) {
+          syncing = false;
+          if(ok) synced = Math.max(synced, end);
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a string to the page buffer.
+   * @param string string
+   * @throws IOException I/O exception
+   */
+  private void writeString(final String string) throws IOException {
+    writeString(out, string);
+  }
+
+  /**
+   * Writes a string.
+   * @param dout output stream
+   * @param string string
+   * @throws IOException I/O exception
+   */
+  private static void writeString(final DataOutput dout, final String string)
+      throws IOException {
+    final byte[] token = Token.token(string);
+    dout.write4(token.length);
+    dout.write(token);
+  }
+
+  /**
+   * Computes the checksum of a byte range.
+   * @param data data
+   * @param start start position
+   * @param end end position
+   * @return checksum
+   */
+  private static int crc(final byte[] data, final int start, final int end) {
+    final CRC32 crc = new CRC32();
+    crc.update(data, start, end - start);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Returns a file that is modified during recovery.
+   * @param name name of the file
+   * @param meta meta data
+   * @param rafs opened files
+   * @return file
+   * @throws IOException I/O exception
+   */
+  private static RandomAccessFile open(final String name, final MetaData meta,
+      final HashMap<String, RandomAccessFile> rafs) throws IOException {
+    RandomAccessFile raf = rafs.get(name);
+    if(raf == null) {
+      raf = new RandomAccessFile(meta.dbfile(name).file(), "rw");
+      rafs.put(name, raf);
+    }
+    return raf;
+  }
+
+  /**
+   * File whose pages are logged.
+   */
+  public interface Pages {
+    /**
+     * Assigns the log.
+     * @param wal write-ahead log
+     * @param name name of the file
+     */
+    void wal(WriteAheadLog wal, String name);
+
+    /**
+     * Adds all buffered pages and the file length to the current update.
+     * @throws IOException I/O exception
+     */
+    void log() throws IOException;
+  }
+
+  /**
+   * Record that is applied during recovery.
+   */
+  private static final class Record {
+    /** Type. */
+    private final int type;
+    /** Name of the file. */
+    private final String name;
+    /** File position or length. */
+    private final long pos;
+    /** Contents ({@code null} for lengths). */
+    private final byte[] data;
+
+    /**
+     * Constructor.
+     * @param type type
+     * @param name name of the file
+     * @param pos file position or length
+     * @param data contents
+     */
+    private Record(final int type, final String name, final long pos, final byte[] data) {
+      this.type = type;
+      this.name = name;
+      this.pos = pos;
+      this.data = data;
+    }
+
+    /**
+     * Applies the record.
+     * @param meta meta data
+     * @param rafs opened files
+     * @throws IOException I/O exception
+     */
+    private void apply(final MetaData meta, final HashMap<String, RandomAccessFile> rafs)
+        throws IOException {
+      if(type == CHECKPOINT) return;
+      final RandomAccessFile raf = open(name, meta, rafs);
+      if(type == LENGTH) {
+        raf.setLength(pos);
+      } else {
+        if(type == IMAGE) raf.setLength(data.length);
+        raf.seek(pos);
+        raf.write(data);
+      }
+    }
+  }
+
+  /**
+   * Input for parsing the log.
+   */
+  private static final class Input {
+    /** Log contents. */
+    private final byte[] data;
+    /** Current position. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param data log contents
+     */
+    private Input(final byte[] data) {
+      this.data = data;
+    }
+
+    /**
+     * Reads a byte.
+     * @return byte
+     * @throws EOFException end of input
+     */
+    private int read1() throws EOFException {
+      if(pos >= data.length) throw new EOFException();
+      return data[pos++] & 0xFF;
+    }
+
+    /**
+     * Reads an integer.
+     * @return integer
+     * @throws EOFException end of input
+     */
+    private int read4() throws EOFException {
+      return (read1() << 24) + (read1() << 16) + (read1() << 8) + read1();
+    }
+
+    /**
+     * Reads a long value.
+     * @return long value
+     * @throws EOFException end of input
+     */
+    private long read8() throws EOFException {
+      return ((long) read4() << 32) + (read4() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Reads a byte array.
+     * @return byte array
+     * @throws EOFException end of input
+     */
+    private byte[] bytes() throws EOFException {
+      final int len = read4();
+      if(len < 0 || len > data.length - pos) throw new EOFException();
+      final byte[] bytes = Arrays.copyOfRange(data, pos, pos + len);
+      pos += len;
+      return bytes;
+    }
+
+    /**
+     * Reads a string.
+     * @return string
+     * @throws EOFException end of input
+     */
+    private String string() throws EOFException {
+      return Token.string(bytes());
+    }
+  }
+}
@@ -3,6 +3,8 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -14,10 +16,18 @@ import org.basex.util.*;
  * This interface defines the functions which are needed for building
  * new index structures.
  *
+ * Index structures can be built concurrently (see {@link #parallel(int, Task)}). Unless a fixed
+ * split size is specified, partial index structures are written to disk as soon as the memory
+ * occupied by their keys and ids exceeds a memory budget (see {@link #budget(MetaData)}).
+ * The budget is shared by all builders that are running at the same time.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Job {
+  /** Number of running builders that share the memory budget. */
+  private static final AtomicInteger RUNNING = new AtomicInteger();
+
   /** Performance. */
   private final Performance perf = new Performance();
 
@@ -32,8 +42,8 @@ public abstract class IndexBuilder extends Job {
 
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
-  /** Maximum memory to consume. */
-  private final long maxMem = (long) (Runtime.getRuntime().maxMemory() * 0.8);
+  /** Memory budget (bytes). */
+  private final long budget;
 
   /** Names and namespace uri of element or attributes to include. */
   private final IndexNames includeNames;
@@ -44,8 +54,8 @@ public abstract class IndexBuilder extends Job {
   protected long count;
   /** Number of partial index structures. */
   protected int splits;
-  /** Threshold for freeing memory when estimating main memory consumption. */
-  private int gcCount;
+  /** Indicates if the builder shares the memory budget. */
+  private boolean running;
 
   /**
    * Constructor.
@@ -56,12 +66,20 @@ public abstract class IndexBuilder extends Job {
     this.data = data;
     this.type = type;
     splitSize = (int) Math.min(Integer.MAX_VALUE, (long) data.meta.splitsize * splitFactor());
+    budget = budget(data.meta);
     size = data.meta.size;
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
+  }
 
-    // run garbage collection if memory maximum is already reached
-    if(Performance.memory() >= maxMem) clean();
+  /**
+   * Returns the memory budget for building the index structures of a database.
+   * @param meta meta data
+   * @return budget (bytes)
+   */
+  public static long budget(final MetaData meta) {
+    return meta.indexmemory > 0 ? (long) meta.indexmemory << 20 :
+      Runtime.getRuntime().maxMemory() / 3;
   }
 
   /**
@@ -69,7 +87,78 @@ public abstract class IndexBuilder extends Job {
    * @return index instance
    * @throws IOException I/O Exception
    */
-  public abstract ValueIndex build() throws IOException;
+  public final ValueIndex build() throws IOException {
+    Util.debug(detailedInfo());
+    try {
+      return index();
+    } finally {
+      unregister();
+    }
+  }
+
+  /**
+   * Builds the index structure and returns an index instance.
+   * @return index instance
+   * @throws IOException I/O Exception
+   */
+  protected abstract ValueIndex index() throws IOException;
+
+  /**
+   * Runs the specified number of tasks in parallel and waits until all of them have been finished.
+   * The first task is run by the current thread.
+   * @param tasks number of tasks
+   * @param task task to be run (the task index is passed on as argument)
+   * @throws IOException first I/O exception that was raised by a task
+   */
+  public static void parallel(final int tasks, final Task task) throws IOException {
+    final Throwable[] errors = new Throwable[tasks];
+    final ArrayList<Thread> threads = new ArrayList<>(tasks);
+    for(int t = 1; t < tasks; t++) {
+      final int i = t;
+      final Thread thread = new Thread(() -> {
+        try {
+          task.run(i);
+        } catch(final Throwable th) {
+          errors[i] = th;
+        }
+      });
+      thread.setDaemon(true);
+      thread.start();
+      threads.add(thread);
+    }
+    try {
+      if(tasks > 0) task.run(0);
+    } catch(final Throwable th) {
+      errors[0] = th;
+    }
+    for(final Thread thread : threads) {
+      while(true) {
+        try {
+          thread.join();
+          break;
+        } catch(final InterruptedException ex) {
+          Util.debug(ex);
+        }
+      }
+    }
+
+    // pass on first error
+    for(final Throwable th : errors) {
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      if(th != null) throw Util.notExpected(th);
+    }
+  }
+
+  /**
+   * Returns the number of partitions in which the nodes can be indexed in parallel.
+   * @param min minimum number of nodes per partition
+   * @return number of partitions
+   */
+  protected final int partitions(final int min) {
+    return Math.max(1, Math.min(size / min, Runtime.getRuntime().availableProcessors()));
+  }
 
   /**
    * Checks if the command was interrupted, and prints some debug output.
@@ -92,36 +181,34 @@ public abstract class IndexBuilder extends Job {
   /**
    * Decides whether in-memory temporary index structures are so large
    * that we must flush them to disk before continuing.
+   * @param memory memory occupied by the temporary index structures (bytes)
    * @return true if structures shall be flushed to disk
-   * @throws IOException I/O Exception
    */
-  protected final boolean splitRequired() throws IOException {
+  protected final boolean splitRequired(final long memory) {
     // checks if a fixed split size has been specified
     final boolean split;
     if(splitSize > 0) {
       split = count >= (splits + 1L) * splitSize;
     } else {
-      // if not, estimate how much main memory is left
-      split = Performance.memory() >= maxMem;
-      // stop operation if index splitting degenerates
-      int gc = gcCount;
-      if(split) {
-        if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
-        gc = 30;
-      } else {
-        gc = Math.max(-1, gc - 1);
+      // if not, compare occupied memory with the share of the budget
+      if(!running) {
+        RUNNING.incrementAndGet();
+        running = true;
       }
-      gcCount = gc;
+      split = memory >= budget / Math.max(1, RUNNING.get());
     }
     if(split && Prop.debug) Util.err("|");
     return split;
   }
 
   /**
-   * Performs memory cleanup after writing partial memory if necessary.
+   * Unregisters the builder if it shares the memory budget.
    */
-  protected final void clean() {
-    if(splitSize <= 0) Performance.gc(2);
+  protected final void unregister() {
+    if(running) {
+      RUNNING.decrementAndGet();
+      running = false;
+    }
   }
 
   /**
@@ -173,4 +260,17 @@ public abstract class IndexBuilder extends Job {
       default: throw Util.notExpected();
     }
   }
+
+  /**
+   * Task that is run in parallel.
+   */
+  @FunctionalInterface
+  public interface Task {
+    /**
+     * Runs the task.
+     * @param index index of the task
+     * @throws IOException I/O exception
+     */
+    void run(int index) throws IOException;
+  }
 }
@@ -15,6 +15,10 @@ import org.basex.util.list.*;
 public class IndexTree {
   /** Factor for resize. */
   protected static final double FACTOR = 1.2;
+  /** Estimated memory occupied by a tree node or map entry, excluding keys and ids (bytes). */
+  protected static final int NODE = 64;
+  /** Estimated memory occupied by an array, excluding its contents (bytes). */
+  protected static final int ARRAY = 24;
 
   /** Keys saved in the tree. */
   public final TokenList keys = new TokenList(FACTOR);
@@ -25,6 +29,8 @@ public class IndexTree {
   protected TokenIntMap maps = new TokenIntMap();
   /** Current iterator node. */
   protected int cn;
+  /** Estimated memory occupied by the keys and ids of the tree (bytes). */
+  protected long memory;
 
   /** Tree structure [left, right, parent]. */
   private final IntList tree = new IntList(FACTOR);
@@ -80,6 +86,7 @@ public class IndexTree {
           final int i = maps.get(Num.num(n));
           if(i < 0) {
             maps.put(Num.num(n), ids.size());
+            memory += NODE;
             addNewIds(id, pos);
           } else {
             addIds(id, pos, i);
@@ -111,6 +118,14 @@ public class IndexTree {
     return ids.size();
   }
 
+  /**
+   * Returns the estimated memory occupied by the keys and ids of the tree.
+   * @return memory (bytes)
+   */
+  public final long memory() {
+    return memory;
+  }
+
   /**
    * Initializes the index iterator.
    * will be removed to save memory.
@@ -160,6 +175,7 @@ public class IndexTree {
     byte[] vs = Num.newNum(id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.add(vs);
+    memory += ARRAY + vs.length;
   }
 
   /**
@@ -169,10 +185,11 @@ public class IndexTree {
    * @param n id list to append to
    */
   private void addIds(final int id, final int pos, final int n) {
-    byte[] vs = ids.get(n);
-    vs = Num.add(vs, id);
+    final byte[] old = ids.get(n);
+    byte[] vs = Num.add(old, id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.set(n, vs);
+    memory += vs.length - old.length;
   }
 
   /**
@@ -192,8 +209,12 @@ public class IndexTree {
     tree.add(par); // parent node
     mod.add(false);
     keys.add(key);
+    memory += NODE + ARRAY + key.length;
     addNewIds(id, pos);
-    if(!exist) maps.put(Num.num(keys.size() - 1), ids.size() - 1);
+    if(!exist) {
+      maps.put(Num.num(keys.size() - 1), ids.size() - 1);
+      memory += NODE;
+    }
     return mod.size() - 1;
   }
 
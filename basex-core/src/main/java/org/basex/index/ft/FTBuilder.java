@@ -10,6 +10,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.list.*;
@@ -27,6 +28,10 @@ public final class FTBuilder extends IndexBuilder {
   private final FTLexer lexer;
   /** Number of indexed tokens. */
   private long ntok;
+  /** Memory occupied by the keys that remain in the trees after a split (bytes). */
+  private long keys;
+  /** Indicates if score bounds are written (not supported by updatable indexes). */
+  private final boolean bounds;
 
   /**
    * Constructor.
@@ -51,12 +56,15 @@ public final class FTBuilder extends IndexBuilder {
       throw new BaseXException(NO_STEMMER_X, fto.ln);
 
     lexer = new FTLexer(fto);
+    bounds = !meta.updindex;
   }
 
   @Override
-  public FTIndex build() throws IOException {
-    Util.debug(detailedInfo());
-
+  protected FTIndex index() throws IOException {
+    // updatable index: reference ids instead of pre values
+    final boolean updindex = data.meta.updindex;
+    // remove score bounds of a previous index
+    if(!bounds) data.meta.dbfile(DATAFTX + 's').delete();
     try {
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
@@ -64,6 +72,7 @@ public final class FTBuilder extends IndexBuilder {
 
         // current lexer position
         final StopWords sw = lexer.ftOpt().sw;
+        final int length = data.textLen(pre, true);
         lexer.init(data.text(pre, true));
         int pos = -1;
         while(lexer.hasNext()) {
@@ -72,11 +81,11 @@ public final class FTBuilder extends IndexBuilder {
           // skip too long and stopword tokens
           if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
             // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
+            if((ntok++ & 0xFFF) == 0 && splitRequired(tree.memory() - keys)) {
               writeIndex(true);
-              clean();
+              keys = tree.memory();
             }
-            tree.index(tok, pre, pos, splits);
+            tree.index(tok, updindex ? data.id(pre) : pre, pos, splits, length);
             count++;
           }
         }
@@ -84,9 +93,12 @@ public final class FTBuilder extends IndexBuilder {
 
       // finalize partial or all index structures
       write(splits > 0);
+      writeGrams(data.meta, 'x', 'y', 'g');
 
       finishIndex();
-      return new FTIndex(data);
+      if(!updindex) return new FTIndex(data);
+      UpdatableFTIndex.init(data.meta, count);
+      return new UpdatableFTIndex(data);
 
     } catch(final Throwable th) {
       // drop index files
@@ -107,7 +119,8 @@ public final class FTBuilder extends IndexBuilder {
     // merges temporary index files
     try(DataOutput outX = new DataOutput(data.meta.dbfile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbfile(DATAFTX + 'y'));
-        DataOutput outZ = new DataOutput(data.meta.dbfile(DATAFTX + 'z'))) {
+        DataOutput outZ = new DataOutput(data.meta.dbfile(DATAFTX + 'z'));
+        DataOutput outS = output(DATAFTX)) {
 
       final IntList ind = new IntList();
 
@@ -144,12 +157,28 @@ public final class FTBuilder extends IndexBuilder {
         // pointer on full-text data
         outY.write5(outZ.size());
         // merge and write data size
-        outY.write4(merge(outZ, il, v));
+        outY.write4(merge(outZ, outS, il, v));
       }
       writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
     }
   }
 
+  /**
+   * Writes the trigrams of the indexed tokens to disk.
+   * @param meta meta data
+   * @param x suffix of the token length index
+   * @param y suffix of the token file
+   * @param g suffix of the trigram file
+   * @throws IOException I/O exception
+   */
+  static void writeGrams(final MetaData meta, final char x, final char y, final char g)
+      throws IOException {
+    try(DataAccess inX = new DataAccess(meta.dbfile(DATAFTX + x));
+        DataAccess inY = new DataAccess(meta.dbfile(DATAFTX + y))) {
+      FTGrams.write(inX, inY, meta.maxlen, meta.dbfile(DATAFTX + g));
+    }
+  }
+
   /**
    * Writes the token length index to disk.
    * @param outX output
@@ -158,7 +187,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
@@ -180,7 +209,8 @@ public final class FTBuilder extends IndexBuilder {
     final String name = DATAFTX + (partial ? splits : "");
     try(DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
-        DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
+        DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'));
+        DataOutput outS = output(name)) {
 
       final IntList ind = new IntList();
       tree.init();
@@ -202,8 +232,12 @@ public final class FTBuilder extends IndexBuilder {
         outY.write5(dr);
         // write full-text data size (number of pre values)
         outY.write4(t.nextNumPre());
-        // write compressed pre and pos arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
+        // write compressed pre and pos arrays and score bounds
+        final int max = writeFTData(outZ, t.nextPres(), t.nextPoss());
+        if(outS != null) {
+          outS.write4(max);
+          outS.write4(t.nextLength());
+        }
 
         dr = outZ.size();
         tr = (int) outY.size();
@@ -216,61 +250,67 @@ public final class FTBuilder extends IndexBuilder {
     splits++;
   }
 
+  /**
+   * Returns an output stream for the score bounds.
+   * @param name name of the index files
+   * @return output stream, or {@code null} if no bounds are written
+   * @throws IOException I/O exception
+   */
+  private DataOutput output(final String name) throws IOException {
+    return bounds ? new DataOutput(data.meta.dbfile(name + 's')) : null;
+  }
+
   /**
    * Merges temporary indexes for the current token.
    * @param out full-text data
+   * @param outS score bounds (can be {@code null})
    * @param il array mapping
    * @param v full-text list
    * @return written size
    * @throws IOException I/O exception
    */
-  private static int merge(final DataOutput out, final IntList il, final FTList[] v)
-      throws IOException {
+  private static int merge(final DataOutput out, final DataOutput outS, final IntList il,
+      final FTList[] v) throws IOException {
 
-    final TokenBuilder tbp = new TokenBuilder();
-    final TokenBuilder tbo = new TokenBuilder();
-    tbp.add(new byte[4]);
-    tbo.add(new byte[4]);
     // merge full-text data of all sorted lists with the same token
-    int s = 0;
+    final IntList pr = new IntList(), ps = new IntList();
+    int length = Integer.MAX_VALUE;
     final int is = il.size();
     for(int j = 0; j < is; ++j) {
       final int m = il.get(j);
-      for(final int p : v[m].prv) tbp.add(Num.num(p));
-      for(final int p : v[m].pov) tbo.add(Num.num(p));
-      s += v[m].size;
+      pr.add(v[m].prv);
+      ps.add(v[m].pov);
+      length = Math.min(length, v[m].length);
       v[m].next();
     }
-    // write compressed pre and pos arrays
-    final byte[] pr = tbp.finish();
-    Num.size(pr, pr.length);
-    final byte[] po = tbo.finish();
-    Num.size(po, po.length);
-
-    // write full-text data
-    writeFTData(out, pr, po);
-    return s;
+
+    // write full-text data and score bounds
+    final int max = FTPostings.write(out, pr, ps);
+    if(outS != null) {
+      outS.write4(max);
+      outS.write4(length);
+    }
+    return pr.size();
   }
 
   /**
    * Writes full-text data for a single token to disk.
-   * Format: {@code score? pre1 pos1 pre2 pos2 ... (0 score)? pre...}
    * @param out DataOutput for disk access
    * @param vpre compressed pre values
    * @param vpos compressed pos values
+   * @return maximum number of occurrences of the token in a single text
    * @throws IOException IOException
    */
-  private static void writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos)
+  private static int writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos)
       throws IOException {
 
-    int np = 4, pp = 4;
+    final IntList pr = new IntList(), ps = new IntList();
     final int ns = Num.size(vpre);
-    while(np < ns) {
-      // full-text data is stored here, with -scoreU, pre1, pos1, ...,
-      // -scoreU, preU, posU
-      for(final int l = np + Num.length(vpre, np); np < l; ++np) out.write(vpre[np]);
-      for(final int l = pp + Num.length(vpos, pp); pp < l; ++pp) out.write(vpos[pp]);
+    for(int np = 4, pp = 4; np < ns; np += Num.length(vpre, np), pp += Num.length(vpos, pp)) {
+      pr.add(Num.get(vpre, np));
+      ps.add(Num.get(vpos, pp));
     }
+    return FTPostings.write(out, pr, ps);
   }
 
   /**
@@ -0,0 +1,170 @@
+package org.basex.index.ft;
+
+import static org.basex.util.Token.*;
+
+import java.util.function.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * In-memory segment of an updatable full-text index. The segment contains the index entries of
+ * all nodes that have been added since it was created, and the ids of all nodes that have been
+ * deleted in the meantime. The ids invalidate the index entries of older segments.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Ids of deleted nodes. */
+  final IntSet deleted = new IntSet();
+  /** Index entries, indexed by tokens: ids and positions ({@code id1, pos1, id2, pos2, ...}). */
+  private final TokenObjMap<IntList> entries = new TokenObjMap<>();
+  /** Number of index entries. */
+  private int size;
+
+  /**
+   * Adds an index entry.
+   * @param token token
+   * @param id id of the text node
+   * @param pos position of the token
+   */
+  void add(final byte[] token, final int id, final int pos) {
+    IntList list = entries.get(token);
+    if(list == null) {
+      list = new IntList(2);
+      entries.put(token, list);
+    }
+    list.add(id).add(pos);
+    size++;
+  }
+
+  /**
+   * Deletes all entries of a node. Entries of older segments are invalidated.
+   * @param tokens distinct tokens of the text node
+   * @param id id of the text node
+   */
+  void delete(final TokenList tokens, final int id) {
+    for(final byte[] token : tokens) {
+      final IntList list = entries.get(token);
+      if(list == null) continue;
+      final int ls = list.size();
+      int l = 0;
+      for(int i = 0; i < ls; i += 2) {
+        if(list.get(i) == id) continue;
+        list.set(l++, list.get(i));
+        list.set(l++, list.get(i + 1));
+      }
+      list.size(l);
+      size -= ls - l >> 1;
+    }
+    deleted.add(id);
+  }
+
+  /**
+   * Adds the ids and positions of a token to the specified lists.
+   * @param token token
+   * @param newer newer segment with deleted ids (can be {@code null})
+   * @param ids ids
+   * @param pos positions
+   */
+  void get(final byte[] token, final FTDelta newer, final IntList ids, final IntList pos) {
+    final IntList list = entries.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int i = 0; i < ls; i += 2) {
+      final int id = list.get(i);
+      if(newer != null && newer.deleted.contains(id)) continue;
+      ids.add(id);
+      pos.add(list.get(i + 1));
+    }
+  }
+
+  /**
+   * Adds the ids and positions of all matching tokens to the specified lists.
+   * @param matches token filter
+   * @param newer newer segment with deleted ids (can be {@code null})
+   * @param ids ids
+   * @param pos positions
+   */
+  void get(final Predicate<byte[]> matches, final FTDelta newer, final IntList ids,
+      final IntList pos) {
+    for(final byte[] token : entries) {
+      if(token != null && matches.test(token)) get(token, newer, ids, pos);
+    }
+  }
+
+  /**
+   * Returns the number of entries of a token.
+   * @param token token
+   * @return number of entries
+   */
+  int count(final byte[] token) {
+    final IntList list = entries.get(token);
+    return list != null ? list.size() >> 1 : 0;
+  }
+
+  /**
+   * Returns all tokens with entries, in the order of the index files (length, bytes).
+   * @return tokens
+   */
+  TokenList tokens() {
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : entries) {
+      if(token != null && count(token) != 0) tokens.add(token);
+    }
+    return tokens.sort(FTDelta::compare, true);
+  }
+
+  /**
+   * Compares two tokens in the order of the index files.
+   * @param token1 first token
+   * @param token2 second token
+   * @return result of comparison
+   */
+  static int compare(final byte[] token1, final byte[] token2) {
+    final int d = token1.length - token2.length;
+    return d != 0 ? d : diff(token1, token2);
+  }
+
+  /**
+   * Merges the entries of an older segment into this segment.
+   * @param older older segment
+   */
+  void merge(final FTDelta older) {
+    for(final byte[] token : older.entries) {
+      if(token == null) continue;
+      final IntList list = older.entries.get(token);
+      final int ls = list.size();
+      for(int i = 0; i < ls; i += 2) {
+        final int id = list.get(i);
+        if(!deleted.contains(id)) add(token, id, list.get(i + 1));
+      }
+    }
+    for(final int id : older.deleted.toArray()) deleted.add(id);
+  }
+
+  /**
+   * Returns the number of updates: added entries and deleted nodes.
+   * @return number of updates
+   */
+  int updates() {
+    return size + deleted.size();
+  }
+
+  /**
+   * Returns the number of index entries.
+   * @return number of entries
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the segment contains no updates.
+   * @return result of check
+   */
+  boolean isEmpty() {
+    return updates() == 0;
+  }
+}
@@ -0,0 +1,233 @@
+package org.basex.index.ft;
+
+import static org.basex.util.FTToken.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.expr.ft.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class provides access to the trigrams of the tokens of a full-text index.
+ * It is used to reduce the number of tokens that need to be compared in fuzzy and wildcard
+ * searches. Tokens are referenced by their number in the token file of the full-text index.</p>
+ *
+ * <p>Tokens are normalized (case, diacritics) and padded with two spaces on both sides
+ * before they are split into trigrams. The file has the following format:</p>
+ *
+ * <ul>
+ * <li>Structure: {@code [n, (g, c, p)* , ids*]}</li>
+ * <li>{@code n} is the number of trigrams [{@link Num}]</li>
+ * <li>{@code g} is a trigram [token], {@code c} is the number of tokens containing the trigram
+ *   [{@link Num}], {@code p} is the pointer on the token ids, relative to the end of the
+ *   directory [long]</li>
+ * <li>{@code ids} are the distance-encoded token numbers [{@link Num}]</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class FTGrams {
+  /** Gram length. */
+  private static final int N = 3;
+  /** Maximum number of trigrams that are destroyed by a single error (transposition). */
+  private static final int ERROR = N + 1;
+  /** Padding character. */
+  private static final int PAD = ' ';
+
+  /** Trigram file. */
+  private final DataAccess in;
+  /** Trigrams ({@code null}: directory has not been read yet). */
+  private TokenSet grams;
+  /** Number of tokens containing a trigram. */
+  private int[] counts;
+  /** Pointers on the token ids of a trigram. */
+  private long[] pointers;
+  /** Offset of the token ids. */
+  private long offset;
+
+  /**
+   * Constructor.
+   * @param file trigram file
+   * @throws IOException I/O exception
+   */
+  FTGrams(final IOFile file) throws IOException {
+    in = new DataAccess(file);
+  }
+
+  /**
+   * Creates a trigram file for the tokens of a full-text index.
+   * @param inX token length index
+   * @param inY tokens
+   * @param maxlen maximum token length
+   * @param file trigram file
+   * @throws IOException I/O exception
+   */
+  static void write(final DataAccess inX, final DataAccess inY, final int maxlen,
+      final IOFile file) throws IOException {
+
+    final TokenSet set = new TokenSet();
+    final ArrayList<ByteList> ids = new ArrayList<>();
+    final IntList last = new IntList(), sizes = new IntList();
+    ids.add(null);
+    last.add(0);
+    sizes.add(0);
+
+    final int[] tp = FTIndex.positions(inX, inY, maxlen);
+    final int tl = tp.length;
+    for(int t = 1, i = 0; t < tl - 1; t++) {
+      int p = tp[t];
+      if(p == -1) continue;
+      int e = -1;
+      for(int n = t + 1; e == -1; n++) e = tp[n];
+      for(; p < e; p += t + FTIndex.ENTRY, i++) {
+        for(final byte[] gram : split(cps(inY.readBytes(p, t)))) {
+          final int id = set.put(gram);
+          if(id == ids.size()) {
+            ids.add(new ByteList());
+            last.add(0);
+            sizes.add(0);
+          }
+          // skip duplicate trigrams of the same token
+          final int l = last.get(id);
+          if(l == i + 1) continue;
+          ids.get(id).add(Num.num(i + 1 - l));
+          last.set(id, i + 1);
+          sizes.set(id, sizes.get(id) + 1);
+        }
+      }
+    }
+
+    try(DataOutput out = new DataOutput(file)) {
+      final int gs = set.size();
+      out.writeNum(gs);
+      long p = 0;
+      for(int g = 1; g <= gs; g++) {
+        out.writeToken(set.key(g));
+        out.writeNum(sizes.get(g));
+        out.write5(p);
+        p += ids.get(g).size();
+      }
+      for(int g = 1; g <= gs; g++) out.writeBytes(ids.get(g).finish());
+    }
+  }
+
+  /**
+   * Returns the numbers of all tokens that may be similar to the specified characters.
+   * @param chars characters; {@link FTWildcard#DOT} represents arbitrary characters
+   * @param errors maximum number of errors
+   * @return sorted token numbers, or {@code null} if the number of candidates cannot be reduced
+   */
+  synchronized IntList candidates(final int[] chars, final int errors) {
+    final TokenSet query = new TokenSet();
+    for(final byte[] gram : split(chars)) query.add(gram);
+    final int min = query.size() - errors * ERROR;
+    if(min < 1) return null;
+
+    init();
+    final IntList ids = new IntList();
+    for(final byte[] gram : query) {
+      final int id = grams.id(gram);
+      if(id == 0) continue;
+      in.cursor(offset + pointers[id]);
+      for(int c = counts[id], i = -1; c > 0; c--) ids.add(i += in.readNum());
+    }
+    ids.sort();
+
+    // choose tokens with the required number of common trigrams
+    final IntList result = new IntList();
+    final int is = ids.size();
+    for(int i = 0; i < is;) {
+      final int id = ids.get(i);
+      int n = i;
+      while(++n < is && ids.get(n) == id);
+      if(n - i >= min) result.add(id);
+      i = n;
+    }
+    return result;
+  }
+
+  /**
+   * Checks if the specified characters can be split into at least one trigram.
+   * @param chars characters; {@link FTWildcard#DOT} represents arbitrary characters
+   * @return result of check
+   */
+  static boolean indexable(final int[] chars) {
+    return !split(chars).isEmpty();
+  }
+
+  /**
+   * Normalizes a codepoint.
+   * @param cp codepoint
+   * @return normalized codepoint
+   */
+  private static int normalize(final int cp) {
+    return noDiacritics(lc(cp));
+  }
+
+  /**
+   * Returns the length of the trigram file.
+   * @return length
+   */
+  long length() {
+    return in.length();
+  }
+
+  /**
+   * Closes the trigram file.
+   */
+  synchronized void close() {
+    in.close();
+  }
+
+  /**
+   * Reads the trigram directory.
+   */
+  private void init() {
+    if(grams != null) return;
+    in.cursor(0);
+    final int gs = in.readNum();
+    final TokenSet set = new TokenSet();
+    counts = new int[gs + 1];
+    pointers = new long[gs + 1];
+    for(int g = 1; g <= gs; g++) {
+      set.add(in.readToken());
+      counts[g] = in.readNum();
+      pointers[g] = in.read5();
+    }
+    offset = in.cursor();
+    grams = set;
+  }
+
+  /**
+   * Splits the specified characters into trigrams. Trigrams with wildcards are skipped.
+   * @param chars characters
+   * @return trigrams
+   */
+  private static ArrayList<byte[]> split(final int[] chars) {
+    final int cl = chars.length, pl = cl + (N - 1 << 1);
+    final int[] cps = new int[pl];
+    for(int c = 0; c < pl; c++) {
+      final int cp = c < N - 1 || c >= cl + N - 1 ? PAD : chars[c - N + 1];
+      cps[c] = cp == FTWildcard.DOT ? cp : normalize(cp);
+    }
+    final ArrayList<byte[]> list = new ArrayList<>();
+    final TokenBuilder tb = new TokenBuilder();
+    for(int c = 0, d = -1; c < pl; c++) {
+      // remember position of last wildcard
+      if(cps[c] == FTWildcard.DOT) d = c;
+      if(c - d < N) continue;
+      tb.reset();
+      for(int g = c - N + 1; g <= c; g++) tb.add(cps[g]);
+      list.add(tb.toArray());
+    }
+    return list;
+  }
+}
@@ -13,6 +13,7 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.index.value.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.*;
@@ -43,34 +44,52 @@ import org.basex.util.similarity.*;
  * {@code s} is the number of pre values, saved in data [int]
  * </li>
  * <li>File <b>z</b> contains the {@code id/pos} references.
- *   The values are ordered, but not distinct:
- *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ *   The values are ordered, but not distinct. They are stored in blocks with skip pointers
+ *   (see {@link FTPostings}).</li>
+ * <li>File <b>s</b> contains the score bounds of the tokens, in the order of file <b>y</b>.
+ *   Structure: {@code [m, l] ...}.
+ *   {@code m} is the maximum number of occurrences of the token in a single text [int].
+ *   {@code l} is the minimum length of the texts containing the token [int].
+ *   The file is not created for updatable indexes.</li>
+ * <li>File <b>g</b> contains the trigrams of the tokens (see {@link FTGrams}).
+ *   It is used to find candidates for fuzzy and wildcard searches.</li>
  * </ul>
  *
+ * <p>If {@link MetaData#updindex} is enabled, node ids are stored instead of pre values,
+ * and the index is opened as {@link UpdatableFTIndex}.</p>
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
-public final class FTIndex extends ValueIndex {
+public class FTIndex extends ValueIndex {
   /** Entry size. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
+  /** Size of a score bound entry. */
+  static final int BOUND = 8;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
-  private final IntObjMap<byte[]> ctext = new IntObjMap<>();
+  private IntObjMap<byte[]> ctext;
   /** Levenshtein reference. */
   private final Levenshtein ls = new Levenshtein();
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess inX;
+  private DataAccess inX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess inY;
+  private DataAccess inY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess inZ;
+  private DataAccess inZ;
+  /** Score bounds of each token ({@code null}: not available). */
+  private DataAccess inS;
+  /** Trigrams of the tokens ({@code null}: not available). */
+  private FTGrams grams;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
-  private final int[] tp;
+  private int[] tp;
+  /** Numbers of the first tokens of each length. */
+  private int[] tn;
 
   /**
    * Constructor, initializing the index structure.
@@ -79,11 +98,44 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    // cache token length index
+    open();
+  }
+
+  /**
+   * Opens the index files and caches the token length index.
+   * @throws IOException I/O Exception
+   */
+  final void open() throws IOException {
     inY = new DataAccess(data.meta.dbfile(DATAFTX + 'y'));
     inZ = new DataAccess(data.meta.dbfile(DATAFTX + 'z'));
     inX = new DataAccess(data.meta.dbfile(DATAFTX + 'x'));
-    tp = new int[data.meta.maxlen + 3];
+    tp = positions(inX, inY, data.meta.maxlen);
+    final int tl = tp.length;
+    tn = new int[tl];
+    for(int t = 0, n = 0; t < tl - 1; t++) {
+      if(tp[t] == -1) continue;
+      tn[t] = n;
+      int e = t + 1;
+      while(tp[e] == -1) e++;
+      n += (tp[e] - tp[t]) / (t + ENTRY);
+    }
+    final IOFile bounds = data.meta.dbfile(DATAFTX + 's');
+    inS = bounds.exists() ? new DataAccess(bounds) : null;
+    final IOFile gr = data.meta.dbfile(DATAFTX + 'g');
+    grams = gr.exists() ? new FTGrams(gr) : null;
+    cache = new IndexCache();
+    ctext = new IntObjMap<>();
+  }
+
+  /**
+   * Reads the token length index.
+   * @param inX token length index
+   * @param inY tokens
+   * @param maxlen maximum token length
+   * @return pointers on the first token of each length ({@code -1}: no token)
+   */
+  static int[] positions(final DataAccess inX, final DataAccess inY, final int maxlen) {
+    final int[] tp = new int[maxlen + 3];
     final int tl = tp.length;
     for(int i = 0; i < tl; ++i) tp[i] = -1;
     for(int is = inX.readNum(); --is >= 0;) {
@@ -91,6 +143,7 @@ public final class FTIndex extends ValueIndex {
       tp[p] = inX.read4();
     }
     tp[tl - 1] = (int) inY.length();
+    return tp;
   }
 
   @Override
@@ -100,6 +153,7 @@ public final class FTIndex extends ValueIndex {
 
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) it).ftOpt();
+    if(opt.is(WC) && !wildcard(tok)) return null;
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
       entry(tok).size);
   }
@@ -118,7 +172,13 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    if(e.size == 0) return FTIndexIterator.FTEMPTY;
+    if(inS == null) return iter(e.offset, e.size, tok, -1, 0);
+
+    // attach score bounds
+    final int tl = tok.length;
+    final long off = (long) (tn[tl] + (token(tok) - tp[tl]) / (tl + ENTRY)) * BOUND;
+    return iter(e.offset, e.size, tok, inS.read4(off), inS.read4(off + 4));
   }
 
   /**
@@ -211,9 +271,11 @@ public final class FTIndex extends ValueIndex {
   @Override
   public synchronized byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
-    final long l = inX.length() + inY.length() + inZ.length();
+    final long l = inX.length() + inY.length() + inZ.length() +
+        (inS != null ? inS.length() : 0) + (grams != null ? grams.length() : 0);
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
     tb.add(LI_SIZE + Performance.format(l) + NL);
+    tb.add(LI_BUDGET + Performance.format(IndexBuilder.budget(data.meta)) + NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     addOccs(stats);
@@ -231,6 +293,8 @@ public final class FTIndex extends ValueIndex {
     inX.close();
     inY.close();
     inZ.close();
+    if(inS != null) inS.close();
+    if(grams != null) grams.close();
   }
 
   @Override
@@ -319,6 +383,18 @@ public final class FTIndex extends ValueIndex {
     return inY.read4(pt + lt + 5);
   }
 
+  /**
+   * Checks if the index can be used for the specified wildcard expression.
+   * @param token token
+   * @return result of check
+   */
+  private boolean wildcard(final byte[] token) {
+    // without trigrams, a prefix is required, and only one wildcard is supported
+    if(grams == null) return token[0] != '.' && indexOf(token, '.') == lastIndexOf(token, '.');
+    final FTWildcard wc = new FTWildcard(token);
+    return wc.parse() && (token[0] != '.' || FTGrams.indexable(wc.chars()));
+  }
+
   /**
    * Performs a fuzzy search for the specified token with a maximum number of errors.
    * @param token token to look for
@@ -326,24 +402,44 @@ public final class FTIndex extends ValueIndex {
    * @return iterator
    */
   private IndexIterator fuzzy(final byte[] token, final int k) {
-    FTIndexIterator it = FTIndexIterator.FTEMPTY;
     final int tokl = token.length, tl = tp.length;
-    final int e = Math.min(tl - 1, tokl + k);
-    int s = Math.max(1, tokl - k) - 1;
-
-    while(++s <= e) {
-      int p = tp[s];
-      if(p == -1) continue;
-      int t = s + 1, r = -1;
-      while(t < tl && r == -1) r = tp[t++];
-      while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+    final int s = Math.max(1, tokl - k), e = Math.min(tl - 2, tokl + k);
+    final IntList pr = new IntList(), ps = new IntList();
+    int c = 0, m = 0;
+
+    // find candidates via trigrams, or compare all tokens of similar length
+    final int[] cps = cps(token);
+    final int cl = cps.length;
+    final IntList ids = grams == null ? null :
+      grams.candidates(cps, k != 0 ? k : cl < 4 ? 0 : Math.max(1, cl >> 2));
+    if(ids != null) {
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        final int n = ids.get(i), t = length(n);
+        if(t < s || t > e) continue;
+        final int p = tp[t] + (n - tn[t]) * (t + ENTRY);
+        c++;
+        if(ls.similar(inY.readBytes(p, t), token, k)) {
+          add(p, t, pr, ps);
+          m++;
+        }
+      }
+    } else {
+      for(int t = s; t <= e; t++) {
+        int p = tp[t];
+        if(p == -1) continue;
+        int n = t + 1, r = -1;
+        while(r == -1) r = tp[n++];
+        for(; p < r; p += t + ENTRY) {
+          c++;
+          if(ls.similar(inY.readBytes(p, t), token, k)) {
+            add(p, t, pr, ps);
+            m++;
+          }
         }
-        p += s + ENTRY;
       }
     }
-    return it;
+    return iter(pr, ps, token).info(info("fuzzy", token, c, m));
   }
 
   /**
@@ -352,66 +448,193 @@ public final class FTIndex extends ValueIndex {
    * @return iterator
    */
   private IndexIterator wc(final byte[] token) {
-    final FTIndexIterator it = FTIndexIterator.FTEMPTY;
     final FTWildcard wc = new FTWildcard(token);
-    if(!wc.parse()) return it;
+    if(!wc.parse()) return FTIndexIterator.FTEMPTY;
 
-    final IntList pr = new IntList();
-    final IntList ps = new IntList();
+    final IntList pr = new IntList(), ps = new IntList();
     final byte[] pref = wc.prefix();
-    final int pl = pref.length, tl = tp.length;
-    final int l = Math.min(tl - 1, wc.max());
-    for(int ti = pl; ti <= l; ti++) {
-      int i = tp[ti];
-      if(i == -1) continue;
-      int c = ti + 1;
-      int e = -1;
-      while(c < tl && e == -1) e = tp[c++];
-      i = find(pref, i, e, ti);
-
-      while(i < e) {
-        final byte[] t = inY.readBytes(i, ti);
-        if(!startsWith(t, pref)) break;
-        if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
+    final int pl = Math.max(1, pref.length), tl = tp.length;
+    final int l = Math.min(tl - 2, wc.max());
+    int c = 0, m = 0;
+
+    // find candidates via trigrams, or compare all tokens with the same prefix
+    final IntList ids = grams == null ? null : grams.candidates(wc.chars(), 0);
+    if(ids != null) {
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        final int n = ids.get(i), t = length(n);
+        if(t < pl || t > l) continue;
+        final int p = tp[t] + (n - tn[t]) * (t + ENTRY);
+        c++;
+        if(wc.match(inY.readBytes(p, t))) {
+          add(p, t, pr, ps);
+          m++;
+        }
+      }
+    } else {
+      for(int t = pl; t <= l; t++) {
+        int p = tp[t];
+        if(p == -1) continue;
+        int n = t + 1, e = -1;
+        while(e == -1) e = tp[n++];
+        for(p = find(pref, p, e, t); p < e; p += t + ENTRY) {
+          final byte[] tok = inY.readBytes(p, t);
+          if(!startsWith(tok, pref)) break;
+          c++;
+          if(wc.match(tok)) {
+            add(p, t, pr, ps);
+            m++;
           }
         }
-        i += ti + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps), token);
+    return iter(pr, ps, token).info(info("wildcard", token, c, m));
   }
 
   /**
-   * Returns an iterator for an index entry.
+   * Returns the length of the token with the specified number.
+   * @param n token number
+   * @return length
+   */
+  private int length(final int n) {
+    int l = 0;
+    final int tl = tp.length;
+    for(int t = 1; t < tl - 1 && tn[t] <= n; t++) {
+      if(tp[t] != -1) l = t;
+    }
+    return l;
+  }
+
+  /**
+   * Adds the pre values and positions of an index entry to the specified lists.
+   * @param p pointer on the token
+   * @param t length of the token
+   * @param pr pre values
+   * @param ps positions
+   */
+  private void add(final int p, final int t, final IntList pr, final IntList ps) {
+    FTPostings.read(inZ, pointer(p, t), size(p, t), pr, ps);
+  }
+
+  /**
+   * Returns a string representation of a fuzzy or wildcard search.
+   * @param type type of search
+   * @param token token
+   * @param compared number of compared tokens
+   * @param found number of found tokens
+   * @return string
+   */
+  private static String info(final String type, final byte[] token, final int compared,
+      final int found) {
+    return Util.info("% \"%\": % compared, % found tokens", type, token, compared, found);
+  }
+
+  /**
+   * Returns an iterator for an index entry. The postings are decoded block by block,
+   * and blocks are skipped if they contain no requested pre values.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
    * @param token index token
+   * @param maxMatches maximum number of matches of a single node ({@code -1}: unknown)
+   * @param minLength minimum text length
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
+  protected FTIndexIterator iter(final long off, final int size, final byte[] token,
+      final int maxMatches, final int minLength) {
+    final FTPostings postings = new FTPostings(inZ, this, off, size);
+
+    return new FTIndexIterator() {
+      final FTMatches all = new FTMatches();
+      boolean valid = postings.next();
+      int pos, pre;
+
+      @Override
+      public boolean more() {
+        if(!valid) return false;
+        all.reset(pos);
+        pre = postings.id();
+        do {
+          all.or(postings.pos());
+        } while((valid = postings.next()) && postings.id() == pre);
+        return true;
+      }
+
+      @Override
+      public boolean skip(final int pr) {
+        if(valid && postings.id() < pr) valid = postings.skip(pr);
+        return more();
+      }
+
+      @Override
+      public FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public void pos(final int p) {
+        pos = p;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public int maxMatches() {
+        return maxMatches;
+      }
+
+      @Override
+      public int minLength() {
+        return minLength;
+      }
+
+      @Override
+      public String toString() {
+        return new TokenBuilder(token).add('(').addExt(size).add("x)").toString();
+      }
+    };
+  }
+
+  /**
+   * Returns the pre and pos values of an index entry.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @return pre values and positions
+   */
+  final IntList[] ids(final long off, final int size) {
     final IntList pr = new IntList(size), ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
-    }
-    return iter(new FTCache(pr, ps), token);
+    FTPostings.read(inZ, off, size, pr, ps);
+    return new IntList[] { pr, ps };
+  }
+
+  /**
+   * Returns an iterator for the specified index entries.
+   * @param pr pre values
+   * @param ps positions
+   * @param token index token
+   * @return iterator
+   */
+  protected FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    return iter(new FTCache(new IntList[] { pr, ps }), token, -1, 0);
   }
 
   /**
    * Returns an iterator for an index entry.
    * @param ftc id cache
    * @param token index token
+   * @param maxMatches maximum number of matches of a single node ({@code -1}: unknown)
+   * @param minLength minimum text length
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
+  private static FTIndexIterator iter(final FTCache ftc, final byte[] token, final int maxMatches,
+      final int minLength) {
     final int size = ftc.pre.size();
 
     return new FTIndexIterator() {
@@ -430,6 +653,23 @@ public final class FTIndex extends ValueIndex {
         return true;
       }
 
+      @Override
+      public boolean skip(final int pr) {
+        // galloping search for the first entry with the specified pre value
+        int l = c, h = c;
+        for(int s = 1; h < size && ftc.pre.get(ftc.order[h]) < pr; s <<= 1) {
+          l = h + 1;
+          h += s;
+        }
+        for(h = Math.min(h, size) - 1; l <= h;) {
+          final int m = l + h >>> 1;
+          if(ftc.pre.get(ftc.order[m]) < pr) l = m + 1;
+          else h = m - 1;
+        }
+        c = l;
+        return more();
+      }
+
       @Override
       public FTMatches matches() {
         return all;
@@ -450,6 +690,16 @@ public final class FTIndex extends ValueIndex {
         return size;
       }
 
+      @Override
+      public int maxMatches() {
+        return maxMatches;
+      }
+
+      @Override
+      public int minLength() {
+        return minLength;
+      }
+
       @Override
       public String toString() {
         return new TokenBuilder(token).add('(').addExt(size).add("x)").toString();
@@ -470,12 +720,12 @@ public final class FTIndex extends ValueIndex {
 
     /**
      * Constructor.
-     * @param pr pre values
-     * @param ps positions
+     * @param ids pre values and positions
      */
-    private FTCache(final IntList pr, final IntList ps) {
+    private FTCache(final IntList[] ids) {
+      final IntList pr = ids[0], ps = ids[1];
       final int s = pr.size();
-      final double[] v = new double[s];
+      final long[] v = new long[s];
       for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
       order = Array.createOrder(v, true);
       pre = pr;
@@ -19,6 +19,8 @@ final class FTIndexTree extends IndexTree {
   private TokenList poss = new TokenList(FACTOR);
   /** Tree structure [left, right, parent]. */
   private IntList numpre = new IntList(FACTOR);
+  /** Minimum lengths of the texts containing the tokens. */
+  private IntList lengths = new IntList(FACTOR);
   /** Current pointer on token in the index. */
   private int lcn;
   /** Current pointer on ft data in the index. */
@@ -39,20 +41,27 @@ final class FTIndexTree extends IndexTree {
    * @param id id value of the token
    * @param pos pos value of the token
    * @param index current file id
+   * @param length length of the text containing the token
    */
-  void add(final byte[] token, final int id, final int pos, final int index) {
+  void add(final byte[] token, final int id, final int pos, final int index, final int length) {
     final int os = keys.size();
     final int n = add(token, id, 0, index == 0);
     if(os == keys.size()) {
       final int i = index > 0 ? maps.get(Num.num(n)) : n;
       if(poss.size() > i && poss.get(i) != null) {
-        poss.set(i, Num.add(poss.get(i), pos));
+        final byte[] old = poss.get(i), ps = Num.add(old, pos);
+        poss.set(i, ps);
         numpre.set(i, numpre.get(i) + 1);
+        if(length < lengths.get(i)) lengths.set(i, length);
+        memory += ps.length - old.length;
         return;
       }
     }
-    poss.add(Num.newNum(pos));
+    final byte[] ps = Num.newNum(pos);
+    poss.add(ps);
     numpre.add(1);
+    lengths.add(length);
+    memory += ARRAY + ps.length;
   }
 
   /**
@@ -62,7 +71,11 @@ final class FTIndexTree extends IndexTree {
     poss = new TokenList(FACTOR);
     ids = new TokenList(FACTOR);
     numpre = new IntList(FACTOR);
+    lengths = new IntList(FACTOR);
     maps = new TokenIntMap();
+    // only the keys remain in memory
+    memory = 0;
+    for(final byte[] key : keys) memory += NODE + ARRAY + key.length;
   }
 
   /**
@@ -112,4 +125,12 @@ final class FTIndexTree extends IndexTree {
   int nextNumPre() {
     return numpre.get(pft);
   }
+
+  /**
+   * Returns the minimum length of the texts containing the next token.
+   * @return minimum text length
+   */
+  int nextLength() {
+    return lengths.get(pft);
+  }
 }
@@ -28,11 +28,25 @@ final class FTIndexTrees {
    * @param pre pre value for the token
    * @param pos pos value of the token
    * @param index current file id
+   * @param length length of the text containing the token
    */
-  void index(final byte[] token, final int pre, final int pos, final int index) {
+  void index(final byte[] token, final int pre, final int pos, final int index,
+      final int length) {
     final int tl = token.length;
     if(trees[tl] == null) trees[tl] = new FTIndexTree();
-    trees[tl].add(token, pre, pos, index);
+    trees[tl].add(token, pre, pos, index, length);
+  }
+
+  /**
+   * Returns the estimated memory occupied by the keys and ids of all trees.
+   * @return memory (bytes)
+   */
+  long memory() {
+    long memory = 0;
+    for(final FTIndexTree tree : trees) {
+      if(tree != null) memory += tree.memory();
+    }
+    return memory;
   }
 
   /**
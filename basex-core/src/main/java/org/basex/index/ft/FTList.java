@@ -8,6 +8,7 @@ import java.io.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.random.*;
+import org.basex.util.list.*;
 
 /**
  * This class provides temporary access to sorted list data.
@@ -41,6 +42,10 @@ final class FTList {
 
   /** Indexed tokens. */
   private final DataAccess str;
+  /** Score bounds file. */
+  private final IOFile fileb;
+  /** Score bounds ({@code null}: not available). */
+  private final DataAccess bnd;
 
   /** Current data size. */
   int size;
@@ -50,6 +55,8 @@ final class FTList {
   int[] prv;
   /** Next pos values. */
   int[] pov;
+  /** Minimum length of the texts containing the next token. */
+  int length;
 
   /**
    * Constructor, initializing the index structure.
@@ -62,6 +69,8 @@ final class FTList {
     filed = data.meta.dbfile(DATAFTX + prefix + 'z');
     str = new DataAccess(files);
     dat = new DataAccess(filed);
+    fileb = data.meta.dbfile(DATAFTX + prefix + 's');
+    bnd = fileb.exists() ? new DataAccess(fileb) : null;
     tp = new int[data.meta.maxlen + 3];
     final int tl = tp.length;
     for(int t = 0; t < tl; t++) tp[t] = -1;
@@ -90,11 +99,14 @@ final class FTList {
       pov = NOINTS;
       close();
     } else {
-      prv = new int[size];
-      pov = new int[size];
-      for(int j = 0; j < size; ++j) {
-        prv[j] = dat.readNum();
-        pov[j] = dat.readNum();
+      final IntList pr = new IntList(size), ps = new IntList(size);
+      FTPostings.read(dat, dat.cursor(), size, pr, ps);
+      prv = pr.toArray();
+      pov = ps.toArray();
+      if(bnd != null) {
+        // skip maximum number of occurrences, which is recomputed when the lists are merged
+        bnd.read4();
+        length = bnd.read4();
       }
     }
   }
@@ -108,6 +120,10 @@ final class FTList {
     files.delete();
     filed.delete();
     sizes.delete();
+    if(bnd != null) {
+      bnd.close();
+      fileb.delete();
+    }
   }
 
   /**
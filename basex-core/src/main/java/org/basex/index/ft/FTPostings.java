@@ -0,0 +1,217 @@
+package org.basex.index.ft;
+
+import java.io.*;
+
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class reads and writes the postings of a full-text token: the ids (pre values or node
+ * ids) of the texts containing the token and the positions of the token in the texts. The
+ * postings are sorted by ids and positions and stored in blocks of {@link #BLOCK} entries.
+ * If a list has more than one block, it is preceded by a table with skip pointers, which allows
+ * iterators to jump over blocks without decoding them:</p>
+ *
+ * <ul>
+ * <li>Structure: {@code [(b, o)*, (i, p)*]}</li>
+ * <li>{@code b} is the last id of the preceding block, {@code o} is the offset of the block,
+ *   relative to the end of the table [int]</li>
+ * <li>{@code i} is the distance to the preceding id [{@link Num}]</li>
+ * <li>{@code p} is the position [{@link Num}]. If the preceding entry of the same block has the
+ *   same id, the distance to its position is stored</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Number of entries in a block. */
+  static final int BLOCK = 128;
+  /** Size of a skip pointer. */
+  private static final int SKIP = 8;
+
+  /** Postings file. */
+  private final DataAccess in;
+  /** Synchronization object (used for accessing the postings file). */
+  private final Object monitor;
+  /** Offset of the skip pointers. */
+  private final long table;
+  /** Offset of the first block. */
+  private final long offset;
+  /** Number of entries. */
+  private final int size;
+  /** Number of blocks. */
+  private final int blocks;
+
+  /** Ids of the current block. */
+  private final int[] ids = new int[BLOCK];
+  /** Positions of the current block. */
+  private final int[] pos = new int[BLOCK];
+  /** Current block ({@code -1}: no block has been read yet). */
+  private int block = -1;
+  /** Number of entries in the current block. */
+  private int entries;
+  /** Index of the current entry in the block. */
+  private int entry;
+
+  /**
+   * Constructor.
+   * @param in postings file
+   * @param monitor synchronization object
+   * @param off offset of the postings
+   * @param size number of entries
+   */
+  FTPostings(final DataAccess in, final Object monitor, final long off, final int size) {
+    this.in = in;
+    this.monitor = monitor;
+    this.size = size;
+    blocks = blocks(size);
+    table = off;
+    offset = off + (long) (blocks - 1) * SKIP;
+  }
+
+  /**
+   * Moves the cursor to the next entry.
+   * @return {@code false} if all entries have been returned
+   */
+  boolean next() {
+    if(++entry < entries) return true;
+    if(block + 1 == blocks) return false;
+    read(block + 1);
+    return ++entry < entries;
+  }
+
+  /**
+   * Moves the cursor to the next entry with an id that is equal to or greater than the
+   * specified id. Blocks whose ids are all smaller than the specified id are skipped.
+   * @param id id
+   * @return {@code false} if no such entry exists
+   */
+  boolean skip(final int id) {
+    // find last block that may contain ids equal to or greater than the specified id
+    int l = Math.max(1, block + 1), h = blocks - 1;
+    synchronized(monitor) {
+      while(l <= h) {
+        final int m = l + h >>> 1;
+        if(in.read4(table + (long) (m - 1) * SKIP) < id) l = m + 1;
+        else h = m - 1;
+      }
+    }
+    if(h > block) read(h);
+    // scan remaining entries
+    while(next()) {
+      if(ids[entry] >= id) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the id of the current entry.
+   * @return id
+   */
+  int id() {
+    return ids[entry];
+  }
+
+  /**
+   * Returns the position of the current entry.
+   * @return position
+   */
+  int pos() {
+    return pos[entry];
+  }
+
+  /**
+   * Reads the specified block and sets the cursor before its first entry.
+   * @param b block
+   */
+  private void read(final int b) {
+    block = b;
+    entries = Math.min(BLOCK, size - b * BLOCK);
+    entry = -1;
+    synchronized(monitor) {
+      int id = 0;
+      if(b == 0) {
+        in.cursor(offset);
+      } else {
+        final long t = table + (long) (b - 1) * SKIP;
+        id = in.read4(t);
+        in.cursor(offset + (in.read4(t + 4) & 0xFFFFFFFFL));
+      }
+      for(int e = 0; e < entries; e++) {
+        final int d = in.readNum(), p = in.readNum();
+        id += d;
+        ids[e] = id;
+        pos[e] = d == 0 && e > 0 ? pos[e - 1] + p : p;
+      }
+    }
+  }
+
+  /**
+   * Reads all ids and positions of a token.
+   * @param in postings file
+   * @param off offset of the postings
+   * @param size number of entries
+   * @param ids ids
+   * @param pos positions
+   */
+  static void read(final DataAccess in, final long off, final int size, final IntList ids,
+      final IntList pos) {
+    in.cursor(off + (long) (blocks(size) - 1) * SKIP);
+    for(int s = 0, id = 0, ps = 0; s < size; s++) {
+      final int d = in.readNum(), p = in.readNum();
+      id += d;
+      ps = d == 0 && s % BLOCK != 0 ? ps + p : p;
+      ids.add(id);
+      pos.add(ps);
+    }
+  }
+
+  /**
+   * Writes the ids and positions of a token.
+   * @param out output stream
+   * @param ids ids (sorted)
+   * @param pos positions (sorted for identical ids)
+   * @return maximum number of occurrences of the token in a single text
+   * @throws IOException I/O exception
+   */
+  static int write(final DataOutput out, final IntList ids, final IntList pos)
+      throws IOException {
+
+    final int size = ids.size();
+    final ArrayOutput data = new ArrayOutput();
+    final IntList skips = new IntList();
+    int max = 0, occ = 0;
+    final DataOutput dout = new DataOutput(data);
+    for(int s = 0, id = 0, ps = 0; s < size; s++) {
+      final int i = ids.get(s), p = pos.get(s);
+      if(s % BLOCK == 0 && s > 0) {
+        skips.add(id);
+        skips.add((int) dout.size());
+      }
+      // count occurrences: ids are sorted
+      occ = s > 0 && i == id ? occ + 1 : 1;
+      max = Math.max(max, occ);
+      dout.writeNum(i - id);
+      dout.writeNum(i == id && s % BLOCK != 0 ? p - ps : p);
+      id = i;
+      ps = p;
+    }
+    final int ss = skips.size();
+    for(int s = 0; s < ss; s++) out.write4(skips.get(s));
+    out.writeBytes(data.finish());
+    return max;
+  }
+
+  /**
+   * Returns the number of blocks of a list.
+   * @param size number of entries
+   * @return number of blocks
+   */
+  private static int blocks(final int size) {
+    return Math.max(1, (size + BLOCK - 1) / BLOCK);
+  }
+}
@@ -0,0 +1,563 @@
+package org.basex.index.ft;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+import static org.basex.util.ft.FTFlag.*;
+
+import java.io.*;
+import java.util.function.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.expr.ft.*;
+import org.basex.query.util.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+
+/**
+ * <p>This class provides access and update functions to a full-text index stored on disk.
+ * The index consists of the following segments:</p>
+ *
+ * <ul>
+ *   <li>The immutable base segment is stored in the files of the {@link FTIndex}.
+ *     It references node ids instead of pre values.</li>
+ *   <li>The delta segment is kept in main memory. It contains the entries of all text nodes
+ *     that have been added since the base segment was written, and the ids of all text nodes
+ *     that have been deleted in the meantime (tombstones). All updates are also logged in
+ *     a journal file (suffix {@code d}), from which the delta segment is restored when the
+ *     database is opened again.</li>
+ * </ul>
+ *
+ * <p>Query results are merged from all segments. If the number of updates exceeds a fraction of
+ * the base segment size, the delta segment is frozen, and a new delta segment is created. The
+ * frozen segment is merged with the base segment in a background thread. When the merge is
+ * finished, the files of the new base segment replace the old ones. The segments are also merged
+ * when the database is optimized.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndex extends FTIndex {
+  /** Minimum number of updates before segments are merged. */
+  private static final int MERGE = 1 << 16;
+  /** Journal entry: added node. */
+  private static final int ADD = 1;
+  /** Journal entry: deleted node. */
+  private static final int DELETE = 2;
+
+  /** Lexer, using the full-text options of the database. */
+  private final FTLexer lexer;
+  /** Levenshtein reference. */
+  private final Levenshtein ls = new Levenshtein();
+  /** Journal entries that have not been written to disk yet. */
+  private final ArrayOutput journal = new ArrayOutput();
+  /** Output stream for journal entries. */
+  private final DataOutput out = new DataOutput(journal);
+
+  /** Delta segment. */
+  private FTDelta delta = new FTDelta();
+  /** Frozen delta segment that is currently merged with the base segment ({@code null}: none). */
+  private FTDelta frozen;
+  /** Number of entries in the base segment. */
+  private long entries;
+  /** Thread that merges the segments ({@code null}: no merge is running). */
+  private Thread merger;
+  /** Stop flag for the merge thread. */
+  private volatile boolean stop;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public UpdatableFTIndex(final Data data) throws IOException {
+    super(data);
+    final FTOpt opt = new FTOpt().assign(data.meta);
+    opt.sw = new StopWords();
+    opt.sw.comp(data);
+    lexer = new FTLexer(opt);
+
+    // restore delta segment
+    try(DataInput in = new DataInput(file(data.meta))) {
+      entries = in.read8();
+      final TokenList tokens = new TokenList();
+      for(int op; (op = in.read()) != -1;) {
+        final int id = in.readNum();
+        tokens.reset();
+        for(int t = in.readNum(); --t >= 0;) {
+          if(op == ADD) delta.add(in.readToken(), id, in.readNum());
+          else tokens.add(in.readToken());
+        }
+        if(op == DELETE) delta.delete(tokens, id);
+      }
+    }
+  }
+
+  /**
+   * Checks if the specified database has an updatable full-text index.
+   * Full-text indexes of older versions reference pre values and cannot be updated.
+   * @param meta meta data
+   * @return result of check
+   */
+  public static boolean exists(final MetaData meta) {
+    return file(meta).exists();
+  }
+
+  /**
+   * Creates an empty journal for a new base segment.
+   * @param meta meta data
+   * @param entries number of entries in the base segment
+   * @throws IOException I/O Exception
+   */
+  static void init(final MetaData meta, final long entries) throws IOException {
+    try(DataOutput output = new DataOutput(file(meta))) {
+      output.write8(entries);
+    }
+  }
+
+  /**
+   * Returns the journal file.
+   * @param meta meta data
+   * @return file
+   */
+  private static IOFile file(final MetaData meta) {
+    return meta.dbfile(DATAFTX + 'd');
+  }
+
+  @Override
+  public synchronized IndexCosts costs(final IndexToken it) {
+    final IndexCosts costs = super.costs(it);
+    final FTOpt opt = ((FTLexer) it).ftOpt();
+    if(costs == null || opt.is(FZ) || opt.is(WC)) return costs;
+
+    final byte[] token = it.get();
+    final int size = delta.count(token) + (frozen != null ? frozen.count(token) : 0);
+    return size == 0 ? costs : IndexCosts.add(costs, IndexCosts.get(size));
+  }
+
+  @Override
+  public synchronized IndexIterator iter(final IndexToken it) {
+    // entries of the base segment
+    final FTIndexIterator iter = (FTIndexIterator) super.iter(it);
+
+    // entries of the delta segments
+    final byte[] token = it.get();
+    final FTLexer lex = (FTLexer) it;
+    final FTOpt opt = lex.ftOpt();
+    final IntList ids = new IntList(), pos = new IntList();
+    if(opt.is(WC)) {
+      final FTWildcard wc = new FTWildcard(token);
+      if(!wc.parse()) return iter;
+      get(wc::match, ids, pos);
+    } else if(opt.is(FZ)) {
+      final int k = lex.lserror(token);
+      get(t -> ls.similar(t, token, k), ids, pos);
+    } else {
+      if(frozen != null) frozen.get(token, delta, ids, pos);
+      delta.get(token, null, ids, pos);
+    }
+    if(ids.isEmpty()) return iter;
+
+    final int is = ids.size();
+    for(int i = 0; i < is; i++) ids.set(i, data.pre(ids.get(i)));
+    return FTIndexIterator.union(iter, super.iter(ids, pos, token));
+  }
+
+  /**
+   * Adds the ids and positions of all matching tokens of the delta segments to the specified lists.
+   * @param matches token filter
+   * @param ids ids
+   * @param pos positions
+   */
+  private void get(final Predicate<byte[]> matches, final IntList ids, final IntList pos) {
+    if(frozen != null) frozen.get(matches, delta, ids, pos);
+    delta.get(matches, null, ids, pos);
+  }
+
+  @Override
+  protected FTIndexIterator iter(final long off, final int size, final byte[] token,
+      final int maxMatches, final int minLength) {
+    // base segment: ids are not ordered by pre values
+    final IntList[] ids = ids(off, size);
+    return iter(ids[0], ids[1], token);
+  }
+
+  @Override
+  protected FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    // base segment: skip entries of deleted nodes, replace ids with pre values
+    final int s = pr.size();
+    final IntList pres = new IntList(s), poss = new IntList(s);
+    for(int i = 0; i < s; i++) {
+      final int id = pr.get(i);
+      if(delta.deleted.contains(id) || frozen != null && frozen.deleted.contains(id)) continue;
+      pres.add(data.pre(id));
+      poss.add(ps.get(i));
+    }
+    return super.iter(pres, poss, token);
+  }
+
+  @Override
+  public synchronized EntryIterator entries(final IndexEntries input) {
+    final EntryIterator ei = super.entries(input);
+    // the files of the base segment may be replaced while the entries are returned
+    if(delta.isEmpty() && merger == null) return ei;
+
+    // collect entries of all segments
+    final TokenIntMap map = new TokenIntMap();
+    for(byte[] token; (token = ei.next()) != null;) map.put(token, ei.count());
+    final TokenSet tokens = new TokenSet();
+    for(final byte[] token : delta.tokens()) tokens.add(token);
+    if(frozen != null) {
+      for(final byte[] token : frozen.tokens()) tokens.add(token);
+    }
+    final byte[] prefix = input.get();
+    for(final byte[] token : tokens) {
+      if(!startsWith(token, prefix)) continue;
+      final int count = delta.count(token) + (frozen != null ? frozen.count(token) : 0);
+      map.put(token, Math.max(0, map.get(token)) + count);
+    }
+    final TokenList list = new TokenList(map).sort(FTDelta::compare, true);
+    return new EntryIterator() {
+      private int i = -1;
+
+      @Override
+      public byte[] next() {
+        return ++i < list.size() ? list.get(i) : null;
+      }
+      @Override
+      public int count() {
+        return map.get(list.get(i));
+      }
+    };
+  }
+
+  @Override
+  public synchronized byte[] info(final MainOptions options) {
+    final int added = delta.size() + (frozen != null ? frozen.size() : 0);
+    final int deleted = delta.deleted.size() + (frozen != null ? frozen.deleted.size() : 0);
+    return new TokenBuilder(super.info(options)).add(LI_UPDATES).addInt(added).add(" added, ").
+        addInt(deleted).add(" deleted").add(NL).finish();
+  }
+
+  @Override
+  public synchronized void add(final ValueCache values) {
+    final TokenList tokens = new TokenList();
+    final IntList pos = new IntList();
+    try {
+      for(final byte[] text : values) {
+        tokens(text, tokens, pos);
+        final int ts = tokens.size();
+        final IntList ids = values.ids(text);
+        final int is = ids.size();
+        for(int i = 0; i < is; i++) {
+          final int id = ids.get(i);
+          out.write1(ADD);
+          out.writeNum(id);
+          out.writeNum(ts);
+          for(int t = 0; t < ts; t++) {
+            delta.add(tokens.get(t), id, pos.get(t));
+            out.writeToken(tokens.get(t));
+            out.writeNum(pos.get(t));
+          }
+        }
+      }
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    merge();
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache values) {
+    final TokenList tokens = new TokenList();
+    final IntList pos = new IntList();
+    try {
+      for(final byte[] text : values) {
+        tokens(text, tokens, pos);
+        final TokenList distinct = new TokenList(new TokenSet(tokens.toArray()));
+        final int ts = distinct.size();
+        final IntList ids = values.ids(text);
+        final int is = ids.size();
+        for(int i = 0; i < is; i++) {
+          final int id = ids.get(i);
+          delta.delete(distinct, id);
+          out.write1(DELETE);
+          out.writeNum(id);
+          out.writeNum(ts);
+          for(final byte[] token : distinct) out.writeToken(token);
+        }
+      }
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    merge();
+  }
+
+  /**
+   * Tokenizes a text.
+   * @param text text
+   * @param tokens list for the indexed tokens
+   * @param pos list for the token positions
+   */
+  private void tokens(final byte[] text, final TokenList tokens, final IntList pos) {
+    tokens.reset();
+    pos.reset();
+    final StopWords sw = lexer.ftOpt().sw;
+    lexer.init(text);
+    for(int p = 0; lexer.hasNext(); p++) {
+      final byte[] token = lexer.nextToken();
+      // skip too long and stopword tokens
+      if(token.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(token))) {
+        tokens.add(token);
+        pos.add(p);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void flush() {
+    if(journal.size() == 0) return;
+    try(FileOutputStream fos = new FileOutputStream(file(data.meta).file(), true)) {
+      fos.write(journal.next());
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    finish(true);
+    synchronized(this) {
+      flush();
+      super.close();
+    }
+  }
+
+  /**
+   * Merges all segments. Called when the database is optimized.
+   * @throws IOException I/O exception
+   */
+  public void optimize() throws IOException {
+    finish(false);
+    synchronized(this) {
+      if(delta.isEmpty()) return;
+      frozen = delta;
+      delta = new FTDelta();
+      if(!merge(frozen)) throw new IOException("Full-text index could not be optimized.");
+    }
+  }
+
+  /**
+   * Waits until a running merge is finished.
+   * @param cancel cancel the merge
+   */
+  private void finish(final boolean cancel) {
+    final Thread thread;
+    synchronized(this) {
+      thread = merger;
+    }
+    if(thread == null) return;
+    stop = cancel;
+    try {
+      thread.join();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+    stop = false;
+  }
+
+  /**
+   * Starts a merge in the background if the delta segment has exceeded its maximum size.
+   */
+  private void merge() {
+    if(merger != null || delta.updates() < Math.max(MERGE, entries >> 3)) return;
+
+    frozen = delta;
+    delta = new FTDelta();
+    final FTDelta segment = frozen;
+    merger = new Thread(() -> merge(segment), Util.className(this));
+    merger.setDaemon(true);
+    merger.start();
+  }
+
+  /**
+   * Merges the base segment and a frozen delta segment. The new base segment is written to
+   * temporary files, which replace the original files when the merge is finished.
+   * @param segment frozen delta segment
+   * @return success flag
+   */
+  private boolean merge(final FTDelta segment) {
+    final MetaData meta = data.meta;
+    long count = 0;
+    boolean ok = false;
+    try(DataAccess inX = new DataAccess(meta.dbfile(DATAFTX + 'x'));
+        DataAccess inY = new DataAccess(meta.dbfile(DATAFTX + 'y'));
+        DataAccess inZ = new DataAccess(meta.dbfile(DATAFTX + 'z'));
+        DataOutput outX = new DataOutput(meta.dbfile(DATAFTX + 'u'));
+        DataOutput outY = new DataOutput(meta.dbfile(DATAFTX + 'v'));
+        DataOutput outZ = new DataOutput(meta.dbfile(DATAFTX + 'w'))) {
+
+      final int[] tp = positions(inX, inY, meta.maxlen);
+      final int tl = tp.length;
+      final TokenList tokens = segment.tokens();
+      final int ts = tokens.size();
+      final IntList ind = new IntList(), ids = new IntList(), pos = new IntList();
+      // base segment: token length, pointers on the current and the first token of next length
+      int l = 0, p = 0, e = 0;
+      // delta segment: current token; new segment: current token length
+      int t = 0, len = 0;
+      while(!stop) {
+        if(p == e) {
+          // find next token length of the base segment
+          while(++l < tl - 1 && tp[l] == -1);
+          if(l < tl - 1) {
+            p = tp[l];
+            int n = l;
+            do e = tp[++n]; while(e == -1);
+          }
+        }
+        final byte[] base = l < tl - 1 ? inY.readBytes(p, l) : null;
+        final byte[] upd = t < ts ? tokens.get(t) : null;
+        if(base == null && upd == null) {
+          ok = true;
+          break;
+        }
+
+        final int c = base == null ? 1 : upd == null ? -1 : FTDelta.compare(base, upd);
+        ids.reset();
+        pos.reset();
+        if(c <= 0) {
+          // entries of the base segment: skip deleted nodes
+          FTPostings.read(inZ, inY.read5(p + l), inY.read4(p + l + 5), ids, pos);
+          int n = 0;
+          final int is = ids.size();
+          for(int i = 0; i < is; i++) {
+            final int id = ids.get(i);
+            if(segment.deleted.contains(id)) continue;
+            ids.set(n, id);
+            pos.set(n++, pos.get(i));
+          }
+          ids.size(n);
+          pos.size(n);
+          p += l + ENTRY;
+        }
+        if(c >= 0) {
+          segment.get(tokens.get(t++), null, ids, pos);
+          sort(ids, pos);
+        }
+        if(ids.isEmpty()) continue;
+
+        final byte[] token = c <= 0 ? base : upd;
+        if(len < token.length) {
+          len = token.length;
+          ind.add(len);
+          ind.add((int) outY.size());
+        }
+        outY.writeBytes(token);
+        outY.write5(outZ.size());
+        final int is = ids.size();
+        outY.write4(is);
+        FTPostings.write(outZ, ids, pos);
+        count += is;
+      }
+      FTBuilder.writeInd(outX, ind, len + 1, (int) outY.size());
+    } catch(final IOException ex) {
+      Util.stack(ex);
+      ok = false;
+    }
+    if(ok) {
+      try {
+        FTBuilder.writeGrams(meta, 'u', 'v', 'h');
+      } catch(final IOException ex) {
+        Util.stack(ex);
+        ok = false;
+      }
+    }
+
+    synchronized(this) {
+      try {
+        if(ok) {
+          // replace base segment, write journal for the current delta segment
+          super.close();
+          for(final char ch : new char[] { 'x', 'y', 'z', 'g' }) {
+            final IOFile target = meta.dbfile(DATAFTX + ch);
+            target.delete();
+            meta.dbfile(DATAFTX + (char) (ch == 'g' ? 'h' : ch - 3)).rename(target);
+          }
+          entries = count;
+          journal.reset();
+          init(meta, count);
+          write(delta);
+          open();
+        } else {
+          // restore delta segment
+          for(final char ch : new char[] { 'u', 'v', 'w', 'h' }) meta.dbfile(DATAFTX + ch).delete();
+          delta.merge(segment);
+        }
+      } catch(final IOException ex) {
+        throw Util.notExpected(ex);
+      } finally {
+        frozen = null;
+        merger = null;
+      }
+    }
+    return ok;
+  }
+
+  /**
+   * Sorts ids and positions.
+   * @param ids ids
+   * @param pos positions
+   */
+  private static void sort(final IntList ids, final IntList pos) {
+    final int is = ids.size();
+    final LongList list = new LongList(is);
+    for(int i = 0; i < is; i++) list.add((long) ids.get(i) << 32 | pos.get(i));
+    list.sort();
+    for(int i = 0; i < is; i++) {
+      final long l = list.get(i);
+      ids.set(i, (int) (l >>> 32));
+      pos.set(i, (int) l);
+    }
+  }
+
+  /**
+   * Appends the entries of a delta segment to the journal file.
+   * @param segment delta segment
+   * @throws IOException I/O exception
+   */
+  private void write(final FTDelta segment) throws IOException {
+    for(final int id : segment.deleted.toArray()) {
+      out.write1(DELETE);
+      out.writeNum(id);
+      out.writeNum(0);
+    }
+    final IntList ids = new IntList(), pos = new IntList();
+    for(final byte[] token : segment.tokens()) {
+      ids.reset();
+      pos.reset();
+      segment.get(token, null, ids, pos);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        out.write1(ADD);
+        out.writeNum(ids.get(i));
+        out.writeNum(1);
+        out.writeToken(token);
+        out.writeNum(pos.get(i));
+      }
+    }
+    flush();
+  }
+}
@@ -1,6 +1,8 @@
 package org.basex.index.query;
 
 import org.basex.query.util.ft.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
 
 /**
  * This interface provides methods for returning index results.
@@ -23,6 +25,27 @@ public abstract class FTIndexIterator implements IndexIterator {
     public void pos(final int p) { }
   };
 
+  /** Information on the index lookup (can be {@code null}). */
+  private String info;
+
+  /**
+   * Attaches information on the index lookup.
+   * @param string info string
+   * @return self reference
+   */
+  public final FTIndexIterator info(final String string) {
+    info = string;
+    return this;
+  }
+
+  /**
+   * Returns information on the index lookup.
+   * @return info string, or {@code null} if no information is available
+   */
+  public final String info() {
+    return info;
+  }
+
   /**
    * Returns the next match.
    * @return next match (can be {@code null})
@@ -35,6 +58,68 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract void pos(int p);
 
+  /**
+   * Returns the maximum number of matches of a single node.
+   * @return maximum number of matches, or {@code -1} if it is unknown
+   */
+  public int maxMatches() {
+    return -1;
+  }
+
+  /**
+   * Returns the minimum length of the texts of the returned nodes.
+   * @return minimum text length
+   */
+  public int minLength() {
+    return 0;
+  }
+
+  /**
+   * Returns an upper bound for the scores of the returned nodes.
+   * @param length length of the query tokens
+   * @return maximum score, or {@link Double#POSITIVE_INFINITY} if it is unknown
+   */
+  public final double maxScore(final int length) {
+    return bound(maxMatches(), size(), length, minLength());
+  }
+
+  /**
+   * Checks if more results are available. Nodes whose scores will not exceed the specified
+   * minimum may be skipped.
+   * @param min minimum score
+   * @return result of check
+   */
+  public boolean more(final double min) {
+    return more();
+  }
+
+  /**
+   * Advances the iterator to the next node with a pre value that is equal to or greater than
+   * the specified value.
+   * @param pre pre value
+   * @return {@code true} if a node was found
+   */
+  public boolean skip(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Computes an upper bound for the scores of index results.
+   * @param matches maximum number of matches of a single node (-1: unknown)
+   * @param size total number of index results
+   * @param length length of the query tokens
+   * @param minLength minimum text length
+   * @return maximum score
+   */
+  private static double bound(final int matches, final int size, final int length,
+      final int minLength) {
+    return matches == -1 ? Double.POSITIVE_INFINITY :
+      Scoring.textNode(matches, size, length, minLength);
+  }
+
   /**
    * Merges two index array iterators.
    * @param i1 first index array iterator to merge
@@ -79,6 +164,17 @@ public abstract class FTIndexIterator implements IndexIterator {
         return i1.size() + i2.size();
       }
 
+      @Override
+      public int maxMatches() {
+        final int m1 = i1.maxMatches(), m2 = i2.maxMatches();
+        return m1 == -1 || m2 == -1 ? -1 : m1 + m2;
+      }
+
+      @Override
+      public int minLength() {
+        return Math.min(i1.minLength(), i2.minLength());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " | " + i2 + ')';
@@ -87,7 +183,144 @@ public abstract class FTIndexIterator implements IndexIterator {
   }
 
   /**
-   * Merges two index array iterators.
+   * Merges several index iterators. If a minimum score is specified, iterators whose
+   * combined score bounds do not exceed this score are only probed for the nodes returned by
+   * the remaining iterators (MaxScore).
+   * @param iters index iterators to merge
+   * @param length length of the query tokens
+   * @return iterator
+   */
+  public static FTIndexIterator union(final FTIndexIterator[] iters, final int length) {
+    final int il = iters.length;
+    int sz = 0;
+    for(final FTIndexIterator iter : iters) sz += iter.size();
+    final int size = sz;
+    // order iterators by their maximum scores
+    final double[] scores = new double[il];
+    for(int i = 0; i < il; i++) {
+      final FTIndexIterator iter = iters[i];
+      scores[i] = bound(iter.maxMatches(), size, length, iter.minLength());
+    }
+    final int[] order = Array.createOrder(scores, true);
+
+    return new FTIndexIterator() {
+      /** Current pre values of the iterators ({@code -1}: not started). */
+      private final int[] pres = new int[il];
+      /** Number of non-essential iterators (first entries in the order array). */
+      private int skipped;
+      /** Minimum score that was used for computing the non-essential iterators. */
+      private double min = Double.NEGATIVE_INFINITY;
+      /** Current pre value. */
+      private int pre = -1;
+      /** Current matches. */
+      private FTMatches all;
+
+      {
+        for(int i = 0; i < il; i++) pres[i] = -1;
+      }
+
+      @Override
+      public boolean more() {
+        return more(min);
+      }
+
+      @Override
+      public boolean more(final double mn) {
+        if(mn != min) {
+          // find iterators whose nodes cannot exceed the minimum score on their own
+          min = mn;
+          int matches = 0, minLength = Integer.MAX_VALUE, s = 0;
+          for(; s < il; s++) {
+            final FTIndexIterator iter = iters[order[s]];
+            final int m = iter.maxMatches();
+            if(m == -1) break;
+            matches += m;
+            minLength = Math.min(minLength, iter.minLength());
+            if(bound(matches, size, length, minLength) > mn) break;
+          }
+          skipped = s;
+        }
+
+        // advance essential iterators, choose smallest pre value
+        int p = Integer.MAX_VALUE;
+        for(int s = skipped; s < il; s++) {
+          final int i = order[s];
+          if(pres[i] <= pre) pres[i] = iters[i].skip(pre + 1) ? iters[i].pre() : Integer.MAX_VALUE;
+          p = Math.min(p, pres[i]);
+        }
+        if(p == Integer.MAX_VALUE) return false;
+        pre = p;
+
+        // probe non-essential iterators
+        for(int s = 0; s < skipped; s++) {
+          final int i = order[s];
+          if(pres[i] < p) pres[i] = iters[i].skip(p) ? iters[i].pre() : Integer.MAX_VALUE;
+        }
+        // merge matches
+        all = null;
+        for(int i = 0; i < il; i++) {
+          if(pres[i] != p) continue;
+          if(all == null) {
+            all = iters[i].matches();
+          } else {
+            for(final FTMatch m : iters[i].matches()) all.add(m);
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public void pos(final int p) {
+        for(final FTIndexIterator iter : iters) iter.pos(p);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public int maxMatches() {
+        int matches = 0;
+        for(final FTIndexIterator iter : iters) {
+          final int m = iter.maxMatches();
+          if(m == -1) return -1;
+          matches += m;
+        }
+        return matches;
+      }
+
+      @Override
+      public int minLength() {
+        int minLength = Integer.MAX_VALUE;
+        for(final FTIndexIterator iter : iters) minLength = Math.min(minLength, iter.minLength());
+        return minLength;
+      }
+
+      @Override
+      public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for(final FTIndexIterator iter : iters) {
+          sb.append(sb.length() == 0 ? "(" : " | ").append(iter);
+        }
+        return sb.append(')').toString();
+      }
+    };
+  }
+
+  /**
+   * Intersects two index array iterators. The iterators skip the nodes that cannot be contained
+   * in the other iterator.
    * @param i1 first index array iterator to merge
    * @param i2 second index array iterator to merge
    * @param dis word distance. Ignored if {@code 0}
@@ -97,27 +330,45 @@ public abstract class FTIndexIterator implements IndexIterator {
       final int dis) {
 
     return new FTIndexIterator() {
-      private FTIndexIterator ii1, ii2;
       private FTMatches all;
+      /** Current pre value of the second iterator ({@code -1}: not started). */
+      private int p2 = -1;
 
       @Override
       public boolean more() {
-        int d = 0;
+        return i1.more() && find();
+      }
+
+      @Override
+      public boolean skip(final int pre) {
+        return i1.skip(pre) && find();
+      }
+
+      /**
+       * Finds the next node that is returned by both iterators, starting from the current node
+       * of the first iterator.
+       * @return {@code true} if a node was found
+       */
+      private boolean find() {
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
-          if(ii1 == null || ii2 == null) return false;
-          d = ii1.pre() - ii2.pre();
-          if(d != 0) continue;
-          all = ii1.matches();
-          final FTMatches all2 = ii2.matches();
-          if(dis == 0) {
-            for(final FTMatch m1 : all) {
-              for(final FTMatch m2 : all2) m1.add(m2);
+          final int p1 = i1.pre();
+          if(p2 < p1) {
+            if(!i2.skip(p1)) return false;
+            p2 = i2.pre();
+          }
+          if(p1 == p2) {
+            all = i1.matches();
+            final FTMatches all2 = i2.matches();
+            if(dis == 0) {
+              for(final FTMatch m1 : all) {
+                for(final FTMatch m2 : all2) m1.add(m2);
+              }
+              return true;
             }
-            return true;
-          } else if(all.phrase(all2, dis)) {
-            return true;
+            if(all.phrase(all2, dis)) return true;
+            if(!i1.more()) return false;
+          } else if(!i1.skip(p2)) {
+            return false;
           }
         }
       }
@@ -129,7 +380,7 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public int pre() {
-        return ii1.pre();
+        return i1.pre();
       }
 
       @Override
@@ -143,6 +394,16 @@ public abstract class FTIndexIterator implements IndexIterator {
         return Math.min(i1.size(), i2.size());
       }
 
+      @Override
+      public int maxMatches() {
+        return i1.maxMatches();
+      }
+
+      @Override
+      public int minLength() {
+        return Math.max(i1.minLength(), i2.minLength());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " & " + i2 + ')';
@@ -0,0 +1,92 @@
+package org.basex.index.query;
+
+import org.basex.index.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * This class stores a range of dateTime, date or time values for index access.
+ * The minimum and maximum keys are seconds since 1970-01-01T00:00:00Z. If the limits or the
+ * indexed values may have no timezone, the keys are extended by the maximum timezone offset,
+ * and the returned candidates are compared with the exact limits.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRange implements IndexToken {
+  /** Maximum timezone offset in seconds. */
+  private static final int OFFSET = 14 * 60 * 60;
+
+  /** Index type. */
+  private final IndexType type;
+  /** Minimum value ({@code null} if unbounded). */
+  public final ADate min;
+  /** Include minimum value. */
+  public final boolean mni;
+  /** Maximum value ({@code null} if unbounded). */
+  public final ADate max;
+  /** Include maximum value. */
+  public final boolean mxi;
+  /** Minimum key. */
+  public final double minKey;
+  /** Maximum key. */
+  public final double maxKey;
+
+  /**
+   * Constructor.
+   * @param type index type
+   * @param min minimum value (can be {@code null})
+   * @param mni include minimum value
+   * @param max maximum value (can be {@code null})
+   * @param mxi include maximum value
+   * @param implicit indicates if indexed values without timezone exist
+   */
+  public TemporalRange(final IndexType type, final ADate min, final boolean mni, final ADate max,
+      final boolean mxi, final boolean implicit) {
+    this.type = type;
+    this.min = min;
+    this.mni = mni;
+    this.max = max;
+    this.mxi = mxi;
+    minKey = min == null ? Double.NEGATIVE_INFINITY :
+      min.epoch() - (implicit || !min.hasTz() ? OFFSET : 0);
+    maxKey = max == null ? Double.POSITIVE_INFINITY :
+      max.epoch() + (implicit || !max.hasTz() ? OFFSET : 0);
+  }
+
+  /**
+   * Checks if the specified value is within the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean contains(final byte[] value) {
+    final ADate date = ADate.parse(value);
+    if(date == null) return false;
+    final ADate limit = min != null ? min : max;
+    if(date.type != limit.type) return false;
+    try {
+      if(min != null) {
+        final int d = date.diff(min, null, null);
+        if(mni ? d < 0 : d <= 0) return false;
+      }
+      if(max != null) {
+        final int d = date.diff(max, null, null);
+        if(mxi ? d > 0 : d >= 0) return false;
+      }
+      return true;
+    } catch(final QueryException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  @Override
+  public IndexType type() {
+    return type;
+  }
+
+  @Override
+  public byte[] get() {
+    return Token.EMPTY;
+  }
+}
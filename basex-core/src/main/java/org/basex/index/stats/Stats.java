@@ -8,6 +8,8 @@ import java.io.*;
 import org.basex.data.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
 import org.basex.util.hash.*;
 
 /**
@@ -27,6 +29,8 @@ public final class Stats {
   public int count;
   /** Data type. */
   public byte type;
+  /** Indicates if temporal values without timezone exist. */
+  public boolean implicit;
 
   /** Leaf node flag. Indicates if all nodes only have a text node as child. */
   private boolean leaf;
@@ -56,6 +60,9 @@ public final class Stats {
       min = in.readDouble();
       max = in.readDouble();
     }
+    if(isTemporal(t)) {
+      implicit = in.readBool();
+    }
     if(isCategory(t)) {
       values = new TokenIntMap(in);
     }
@@ -76,7 +83,10 @@ public final class Stats {
         values = null;
       } else if(!isCategory(type)) {
         type = type == INTEGER ? INTEGER_CATEGORY :
-               type == DOUBLE ? DOUBLE_CATEGORY : STRING_CATEGORY;
+               type == DOUBLE ? DOUBLE_CATEGORY :
+               type == DATETIME ? DATETIME_CATEGORY :
+               type == DATE ? DATE_CATEGORY :
+               type == TIME ? TIME_CATEGORY : STRING_CATEGORY;
       }
     }
 
@@ -85,6 +95,9 @@ public final class Stats {
       out.writeDouble(min);
       out.writeDouble(max);
     }
+    if(isTemporal(type)) {
+      out.writeBool(implicit);
+    }
     if(isCategory(type)) {
       values.write(out);
     }
@@ -98,8 +111,10 @@ public final class Stats {
   /**
    * Adds a value. All values are first treated as integer values. If a value cannot be converted
    * to an integer, it is treated as double value. If conversion fails again, it is handled as
-   * string category. Next, all values are cached. As soon as their number exceeds a maximum,
-   * the cached values are skipped, and contents are treated as arbitrary strings.
+   * string category. If the first value is a dateTime, date or time, all values are treated as
+   * values of this type, or as strings if conversion fails. Next, all values are cached. As soon
+   * as their number exceeds a maximum, the cached values are skipped, and contents are treated as
+   * arbitrary strings.
    * @param value value to be added
    * @param meta meta data
    */
@@ -108,9 +123,13 @@ public final class Stats {
     final int vl = value.length;
     // only analyze non-empty values
     if(vl > 0) {
-      // start with integer type
       if(t == NONE) {
-        t = INTEGER;
+        // start with temporal type or integer type
+        t = temporal(value);
+        if(t == STRING) t = INTEGER;
+      } else if(isTemporal(t)) {
+        // try to save new value as temporal value of the same type
+        if(temporal(value) != t) t = STRING;
       }
       // try to save new value as integer
       if(t == INTEGER) {
@@ -148,6 +167,19 @@ public final class Stats {
     }
   }
 
+  /**
+   * Returns the temporal type of a value.
+   * @param value value
+   * @return {@link StatsType#DATETIME}, {@link StatsType#DATE}, {@link StatsType#TIME}, or
+   *   {@link StatsType#STRING} if the value is no temporal value
+   */
+  private byte temporal(final byte[] value) {
+    final ADate date = ADate.parse(value);
+    if(date == null) return STRING;
+    if(!date.hasTz()) implicit = true;
+    return date.type == AtomType.DTM ? DATETIME : date.type == AtomType.DAT ? DATE : TIME;
+  }
+
   /**
    * Getter for leaf flag.
    * @return leaf flag
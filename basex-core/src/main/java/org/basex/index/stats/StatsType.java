@@ -24,6 +24,18 @@ public final class StatsType {
   public static final byte INTEGER_CATEGORY = 5;
   /** All distinct values are of type double. */
   public static final byte DOUBLE_CATEGORY = 6;
+  /** All values are of type dateTime. */
+  public static final byte DATETIME = 7;
+  /** All values are of type date. */
+  public static final byte DATE = 8;
+  /** All values are of type time. */
+  public static final byte TIME = 9;
+  /** All distinct values are of type dateTime. */
+  public static final byte DATETIME_CATEGORY = 10;
+  /** All distinct values are of type date. */
+  public static final byte DATE_CATEGORY = 11;
+  /** All distinct values are of type time. */
+  public static final byte TIME_CATEGORY = 12;
 
   /**
    * Indicates if no data exists.
@@ -62,12 +74,48 @@ public final class StatsType {
   }
 
   /**
-   * Indicates if the specified type is a string.
+   * Indicates if the specified type is a date, time or dateTime.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isTemporal(final int type) {
+    return isDateTime(type) || isDate(type) || isTime(type);
+  }
+
+  /**
+   * Indicates if the specified type is a dateTime.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isDateTime(final int type) {
+    return type == DATETIME || type == DATETIME_CATEGORY;
+  }
+
+  /**
+   * Indicates if the specified type is a date.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isDate(final int type) {
+    return type == DATE || type == DATE_CATEGORY;
+  }
+
+  /**
+   * Indicates if the specified type is a time.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isTime(final int type) {
+    return type == TIME || type == TIME_CATEGORY;
+  }
+
+  /**
+   * Indicates if the specified type is a string. Temporal values are treated as strings.
    * @param type type
    * @return result of check
    */
   public static boolean isString(final int type) {
-    return type == STRING || type == STRING_CATEGORY;
+    return type == STRING || type == STRING_CATEGORY || isTemporal(type);
   }
 
   /**
@@ -76,7 +124,8 @@ public final class StatsType {
    * @return result of check
    */
   public static boolean isCategory(final int type) {
-    return type == INTEGER_CATEGORY || type == DOUBLE_CATEGORY || type == STRING_CATEGORY;
+    return type == INTEGER_CATEGORY || type == DOUBLE_CATEGORY || type == STRING_CATEGORY ||
+        type >= DATETIME_CATEGORY && type <= TIME_CATEGORY;
   }
 
   /**
@@ -85,7 +134,8 @@ public final class StatsType {
    * @return string
    */
   public static String toString(final int type) {
-    return isInteger(type) ? "integer" : isDouble(type) ? "double" : isString(type) ? "string" :
-      "none";
+    return isInteger(type) ? "integer" : isDouble(type) ? "double" :
+      isDateTime(type) ? "dateTime" : isDate(type) ? "date" : isTime(type) ? "time" :
+      isString(type) ? "string" : "none";
   }
 }
@@ -12,6 +12,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.query.util.*;
 import org.basex.util.*;
@@ -36,6 +37,10 @@ public class DiskValues extends ValueIndex {
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
+  /** Typed index for numeric ranges ({@code null} if it does not exist). */
+  NumericValues numeric;
+  /** Typed index for temporal ranges ({@code null} if it does not exist). */
+  NumericValues temporal;
 
   /** Synchronization object. */
   private final Object monitor = new Object();
@@ -63,6 +68,9 @@ public class DiskValues extends ValueIndex {
     idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
     size.set(idxl.read4());
+    final IOFile num = data.meta.dbfile(pref + 'n'), tmp = data.meta.dbfile(pref + 'd');
+    if(num.exists()) numeric = new NumericValues(num, false);
+    if(tmp.exists()) temporal = new NumericValues(tmp, true);
   }
 
   @Override
@@ -73,8 +81,10 @@ public class DiskValues extends ValueIndex {
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
+      final long l = idxl.length() + idxr.length() + (numeric != null ? numeric.length() : 0) +
+          (temporal != null ? temporal.length() : 0);
       tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+      tb.add(LI_BUDGET).add(Performance.format(IndexBuilder.budget(data.meta))).add(NL);
       final int entries = size();
       for(int index = 0; index < entries; index++) {
         final long pos = idxr.read5(index * 5L);
@@ -93,9 +103,18 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final IndexCosts costs(final IndexToken it) {
+    // typed index: exact number of results
+    if(it instanceof NumericRange && numeric != null) {
+      final NumericRange nr = (NumericRange) it;
+      return IndexCosts.get(numeric.count(nr.min, nr.max));
+    }
+    if(it instanceof TemporalRange && temporal != null) {
+      final TemporalRange tr = (TemporalRange) it;
+      return IndexCosts.get(temporal.count(tr.minKey, tr.maxKey));
+    }
     return IndexCosts.get(
       it instanceof StringRange ? Math.max(1, data.meta.size / 10) :
-      it instanceof NumericRange ? Math.max(1, data.meta.size / 3) :
+      it instanceof NumericRange || it instanceof TemporalRange ? Math.max(1, data.meta.size / 3) :
       entry(it.get()).size);
   }
 
@@ -106,6 +125,8 @@ public class DiskValues extends ValueIndex {
       pres = idRange((StringRange) token);
     } else if(token instanceof NumericRange) {
       pres = idRange((NumericRange) token);
+    } else if(token instanceof TemporalRange) {
+      pres = idRange((TemporalRange) token);
     } else {
       final IndexEntry ie = entry(token.get());
       pres = pres(ie.size, ie.offset);
@@ -133,6 +154,8 @@ public class DiskValues extends ValueIndex {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
+      if(numeric != null) numeric.close();
+      if(temporal != null) temporal.close();
     }
   }
 
@@ -158,6 +181,84 @@ public class DiskValues extends ValueIndex {
   public final void flush() {
     idxl.flush();
     idxr.flush();
+    if(numeric != null) numeric.flush();
+    if(temporal != null) temporal.flush();
+  }
+
+  /**
+   * Indicates if numeric ranges are retrieved from a typed index.
+   * @return result of check
+   */
+  public final boolean numeric() {
+    return numeric != null;
+  }
+
+  /**
+   * Indicates if temporal ranges are retrieved from a typed index.
+   * @return result of check
+   */
+  public final boolean temporal() {
+    return temporal != null;
+  }
+
+  /**
+   * Applies buffered updates of the typed indexes.
+   */
+  public final void apply() {
+    if(numeric != null) numeric.apply();
+    if(temporal != null) temporal.apply();
+  }
+
+  /**
+   * Creates the typed indexes for numeric and temporal ranges from all numeric and temporal keys.
+   * @throws IOException I/O exception
+   */
+  final void createTyped() throws IOException {
+    final LongList nums = new LongList(), tmps = new LongList();
+    final IntList numIds = new IntList(), tmpIds = new IntList();
+    final boolean text = type == IndexType.TEXT;
+    final int entries = size();
+    for(int index = 0; index < entries; index++) {
+      final int count = idxl.readNum(idxr.read5(index * 5L));
+      int id = idxl.readNum();
+      final int pre = pre(id);
+      double value = NumericValues.normalize(data.textDbl(pre, text));
+      final LongList values;
+      final IntList ids;
+      if(Double.isNaN(value)) {
+        value = NumericValues.temporal(data.text(pre, text));
+        if(Double.isNaN(value)) continue;
+        values = tmps;
+        ids = tmpIds;
+      } else {
+        values = nums;
+        ids = numIds;
+      }
+      final long bits = Double.doubleToRawLongBits(value);
+      for(int c = 0; c < count; c++) {
+        values.add(bits);
+        ids.add(id);
+        if(c + 1 < count) id += idxl.readNum();
+      }
+    }
+    final String pref = fileSuffix(type);
+    final IOFile num = data.meta.dbfile(pref + 'n'), tmp = data.meta.dbfile(pref + 'd');
+    NumericValues.write(num, NumericValues.doubles(nums), numIds.finish());
+    NumericValues.write(tmp, NumericValues.doubles(tmps), tmpIds.finish());
+    numeric = new NumericValues(num, false);
+    temporal = new NumericValues(tmp, true);
+  }
+
+  /**
+   * Registers the index files in a write-ahead log.
+   * @param wal write-ahead log
+   */
+  public final void wal(final WriteAheadLog wal) {
+    final String pref = fileSuffix(type);
+    wal.register(pref + 'l', idxl);
+    wal.register(pref + 'r', idxr);
+    if(numeric != null) numeric.wal(wal, pref + 'n');
+    if(temporal != null) temporal.wal(wal, pref + 'd');
   }
 
   /**
@@ -422,6 +523,26 @@ public class DiskValues extends ValueIndex {
     return pres.sort();
   }
 
+  /**
+   * Performs a range query on the typed index for temporal ranges.
+   * Candidates are compared with the exact range limits.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param tok index term
+   * @return results
+   */
+  private IntList idRange(final TemporalRange tok) {
+    if(temporal == null) return new IntList(0);
+    final IntList ids = temporal.ids(tok.minKey, tok.maxKey);
+    final boolean text = type == IndexType.TEXT;
+    final int is = ids.size();
+    final IntList pres = new IntList(is);
+    for(int i = 0; i < is; i++) {
+      final int pre = pre(ids.get(i));
+      if(tok.contains(data.text(pre, text))) pres.add(pre);
+    }
+    return pres.sort();
+  }
+
   /**
    * Performs a range query. All index values must be numeric.
    * <p><em>Important:</em> This method is thread-safe.</p>
@@ -429,8 +550,17 @@ public class DiskValues extends ValueIndex {
    * @return results
    */
   private IntList idRange(final NumericRange tok) {
-    // check if min and max are positive integers with the same number of digits
     final double min = tok.min, max = tok.max;
+    // typed index: retrieve ids of all values in the range
+    if(numeric != null) {
+      final IntList ids = numeric.ids(min, max);
+      final int is = ids.size();
+      final IntList pres = new IntList(is);
+      for(int i = 0; i < is; i++) pres.add(pre(ids.get(i)));
+      return pres.sort();
+    }
+
+    // check if min and max are positive integers with the same number of digits
     final int len = max > 0 && (long) max == max ? token(max).length : 0;
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
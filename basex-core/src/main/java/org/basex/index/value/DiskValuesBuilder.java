@@ -4,6 +4,7 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 
+import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.io.out.DataOutput;
@@ -26,12 +27,28 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'n'}: contains the typed index for numeric ranges, which is
+ *   created if {@link MainOptions#NUMINDEX} is enabled. The format is described in the
+ *   {@link NumericValues} class.</li>
+ * <li> {@code DATATXT/ATV + 'd'}: contains the typed index for temporal ranges, which is
+ *   created together with the typed index for numeric ranges.</li>
  * </ul>
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 18;
+  /** Number of partitions ({@code 0}: depends on the number of nodes and processors). */
+  static int partitions;
+
+  /** Parent builder ({@code null} if this is no partition). */
+  private final DiskValuesBuilder parent;
+  /** First pre value to index. */
+  private final int start;
+  /** Pre value after the last node to index. */
+  private final int end;
   /** Temporary value tree. */
   private IndexTree index;
 
@@ -41,42 +58,57 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    * @param type index type
    */
   public DiskValuesBuilder(final Data data, final IndexType type) {
+    this(data, type, null, 0, data.meta.size);
+  }
+
+  /**
+   * Constructor for a partition.
+   * @param data data reference
+   * @param type index type
+   * @param parent parent builder ({@code null} if this is no partition)
+   * @param start first pre value to index
+   * @param end pre value after the last node to index
+   */
+  private DiskValuesBuilder(final Data data, final IndexType type, final DiskValuesBuilder parent,
+      final int start, final int end) {
     super(data, type);
+    this.parent = parent;
+    this.start = start;
+    this.end = end;
     index = new IndexTree(type);
   }
 
   @Override
-  public DiskValues build() throws IOException {
-    Util.debug(detailedInfo());
-
+  protected DiskValues index() throws IOException {
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
+      final int ps = partitions > 0 ? partitions : partitions(PARTITION);
+      if(ps == 1) {
+        scan();
+        writeIndex(splits > 0);
+      } else {
+        // index partitions in parallel, merge partial index structures
+        final DiskValuesBuilder[] builders = new DiskValuesBuilder[ps];
+        for(int p = 0; p < ps; p++) {
+          builders[p] = new DiskValuesBuilder(data, type, this, (int) ((long) size * p / ps),
+              (int) ((long) size * (p + 1) / ps));
         }
+        parallel(ps, p -> builders[p].partition());
+        for(final DiskValuesBuilder builder : builders) count += builder.count;
       }
 
-      writeIndex(splits > 0);
       if(splits > 1) {
         index = null;
-        clean();
         merge();
       }
 
+      // typed indexes: remove files of previous index, create new indexes if requested
+      data.meta.dbfile(DiskValues.fileSuffix(type) + 'n').delete();
+      data.meta.dbfile(DiskValues.fileSuffix(type) + 'd').delete();
+      final DiskValues values = data.meta.updindex ? new UpdatableDiskValues(data, type) :
+        new DiskValues(data, type);
+      if(data.meta.numindex && !tokenize) values.createTyped();
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return values;
 
     } catch(final Throwable th) {
       // drop index files
@@ -85,17 +117,72 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  /**
+   * Indexes a partition and writes it to disk.
+   * @throws IOException I/O exception
+   */
+  private void partition() throws IOException {
+    try {
+      scan();
+      writeIndex(true);
+      index = null;
+    } finally {
+      unregister();
+    }
+  }
+
+  /**
+   * Adds all index entries of the assigned nodes to the value tree.
+   * @throws IOException I/O exception
+   */
+  private void scan() throws IOException {
+    final boolean updindex = data.meta.updindex;
+    for(pre = start; pre < end; ++pre) {
+      if((pre & 0x0FFF) == 0) check();
+      if(indexEntry()) {
+        final int id = updindex ? data.id(pre) : pre;
+        if(tokenize) {
+          int pos = 0;
+          for(final byte[] token : distinctTokens(data.text(pre, text))) {
+            index.add(token, id, pos++);
+            count++;
+          }
+        } else if(data.textLen(pre, text) <= data.meta.maxlen) {
+          index.add(data.text(pre, text), id, 0);
+          count++;
+        }
+      }
+    }
+  }
+
   @Override
   protected void check() throws IOException {
-    super.check();
+    if(parent != null) parent.advance();
+    else super.check();
     // check if main memory is exhausted
-    if(splitRequired()) {
+    if(splitRequired(index.memory())) {
       writeIndex(true);
       index = new IndexTree(type);
-      clean();
     }
   }
 
+  /**
+   * Registers the progress of a partition.
+   * @throws IOException I/O exception
+   */
+  private synchronized void advance() throws IOException {
+    pre += 0x1000;
+    super.check();
+  }
+
+  /**
+   * Returns the number of the next partial index structure.
+   * @return split number
+   */
+  private synchronized int split() {
+    return splits++;
+  }
+
   /**
    * Merges cached index files.
    * @throws IOException I/O exception
@@ -168,8 +255,9 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
-    // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    // write id arrays and references (partitions share the split numbers of their parent)
+    final int split = parent != null ? parent.split() : splits;
+    final String name = DiskValues.fileSuffix(type) + (partial ? split : "");
     try(DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
       outL.write4(index.size());
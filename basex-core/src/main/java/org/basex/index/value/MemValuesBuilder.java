@@ -6,7 +6,6 @@ import java.io.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
-import org.basex.util.*;
 
 /**
  * <p>This class builds a main-memory index for attribute values and text contents.</p>
@@ -25,9 +24,7 @@ public class MemValuesBuilder extends ValuesBuilder {
   }
 
   @Override
-  public MemValues build() throws IOException {
-    Util.debug(detailedInfo());
-
+  protected MemValues index() throws IOException {
     final MemValues index = new MemValues(data, type);
     final boolean updindex = data.meta.updindex;
     for(pre = 0; pre < size; pre++) {
@@ -0,0 +1,450 @@
+package org.basex.index.value;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class provides a typed index for numeric or temporal range queries on texts and
+ * attribute values. Both indexes are created together with the text and attribute index if
+ * {@link MainOptions#NUMINDEX} is enabled. The numeric index contains the ids of all index keys
+ * that can be converted to numbers. The temporal index contains the ids of all keys that can be
+ * converted to dateTime, date or time values: the values are stored as seconds since
+ * 1970-01-01T00:00:00Z (see {@link ADate#epoch()}); values without timezone are stored as
+ * UTC values.</p>
+ *
+ * <p>The numeric index is stored in the file {@code DATATXT/ATV + 'n'}, the temporal index in
+ * {@code DATATXT/ATV + 'd'}. The number of entries is stored
+ * in the first 4 bytes, followed by fixed-size entries (8 bytes: double value, 4 bytes: id),
+ * which are sorted by values and ids. The first value of each block of {@link #BLOCK} entries
+ * is kept in main memory. Lookups perform a binary search on these fences and on the entries
+ * of a single block.</p>
+ *
+ * <p>Updates are buffered and applied in a single pass before the index is accessed or written
+ * to disk.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class NumericValues {
+  /** Number of entries per block. */
+  private static final int BLOCK = 256;
+  /** Size of an entry. */
+  private static final int ENTRY = 12;
+
+  /** Index file. */
+  private final DataAccess da;
+  /** Temporal index. */
+  private final boolean temporal;
+  /** First values of all blocks. */
+  private double[] fences;
+  /** Number of entries. */
+  private int size;
+
+  /** Buffered updates: values. */
+  private final LongList values = new LongList();
+  /** Buffered updates: ids. */
+  private final IntList ids = new IntList();
+  /** Buffered updates: flags for added entries. */
+  private final BoolList added = new BoolList();
+
+  /**
+   * Constructor, opening an existing index.
+   * @param file index file
+   * @param temporal temporal index
+   * @throws IOException I/O exception
+   */
+  NumericValues(final IOFile file, final boolean temporal) throws IOException {
+    da = new DataAccess(file);
+    this.temporal = temporal;
+    size = da.read4(0);
+    fences();
+  }
+
+  /**
+   * Writes a new index.
+   * @param file index file
+   * @param vals values (will be sorted)
+   * @param nodes ids
+   * @throws IOException I/O exception
+   */
+  static void write(final IOFile file, final double[] vals, final int[] nodes) throws IOException {
+    final int[] sorted = sort(vals, nodes);
+    try(DataOutput out = new DataOutput(file)) {
+      final int sz = vals.length;
+      out.write4(sz);
+      for(int i = 0; i < sz; i++) {
+        out.write8(Double.doubleToRawLongBits(vals[i]));
+        out.write4(sorted[i]);
+      }
+    }
+  }
+
+  /**
+   * Normalizes a numeric key.
+   * @param value value
+   * @return normalized value
+   */
+  static double normalize(final double value) {
+    // negative zero: store as positive zero (buffered updates are compared by their bit patterns)
+    return value == 0 ? 0 : value;
+  }
+
+  /**
+   * Returns the temporal key of a token.
+   * @param token token
+   * @return key, or {@link Double#NaN} if the token is no dateTime, date or time
+   */
+  static double temporal(final byte[] token) {
+    final ADate date = ADate.parse(token);
+    return date != null ? normalize(date.epoch()) : Double.NaN;
+  }
+
+  /**
+   * Converts a list with bit patterns to double values.
+   * @param list list
+   * @return values
+   */
+  static double[] doubles(final LongList list) {
+    final int ls = list.size();
+    final double[] vals = new double[ls];
+    for(int l = 0; l < ls; l++) vals[l] = Double.longBitsToDouble(list.get(l));
+    return vals;
+  }
+
+  /**
+   * Returns the number of entries within the specified range.
+   * @param min minimum value (inclusive)
+   * @param max maximum value (inclusive)
+   * @return number of entries
+   */
+  synchronized int count(final double min, final double max) {
+    apply();
+    return Math.max(0, first(max, true) - first(min, false));
+  }
+
+  /**
+   * Returns the ids of all entries within the specified range.
+   * @param min minimum value (inclusive)
+   * @param max maximum value (inclusive)
+   * @return ids (unsorted)
+   */
+  synchronized IntList ids(final double min, final double max) {
+    apply();
+    final int first = first(min, false), last = first(max, true);
+    final IntList list = new IntList(Math.max(0, last - first));
+    for(int i = first; i < last; i += BLOCK) {
+      final int n = Math.min(BLOCK, last - i);
+      final byte[] entries = da.readBytes(offset(i), n * ENTRY);
+      for(int e = 0; e < n; e++) list.add(id(entries, e));
+    }
+    return list;
+  }
+
+  /**
+   * Buffers entries to be added.
+   * @param vc value cache
+   */
+  synchronized void add(final ValueCache vc) {
+    cache(vc, true);
+  }
+
+  /**
+   * Buffers entries to be deleted.
+   * @param vc value cache
+   */
+  synchronized void delete(final ValueCache vc) {
+    cache(vc, false);
+  }
+
+  /**
+   * Applies all buffered updates.
+   */
+  synchronized void apply() {
+    final int bs = ids.size();
+    if(bs == 0) return;
+
+    // an id is assigned to a single key: only the first and last operation need to be considered
+    final IntMap firsts = new IntMap(), lasts = new IntMap();
+    for(int b = 0; b < bs; b++) {
+      final int id = ids.get(b);
+      if(!firsts.contains(id)) firsts.put(id, b);
+      lasts.put(id, b);
+    }
+    final LongList delVals = new LongList(), addVals = new LongList();
+    final IntList delIds = new IntList(), addIds = new IntList();
+    final int fs = firsts.size();
+    for(int f = 1; f <= fs; f++) {
+      final int id = firsts.key(f), first = firsts.get(id), last = lasts.get(id);
+      final boolean del = !added.get(first), add = added.get(last);
+      if(del && add && values.get(first) == values.get(last)) continue;
+      if(del) {
+        delVals.add(values.get(first));
+        delIds.add(id);
+      }
+      if(add) {
+        addVals.add(values.get(last));
+        addIds.add(id);
+      }
+    }
+    values.reset();
+    ids.reset();
+    added.reset();
+
+    if(!delIds.isEmpty()) {
+      final double[] vals = doubles(delVals);
+      remove(vals, sort(vals, delIds.finish()));
+    }
+    if(!addIds.isEmpty()) {
+      final double[] vals = doubles(addVals);
+      insert(vals, sort(vals, addIds.finish()));
+    }
+    da.write4(0, size);
+    fences();
+  }
+
+  /**
+   * Returns the size of the index file.
+   * @return size
+   */
+  synchronized long length() {
+    return da.length();
+  }
+
+  /**
+   * Registers the index file in a write-ahead log.
+   * @param wal write-ahead log
+   * @param name name of the file
+   */
+  void wal(final WriteAheadLog wal, final String name) {
+    wal.register(name, da);
+  }
+
+  /**
+   * Flushes the buffered data.
+   */
+  synchronized void flush() {
+    apply();
+    da.flush();
+  }
+
+  /**
+   * Closes the index.
+   */
+  synchronized void close() {
+    apply();
+    da.close();
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Buffers the numeric or temporal keys of a value cache.
+   * @param vc value cache
+   * @param add add or delete entries
+   */
+  private void cache(final ValueCache vc, final boolean add) {
+    for(final byte[] key : vc) {
+      final double value = temporal ? temporal(key) : normalize(Token.toDouble(key));
+      if(Double.isNaN(value)) continue;
+      final long bits = Double.doubleToRawLongBits(value);
+      final IntList list = vc.ids(key);
+      final int ls = list.size();
+      for(int l = 0; l < ls; l++) {
+        values.add(bits);
+        ids.add(list.get(l));
+        added.add(add);
+      }
+    }
+  }
+
+  /**
+   * Removes entries from the index. Remaining entries are moved to the front.
+   * @param vals sorted values
+   * @param nodes ids
+   */
+  private void remove(final double[] vals, final int[] nodes) {
+    final int ds = vals.length;
+    int d = 0, w = first(vals[0], false);
+    for(int r = w; r < size; r++) {
+      final double value = value(r);
+      final int id = da.read4();
+      while(d < ds && compare(vals[d], nodes[d], value, id) < 0) d++;
+      if(d < ds && vals[d] == value && nodes[d] == id) {
+        d++;
+      } else {
+        if(w != r) write(w, value, id);
+        w++;
+      }
+    }
+    size = w;
+  }
+
+  /**
+   * Inserts entries into the index. Existing entries are moved to the back.
+   * @param vals sorted values
+   * @param nodes ids
+   */
+  private void insert(final double[] vals, final int[] nodes) {
+    int r = size - 1, a = vals.length - 1, w = size + a;
+    while(a >= 0) {
+      final double value = r >= 0 ? value(r) : 0;
+      final int id = r >= 0 ? da.read4() : 0;
+      if(r >= 0 && compare(value, id, vals[a], nodes[a]) > 0) {
+        write(w, value, id);
+        r--;
+      } else {
+        write(w, vals[a], nodes[a]);
+        a--;
+      }
+      w--;
+    }
+    size += vals.length;
+  }
+
+  /**
+   * Returns the position of the first entry that is greater than or equal to the
+   * specified value.
+   * @param value value
+   * @param greater only accept entries that are greater than the specified value
+   * @return position
+   */
+  private int first(final double value, final boolean greater) {
+    // find first block with a matching first entry
+    int l = 0, h = fences.length - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(matches(fences[m], value, greater)) h = m - 1;
+      else l = m + 1;
+    }
+    if(l == 0) return 0;
+
+    // search entries of the preceding block
+    final int start = (l - 1) * BLOCK, n = Math.min(BLOCK, size - start);
+    final byte[] entries = da.readBytes(offset(start), n * ENTRY);
+    int el = 1, eh = n - 1;
+    while(el <= eh) {
+      final int m = el + eh >>> 1;
+      if(matches(value(entries, m), value, greater)) eh = m - 1;
+      else el = m + 1;
+    }
+    return start + el;
+  }
+
+  /**
+   * Checks if an entry value is accepted by a lookup.
+   * @param entry entry value
+   * @param value value
+   * @param greater only accept entries that are greater than the specified value
+   * @return result of check
+   */
+  private static boolean matches(final double entry, final double value, final boolean greater) {
+    return greater ? entry > value : entry >= value;
+  }
+
+  /**
+   * Reads the first values of all blocks.
+   */
+  private void fences() {
+    final int fs = (size + BLOCK - 1) / BLOCK;
+    fences = new double[fs];
+    for(int f = 0; f < fs; f++) fences[f] = value(f * BLOCK);
+  }
+
+  /**
+   * Reads the value of an entry. The cursor will be placed before the id.
+   * @param index index of the entry
+   * @return value
+   */
+  private double value(final int index) {
+    final long high = da.read4(offset(index)), low = da.read4() & 0xFFFFFFFFL;
+    return Double.longBitsToDouble(high << 32 | low);
+  }
+
+  /**
+   * Writes an entry.
+   * @param index index of the entry
+   * @param value value
+   * @param id id
+   */
+  private void write(final int index, final double value, final int id) {
+    final long bits = Double.doubleToRawLongBits(value);
+    da.write4(offset(index), (int) (bits >>> 32));
+    da.write4((int) bits);
+    da.write4(id);
+  }
+
+  /**
+   * Returns the file offset of an entry.
+   * @param index index of the entry
+   * @return offset
+   */
+  private static long offset(final int index) {
+    return 4 + (long) index * ENTRY;
+  }
+
+  /**
+   * Returns the value of an entry in a byte array.
+   * @param entries entries
+   * @param index index of the entry
+   * @return value
+   */
+  private static double value(final byte[] entries, final int index) {
+    long bits = 0;
+    for(int o = index * ENTRY, e = o + 8; o < e; o++) bits = bits << 8 | entries[o] & 0xFF;
+    return Double.longBitsToDouble(bits);
+  }
+
+  /**
+   * Returns the id of an entry in a byte array.
+   * @param entries entries
+   * @param index index of the entry
+   * @return id
+   */
+  private static int id(final byte[] entries, final int index) {
+    final int o = index * ENTRY + 8;
+    return (entries[o] & 0xFF) << 24 | (entries[o + 1] & 0xFF) << 16 |
+        (entries[o + 2] & 0xFF) << 8 | entries[o + 3] & 0xFF;
+  }
+
+  /**
+   * Compares two entries.
+   * @param value1 first value
+   * @param id1 first id
+   * @param value2 second value
+   * @param id2 second id
+   * @return result of comparison
+   */
+  private static int compare(final double value1, final int id1, final double value2,
+      final int id2) {
+    return value1 < value2 ? -1 : value1 > value2 ? 1 : Integer.compare(id1, id2);
+  }
+
+  /**
+   * Sorts entries by their values and ids.
+   * @param vals values (will be sorted as well)
+   * @param nodes ids
+   * @return sorted ids
+   */
+  private static int[] sort(final double[] vals, final int[] nodes) {
+    final int[] order = Array.createOrder(vals, true);
+    final int vl = vals.length;
+    final int[] sorted = new int[vl];
+    for(int v = 0; v < vl; v++) sorted[v] = nodes[order[v]];
+    // sort ids of identical values
+    for(int s = 0, e; s < vl; s = e) {
+      for(e = s + 1; e < vl && vals[e] == vals[s];) e++;
+      if(e - s > 1) Arrays.sort(sorted, s, e);
+    }
+    return sorted;
+  }
+}
@@ -35,6 +35,8 @@ public final class UpdatableDiskValues extends DiskValues {
 
   @Override
   public synchronized void add(final ValueCache values) {
+    if(numeric != null) numeric.add(values);
+    if(temporal != null) temporal.add(values);
     // create a sorted list of the new keys and update the old keys
     final TokenList newKeys = new TokenList();
 
@@ -89,6 +91,8 @@ public final class UpdatableDiskValues extends DiskValues {
 
   @Override
   public synchronized void delete(final ValueCache values) {
+    if(numeric != null) numeric.delete(values);
+    if(temporal != null) temporal.delete(values);
     // create a list of the indexes of the keys which should be completely deleted
     final IntList keys = new IntList();
     int p = 0;
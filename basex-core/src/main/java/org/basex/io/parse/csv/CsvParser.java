@@ -26,10 +26,14 @@ final class CsvParser {
   /** Parse quotes.  */
   private final boolean quotes;
 
+  /** Current entry. */
+  private final TokenBuilder entry = new TokenBuilder();
   /** First entry of a line. */
   private boolean first = true;
   /** Data mode. */
   private boolean data;
+  /** Current character ({@code -2} if no character has been read yet). */
+  private int ch = -2;
 
   /**
    * Constructor.
@@ -37,13 +41,14 @@ final class CsvParser {
    * @param opts options
    * @param conv converter
    */
-  private CsvParser(final TextInput input, final CsvParserOptions opts, final CsvConverter conv) {
+  CsvParser(final TextInput input, final CsvParserOptions opts, final CsvConverter conv) {
     this.input = input;
     this.conv = conv;
     header = opts.get(CsvOptions.HEADER);
     separator = opts.separator();
     quotes = opts.get(CsvOptions.QUOTES);
     backslashes = opts.get(CsvOptions.BACKSLASHES);
+    data = !header;
   }
 
   /**
@@ -56,19 +61,21 @@ final class CsvParser {
    */
   static void parse(final TextInput input, final CsvParserOptions opts, final CsvConverter conv)
       throws IOException {
-    new CsvParser(input, opts, conv).parse();
+    final CsvParser parser = new CsvParser(input, opts, conv);
+    while(parser.line());
   }
 
   /**
-   * Parses a CSV expression.
+   * Parses the next line. A line may span several lines of the input if it contains quoted
+   * newlines.
+   * @return {@code false} if the end of the input has been reached
    * @throws IOException query I/O exception
    */
-  private void parse() throws IOException {
-    final TokenBuilder entry = new TokenBuilder();
-    boolean quoted = false;
-    data = !header;
+  boolean line() throws IOException {
+    if(ch == -1) return false;
+    if(ch == -2) ch = input.read();
 
-    int ch = input.read();
+    boolean quoted = false;
     while(ch != -1) {
       if(quoted) {
         // quoted state
@@ -101,6 +108,8 @@ final class CsvParser {
         record(entry, !entry.isEmpty());
         first = true;
         data = true;
+        ch = input.read();
+        return true;
       } else {
         if(ch == '\\' && backslashes) ch = bs();
         add(entry, ch);
@@ -108,6 +117,7 @@ final class CsvParser {
       ch = input.read();
     }
     record(entry, !entry.isEmpty());
+    return false;
   }
 
   /**
@@ -0,0 +1,110 @@
+package org.basex.io.parse.csv;
+
+import java.io.*;
+
+import org.basex.build.csv.*;
+import org.basex.build.csv.CsvOptions.*;
+import org.basex.io.*;
+import org.basex.io.in.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+
+/**
+ * This class converts CSV input to single rows, which are parsed on demand.
+ * Rows are returned as elements (direct and attributes conversion) or as maps (XQuery
+ * conversion). The keys of a map are the column names or, if no name exists, the column
+ * positions.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CsvRowConverter extends CsvConverter implements Closeable {
+  /** CSV parser. */
+  private final CsvParser parser;
+  /** XQuery conversion. */
+  private final boolean xquery;
+  /** Indicates if more lines may follow. */
+  private boolean more = true;
+  /** Current row (can be {@code null}). */
+  private FElem elem;
+  /** Current row (can be {@code null}). */
+  private MapBuilder map;
+
+  /**
+   * Constructor.
+   * @param input input
+   * @param copts CSV options
+   * @throws IOException I/O exception
+   */
+  public CsvRowConverter(final IO input, final CsvParserOptions copts) throws IOException {
+    super(copts);
+    xquery = copts.get(CsvOptions.FORMAT) == CsvFormat.XQUERY;
+    nli = new NewlineInput(input);
+    try {
+      nli.encoding(copts.get(CsvParserOptions.ENCODING));
+    } catch(final IOException ex) {
+      nli.close();
+      throw ex;
+    }
+    parser = new CsvParser(nli, copts, this);
+  }
+
+  /**
+   * Returns the next row.
+   * @return row or {@code null}
+   * @throws IOException I/O exception
+   */
+  public Item next() throws IOException {
+    while(elem == null && map == null && more) more = parser.line();
+    final Item row = map != null ? map.finish() : elem;
+    elem = null;
+    map = null;
+    return row;
+  }
+
+  @Override
+  protected void header(final byte[] value) {
+    headers.add(ats || xquery ? value : XMLToken.encode(value, lax));
+  }
+
+  @Override
+  protected void record() {
+    if(xquery) map = new MapBuilder();
+    else elem = new FElem(RECORD);
+    col = 0;
+  }
+
+  @Override
+  protected void entry(final byte[] value) throws IOException {
+    final byte[] name = headers.get(col++);
+    if(xquery) {
+      try {
+        map.put(name != null ? Str.get(name) : Int.get(col), Str.get(value));
+      } catch(final QueryException ex) {
+        throw new QueryIOException(ex);
+      }
+    } else {
+      final FElem e;
+      if(ats) {
+        e = new FElem(ENTRY);
+        if(name != null) e.add(NAME, name);
+      } else {
+        e = new FElem(name == null ? ENTRY : name);
+      }
+      elem.add(e.add(value));
+    }
+  }
+
+  @Override
+  protected Item finish() {
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    nli.close();
+  }
+}
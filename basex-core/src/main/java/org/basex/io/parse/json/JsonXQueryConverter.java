@@ -7,10 +7,10 @@ import java.util.*;
 import org.basex.build.json.*;
 import org.basex.build.json.JsonParserOptions.JsonDuplicates;
 import org.basex.query.*;
-import org.basex.query.util.list.*;
 import org.basex.query.value.*;
+import org.basex.query.value.array.*;
 import org.basex.query.value.item.*;
-import org.basex.query.value.map.Map;
+import org.basex.query.value.map.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 
@@ -37,9 +37,9 @@ public final class JsonXQueryConverter extends JsonConverter {
   /** Stack for intermediate values. */
   private final Stack<Value> stack = new Stack<>();
   /** Stack for intermediate array values. */
-  private final Stack<ValueList> arrays = new Stack<>();
+  private final Stack<ArrayBuilder> arrays = new Stack<>();
   /** Stack for intermediate maps values. */
-  private final Stack<Map> maps = new Stack<>();
+  private final Stack<MapBuilder> maps = new Stack<>();
 
   /**
    * Constructor.
@@ -61,7 +61,7 @@ public final class JsonXQueryConverter extends JsonConverter {
 
   @Override
   void openObject() {
-    maps.push(Map.EMPTY);
+    maps.push(new MapBuilder());
   }
 
   @Override
@@ -75,7 +75,7 @@ public final class JsonXQueryConverter extends JsonConverter {
     final Item key = (Item) stack.pop();
     if(add) {
       try {
-        maps.push(maps.pop().put(key, value, null));
+        maps.peek().put(key, value);
       } catch(final QueryException ex) {
         throw new QueryIOException(ex);
       }
@@ -84,12 +84,12 @@ public final class JsonXQueryConverter extends JsonConverter {
 
   @Override
   void closeObject() {
-    stack.push(maps.pop());
+    stack.push(maps.pop().finish());
   }
 
   @Override
   void openArray() {
-    arrays.push(new ValueList());
+    arrays.push(new ArrayBuilder());
   }
 
   @Override
@@ -98,12 +98,12 @@ public final class JsonXQueryConverter extends JsonConverter {
 
   @Override
   void closeItem() {
-    arrays.peek().add(stack.pop());
+    arrays.peek().append(stack.pop());
   }
 
   @Override
   void closeArray() {
-    stack.push(arrays.pop().array());
+    stack.push(arrays.pop().freeze());
   }
 
   @Override
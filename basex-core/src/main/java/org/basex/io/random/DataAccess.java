@@ -2,18 +2,25 @@ package org.basex.io.random;
 
 import java.io.*;
 
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.util.*;
 
 /**
  * This class allows positional read and write access to a database file.
+ * The methods {@link #readNumAt(long)} and {@link #readTokenAt(long)} can be called by
+ * concurrent readers as long as the file is not updated.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
-public final class DataAccess implements Closeable {
+public final class DataAccess implements Closeable, WriteAheadLog.Pages {
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
+  /** Blocks of concurrent readers. */
+  private final ThreadLocal<Reader> readers = ThreadLocal.withInitial(Reader::new);
+  /** Version of the file contents. Incremented whenever the file has been updated or flushed. */
+  private volatile int version;
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
   /** File length. */
@@ -22,6 +29,10 @@ public final class DataAccess implements Closeable {
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Write-ahead log ({@code null} if changes are not logged). */
+  private WriteAheadLog wal;
+  /** Name of the file in the write-ahead log. */
+  private String name;
 
   /**
    * Constructor, initializing the file reader.
@@ -50,17 +61,28 @@ public final class DataAccess implements Closeable {
         if(b.dirty) writeBlock(b);
       }
       if(changed) {
+        if(wal != null && length < raf.length()) wal.truncate(name, raf, length);
         raf.setLength(length);
         changed = false;
       }
+      version++;
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Invalidates the blocks of concurrent readers.
+   * Must be called when an update has been finished.
+   */
+  public synchronized void invalidate() {
+    version++;
+  }
+
   @Override
   public synchronized void close() {
     flush();
+    if(wal != null) wal.unregister(name);
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -68,6 +90,21 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  @Override
+  public synchronized void wal(final WriteAheadLog log, final String file) {
+    wal = log;
+    name = file;
+  }
+
+  @Override
+  public synchronized void log() throws IOException {
+    for(final Buffer b : bm.all()) {
+      final long len = Math.min(IO.BLOCKSIZE, length - b.pos);
+      if(b.dirty && len > 0) wal.page(name, b.pos, b.data, (int) len);
+    }
+    wal.length(name, length);
+  }
+
   /**
    * Returns the current file position.
    * @return position in the file
@@ -156,6 +193,50 @@ public final class DataAccess implements Closeable {
     return readNum();
   }
 
+  /**
+   * Reads a {@link Num} value from disk. In contrast to {@link #readNum(long)},
+   * the cursor will not be changed.
+   * @param pos position
+   * @return read num
+   */
+  public int readNumAt(final long pos) {
+    final Reader r = readers.get();
+    final int value = read(r, pos);
+    switch(value & 0xC0) {
+    case 0:
+      return value;
+    case 0x40:
+      return (value - 0x40 << 8) + read(r, pos + 1);
+    case 0x80:
+      return (value - 0x80 << 24) + (read(r, pos + 1) << 16) + (read(r, pos + 2) << 8) +
+          read(r, pos + 3);
+    default:
+      return (read(r, pos + 1) << 24) + (read(r, pos + 2) << 16) + (read(r, pos + 3) << 8) +
+          read(r, pos + 4);
+    }
+  }
+
+  /**
+   * Reads a token from disk. In contrast to {@link #readToken(long)},
+   * the cursor will not be changed.
+   * @param pos position
+   * @return text as byte array
+   */
+  public byte[] readTokenAt(final long pos) {
+    final int len = readNumAt(pos);
+    final byte[] bytes = new byte[len];
+    final Reader r = readers.get();
+    long p = pos + Num.length(len);
+    for(int o = 0; o < len;) {
+      read(r, p);
+      final int off = (int) (p - r.pos), l = Math.min(len - o, IO.BLOCKSIZE - off);
+      System.arraycopy(r.data, off, bytes, o, l);
+      o += l;
+      p += l;
+    }
+    return bytes;
+  }
+
   /**
    * Reads a token from disk.
    * @param p text position
@@ -394,6 +475,40 @@ public final class DataAccess implements Closeable {
     return bf.data[off++] & 0xFF;
   }
 
+  /**
+   * Reads a byte from the block of a concurrent reader.
+   * Fetches the block if it is not available, or if the file has been updated.
+   * Blocks that have not been flushed yet are copied from the buffers.
+   * @param r reader
+   * @param pos position
+   * @return byte
+   */
+  private int read(final Reader r, final long pos) {
+    final long b = pos & -IO.BLOCKSIZE;
+    final int v = version;
+    if(r.pos != b || r.version != v) {
+      synchronized(this) {
+        Buffer buffer = null;
+        for(final Buffer bf : bm.all()) {
+          if(bf.pos == b) buffer = bf;
+        }
+        if(buffer != null) {
+          System.arraycopy(buffer.data, 0, r.data, 0, IO.BLOCKSIZE);
+        } else {
+          try {
+            raf.seek(b);
+            raf.readFully(r.data, 0, (int) Math.min(raf.length() - b, IO.BLOCKSIZE));
+          } catch(final IOException ex) {
+            Util.stack(ex);
+          }
+        }
+      }
+      r.pos = b;
+      r.version = v;
+    }
+    return r.data[(int) (pos - b)] & 0xFF;
+  }
+
   /**
    * Writes the next byte.
    * @param value byte to be written
@@ -424,6 +539,7 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
+    if(wal != null) wal.write(name, raf, pos, buffer.data, (int) len);
     raf.seek(pos);
     raf.write(buffer.data, 0, (int) len);
     buffer.dirty = false;
@@ -446,4 +562,16 @@ public final class DataAccess implements Closeable {
     if(next) cursor(bm.current().pos + IO.BLOCKSIZE);
     return bm.current();
   }
+
+  /**
+   * Block of a reading thread.
+   */
+  private static final class Reader {
+    /** Block data. */
+    private final byte[] data = new byte[IO.BLOCKSIZE];
+    /** Block position. */
+    private long pos = -1;
+    /** Version of the file contents. */
+    private int version = -1;
+  }
 }
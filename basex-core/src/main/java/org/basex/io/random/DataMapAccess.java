@@ -0,0 +1,165 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class provides read-only access to a memory-mapped database file.
+ * Files are mapped in chunks to get past the 2 GB limit of a single mapping.
+ * All read operations are absolute; the class is thread-safe.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class DataMapAccess implements Closeable {
+  /** Chunk size (power of two). */
+  private static final int CHUNKPOWER = 30;
+  /** Chunk size. */
+  private static final int CHUNKSIZE = 1 << CHUNKPOWER;
+
+  /** Mapped chunks. */
+  private final ByteBuffer[] chunks;
+  /** File channel. */
+  private final FileChannel channel;
+  /** File length. */
+  private final long length;
+
+  /**
+   * Constructor, mapping the specified file.
+   * @param file file to be mapped
+   * @throws IOException I/O Exception
+   */
+  public DataMapAccess(final IOFile file) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file.file(), "r");
+    try {
+      channel = raf.getChannel();
+      length = channel.size();
+      final int cs = (int) ((length + CHUNKSIZE - 1) >>> CHUNKPOWER);
+      chunks = new ByteBuffer[cs];
+      for(int c = 0; c < cs; c++) {
+        final long pos = (long) c << CHUNKPOWER;
+        chunks[c] = channel.map(MapMode.READ_ONLY, pos, Math.min(CHUNKSIZE, length - pos));
+      }
+    } catch(final IOException ex) {
+      raf.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the file length.
+   * @return file length
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Returns the file channel.
+   * @return channel
+   */
+  FileChannel channel() {
+    return channel;
+  }
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  public int read1(final long pos) {
+    return chunks[(int) (pos >>> CHUNKPOWER)].get((int) (pos & CHUNKSIZE - 1)) & 0xFF;
+  }
+
+  /**
+   * Reads a short value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  public int read2(final long pos) {
+    return (read1(pos) << 8) + read1(pos + 1);
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  public int read4(final long pos) {
+    final int o = (int) (pos & CHUNKSIZE - 1);
+    if(o > CHUNKSIZE - 4) return (read2(pos) << 16) + read2(pos + 2);
+    return chunks[(int) (pos >>> CHUNKPOWER)].getInt(o);
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * @param pos position
+   * @return long value
+   */
+  public long read5(final long pos) {
+    return ((long) read1(pos) << 32) + (read4(pos + 1) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Reads a {@link Num} value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  public int readNum(final long pos) {
+    final int value = read1(pos);
+    switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + read1(pos + 1);
+      case 0x80:
+        return (value - 0x80 << 24) + (read1(pos + 1) << 16) + read2(pos + 2);
+      default:
+        return read4(pos + 1);
+    }
+  }
+
+  /**
+   * Reads a token from the specified position.
+   * @param pos position
+   * @return token
+   */
+  public byte[] readToken(final long pos) {
+    final int l = readNum(pos);
+    return readBytes(pos + Num.length(l), l);
+  }
+
+  /**
+   * Reads a number of bytes from the specified position.
+   * @param pos position
+   * @param len length
+   * @return byte array
+   */
+  public byte[] readBytes(final long pos, final int len) {
+    final byte[] bytes = new byte[len];
+    long p = pos;
+    for(int o = 0; o < len;) {
+      // work on a duplicate to keep the operation thread-safe
+      final ByteBuffer bb = chunks[(int) (p >>> CHUNKPOWER)].duplicate();
+      final int off = (int) (p & CHUNKSIZE - 1), l = Math.min(len - o, CHUNKSIZE - off);
+      bb.position(off);
+      bb.get(bytes, o, l);
+      o += l;
+      p += l;
+    }
+    return bytes;
+  }
+
+  /**
+   * Closes the file. Mapped chunks will be released by the garbage collector.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
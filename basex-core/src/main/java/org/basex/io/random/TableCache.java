@@ -0,0 +1,272 @@
+package org.basex.io.random;
+
+import static org.basex.core.Text.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Global page cache, which is shared by all disk-based database tables.
+ * Pages are managed by the scan-resistant 2Q replacement policy:
+ * <ul>
+ *   <li> Pages that are requested for the first time are added to a FIFO queue ({@code in}).</li>
+ *   <li> Pages evicted from this queue are remembered by their key ({@code out}).</li>
+ *   <li> Pages that are requested again while they are remembered are added to an
+ *        LRU queue ({@code main}).</li>
+ * </ul>
+ * This way, single scans over large tables will not flush frequently accessed pages.
+ * The cache is split into segments, which are locked independently.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TableCache {
+  /** Number of segments (must be 1 << n). */
+  private static final int SEGMENTS = 1 << 4;
+  /** Global cache instance. */
+  private static final TableCache INSTANCE = new TableCache();
+  /** Counter for table identifiers. */
+  private static final AtomicInteger IDS = new AtomicInteger();
+
+  /** Segments. */
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /**
+   * Private constructor.
+   */
+  private TableCache() {
+    for(int s = 0; s < SEGMENTS; s++) segments[s] = new Segment();
+  }
+
+  /**
+   * Returns the global cache instance.
+   * @return cache
+   */
+  public static TableCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a new table identifier.
+   * @return identifier
+   */
+  static int id() {
+    return IDS.incrementAndGet();
+  }
+
+  /**
+   * Assigns a new cache size.
+   * @param mb size in megabytes ({@code 0}: disable cache)
+   */
+  public void size(final int mb) {
+    final long pages = Math.max(0L, mb) * (1 << 20) / IO.BLOCKSIZE;
+    for(final Segment segment : segments) {
+      segment.size((int) Math.min(Integer.MAX_VALUE, pages / SEGMENTS));
+    }
+  }
+
+  /**
+   * Copies a cached page to the specified array.
+   * @param id table identifier
+   * @param page page number
+   * @param data target array
+   * @return {@code true} if the page was found
+   */
+  boolean read(final int id, final int page, final byte[] data) {
+    return segment(page).read(key(id, page), data);
+  }
+
+  /**
+   * Adds a page that has been read from disk.
+   * @param id table identifier
+   * @param page page number
+   * @param data page contents
+   */
+  void add(final int id, final int page, final byte[] data) {
+    segment(page).add(key(id, page), data);
+  }
+
+  /**
+   * Updates a page that has been written to disk.
+   * @param id table identifier
+   * @param page page number
+   * @param data page contents
+   */
+  void write(final int id, final int page, final byte[] data) {
+    segment(page).write(key(id, page), data);
+  }
+
+  /**
+   * Removes all pages of the specified table.
+   * @param id table identifier
+   */
+  void remove(final int id) {
+    for(final Segment segment : segments) segment.remove(id);
+  }
+
+  /**
+   * Returns information on the cache.
+   * @return info string
+   */
+  public byte[] info() {
+    long max = 0, pages = 0, hits = 0, misses = 0;
+    for(final Segment segment : segments) {
+      synchronized(segment) {
+        max += segment.max;
+        pages += segment.in.size() + segment.main.size();
+        hits += segment.hits;
+        misses += segment.misses;
+      }
+    }
+    final long total = hits + misses;
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(TABLE_CACHE).add(COL).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(max * IO.BLOCKSIZE)).add(NL);
+    tb.add(LI_PAGES).addLong(pages).add('/').addLong(max).add(NL);
+    tb.add(LI_HITS).addLong(hits);
+    if(total != 0) tb.add(" (").addLong(hits * 100 / total).add("%)");
+    tb.add(NL).add(LI_MISSES).addLong(misses).add(NL);
+    return tb.finish();
+  }
+
+  /**
+   * Returns the segment responsible for the specified page.
+   * Subsequent pages are assigned to different segments.
+   * @param page page number
+   * @return segment
+   */
+  private Segment segment(final int page) {
+    return segments[page & SEGMENTS - 1];
+  }
+
+  /**
+   * Returns a cache key.
+   * @param id table identifier
+   * @param page page number
+   * @return key
+   */
+  private static Long key(final int id, final int page) {
+    return (long) id << 32 | page & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Cache segment.
+   */
+  private static final class Segment {
+    /** First-access queue (FIFO). */
+    private final LinkedHashMap<Long, byte[]> in = new LinkedHashMap<>();
+    /** Keys of pages that have been evicted from the first-access queue (FIFO). */
+    private final LinkedHashMap<Long, Boolean> out = new LinkedHashMap<>();
+    /** Frequently accessed pages (LRU). */
+    private final LinkedHashMap<Long, byte[]> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Maximum number of cached pages. */
+    private int max;
+    /** Number of cache hits. */
+    private long hits;
+    /** Number of cache misses. */
+    private long misses;
+
+    /**
+     * Assigns a new segment size.
+     * @param pages maximum number of pages
+     */
+    synchronized void size(final int pages) {
+      max = pages;
+      while(in.size() + main.size() > max) evict();
+      trim();
+    }
+
+    /**
+     * Copies a cached page to the specified array.
+     * @param key key
+     * @param data target array
+     * @return {@code true} if the page was found
+     */
+    synchronized boolean read(final Long key, final byte[] data) {
+      if(max == 0) return false;
+      byte[] cached = main.get(key);
+      if(cached == null) cached = in.get(key);
+      if(cached == null) {
+        misses++;
+        return false;
+      }
+      hits++;
+      System.arraycopy(cached, 0, data, 0, data.length);
+      return true;
+    }
+
+    /**
+     * Adds a page that has been read from disk.
+     * @param key key
+     * @param data page contents
+     */
+    synchronized void add(final Long key, final byte[] data) {
+      if(max == 0 || in.containsKey(key) || main.containsKey(key)) return;
+
+      // reuse array of an evicted page, or create a new one
+      final byte[] cached = in.size() + main.size() < max ? new byte[IO.BLOCKSIZE] : evict();
+      System.arraycopy(data, 0, cached, 0, data.length);
+      if(out.remove(key) != null) main.put(key, cached);
+      else in.put(key, cached);
+    }
+
+    /**
+     * Updates a page that has been written to disk.
+     * @param key key
+     * @param data page contents
+     */
+    synchronized void write(final Long key, final byte[] data) {
+      if(max == 0) return;
+      byte[] cached = main.get(key);
+      if(cached == null) cached = in.get(key);
+      if(cached != null) System.arraycopy(data, 0, cached, 0, data.length);
+    }
+
+    /**
+     * Removes all pages of the specified table.
+     * @param id table identifier
+     */
+    synchronized void remove(final int id) {
+      in.keySet().removeIf(k -> (int) (k >>> 32) == id);
+      out.keySet().removeIf(k -> (int) (k >>> 32) == id);
+      main.keySet().removeIf(k -> (int) (k >>> 32) == id);
+    }
+
+    /**
+     * Evicts a page and returns its array.
+     * @return array
+     */
+    private byte[] evict() {
+      final byte[] data;
+      if(in.size() > max >>> 2 || main.isEmpty()) {
+        // remember key of evicted first-access page
+        final Iterator<Map.Entry<Long, byte[]>> iter = in.entrySet().iterator();
+        final Map.Entry<Long, byte[]> entry = iter.next();
+        iter.remove();
+        out.put(entry.getKey(), Boolean.TRUE);
+        trim();
+        data = entry.getValue();
+      } else {
+        final Iterator<byte[]> iter = main.values().iterator();
+        data = iter.next();
+        iter.remove();
+      }
+      return data;
+    }
+
+    /**
+     * Limits the number of remembered keys.
+     */
+    private void trim() {
+      final Iterator<Long> iter = out.keySet().iterator();
+      for(int s = out.size(); s > max >>> 1; s--) {
+        iter.next();
+        iter.remove();
+      }
+    }
+  }
+}
@@ -10,27 +10,44 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
  *
- * NOTE: this class is not thread-safe.
+ * If the table is not locked for writing, each reading thread will keep its own page and cursor,
+ * and read operations will only be synchronized if a page needs to be fetched from disk.
+ * Otherwise, all operations are synchronized. Write operations are not thread-safe.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
  */
-public final class TableDiskAccess extends TableAccess {
+public final class TableDiskAccess extends TableAccess implements WriteAheadLog.Pages {
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
+  /** Table identifier in the global page cache. */
+  private final int id = TableCache.id();
+  /** Pages of concurrent readers. */
+  private final ThreadLocal<Reader> readers = ThreadLocal.withInitial(Reader::new);
+  /** Version of the page index. Incremented whenever the lock is changed. */
+  private volatile int version;
+  /** Indicates if the table is locked for writing. */
+  private volatile boolean writing;
+  /** Indicates if pages have not been written after the last update (updates are logged). */
+  private volatile boolean buffered;
   /** File storing all pages. */
   private final RandomAccessFile file;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Write-ahead log ({@code null} if changes are not logged). */
+  private WriteAheadLog wal;
+  /** Name of the file in the write-ahead log. */
+  private String name;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fpres;
@@ -109,37 +126,70 @@ public final class TableDiskAccess extends TableAccess {
     for(final Buffer b : bm.all()) {
       if(b.dirty) write(b);
     }
+    buffered = false;
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
-      final int sz = size;
-      out.writeNum(sz);
-      out.writeNum(used);
-      // due to legacy issues, number of pages is written several times
-      out.writeNum(sz);
-      for(int s = 0; s < sz; s++) out.writeNum(fpres[s]);
-      out.writeNum(sz);
-      for(int s = 0; s < sz; s++) out.writeNum(pages[s]);
-
-      out.writeLongs(usedPages.toArray());
+      write(out);
     }
     dirty = false;
   }
 
+  @Override
+  public synchronized void wal(final WriteAheadLog log, final String file) {
+    wal = log;
+    name = file;
+  }
+
+  @Override
+  public synchronized void log() throws IOException {
+    for(final Buffer b : bm.all()) {
+      if(b.dirty) wal.page(name, b.pos * IO.BLOCKSIZE, b.data, IO.BLOCKSIZE);
+    }
+    if(dirty) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        write(out);
+      }
+      wal.image(DATATBL + 'i', ao.finish());
+    }
+  }
+
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    if(wal != null) wal.unregister(name);
     file.close();
+    TableCache.get().remove(id);
+  }
+
+  /**
+   * Writes all buffers to disk and closes the table. The file itself remains open, and a shared
+   * lock is kept, which will be released when its channel is closed.
+   * @return shared lock
+   * @throws IOException I/O exception
+   */
+  public synchronized FileLock closeShared() throws IOException {
+    flush(true);
+    if(!lock(false)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
+    if(wal != null) wal.unregister(name);
+    TableCache.get().remove(id);
+    return fl;
   }
 
   @Override
-  public boolean lock(final boolean write) {
+  public synchronized boolean lock(final boolean write) {
     try {
       if(fl != null) {
         if(write != fl.isShared()) return true;
         fl.release();
       }
       fl = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
+      writing = write && fl != null;
+      if(!write) {
+        for(final Buffer b : bm.all()) buffered |= b.dirty;
+      }
+      version++;
       return fl != null;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
@@ -147,33 +197,51 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    if(!writing) {
+      final Reader r = reader(pre);
+      return read1(r.data, r.offset(pre) + off);
+    }
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read1(bm.current().data, o);
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  public int read2(final int pre, final int off) {
+    if(!writing) {
+      final Reader r = reader(pre);
+      return read2(r.data, r.offset(pre) + off);
+    }
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read2(bm.current().data, o);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
-      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  public int read4(final int pre, final int off) {
+    if(!writing) {
+      final Reader r = reader(pre);
+      return read4(r.data, r.offset(pre) + off);
+    }
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read4(bm.current().data, o);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
-      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  public long read5(final int pre, final int off) {
+    if(!writing) {
+      final Reader r = reader(pre);
+      return read5(r.data, r.offset(pre) + off);
+    }
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read5(bm.current().data, o);
+    }
   }
 
   @Override
@@ -436,6 +504,110 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Returns the page of the current thread that contains the entry for the specified pre value.
+   * Fetches the page if it is not available, or if the page index has changed.
+   * @param pre pre value
+   * @return reader
+   */
+  private Reader reader(final int pre) {
+    final Reader r = readers.get();
+    final int v = version;
+    if(r.version != v || pre < r.firstPre || pre >= r.nextPre) {
+      // find page (the page index will not be changed as long as the table is not updated)
+      final int last = Math.max(0, used - 1);
+      int l = 0, h = last;
+      while(l < h) {
+        final int m = l + h + 1 >>> 1;
+        if(fpre(m) <= pre) l = m;
+        else h = m - 1;
+      }
+      final int fp = fpre(l), np = l == last ? meta.size : fpre(l + 1);
+      if(pre < fp || pre >= np) throw Util.notExpected(
+          "Data Access out of bounds:" +
+          "\n- pre value: " + pre +
+          "\n- table size: " + meta.size +
+          "\n- first/next pre value: " + fp + '/' + np +
+          "\n- #total/used pages: " + size + '/' + used +
+          "\n- accessed page: " + l);
+
+      final int p = page(l);
+      if(!(buffered && buffered(p, r.data)) && !TableCache.get().read(id, p, r.data)) {
+        synchronized(this) {
+          try {
+            file.seek((long) p * IO.BLOCKSIZE);
+            file.readFully(r.data);
+          } catch(final IOException ex) {
+            Util.stack(ex);
+          }
+        }
+        TableCache.get().add(id, p, r.data);
+      }
+      r.firstPre = fp;
+      r.nextPre = np;
+      r.version = v;
+    }
+    return r;
+  }
+
+  /**
+   * Copies a page that has not been written yet.
+   * @param p page
+   * @param data target array
+   * @return {@code true} if the page was found
+   */
+  private synchronized boolean buffered(final int p, final byte[] data) {
+    for(final Buffer b : bm.all()) {
+      if(b.dirty && b.pos == p) {
+        System.arraycopy(b.data, 0, data, 0, IO.BLOCKSIZE);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads a byte value from the specified array.
+   * @param b array
+   * @param o offset
+   * @return integer value
+   */
+  private static int read1(final byte[] b, final int o) {
+    return b[o] & 0xFF;
+  }
+
+  /**
+   * Reads a short value from the specified array.
+   * @param b array
+   * @param o offset
+   * @return integer value
+   */
+  private static int read2(final byte[] b, final int o) {
+    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  }
+
+  /**
+   * Reads an integer value from the specified array.
+   * @param b array
+   * @param o offset
+   * @return integer value
+   */
+  private static int read4(final byte[] b, final int o) {
+    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  }
+
+  /**
+   * Reads a 5-byte value from the specified array.
+   * @param b array
+   * @param o offset
+   * @return long value
+   */
+  private static long read5(final byte[] b, final int o) {
+    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
+      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
@@ -491,7 +663,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int page(final int p) {
+  private int page(final int p) {
     return pages == null ? p : pages[p];
   }
 
@@ -500,7 +672,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int fpre(final int p) {
+  private int fpre(final int p) {
     return fpres == null ? p * IO.ENTRIES : fpres[p];
   }
 
@@ -517,9 +689,10 @@ public final class TableDiskAccess extends TableAccess {
       bf.pos = p;
       if(p >= size) {
         size = p + 1;
-      } else {
+      } else if(!TableCache.get().read(id, p, bf.data)) {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
+        TableCache.get().add(id, p, bf.data);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -537,14 +710,34 @@ public final class TableDiskAccess extends TableAccess {
     ++page;
   }
 
+  /**
+   * Writes the page index.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    final int sz = size;
+    out.writeNum(sz);
+    out.writeNum(used);
+    // due to legacy issues, number of pages is written several times
+    out.writeNum(sz);
+    for(int s = 0; s < sz; s++) out.writeNum(fpres[s]);
+    out.writeNum(sz);
+    for(int s = 0; s < sz; s++) out.writeNum(pages[s]);
+
+    out.writeLongs(usedPages.toArray());
+  }
+
   /**
    * Writes the specified buffer disk and resets the dirty flag.
    * @param bf buffer to write
    * @throws IOException I/O exception
    */
   private void write(final Buffer bf) throws IOException {
+    if(wal != null) wal.write(name, file, bf.pos * IO.BLOCKSIZE, bf.data, IO.BLOCKSIZE);
     file.seek(bf.pos * IO.BLOCKSIZE);
     file.write(bf.data);
+    TableCache.get().write(id, (int) bf.pos, bf.data);
     bf.dirty = false;
   }
 
@@ -595,4 +788,27 @@ public final class TableDiskAccess extends TableAccess {
   private int occSpace(final int i) {
     return (i + 1 < used ? fpres[i + 1] : meta.size) - fpres[i];
   }
+
+  /**
+   * Page and cursor of a reading thread.
+   */
+  private static final class Reader {
+    /** Page data. */
+    private final byte[] data = new byte[IO.BLOCKSIZE];
+    /** Version of the page index. */
+    private int version = -1;
+    /** Pre value of the first entry in the page. */
+    private int firstPre = -1;
+    /** First pre value of the next page. */
+    private int nextPre = -1;
+
+    /**
+     * Returns the offset of the entry for the specified pre value.
+     * @param pre pre value
+     * @return offset
+     */
+    private int offset(final int pre) {
+      return pre - firstPre << IO.NODEPOWER;
+    }
+  }
 }
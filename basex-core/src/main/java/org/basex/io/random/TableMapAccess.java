@@ -0,0 +1,177 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.nio.channels.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.util.*;
+
+/**
+ * This class provides read-only access to a memory-mapped table.
+ * As the page index is never modified, all read operations are lock-free.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TableMapAccess extends TableAccess {
+  /** Mapped table file. */
+  private final DataMapAccess file;
+  /** First pre values (ascending order); {@code null} if page index is regular. */
+  private final int[] fpres;
+  /** Page index; {@code null} if page index is regular. */
+  private final int[] pages;
+  /** Number of used pages. */
+  private final int used;
+  /** File lock. */
+  private FileLock fl;
+
+  /**
+   * Constructor.
+   * @param md meta data
+   * @throws IOException I/O exception
+   */
+  public TableMapAccess(final MetaData md) throws IOException {
+    this(md, null);
+  }
+
+  /**
+   * Constructor, adopting an existing lock.
+   * @param md meta data
+   * @param lock shared lock on the table file, which will be released when the table is closed
+   *   (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public TableMapAccess(final MetaData md, final FileLock lock) throws IOException {
+    super(md);
+    fl = lock;
+
+    // read page index
+    try(DataInput in = new DataInput(meta.dbfile(DATATBL + 'i'))) {
+      final int s = in.readNum(), u = in.readNum();
+      if(u == 0 || u == Integer.MAX_VALUE) {
+        used = u == 0 ? 0 : s;
+        fpres = null;
+        pages = null;
+      } else {
+        used = u;
+        fpres = in.readNums();
+        pages = in.readNums();
+      }
+    }
+
+    file = new DataMapAccess(meta.dbfile(DATATBL));
+    if(!lock(false)) {
+      file.close();
+      throw new BaseXException(Text.DB_PINNED_X, md.name);
+    }
+  }
+
+  @Override
+  public void flush(final boolean all) {
+    // no changes to be written
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    file.close();
+    // close channel of an adopted lock
+    if(fl != null) fl.channel().close();
+  }
+
+  @Override
+  public synchronized boolean lock(final boolean write) {
+    // mapped tables cannot be updated
+    if(write) return false;
+    try {
+      if(fl == null) fl = file.channel().tryLock(0, Long.MAX_VALUE, true);
+      return fl != null;
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  @Override
+  public int read1(final int pre, final int off) {
+    return file.read1(offset(pre) + off);
+  }
+
+  @Override
+  public int read2(final int pre, final int off) {
+    return file.read2(offset(pre) + off);
+  }
+
+  @Override
+  public int read4(final int pre, final int off) {
+    return file.read4(offset(pre) + off);
+  }
+
+  @Override
+  public long read5(final int pre, final int off) {
+    return file.read5(offset(pre) + off);
+  }
+
+  @Override
+  public void write1(final int pre, final int off, final int v) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void write2(final int pre, final int off, final int v) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void write4(final int pre, final int off, final int v) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void write5(final int pre, final int off, final long v) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void dirty() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void copy(final byte[] entries, final int pre, final int last) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void delete(final int pre, final int nr) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void insert(final int pre, final byte[] entries) {
+    throw Util.notExpected();
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns the file offset of the entry for the specified pre value.
+   * @param pre pre value
+   * @return file offset
+   */
+  private long offset(final int pre) {
+    if(fpres == null) return (long) pre << IO.NODEPOWER;
+
+    // binary search for the page containing the pre value
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = l + h + 1 >>> 1;
+      if(fpres[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return (long) pages[l] * IO.BLOCKSIZE + (pre - fpres[l] << IO.NODEPOWER);
+  }
+}
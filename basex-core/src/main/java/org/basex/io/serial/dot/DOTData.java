@@ -83,7 +83,7 @@ final class DOTData {
     // cyan
     { "009999", StaticFuncCall.class, StandardFunc.class, Root.class, VarRef.class,
                 StaticVar.class, ValueAccess.class, RangeAccess.class,
-                StringRangeAccess.class, FTIndexAccess.class },
+                StringRangeAccess.class, TemporalRangeAccess.class, FTIndexAccess.class },
   };
 
   /**
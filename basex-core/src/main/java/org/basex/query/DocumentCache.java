@@ -0,0 +1,194 @@
+package org.basex.query;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.query.up.primitives.*;
+import org.basex.util.*;
+import org.basex.util.http.*;
+import org.basex.util.options.*;
+
+/**
+ * Cache for main-memory instances of external documents and collections, which is shared by all
+ * contexts of a project. Instances are identified by the resolved input path and the parsing and
+ * indexing options. They are validated by the modification date and size of the input files, or
+ * by the entity tag of an HTTP resource, and discarded in least-recently-used order as soon as
+ * the estimated memory consumption exceeds the specified limit.
+ *
+ * Cached instances are shared by concurrent queries and must not be updated.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class DocumentCache {
+  /** Cached instances (LRU). */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  /** Maximum memory consumption (bytes). */
+  private final long max;
+  /** Estimated memory consumption of all entries (bytes). */
+  private long size;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public DocumentCache(final StaticOptions sopts) {
+    max = Math.max(0, sopts.get(StaticOptions.DOCCACHE)) * 1024L * 1024L;
+  }
+
+  /**
+   * Indicates if the cache is enabled.
+   * @return result of check
+   */
+  public boolean enabled() {
+    return max != 0;
+  }
+
+  /**
+   * Returns the cache key for an input.
+   * @param io input
+   * @param opts main options
+   * @return key
+   */
+  static String key(final IO io, final MainOptions opts) {
+    final StringBuilder sb = new StringBuilder(io.path());
+    for(final Option<?>[] options : new Option<?>[][] { DBOptions.PARSING, DBOptions.INDEXING }) {
+      for(final Option<?> option : options) sb.append('\n').append(opts.get(option));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the version of an input. The version of a file or directory is computed from the
+   * modification dates and sizes of all files. The version of an HTTP resource is its entity tag
+   * or, as fallback, its modification date and size.
+   * @param io input
+   * @return version, or {@code null} if the input cannot be cached
+   */
+  static String version(final IO io) {
+    if(io instanceof IOFile) {
+      final IOFile file = (IOFile) io;
+      if(!file.isDir()) return file.timeStamp() + "/" + file.length();
+      long hash = 0;
+      int files = 0;
+      for(final String path : file.descendants()) {
+        final IOFile f = new IOFile(file, path);
+        hash = 31 * (31 * (31 * hash + path.hashCode()) + f.timeStamp()) + f.length();
+        files++;
+      }
+      return files + "/" + hash;
+    }
+    if(io instanceof IOUrl) {
+      try {
+        final URLConnection conn = ((IOUrl) io).connection();
+        if(conn instanceof HttpURLConnection) {
+          final HttpURLConnection http = (HttpURLConnection) conn;
+          try {
+            http.setRequestMethod(HttpMethod.HEAD.name());
+            if(http.getResponseCode() == HttpURLConnection.HTTP_OK) {
+              final String etag = http.getHeaderField(HttpText.ETAG);
+              if(etag != null) return etag;
+              final long modified = http.getLastModified();
+              if(modified != 0) return modified + "/" + http.getContentLengthLong();
+            }
+          } finally {
+            http.disconnect();
+          }
+        }
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a cached instance.
+   * @param key key
+   * @param version version of the input
+   * @return instance or {@code null}
+   */
+  synchronized Data get(final String key, final String version) {
+    final Entry entry = entries.get(key);
+    if(entry != null) {
+      if(entry.version.equals(version)) {
+        hits++;
+        return entry.data;
+      }
+      // discard outdated instance
+      entries.remove(key);
+      size -= entry.cost;
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Adds an instance to the cache.
+   * @param key key
+   * @param version version of the input
+   * @param data instance
+   */
+  synchronized void add(final String key, final String version, final Data data) {
+    // estimated costs: table entries (16 bytes per node) and textual contents
+    final long cost = ((long) data.meta.size << 4) + Math.max(0, data.meta.filesize);
+    if(cost > max) return;
+
+    final Entry old = entries.put(key, new Entry(data, version, cost));
+    if(old != null) size -= old.cost;
+    size += cost;
+    final Iterator<Entry> iter = entries.values().iterator();
+    while(size > max) {
+      size -= iter.next().cost;
+      iter.remove();
+    }
+  }
+
+  /**
+   * Returns information on the cache.
+   * @return info string
+   */
+  public synchronized byte[] info() {
+    final long total = hits + misses;
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(DOCUMENT_CACHE).add(COL).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(size)).add('/').add(Performance.format(max)).add(NL);
+    tb.add(LI_ENTRIES).addLong(entries.size()).add(NL);
+    tb.add(LI_HITS).addLong(hits);
+    if(total != 0) tb.add(" (").addLong(hits * 100 / total).add("%)");
+    tb.add(NL).add(LI_MISSES).addLong(misses).add(NL);
+    return tb.finish();
+  }
+
+  /** Cache entry. */
+  private static final class Entry {
+    /** Main-memory instance. */
+    private final Data data;
+    /** Version of the input. */
+    private final String version;
+    /** Estimated memory consumption (bytes). */
+    private final long cost;
+
+    /**
+     * Constructor.
+     * @param data instance
+     * @param version version of the input
+     * @param cost estimated memory consumption
+     */
+    private Entry(final Data data, final String version, final long cost) {
+      this.data = data;
+      this.version = version;
+      this.cost = cost;
+    }
+  }
+}
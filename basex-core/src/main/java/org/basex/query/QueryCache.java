@@ -0,0 +1,95 @@
+package org.basex.query;
+
+import static org.basex.core.Text.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * Cache for query plans, which is shared by all contexts of a project.
+ * Plans are cached after the parsing step and identified by the query string, the base URI and
+ * the options that are evaluated at parse time. They are removed from the cache while a query is
+ * running, and added again when it is closed. Cached plans are discarded in least-recently-used
+ * order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCache {
+  /** Cached plans (LRU). */
+  private final LinkedHashMap<String, QueryPlan> plans = new LinkedHashMap<>(16, 0.75f, true);
+  /** Maximum number of cached plans. */
+  private final int max;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public QueryCache(final StaticOptions sopts) {
+    max = Math.max(0, sopts.get(StaticOptions.QUERYCACHE));
+  }
+
+  /**
+   * Indicates if the cache is enabled.
+   * @return result of check
+   */
+  public boolean enabled() {
+    return max != 0;
+  }
+
+  /**
+   * Returns the cache key for a query.
+   * @param query query string
+   * @param sc static context
+   * @return key
+   */
+  static String key(final String query, final StaticContext sc) {
+    return sc.mixUpdates + " " + Token.string(sc.baseURI().string()) + '\n' + query;
+  }
+
+  /**
+   * Removes and returns a cached plan.
+   * @param key key
+   * @return plan or {@code null}
+   */
+  synchronized QueryPlan remove(final String key) {
+    final QueryPlan plan = plans.remove(key);
+    if(plan != null) hits++;
+    else misses++;
+    return plan;
+  }
+
+  /**
+   * Adds a plan to the cache.
+   * @param plan plan
+   */
+  synchronized void add(final QueryPlan plan) {
+    if(plans.putIfAbsent(plan.key, plan) != null) return;
+    final Iterator<QueryPlan> iter = plans.values().iterator();
+    for(int s = plans.size(); s > max; s--) {
+      iter.next();
+      iter.remove();
+    }
+  }
+
+  /**
+   * Returns information on the cache.
+   * @return info string
+   */
+  public synchronized byte[] info() {
+    final long total = hits + misses;
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(QUERY_CACHE).add(COL).add(NL);
+    tb.add(LI_ENTRIES).addLong(plans.size()).add('/').addLong(max).add(NL);
+    tb.add(LI_HITS).addLong(hits);
+    if(total != 0) tb.add(" (").addLong(hits * 100 / total).add("%)");
+    tb.add(NL).add(LI_MISSES).addLong(misses).add(NL);
+    return tb.finish();
+  }
+}
@@ -121,6 +121,8 @@ public final class QueryContext extends Job implements Closeable {
   /** Root expression of the query. */
   public MainModule root;
 
+  /** Query plan, which will be cached after the query has been closed (can be {@code null}). */
+  private QueryPlan plan;
   /** Serialization parameters. */
   private SerializerOptions serParams;
   /** Indicates if the default serialization parameters are used. */
@@ -220,6 +222,34 @@ public final class QueryContext extends Job implements Closeable {
     return root;
   }
 
+  /**
+   * Parses the specified query. If query plans are cached, a cached plan will be reused.
+   * @param query query string
+   * @param sc static context
+   * @return main module
+   * @throws QueryException query exception
+   */
+  MainModule parseCached(final String query, final StaticContext sc) throws QueryException {
+    final QueryCache cache = context.queries;
+    if(!cache.enabled() || parent != null) return parseMain(query, null, sc);
+
+    final String key = QueryCache.key(query, sc);
+    final QueryPlan cached = cache.remove(key);
+    if(cached != null) {
+      info.query = query;
+      root = cached.copy(this);
+      plan = cached;
+    } else {
+      final MainModule ctx = ctxItem;
+      parseMain(query, null, sc);
+      // skip queries with declarations that are not part of the expression tree
+      if(ctxItem == ctx && funcs.funcs().length == 0 && modParsed.isEmpty() &&
+          !resources.hasModules() && options.isEmpty() && serParams == null && ftOpt == null &&
+          !readLocks.local() && !writeLocks.local()) plan = new QueryPlan(key, this);
+    }
+    return root;
+  }
+
   /**
    * Parses the specified module.
    * @param query query string
@@ -583,10 +613,11 @@ public final class QueryContext extends Job implements Closeable {
       // topmost query: close resources (opened by compile step)
       resources.close();
       threads.close();
+      if(plan != null) context.queries.add(plan);
     } else {
       // otherwise, adopt update reference (may have been initialized by sub query)
       parent.updates = updates;
-      parent.popJob();
+      parent.popJob(this);
     }
     options.close();
   }
@@ -0,0 +1,75 @@
+package org.basex.query;
+
+import org.basex.query.expr.*;
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.hash.*;
+
+/**
+ * Parsed query plan, which is stored in the {@link QueryCache}.
+ * The plan is kept in its original state: a copy will be created for each evaluation.
+ * The static context is shared by all copies. As it is changed by some expressions at runtime,
+ * a plan must only be used by a single query at a time.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class QueryPlan {
+  /** Cache key. */
+  final String key;
+  /** Static context. */
+  private final StaticContext sc;
+  /** Root expression. */
+  private final Expr expr;
+  /** Static variables. */
+  private final Variables vars = new Variables();
+  /** Updating flag. */
+  private final boolean updating;
+
+  /**
+   * Constructor, called after a query has been parsed.
+   * @param key cache key
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  QueryPlan(final String key, final QueryContext qc) throws QueryException {
+    this.key = key;
+    final MainModule root = qc.root;
+    final CompileContext cc = new CompileContext(qc);
+    vars.copy(qc.vars, cc);
+    sc = root.sc;
+    expr = copy(root.expr, new VarScope(sc), cc);
+    updating = qc.updating;
+  }
+
+  /**
+   * Creates a copy of the plan for the specified query.
+   * @param qc query context
+   * @return main module
+   * @throws QueryException query exception
+   */
+  MainModule copy(final QueryContext qc) throws QueryException {
+    final CompileContext cc = new CompileContext(qc);
+    final TokenObjMap<StaticVar> vrs = qc.vars.copy(vars, cc);
+    final VarScope vs = new VarScope(sc);
+    final Expr ex = copy(expr, vs, cc);
+    qc.updating = updating;
+    return new MainModule(vs, ex, null, null, null, new TokenObjMap<>(), vrs, new TokenSet());
+  }
+
+  /**
+   * Copies an expression.
+   * @param ex expression
+   * @param vs variable scope
+   * @param cc compilation context
+   * @return copied expression
+   */
+  private static Expr copy(final Expr ex, final VarScope vs, final CompileContext cc) {
+    cc.pushScope(vs);
+    try {
+      return ex.copy(cc, new IntObjMap<>());
+    } finally {
+      cc.removeScope();
+    }
+  }
+}
@@ -226,6 +226,14 @@ public final class QueryResources {
     return modules;
   }
 
+  /**
+   * Indicates if the module loader has been accessed.
+   * @return result of check
+   */
+  boolean hasModules() {
+    return modules != null;
+  }
+
   /**
    * Removes and closes a database. Called during updates.
    * @param name name of database to be removed
@@ -283,7 +291,7 @@ public final class QueryResources {
   public void addDoc(final String name, final String path, final StaticContext sc)
       throws QueryException {
     final QueryInput qi = new QueryInput(path, sc);
-    final Data data = create(qi, true, null);
+    final Data data = create(qi, true, false, null);
     if(name != null) data.meta.original = name;
   }
 
@@ -310,7 +318,7 @@ public final class QueryResources {
     final ItemList items = new ItemList(paths.length);
     for(final String path : paths) {
       final QueryInput qi = new QueryInput(path, sc);
-      items.add(new DBNode(create(qi, true, null), 0, Data.DOC));
+      items.add(new DBNode(create(qi, true, false, null), 0, Data.DOC));
     }
     addCollection(items.value(NodeType.DOC), name);
   }
@@ -364,7 +372,7 @@ public final class QueryResources {
     }
 
     // otherwise, create new instance
-    final Data data = create(qi, single, info);
+    final Data data = create(qi, single, true, info);
     // reset database path: indicates that all documents were parsed
     qi.dbPath = "";
     return data;
@@ -375,12 +383,13 @@ public final class QueryResources {
    * Creates a new database instance.
    * @param input query input
    * @param single expect single document
+   * @param cache use document cache
    * @param info input info
    * @return data reference
    * @throws QueryException query exception
    */
-  private Data create(final QueryInput input, final boolean single, final InputInfo info)
-      throws QueryException {
+  private Data create(final QueryInput input, final boolean single, final boolean cache,
+      final InputInfo info) throws QueryException {
 
     // check if new databases can be created
     final Context context = qc.context;
@@ -399,12 +408,25 @@ public final class QueryResources {
     final MainOptions opts = new MainOptions(context.options, true);
     final Parser parser = new DirParser(io, opts);
 
+    // main-memory instances of non-updating queries can be shared with other queries
+    final DocumentCache documents = context.documents;
+    String key = null, version = null;
+    if(cache && mem && !qc.updating && documents.enabled()) {
+      version = DocumentCache.version(io);
+      if(version != null) {
+        key = DocumentCache.key(io, opts);
+        final Data data = documents.get(key, version);
+        if(data != null) return addData(data);
+      }
+    }
+
     final Data data;
     try {
       data = CreateDB.create(io.dbName(), parser, context, opts, mem);
     } catch(final IOException ex) {
       throw IOERR_X.get(info, ex);
     }
+    if(key != null) documents.add(key, version, data);
     return addData(data);
   }
 
@@ -199,6 +199,7 @@ public interface QueryText {
   /** Parser token. */ String READ_LOCK = "read-lock";
   /** Parser token. */ String WRITE_LOCK = "write-lock";
   /** Parser token. */ String NON_DETERMNISTIC = "non-deterministic";
+  /** Parser token. */ String PARALLEL = "parallel";
 
   // PARSER KEYWORDS (IGNORED BY THE SYNTAX HIGHLIGHTER) ==========================================
 
@@ -388,6 +389,7 @@ public interface QueryText {
   /** Query Info. */ String MIN = "min";
   /** Query Info. */ String MAX = "max";
   /** Query Info. */ String INF = "inf";
+  /** Query Info. */ String TYPED = "typed";
   /** Query Info. */ String TCL = "tailCall";
   /** Query Info. */ String ENTRIES = "entries";
   /** Query Info. */ String PROMOTE = "promote";
@@ -413,6 +415,7 @@ public interface QueryText {
   /** Optimization info. */ String OPTINLINE_X = "inline %";
   /** Optimization info. */ String OPTREMOVE_X_X = "remove % from %";
   /** Optimization info. */ String OPTWHERE = "rewrite where clause(s)";
+  /** Optimization info. */ String OPTJOIN_X = "rewrite to join: %";
   /** Optimization info. */ String OPTPRED_X = "rewrite % to predicate(s)";
   /** Optimization info. */ String OPTVAR_X = "remove variable %";
   /** Optimization info. */ String OPTNAME_X = "remove unknown element/attribute %";
@@ -421,6 +424,7 @@ public interface QueryText {
   /** Optimization info. */ String OPTNORESULTS_X = "no index results: %";
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
+  /** Optimization info. */ String OPTTOPK_X = "only retrieve % results with highest scores";
 
   // MISCELLANEOUS ================================================================================
 
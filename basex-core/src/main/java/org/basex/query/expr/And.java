@@ -78,6 +78,17 @@ public final class And extends Logical {
             break;
           }
         }
+      } else if(expr instanceof CmpTR) {
+        // merge adjacent temporal range comparisons
+        while(e + 1 < es && exprs[e + 1] instanceof CmpTR) {
+          final Expr tmp = ((CmpTR) expr).intersect((CmpTR) exprs[e + 1]);
+          if(tmp != null) {
+            expr = tmp;
+            e++;
+          } else {
+            break;
+          }
+        }
       }
       if(!list.contains(expr) || expr.has(Flag.NDT)) {
         list.add(cc.replaceWith(exprs[e], expr));
@@ -2,9 +2,13 @@ package org.basex.query.expr;
 
 import static org.basex.query.QueryText.*;
 
+import java.util.function.*;
+
 import org.basex.query.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -64,6 +68,96 @@ public final class Arith extends Arr {
     return item2 == null ? null : calc.eval(item1, item2, info);
   }
 
+  /**
+   * Checks if the expression can be evaluated for all items of a sequence at once.
+   * This is the case if one operand is bound to the items, and if the other operand is an
+   * integer or double item.
+   * @param bound test for the operand that is bound to the items
+   * @return result of check
+   */
+  public boolean vectorizable(final Predicate<Expr> bound) {
+    final Expr expr1 = exprs[0], expr2 = exprs[1];
+    return bound.test(expr1) ? number(expr2) : bound.test(expr2) && number(expr1);
+  }
+
+  /**
+   * Evaluates the expression for all items of a sequence of integers or doubles.
+   * The values are processed in their primitive representation, and no items are created.
+   * Must only be called if {@link #vectorizable(Predicate)} returns {@code true}.
+   * @param value input sequence
+   * @param bound test for the operand that is bound to the items
+   * @param qc query context
+   * @return resulting sequence, or {@code null} if the input or the operation is not supported,
+   *   or if the result cannot be computed without errors
+   * @throws QueryException query exception
+   */
+  public Value vector(final Value value, final Predicate<Expr> bound, final QueryContext qc)
+      throws QueryException {
+    final boolean first = bound.test(exprs[0]);
+    final ANum num = (ANum) exprs[first ? 1 : 0];
+
+    // input: integer range, integers or doubles
+    long[] ints = null;
+    double[] dbls = null;
+    long start = 0, step = 0;
+    if(value instanceof RangeSeq) {
+      final RangeSeq seq = (RangeSeq) value;
+      start = seq.range(true)[0];
+      step = seq.asc ? 1 : -1;
+    } else if(value instanceof IntSeq) {
+      ints = ((IntSeq) value).values();
+    } else if(value instanceof DblSeq) {
+      dbls = ((DblSeq) value).values();
+    } else {
+      return null;
+    }
+
+    // results must fit into a single array
+    final long sz = value.size();
+    if(sz > Integer.MAX_VALUE) return null;
+    final int size = (int) sz;
+    if(dbls == null && num instanceof Int) {
+      // integer arithmetics: overflows will be handled by the default evaluation
+      final LongBinaryOperator op = calc == Calc.PLUS ? Math::addExact :
+        calc == Calc.MINUS ? Math::subtractExact : calc == Calc.MULT ? Math::multiplyExact : null;
+      if(op == null) return null;
+      final long v = num.itr();
+      final long[] result = new long[size];
+      try {
+        for(int i = 0; i < size; i++) {
+          qc.checkStop();
+          final long l = ints != null ? ints[i] : start + i * step;
+          result[i] = first ? op.applyAsLong(l, v) : op.applyAsLong(v, l);
+        }
+      } catch(final ArithmeticException ex) {
+        return null;
+      }
+      return IntSeq.get(result, AtomType.ITR);
+    }
+
+    final DoubleBinaryOperator op = calc == Calc.PLUS ? (a, b) -> a + b :
+      calc == Calc.MINUS ? (a, b) -> a - b : calc == Calc.MULT ? (a, b) -> a * b :
+      calc == Calc.DIV ? (a, b) -> a / b : calc == Calc.MOD ? (a, b) -> a % b : null;
+    if(op == null) return null;
+    final double v = num.dbl();
+    final double[] result = new double[size];
+    for(int i = 0; i < size; i++) {
+      qc.checkStop();
+      final double d = dbls != null ? dbls[i] : ints != null ? ints[i] : start + i * step;
+      result[i] = first ? op.applyAsDouble(d, v) : op.applyAsDouble(v, d);
+    }
+    return DblSeq.get(result);
+  }
+
+  /**
+   * Checks if the specified expression is an integer or double item.
+   * @param expr expression
+   * @return result of check
+   */
+  private static boolean number(final Expr expr) {
+    return expr instanceof Int || expr instanceof Dbl;
+  }
+
   @Override
   public Arith copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new Arith(info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), calc));
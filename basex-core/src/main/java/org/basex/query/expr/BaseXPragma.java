@@ -1,5 +1,6 @@
 package org.basex.query.expr;
 
+import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.query.*;
 import org.basex.query.ann.*;
@@ -16,6 +17,8 @@ import org.basex.util.*;
 public final class BaseXPragma extends Pragma {
   /** Non-deterministic flag. */
   private final boolean ndt;
+  /** Parallel evaluation flag. */
+  private final boolean parallel;
 
   /**
    * Constructor.
@@ -25,15 +28,21 @@ public final class BaseXPragma extends Pragma {
   public BaseXPragma(final QNm name, final byte[] value) {
     super(name, value);
     ndt = Token.eq(name.local(), Token.token(QueryText.NON_DETERMNISTIC));
+    parallel = Token.eq(name.local(), Token.token(QueryText.PARALLEL));
   }
 
   @Override
   Object init(final QueryContext qc, final InputInfo info) {
-    return null;
+    if(!parallel) return null;
+    // enable parallel evaluation of the enclosed expression
+    final Boolean old = qc.context.options.get(MainOptions.PARALLELIZE);
+    qc.context.options.set(MainOptions.PARALLELIZE, true);
+    return old;
   }
 
   @Override
   void finish(final QueryContext qc, final Object state) {
+    if(parallel) qc.context.options.put(MainOptions.PARALLELIZE, state);
   }
 
   @Override
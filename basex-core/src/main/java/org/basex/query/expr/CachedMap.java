@@ -39,6 +39,14 @@ final class CachedMap extends SimpleMap {
       final int el = exprs.length;
       for(int e = 1; e < el; e++) {
         final Expr expr = exprs[e];
+        if(expr instanceof Arith && ((Arith) expr).vectorizable(ContextValue.class::isInstance)) {
+          // arithmetic expression: try to compute all results at once
+          final Value value = ((Arith) expr).vector(result, ContextValue.class::isInstance, qc);
+          if(value != null) {
+            result = value;
+            continue;
+          }
+        }
         focus.pos = 0;
         focus.size = result.size();
         final ValueBuilder vb = new ValueBuilder(qc);
@@ -159,6 +159,7 @@ public class CmpG extends Cmp {
     // range comparisons
     if(expr == this) expr = CmpR.get(this, cc);
     if(expr == this) expr = CmpSR.get(this, cc);
+    if(expr == this) expr = CmpTR.get(this, cc);
 
     // try to skip type checking at runtime
     final Expr expr1 = exprs[0], expr2 = exprs[1];
@@ -322,6 +323,22 @@ public class CmpG extends Cmp {
     return this == obj || obj instanceof CmpG && op == ((CmpG) obj).op && super.equals(obj);
   }
 
+  /**
+   * Returns the comparison operator.
+   * @return operator
+   */
+  public final OpG op() {
+    return op;
+  }
+
+  /**
+   * Returns the collation.
+   * @return collation (can be {@code null})
+   */
+  public final Collation coll() {
+    return coll;
+  }
+
   @Override
   public final void plan(final FElem plan) {
     addPlan(plan, planElem(OP, op.name), exprs);
@@ -6,13 +6,11 @@ import static org.basex.util.Token.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
-import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.index.value.*;
 import org.basex.query.*;
 import org.basex.query.expr.index.*;
-import org.basex.query.expr.path.*;
-import org.basex.query.expr.path.Test.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -205,18 +203,24 @@ public final class CmpR extends Single {
     ii.costs = ii.costs(data, nr);
     if(ii.costs == null) return false;
 
-    // skip if numbers are negative, doubles, or of different string length
-    final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
-    final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
-    if(mnl != mxl || mnl == -1) return false;
+    // typed index: all ranges can be retrieved, costs are exact
+    final Index index = data.index(type);
+    final boolean typed = index instanceof DiskValues && ((DiskValues) index).numeric();
+    if(!typed) {
+      // skip if numbers are negative, doubles, or of different string length
+      final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
+      final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
+      if(mnl != mxl || mnl == -1) return false;
+    }
 
     // don't use index if min/max values are infinite
     if(min == NEGATIVE_INFINITY && max == POSITIVE_INFINITY ||
-        token((int) nr.min).length != token((int) nr.max).length) return false;
+        !typed && token((int) nr.min).length != token((int) nr.max).length) return false;
 
     final TokenBuilder tb = new TokenBuilder();
     tb.add('[').addExt(min).add(',').addExt(max).add(']');
-    ii.create(new RangeAccess(info, nr, ii.db), true, info, Util.info(OPTINDEX_X_X, "range", tb));
+    ii.create(new RangeAccess(info, nr, ii.db, typed), true, info,
+        Util.info(OPTINDEX_X_X, typed ? "numeric range" : "range", tb));
     return true;
   }
 
@@ -227,28 +231,7 @@ public final class CmpR extends Single {
    * @return key, or {@code null} if statistics are not available
    */
   private Stats key(final IndexInfo ii, final IndexType type) {
-    // statistics are not up-to-date
-    final Data data = ii.db.data();
-    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty() ||
-        !(expr instanceof AxisPath)) return null;
-
-    NameTest test = ii.test;
-    if(test == null) {
-      final Step step;
-      final AxisPath path = (AxisPath) expr;
-      final int st = path.steps.length - 1;
-      if(type == IndexType.TEXT) {
-        step = st == 0 ? ii.step : path.step(st - 1);
-        if(step.test.kind != Kind.NAME) return null;
-      } else {
-        step = path.step(st);
-        if(!step.simple(Axis.ATTRIBUTE, true)) return null;
-      }
-      test = (NameTest) step.test;
-    }
-
-    final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
-    final Stats stats = names.stats(names.id(test.name.local()));
+    final Stats stats = ii.stats(expr, type);
     return stats == null || StatsType.isNumeric(stats.type) ? stats : null;
   }
 
@@ -0,0 +1,266 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.basex.index.value.*;
+import org.basex.query.*;
+import org.basex.query.expr.index.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Range expression for dateTime, date and time values.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CmpTR extends Single {
+  /** Minimum ({@code null} if unbounded). */
+  private final ADate min;
+  /** Include minimum value. */
+  private final boolean mni;
+  /** Maximum ({@code null} if unbounded). */
+  private final ADate max;
+  /** Include maximum value. */
+  private final boolean mxi;
+
+  /** Flag for atomic evaluation. */
+  private boolean atomic;
+
+  /**
+   * Constructor.
+   * @param expr (compiled) expression
+   * @param min minimum value (can be {@code null})
+   * @param mni include minimum value
+   * @param max maximum value (can be {@code null})
+   * @param mxi include maximum value
+   * @param info input info
+   */
+  private CmpTR(final Expr expr, final ADate min, final boolean mni, final ADate max,
+      final boolean mxi, final InputInfo info) {
+
+    super(info, expr, SeqType.BLN_O);
+    this.min = min;
+    this.mni = mni;
+    this.max = max;
+    this.mxi = mxi;
+  }
+
+  @Override
+  public Expr compile(final CompileContext cc) throws QueryException {
+    return super.compile(cc).optimize(cc);
+  }
+
+  @Override
+  public Expr optimize(final CompileContext cc) throws QueryException {
+    final SeqType st = expr.seqType();
+    atomic = st.zeroOrOne() && !st.mayBeArray();
+    return expr instanceof Value ? cc.preEval(this) : this;
+  }
+
+  /**
+   * Tries to convert the specified expression into a range expression.
+   * @param cmp expression to be converted
+   * @param cc compilation context
+   * @return new or original expression
+   * @throws QueryException query exception
+   */
+  static Expr get(final CmpG cmp, final CompileContext cc) throws QueryException {
+    // untyped input will be cast to the type of the compared value
+    final Expr cmp1 = cmp.exprs[0], cmp2 = cmp.exprs[1];
+    if(cmp1.has(Flag.NDT) || !cmp1.seqType().type.isUntyped() || !(cmp2 instanceof ADate)) {
+      return cmp;
+    }
+    final ADate d = (ADate) cmp2;
+    if(d.type != AtomType.DTM && d.type != AtomType.DAT && d.type != AtomType.TIM) return cmp;
+
+    ParseExpr expr = null;
+    switch(cmp.op.op) {
+      case EQ: expr = new CmpTR(cmp1, d,    true,  d,    true,  cmp.info); break;
+      case GE: expr = new CmpTR(cmp1, d,    true,  null, true,  cmp.info); break;
+      case GT: expr = new CmpTR(cmp1, d,    false, null, true,  cmp.info); break;
+      case LE: expr = new CmpTR(cmp1, null, true,  d,    true,  cmp.info); break;
+      case LT: expr = new CmpTR(cmp1, null, true,  d,    false, cmp.info); break;
+      default:
+    }
+    return expr != null ? expr.optimize(cc) : cmp;
+  }
+
+  @Override
+  public Bln item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    // atomic evaluation of arguments (faster)
+    if(atomic) {
+      final Item item = expr.item(qc, info);
+      return Bln.get(item != null && eval(item));
+    }
+
+    // iterative evaluation
+    final Iter iter = expr.atomIter(qc, info);
+    for(Item item; (item = qc.next(iter)) != null;) {
+      if(eval(item)) return Bln.TRUE;
+    }
+    return Bln.FALSE;
+  }
+
+  /**
+   * Evaluates the range for the specified item.
+   * @param item item to be evaluated
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  private boolean eval(final Item item) throws QueryException {
+    final ADate limit = limit();
+    final Item it = item.type.isUntyped() ? (Item) limit.type.cast(item, null, null, info) :
+      item;
+    if(!it.type.instanceOf(limit.type)) throw diffError(item, limit, info);
+    final ADate date = (ADate) it;
+    return (min == null || (mni ? diff(date, min) >= 0 : diff(date, min) > 0)) &&
+           (max == null || (mxi ? diff(date, max) <= 0 : diff(date, max) < 0));
+  }
+
+  /**
+   * Creates an intersection of the existing and the specified expressions.
+   * @param cmp range comparison
+   * @return resulting expression or {@code null}
+   */
+  Expr intersect(final CmpTR cmp) {
+    // skip intersection if expressions to be compared or types are different
+    if(!cmp.expr.equals(expr) || limit().type != cmp.limit().type) return null;
+
+    // find common minimum and maximum value
+    ADate mn = min, mx = max;
+    boolean mnin = mni, mxin = mxi;
+    if(mn == null) {
+      mn = cmp.min;
+      mnin = cmp.mni;
+    } else if(cmp.min != null) {
+      final int d = diff(mn, cmp.min);
+      if(d < 0) mn = cmp.min;
+      mnin = d < 0 ? cmp.mni : d > 0 ? mni : mni && cmp.mni;
+    }
+    if(mx == null) {
+      mx = cmp.max;
+      mxin = cmp.mxi;
+    } else if(cmp.max != null) {
+      final int d = diff(mx, cmp.max);
+      if(d > 0) mx = cmp.max;
+      mxin = d > 0 ? cmp.mxi : d < 0 ? mxi : mxi && cmp.mxi;
+    }
+
+    if(mn != null && mx != null) {
+      final int d = diff(mn, mx);
+      // remove comparisons that will never yield results
+      if(d > 0 || d == 0 && !(mnin && mxin)) return Bln.FALSE;
+    }
+    return new CmpTR(cmp.expr, mn, mnin, mx, mxin, info);
+  }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) {
+    // sequential main memory scan is usually faster than range index access
+    final Data data = ii.db.data();
+    if(data == null || data.inMemory()) return false;
+
+    final IndexType type = ii.type(expr, null);
+    if(type == null) return false;
+
+    // check if a typed index exists
+    final Index index = data.index(type);
+    if(!(index instanceof DiskValues && ((DiskValues) index).temporal())) return false;
+
+    // all values must be of the compared type (otherwise, errors must be raised)
+    final Stats stats = ii.stats(expr, type);
+    if(stats == null) return false;
+    final Type tp = limit().type;
+    if(!(tp == AtomType.DTM ? StatsType.isDateTime(stats.type) :
+      tp == AtomType.DAT ? StatsType.isDate(stats.type) : StatsType.isTime(stats.type))) {
+      return false;
+    }
+
+    // create range access
+    final TemporalRange tr = new TemporalRange(type, min, mni, max, mxi, stats.implicit);
+    ii.costs = ii.costs(data, tr);
+    if(ii.costs == null) return false;
+
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(mni ? '[' : '(').add(min != null ? min.string(info) : Token.EMPTY).add(',');
+    tb.add(max != null ? max.string(info) : Token.EMPTY).add(mxi ? ']' : ')');
+    ii.create(new TemporalRangeAccess(info, tr, ii.db), true, info,
+        Util.info(OPTINDEX_X_X, type + " " + tp + " range", tb));
+    return true;
+  }
+
+  /**
+   * Returns the minimum or, if it does not exist, the maximum value.
+   * @return limit
+   */
+  private ADate limit() {
+    return min != null ? min : max;
+  }
+
+  /**
+   * Compares two values of the same type.
+   * @param date1 first value
+   * @param date2 second value
+   * @return difference
+   */
+  private int diff(final ADate date1, final ADate date2) {
+    try {
+      return date1.diff(date2, null, info);
+    } catch(final QueryException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final CmpTR cmp = new CmpTR(expr.copy(cc, vm), min, mni, max, mxi, info);
+    cmp.atomic = atomic;
+    return cmp;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof CmpTR)) return false;
+    final CmpTR c = (CmpTR) obj;
+    return Objects.equals(min, c.min) && mni == c.mni && Objects.equals(max, c.max) &&
+        mxi == c.mxi && super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(MIN, min != null ? min.string(info) : Token.EMPTY,
+        MAX, max != null ? max.string(info) : Token.EMPTY), expr);
+  }
+
+  @Override
+  public String description() {
+    return "temporal range comparison";
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder(PAREN1);
+    if(min != null) tb.add(min.type.toString()).add('(').addExt(min).add(')').
+      add(mni ? " <= " : " < ");
+    tb.addExt(expr);
+    if(max != null) tb.add(mxi ? " <= " : " < ").add(max.type.toString()).add('(').addExt(max).
+      add(')');
+    return tb.add(PAREN2).toString();
+  }
+}
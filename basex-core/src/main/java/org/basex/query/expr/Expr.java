@@ -35,7 +35,8 @@ public abstract class Expr extends ExprInfo {
    *   <li>{@link If#optimize(CompileContext)}, {@link Switch#optimize(CompileContext)},
    *     {@link Typeswitch#optimize(CompileContext)}, in order to discard identical expressions.
    *   </li>
-   *   <li>{@link CmpR#intersect(CmpR)} or {@link CmpSR#intersect(CmpSR)},
+   *   <li>{@link CmpR#intersect(CmpR)}, {@link CmpSR#intersect(CmpSR)} or
+   *     {@link CmpTR#intersect(CmpTR)},
    *     in order to merge expressions with identical input.
    *   </li>
    *   <li>{@link CmpG#optimize(CompileContext)} or {@link CmpV#optimize(CompileContext)},
@@ -68,6 +68,20 @@ public final class IterMap extends SimpleMap {
     };
   }
 
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    // arithmetic expression: try to compute all results at once
+    // (input must be a value or variable reference, as it will be evaluated again if this fails)
+    final Expr expr1 = exprs[0], expr2 = exprs[1];
+    if(exprs.length == 2 && (expr1 instanceof Value || expr1 instanceof VarRef) &&
+        expr2 instanceof Arith && ((Arith) expr2).vectorizable(ContextValue.class::isInstance)) {
+      final Value value = ((Arith) expr2).vector(expr1.value(qc), ContextValue.class::isInstance,
+        qc);
+      if(value != null) return value;
+    }
+    return iter(qc).value(qc);
+  }
+
   @Override
   public IterMap copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new IterMap(info, Arr.copyAll(cc, vm, exprs)));
@@ -0,0 +1,91 @@
+package org.basex.query.expr;
+
+import org.basex.query.*;
+import org.basex.query.func.xquery.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Map expression, which is evaluated in parallel: the items of the first operand are split into
+ * chunks, which are mapped by separate tasks.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelMap extends SimpleMap {
+  /**
+   * Constructor.
+   * @param info input info
+   * @param exprs expressions
+   */
+  ParallelMap(final InputInfo info, final Expr... exprs) {
+    super(info, exprs);
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = exprs[0].value(qc);
+    final long size = value.size();
+    final int tasks = XQueryTask.tasks(size, 1, qc);
+    if(tasks < 2) return value(value, 0, size, qc);
+    return XQueryTask.invoke(tasks, (t, qctx) ->
+      value(value, size * t / tasks, size * (t + 1) / tasks, qctx), qc, info);
+  }
+
+  /**
+   * Maps the specified range of input items.
+   * @param value input items
+   * @param start first item
+   * @param end last item (exclusive)
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value value(final Value value, final long start, final long end,
+      final QueryContext qc) throws QueryException {
+
+    final QueryFocus qf = qc.focus, focus = new QueryFocus();
+    qc.focus = focus;
+    try {
+      // first operand: positions refer to all input items
+      ValueBuilder vb = new ValueBuilder(qc);
+      focus.size = value.size();
+      for(long i = start; i < end; i++) {
+        qc.checkStop();
+        focus.pos = i + 1;
+        focus.value = value.itemAt(i);
+        vb.add(exprs[1].value(qc));
+      }
+      Value result = vb.value();
+
+      // remaining operands (no positional access)
+      final int el = exprs.length;
+      for(int e = 2; e < el; e++) {
+        vb = new ValueBuilder(qc);
+        final Iter iter = result.iter();
+        for(Item item; (item = qc.next(iter)) != null;) {
+          focus.value = item;
+          vb.add(exprs[e].value(qc));
+        }
+        result = vb.value();
+      }
+      return result;
+    } finally {
+      qc.focus = qf;
+    }
+  }
+
+  @Override
+  public SimpleMap copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new ParallelMap(info, Arr.copyAll(cc, vm, exprs)));
+  }
+}
@@ -4,6 +4,7 @@ import static org.basex.query.QueryText.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.util.*;
@@ -140,12 +141,30 @@ public abstract class SimpleMap extends Arr {
     return e == 1 ? exprs[0] :
       // no results, deterministic expressions: return empty sequence
       size() == 0 && !has(Flag.NDT) ? cc.emptySeq(this) :
+      // parallel evaluation
+      !(this instanceof ParallelMap) && parallel(cc) ? copyType(new ParallelMap(info, exprs)) :
       // item-based iteration
       it ? copyType(new ItemMap(info, exprs)) :
       // default evaluation
       this;
   }
 
+  /**
+   * Checks if the expression can be evaluated in parallel.
+   * @param cc compilation context
+   * @return result of check
+   */
+  private boolean parallel(final CompileContext cc) {
+    if(!cc.qc.context.options.get(MainOptions.PARALLELIZE) || has(Flag.NDT, Flag.UPD))
+      return false;
+    // positions are only available for the first mapping
+    final int el = exprs.length;
+    for(int e = 2; e < el; e++) {
+      if(exprs[e].has(Flag.POS)) return false;
+    }
+    return true;
+  }
+
   @Override
   public final boolean has(final Flag... flags) {
     /* Context dependency: Only check first expression.
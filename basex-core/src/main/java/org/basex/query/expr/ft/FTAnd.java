@@ -64,17 +64,37 @@ public final class FTAnd extends FTExpr {
     }
 
     return new FTIter() {
+      /** Maximum scores of the iterators ({@code null}: not computed yet). */
+      double[] max;
+
       @Override
       public FTNode next() throws QueryException {
-        // find item with lowest pre value
+        return next(Double.NEGATIVE_INFINITY);
+      }
+
+      @Override
+      public FTNode next(final double min) throws QueryException {
+        if(max() <= min) return null;
+
+        // compute minimum scores of the single iterators
         final int il = nodes.length;
+        final double[] mins = new double[il];
+        for(int i = 0; i < il; ++i) {
+          double m = min;
+          for(int j = 0; j < il; ++j) {
+            if(j != i) m -= weight(j) * max[j];
+          }
+          mins[i] = m / weight(i);
+        }
+
+        // find item with lowest pre value
         for(int i = 0; i < il; ++i) {
           if(nodes[i] == null) return null;
 
           final int d = nodes[0].pre() - nodes[i].pre();
           if(d != 0) {
             if(d < 0) i = 0;
-            nodes[i] = iters[i].next();
+            nodes[i] = iters[i].next(mins[i]);
             i = -1;
           }
         }
@@ -83,11 +103,32 @@ public final class FTAnd extends FTExpr {
         final FTNode item = nodes[0];
         for(int i = 1; i < il; ++i) {
           and(item, nodes[i]);
-          nodes[i] = iters[i].next();
+          nodes[i] = iters[i].next(mins[i]);
         }
-        nodes[0] = iters[0].next();
+        nodes[0] = iters[0].next(mins[0]);
         return item;
       }
+
+      @Override
+      public double max() throws QueryException {
+        if(max == null) {
+          max = new double[es];
+          for(int e = 0; e < es; e++) max[e] = iters[e].max();
+        }
+        double m = max[0];
+        for(int e = 1; e < es; e++) m = Scoring.avg(m + max[e], 2);
+        return m;
+      }
+
+      /**
+       * Returns the weight of the score of an iterator in the final score.
+       * Scores are averaged pairwise, so later iterators have higher weights.
+       * @param e index of the iterator
+       * @return weight
+       */
+      private double weight(final int e) {
+        return 1.0 / (1L << es - Math.max(1, e));
+      }
     };
   }
 
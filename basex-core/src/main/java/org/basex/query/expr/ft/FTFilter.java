@@ -51,14 +51,25 @@ public abstract class FTFilter extends FTExpr {
     return new FTIter() {
       @Override
       public FTNode next() throws QueryException {
+        return next(Double.NEGATIVE_INFINITY);
+      }
+
+      @Override
+      public FTNode next(final double min) throws QueryException {
+        // filtered nodes have fewer matches and lower scores
         FTNode it;
-        while((it = iter.next()) != null) {
+        while((it = iter.next(min)) != null) {
           qc.checkStop();
           // only create lexer if content needs to be parsed
           if(filter(qc, it, content() ? new FTLexer().init(it.string(info)) : null)) break;
         }
         return it;
       }
+
+      @Override
+      public double max() throws QueryException {
+        return iter.max();
+      }
     };
   }
 
@@ -1,11 +1,14 @@
 package org.basex.query.expr.ft;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.index.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
+import org.basex.query.util.list.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
@@ -57,6 +60,42 @@ public final class FTIndexAccess extends Simple {
     };
   }
 
+  /**
+   * Returns the nodes with the highest scores in document order. Index entries that cannot
+   * exceed the lowest score of the current results are skipped.
+   * @param qc query context
+   * @param limit maximum number of nodes
+   * @return node iterator
+   * @throws QueryException query exception
+   */
+  public BasicNodeIter iter(final QueryContext qc, final int limit) throws QueryException {
+    // nodes with the lowest score and, for equal scores, the highest pre value are removed first
+    final PriorityQueue<FTNode> nodes = new PriorityQueue<>((node1, node2) -> {
+      final int c = Double.compare(node1.score(), node2.score());
+      return c != 0 ? c : node2.pre() - node1.pre();
+    });
+    final FTIter iter = ftexpr.iter(qc);
+    double min = Double.NEGATIVE_INFINITY;
+    for(FTNode node; (node = iter.next(min)) != null;) {
+      qc.checkStop();
+      final double score = node.score();
+      // cache entry for visualizations or ft:mark/ft:extract
+      if(qc.ftPosData != null) qc.ftPosData.add(node.data(), node.pre(), node.matches());
+      node.matches(null);
+      if(nodes.size() < limit) {
+        nodes.add(node);
+      } else if(score > min) {
+        nodes.poll();
+        nodes.add(node);
+      }
+      if(nodes.size() == limit) min = nodes.peek().score();
+    }
+
+    final ANodeList list = new ANodeList(nodes.size());
+    for(final FTNode node : nodes) list.add(node);
+    return list.sort(ANode::diff, true).iter();
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     return ftexpr.has(flags) || db.has(flags);
@@ -64,6 +64,24 @@ public final class FTOr extends FTExpr {
     }
 
     return new FTIter() {
+      /** Maximum score ({@code -1}: not computed yet). */
+      double max = -1;
+
+      @Override
+      public FTNode next(final double min) throws QueryException {
+        // averaged scores cannot exceed the maximum score of the single iterators
+        return max() > min ? next() : null;
+      }
+
+      @Override
+      public double max() throws QueryException {
+        if(max == -1) {
+          max = 0;
+          for(final FTIter iter : ters) max = Math.max(max, iter.max());
+        }
+        return max;
+      }
+
       @Override
       public FTNode next() throws QueryException {
         // find item with smallest pre value
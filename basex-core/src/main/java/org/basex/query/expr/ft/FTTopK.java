@@ -0,0 +1,79 @@
+package org.basex.query.expr.ft;
+
+import static org.basex.query.QueryText.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.func.ft.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Full-text index request that only returns the nodes with the highest scores.
+ * The nodes are returned in document order. The expression is created if the results of
+ * an index request are ordered by their scores, and if only the first results are requested.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class FTTopK extends Single {
+  /** Maximum number of results. */
+  private final int limit;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param expr index request ({@link FTIndexAccess} or {@link Function#_FT_SEARCH})
+   * @param limit maximum number of results
+   */
+  public FTTopK(final InputInfo info, final Expr expr, final int limit) {
+    super(info, expr, expr.seqType());
+    this.limit = limit;
+  }
+
+  /**
+   * Checks if the specified expression is a full-text index request.
+   * @param expr expression
+   * @return result of check
+   */
+  public static boolean accept(final Expr expr) {
+    return expr instanceof FTIndexAccess || expr.isFunction(Function._FT_SEARCH);
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final FTIndexAccess access = expr instanceof FTIndexAccess ? (FTIndexAccess) expr :
+      ((FtSearch) expr).access(qc);
+    return access.iter(qc, limit);
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new FTTopK(info, expr.copy(cc, vm), limit));
+  }
+
+  @Override
+  public boolean iterable() {
+    return true;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj || obj instanceof FTTopK && limit == ((FTTopK) obj).limit &&
+        super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(MAX, limit), expr);
+  }
+
+  @Override
+  public String toString() {
+    return expr + " (: " + limit + " highest scores :)";
+  }
+}
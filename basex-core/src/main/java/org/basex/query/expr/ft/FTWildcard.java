@@ -2,6 +2,8 @@ package org.basex.query.expr.ft;
 
 import static org.basex.util.Token.*;
 
+import java.util.*;
+
 import org.basex.util.*;
 
 /**
@@ -13,7 +15,7 @@ import org.basex.util.*;
  */
 public final class FTWildcard {
   /** Value encoding the wildcard dot. */
-  private static final int DOT = -1;
+  public static final int DOT = -1;
   /** Original query. */
   private final byte[] query;
   /** Simple flag: query contains no wildcard characters. */
@@ -125,6 +127,14 @@ public final class FTWildcard {
     return tb.finish();
   }
 
+  /**
+   * Returns the characters of the expression. Wildcards are represented by {@link #DOT}.
+   * @return characters
+   */
+  public int[] chars() {
+    return Arrays.copyOf(wc, size);
+  }
+
   /**
    * Checks if the wildcard can match a sub-string in a string.
    * @param t token to search for match
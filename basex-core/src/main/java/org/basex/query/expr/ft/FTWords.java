@@ -133,60 +133,98 @@ public final class FTWords extends FTExpr {
     return new FTIter() {
       FTIndexIterator ftiter;
       int length;
+      double max = -1;
 
       @Override
       public FTNode next() throws QueryException {
-        if(ftiter == null) {
-          final FTTokenizer ftt = FTWords.this.get(qc);
-          final FTLexer lexer = new FTLexer(ftOpt).
-              lserror(qc.context.options.get(MainOptions.LSERROR));
-
-          // length distinct tokens
-          int len = 0;
-          // loop through unique tokens
-          for(final byte[] txt : unique(tokens != null ? tokens : tokens(qc))) {
-            lexer.init(txt);
-            if(!lexer.hasNext()) return null;
-
-            int d = 0;
-            FTIndexIterator ii = null;
-            do {
-              final byte[] tok = lexer.nextToken();
-              len += tok.length;
-              if(ftOpt.sw != null && ftOpt.sw.contains(tok)) {
-                ++d;
+        return next(Double.NEGATIVE_INFINITY);
+      }
+
+      @Override
+      public FTNode next(final double min) throws QueryException {
+        return max() > min && ftiter.more(min) ?
+          new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size()) : null;
+      }
+
+      @Override
+      public double max() throws QueryException {
+        if(max == -1) {
+          ftiter = init();
+          max = ftiter == null ? Double.NEGATIVE_INFINITY : ftiter.maxScore(length);
+        }
+        return max;
+      }
+
+      /**
+       * Creates the index iterator.
+       * @return iterator or {@code null}
+       * @throws QueryException query exception
+       */
+      private FTIndexIterator init() throws QueryException {
+        final FTTokenizer ftt = FTWords.this.get(qc);
+        final FTLexer lexer = new FTLexer(ftOpt).
+            lserror(qc.context.options.get(MainOptions.LSERROR));
+        final boolean all = mode == FTMode.ALL || mode == FTMode.ALL_WORDS;
+
+        // length distinct tokens
+        int len = 0;
+        // iterators of alternative tokens
+        final ArrayList<FTIndexIterator> iters = new ArrayList<>();
+        FTIndexIterator iter = null;
+        // loop through unique tokens
+        for(final byte[] txt : unique(tokens != null ? tokens : tokens(qc))) {
+          lexer.init(txt);
+          if(!lexer.hasNext()) return null;
+
+          int d = 0;
+          FTIndexIterator ii = null;
+          do {
+            final byte[] tok = lexer.nextToken();
+            len += tok.length;
+            if(ftOpt.sw != null && ftOpt.sw.contains(tok)) {
+              ++d;
+            } else {
+              final FTIndexIterator it;
+              if(lexer.get().length > data.meta.maxlen) {
+                it = scan(lexer, ftt, data);
               } else {
-                final FTIndexIterator iter = lexer.get().length > data.meta.maxlen ?
-                  scan(lexer, ftt, data) : (FTIndexIterator) data.iter(lexer);
-                iter.pos(++qc.ftPos);
-                if(ii == null) {
-                  ii = iter;
-                } else {
-                  ii = FTIndexIterator.intersect(ii, iter, ++d);
-                  d = 0;
-                }
+                it = (FTIndexIterator) data.iter(lexer);
+                // report number of compared tokens
+                final String lookup = it.info();
+                if(lookup != null) qc.evalInfo(lookup);
               }
-            } while(lexer.hasNext());
-
-            if(ii != null) {
-              // create or combine iterator
-              if(ftiter == null) {
-                length = len;
-                ftiter = ii;
-              } else if(mode == FTMode.ALL || mode == FTMode.ALL_WORDS) {
-                if(ii.size() == 0) return null;
-                length += len;
-                ftiter = FTIndexIterator.intersect(ftiter, ii, 0);
+              it.pos(++qc.ftPos);
+              if(ii == null) {
+                ii = it;
               } else {
-                if(ii.size() == 0) continue;
-                length = Math.max(len, length);
-                ftiter = FTIndexIterator.union(ftiter, ii);
+                ii = FTIndexIterator.intersect(ii, it, ++d);
+                d = 0;
               }
             }
+          } while(lexer.hasNext());
+
+          if(ii != null) {
+            // create or combine iterator
+            if(iter == null && iters.isEmpty()) {
+              length = len;
+              if(all) iter = ii;
+              else iters.add(ii);
+            } else if(all) {
+              if(ii.size() == 0) return null;
+              length += len;
+              iter = FTIndexIterator.intersect(iter, ii, 0);
+            } else {
+              if(ii.size() == 0) continue;
+              length = Math.max(len, length);
+              iters.add(ii);
+            }
           }
         }
-        return ftiter == null || !ftiter.more() ? null :
-          new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
+        if(all) return iter;
+        // merge alternatives; skip nodes with low scores if a minimum score is requested
+        final int is = iters.size();
+        return is == 0 ? null : is == 1 ? iters.get(0) :
+          FTIndexIterator.union(iters.toArray(new FTIndexIterator[is]), length);
       }
     };
   }
@@ -406,13 +444,11 @@ public final class FTWords extends FTExpr {
           if(ftOpt.sw != null && ftOpt.sw.contains(tok)) continue;
 
           if(ftOpt.is(WC)) {
-            // don't use index if one of the terms starts with a wildcard
+            // don't use index if certain characters are found
+            // (supported wildcards are checked by the index)
             token = lexer.get();
-            if(token[0] == '.') return false;
-            // don't use index if certain characters or more than 1 dot are found
-            int d = 0;
             for(final byte w : token) {
-              if(w == '{' || w == '\\' || w == '.' && ++d > 1) return false;
+              if(w == '{' || w == '\\') return false;
             }
           }
           // favor full-text index requests over exact queries
@@ -3,10 +3,13 @@ package org.basex.query.expr.gflwor;
 import java.util.*;
 import java.util.function.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.ft.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.Function;
+import org.basex.query.func.xquery.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
@@ -30,6 +33,8 @@ public final class GFLWOR extends ParseExpr {
   public final LinkedList<Clause> clauses;
   /** Return expression. */
   public Expr ret;
+  /** Parallel evaluation of the items of the first clause. */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -68,6 +73,13 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc);
+    final For fr = vectorizable();
+    if(fr != null) {
+      // arithmetic expression: try to compute all results at once
+      final Value value = ((Arith) ret).vector(fr.expr.value(qc), expr -> bound(expr, fr.var), qc);
+      if(value != null) return value;
+    }
     final Eval eval = newEval();
     final ValueBuilder vb = new ValueBuilder(qc);
     while(eval.next(qc)) vb.add(ret.value(qc));
@@ -75,7 +87,8 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc).iter();
     return new Iter() {
       private final Eval ev = newEval();
       private Iter sub = Empty.ITER;
@@ -95,8 +108,87 @@ public final class GFLWOR extends ParseExpr {
     };
   }
 
+  /**
+   * Evaluates the expression in parallel. The items of the first clause are split into chunks,
+   * which are evaluated by separate tasks. The results are concatenated in the original order.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc) throws QueryException {
+    final Value value = ((For) clauses.getFirst()).expr.value(qc);
+    final long size = value.size();
+    final int tasks = XQueryTask.tasks(size, 1, qc);
+    if(tasks < 2) return value(value, qc);
+    return XQueryTask.invoke(tasks, (t, qctx) -> {
+      final long start = size * t / tasks, end = size * (t + 1) / tasks;
+      return value(value.subSequence(start, end - start, qctx), qctx);
+    }, qc, info);
+  }
+
+  /**
+   * Evaluates the expression for the specified items of the first clause.
+   * @param items items
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value value(final Value items, final QueryContext qc) throws QueryException {
+    final Iterator<Clause> iter = clauses.iterator();
+    final For fr = (For) iter.next();
+    Eval eval = new For(fr.var, null, null, items, false).eval(new StartEval());
+    while(iter.hasNext()) eval = iter.next().eval(eval);
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(eval.next(qc)) vb.add(ret.value(qc));
+    return vb.value();
+  }
+
+  /**
+   * Checks if the expression consists of a single for clause and an arithmetic expression that
+   * can be evaluated for all items of the clause at once. The input of the clause must be a value
+   * or a variable reference, as it must not be evaluated twice if the evaluation fails.
+   * @return for clause or {@code null}
+   */
+  private For vectorizable() {
+    if(clauses.size() != 1 || !(clauses.getFirst() instanceof For) || !(ret instanceof Arith))
+      return null;
+    final For fr = (For) clauses.getFirst();
+    return fr.pos == null && fr.score == null && !fr.empty && !fr.var.checksType() &&
+      (fr.expr instanceof Value || fr.expr instanceof VarRef) &&
+      ((Arith) ret).vectorizable(expr -> bound(expr, fr.var)) ? fr : null;
+  }
+
+  /**
+   * Checks if the specified expression references the specified variable.
+   * @param expr expression
+   * @param var variable
+   * @return result of check
+   */
+  private static boolean bound(final Expr expr, final Var var) {
+    return expr instanceof VarRef && var.is(((VarRef) expr).var);
+  }
+
+  /**
+   * Checks if the expression can be evaluated in parallel.
+   * @return result of check
+   */
+  private boolean parallelizable() {
+    if(clauses.isEmpty() || !(clauses.getFirst() instanceof For) || has(Flag.NDT, Flag.UPD))
+      return false;
+    final For fr = (For) clauses.getFirst();
+    if(fr.vars().length != 1 || fr.empty) return false;
+    // clauses that depend on all tuples (order by, group by, count, ...) are not supported
+    for(final Clause clause : clauses) {
+      if(!(clause instanceof For || clause instanceof Let || clause instanceof Where ||
+          clause instanceof Join)) return false;
+    }
+    return true;
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
+    parallel |= cc.qc.context.options.get(MainOptions.PARALLELIZE);
     final ListIterator<Clause> iter = clauses.listIterator();
     try {
       while(iter.hasNext()) iter.next().compile(cc);
@@ -257,6 +349,7 @@ public final class GFLWOR extends ParseExpr {
       final Expr branch = clauses.isEmpty() ? ret : this;
       return cc.replaceWith(this, new If(info, where.expr, branch, Empty.SEQ).optimize(cc));
     }
+    parallel = parallel && parallelizable();
 
     return this;
   }
@@ -572,7 +665,14 @@ public final class GFLWOR extends ParseExpr {
           final Clause before = clauses.get(b4);
           if(before instanceof For) {
             final For fr = (For) before;
-            if(fr.toPredicate(cc, where.expr)) {
+            final Join join = Join.get(fr, where.expr, clauses.subList(0, b4));
+            if(join != null) {
+              cc.info(QueryText.OPTJOIN_X, join);
+              clauses.set(b4, join.optimize(cc));
+              clauses.remove(newPos);
+              i--;
+              changed = true;
+            } else if(fr.toPredicate(cc, where.expr)) {
               fors.add((For) before);
               clauses.remove(newPos);
               i--;
@@ -667,6 +767,27 @@ public final class GFLWOR extends ParseExpr {
     }
   }
 
+  /**
+   * Limits the number of tuples of a full-text index request if it is ordered by descending
+   * scores. Called if only the first items of this expression are requested.
+   * Example: {@code (for $n score $s in ft:search(...) order by $s descending return $n)[1]}.
+   * @param limit maximum number of returned items
+   * @param cc compilation context
+   */
+  public void limit(final long limit, final CompileContext cc) {
+    // each tuple must yield exactly one item
+    if(limit < 1 || limit > Integer.MAX_VALUE || clauses.size() != 2 || !ret.seqType().one())
+      return;
+    final Clause first = clauses.getFirst(), last = clauses.getLast();
+    if(!(first instanceof For && last instanceof OrderBy)) return;
+    final For fr = (For) first;
+    if(fr.pos != null || fr.score == null || fr.empty || !FTTopK.accept(fr.expr) ||
+        !((OrderBy) last).descending(fr.score)) return;
+
+    cc.info(QueryText.OPTTOPK_X, limit);
+    fr.expr = new FTTopK(info, fr.expr, (int) limit);
+  }
+
   @Override
   public boolean isVacuous() {
     return ret.isVacuous();
@@ -770,7 +891,8 @@ public final class GFLWOR extends ParseExpr {
     // check if an outer clause can prevent the error
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where) {
+      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof Join) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -789,7 +911,9 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(cc, vm));
-    return copyType(new GFLWOR(info, cls, ret.copy(cc, vm)));
+    final GFLWOR flwor = new GFLWOR(info, cls, ret.copy(cc, vm));
+    flwor.parallel = parallel;
+    return copyType(flwor);
   }
 
   /**
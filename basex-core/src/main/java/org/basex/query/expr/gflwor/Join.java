@@ -0,0 +1,366 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.CmpG.*;
+import org.basex.query.expr.gflwor.GFLWOR.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * FLWOR join clause, replacing a {@code for} clause and a {@code where} clause with a general
+ * comparison. One operand of the comparison (the inner keys) depends on the iterated items, the
+ * other one (the outer keys) on the preceding clauses. The iterated items are indexed when the
+ * first tuple arrives: equality comparisons are answered by a hash table, range comparisons by
+ * a sorted list of keys. Matching items are returned in their original order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Join extends Clause {
+  /** Item variable. */
+  final Var var;
+  /** Iterated expression. */
+  Expr expr;
+  /** Inner keys (depending on the item variable). */
+  Expr inner;
+  /** Outer keys (depending on the preceding clauses). */
+  Expr outer;
+  /** Comparison operator. */
+  private final OpG op;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr iterated expression
+   * @param inner inner keys
+   * @param op comparison operator
+   * @param outer outer keys
+   */
+  private Join(final Var var, final Expr expr, final Expr inner, final OpG op,
+      final Expr outer) {
+    super(var.info, SeqType.ITEM_O, var);
+    this.var = var;
+    this.expr = expr;
+    this.inner = inner;
+    this.op = op;
+    this.outer = outer;
+  }
+
+  /**
+   * Tries to rewrite a for clause and a subsequent where clause to a join.
+   * @param fr for clause
+   * @param ex where expression
+   * @param before clauses preceding the for clause
+   * @return join or {@code null}
+   */
+  static Join get(final For fr, final Expr ex, final List<Clause> before) {
+    if(fr.empty || fr.vars().length != 1 || !(ex instanceof CmpG) || fr.has(Flag.NDT)) return null;
+    final CmpG cmp = (CmpG) ex;
+    if(cmp.coll() != null || cmp.op() == OpG.NE) return null;
+
+    // normalize comparison: inner keys must depend on the iterated items, outer keys must not
+    final Var var = fr.var;
+    final boolean swap = !cmp.exprs[0].uses(var);
+    final Expr inner = cmp.exprs[swap ? 1 : 0], outer = cmp.exprs[swap ? 0 : 1];
+    final OpG op = swap ? cmp.op().swap() : cmp.op();
+    if(!inner.uses(var) || outer.uses(var)) return null;
+
+    // only outer keys may depend on the preceding clauses
+    boolean dep = false;
+    for(final Clause clause : before) {
+      for(final Var vr : clause.vars()) {
+        if(fr.expr.uses(vr) || inner.uses(vr)) return null;
+        dep |= outer.uses(vr);
+      }
+    }
+    if(!dep) return null;
+
+    // keys must be comparable without type errors: numbers, or strings for equality checks
+    final Type type1 = inner.seqType().type, type2 = outer.seqType().type;
+    if(!(type1.isNumber() && type2.isNumber() || op == OpG.EQ &&
+        type1.isStringOrUntyped() && type2.isStringOrUntyped())) return null;
+
+    // estimate the number of tuples and iterated items (may be based on path index statistics)
+    final long[] minMax = { 1, 1 };
+    for(final Clause clause : before) clause.calcSize(minMax);
+    final long tuples = minMax[1], size = fr.expr.size();
+    if(tuples >= 0 && tuples <= 1 || size >= 0 && size <= 1) return null;
+
+    // prefer index access if the iterated items are indexed and the tuples are not known to
+    // outnumber them
+    final Data data = fr.expr.data();
+    if(data != null && (data.meta.textindex || data.meta.attrindex) &&
+        (tuples < 0 || size >= 0 && tuples < size)) return null;
+
+    return new Join(var, fr.expr, inner, op, outer);
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Iterated items (assigned when the first outer key is processed). */
+      private Value value;
+      /** Equality comparisons: inner keys. */
+      private HashItemSet set;
+      /** Equality comparisons: positions of the items, indexed by key ids. */
+      private ArrayList<IntList> positions;
+      /** Range comparisons: smallest or largest inner key of each item, sorted. */
+      private Item[] keys;
+      /** Range comparisons: positions of the items in the order of the keys. */
+      private int[] order;
+      /** Positions of the matching items. */
+      private IntList matches;
+      /** Current match. */
+      private int m;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(matches != null && m < matches.size()) {
+            qc.set(var, value.itemAt(matches.get(m++)));
+            return true;
+          }
+          if(!sub.next(qc)) return false;
+          matches = op == OpG.EQ ? equal(qc) : range(qc);
+          m = 0;
+        }
+      }
+
+      /**
+       * Returns the positions of the items with inner keys that are equal to an outer key.
+       * @param qc query context
+       * @return positions, or {@code null} if there are no outer keys
+       * @throws QueryException query exception
+       */
+      private IntList equal(final QueryContext qc) throws QueryException {
+        final Iter iter = outer.atomIter(qc, info);
+        Item key = qc.next(iter);
+        if(key == null) return null;
+
+        if(value == null) {
+          value = expr.value(qc);
+          set = new HashItemSet(true);
+          positions = new ArrayList<>();
+          positions.add(null);
+          final int size = (int) value.size();
+          for(int p = 0; p < size; p++) {
+            qc.set(var, value.itemAt(p));
+            final Iter ir = inner.atomIter(qc, info);
+            for(Item item; (item = qc.next(ir)) != null;) {
+              final int id = set.put(item, info);
+              if(id == positions.size()) positions.add(new IntList(1));
+              final IntList list = positions.get(id);
+              if(list.isEmpty() || list.peek() != p) list.add(p);
+            }
+          }
+        }
+
+        final IntList list = new IntList();
+        int found = 0;
+        do {
+          final int id = set.id(key, info);
+          if(id != 0) {
+            list.add(positions.get(id).toArray());
+            found++;
+          }
+        } while((key = qc.next(iter)) != null);
+        return found > 1 ? list.sort().distinct() : list;
+      }
+
+      /**
+       * Returns the positions of the items with an inner key that compares successfully with an
+       * outer key.
+       * @param qc query context
+       * @return positions, or {@code null} if there are no outer keys
+       * @throws QueryException query exception
+       */
+      private IntList range(final QueryContext qc) throws QueryException {
+        // lower bound: find the largest outer key; upper bound: find the smallest one
+        final Item bound = limit(outer.atomIter(qc, info), op == OpG.LT || op == OpG.LE, qc);
+        if(bound == null) return null;
+
+        if(value == null) {
+          value = expr.value(qc);
+          final ArrayList<Item> list = new ArrayList<>();
+          final IntList pos = new IntList();
+          final int size = (int) value.size();
+          for(int p = 0; p < size; p++) {
+            qc.set(var, value.itemAt(p));
+            final Item item = limit(inner.atomIter(qc, info), op == OpG.GT || op == OpG.GE, qc);
+            if(item != null) {
+              list.add(item);
+              pos.add(p);
+            }
+          }
+          // sort keys: matching keys will be found at the beginning
+          final int kl = list.size();
+          final Integer[] perm = new Integer[kl];
+          for(int k = 0; k < kl; k++) perm[k] = k;
+          try {
+            Arrays.sort(perm, (x, y) -> {
+              try {
+                final int c = list.get(x).diff(list.get(y), null, info);
+                return op == OpG.LT || op == OpG.LE ? c : -c;
+              } catch(final QueryException ex) {
+                throw new QueryRTException(ex);
+              }
+            });
+          } catch(final QueryRTException ex) {
+            throw ex.getCause();
+          }
+          keys = new Item[kl];
+          order = new int[kl];
+          for(int k = 0; k < kl; k++) {
+            keys[k] = list.get(perm[k]);
+            order[k] = pos.get(perm[k]);
+          }
+        }
+
+        // find number of matching keys
+        int l = 0, h = keys.length;
+        while(l < h) {
+          final int c = l + h >>> 1;
+          if(op.op.eval(keys[c], bound, null, null, info)) l = c + 1;
+          else h = c;
+        }
+        return new IntList(Arrays.copyOf(order, l)).sort();
+      }
+    };
+  }
+
+  /**
+   * Returns the largest or smallest of the specified numbers, ignoring NaN values.
+   * @param iter iterator
+   * @param max return largest number
+   * @param qc query context
+   * @return number or {@code null}
+   * @throws QueryException query exception
+   */
+  private Item limit(final Iter iter, final boolean max, final QueryContext qc)
+      throws QueryException {
+    Item limit = null;
+    for(Item item; (item = qc.next(iter)) != null;) {
+      if(Double.isNaN(item.dbl(info))) continue;
+      if(limit == null || (max ? item.diff(limit, null, info) > 0 :
+        item.diff(limit, null, info) < 0)) limit = item;
+    }
+    return limit;
+  }
+
+  @Override
+  public Join compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    inner = inner.compile(cc);
+    outer = outer.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Join optimize(final CompileContext cc) throws QueryException {
+    // assign type to clause and variable
+    exprType.assign(expr.seqType().type, Occ.ONE);
+    var.refineType(seqType(), size(), cc);
+    var.data = expr.data();
+    return this;
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return expr.has(flags) || inner.has(flags) || outer.has(flags);
+  }
+
+  @Override
+  public boolean removable(final Var v) {
+    return expr.removable(v) && inner.removable(v) && outer.removable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    // inner keys are evaluated once for each iterated item
+    return expr.count(v).plus(inner.count(v).times(expr.size())).plus(outer.count(v));
+  }
+
+  @Override
+  public Clause inline(final Var v, final Expr ex, final CompileContext cc)
+      throws QueryException {
+
+    final Expr e = expr.inline(v, ex, cc), i = inner.inline(v, ex, cc);
+    final Expr o = outer.inline(v, ex, cc);
+    if(e == null && i == null && o == null) return null;
+    if(e != null) expr = e;
+    if(i != null) inner = i;
+    if(o != null) outer = o;
+    return optimize(cc);
+  }
+
+  @Override
+  public Join copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Expr ex = expr.copy(cc, vm);
+    return copyType(new Join(cc.copy(var, vm), ex, inner.copy(cc, vm), op, outer.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && visitor.declared(var) && inner.accept(visitor) &&
+        outer.accept(visitor);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoUp(expr);
+    checkNoUp(inner);
+    checkNoUp(outer);
+  }
+
+  @Override
+  void calcSize(final long[] minMax) {
+    final long size = expr.size(), max = minMax[1];
+    minMax[0] = 0;
+    if(max > 0) minMax[1] = size < 0 ? -1 : max * size;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + inner.exprSize() + outer.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof Join)) return false;
+    final Join j = (Join) obj;
+    return var.equals(j.var) && expr.equals(j.expr) && inner.equals(j.inner) && op == j.op &&
+        outer.equals(j.outer);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem elem = planElem(OP, op.name);
+    var.plan(elem);
+    expr.plan(elem);
+    inner.plan(elem);
+    outer.plan(elem);
+    plan.add(elem);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(FOR).append(' ').append(var).append(' ').append(IN).append(' ').
+        append(expr).append(' ').append(WHERE).append(' ').append(PAREN1).append(inner).
+        append(' ').append(op).append(' ').append(outer).append(PAREN2).toString();
+  }
+}
@@ -24,16 +24,21 @@ import org.basex.util.hash.*;
 public final class RangeAccess extends IndexAccess {
   /** Index token. */
   private final NumericRange index;
+  /** Flag for retrieving the range from a typed index. */
+  private final boolean typed;
 
   /**
    * Constructor.
    * @param info input info
    * @param index index token
    * @param db index database
+   * @param typed flag for retrieving the range from a typed index
    */
-  public RangeAccess(final InputInfo info, final NumericRange index, final IndexDb db) {
+  public RangeAccess(final InputInfo info, final NumericRange index, final IndexDb db,
+      final boolean typed) {
     super(db, info, index.type());
     this.index = index;
+    this.typed = typed;
   }
 
   @Override
@@ -52,7 +57,7 @@ public final class RangeAccess extends IndexAccess {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new RangeAccess(info, index, db.copy(cc, vm));
+    return new RangeAccess(info, index, db.copy(cc, vm), typed);
   }
 
   @Override
@@ -63,7 +68,8 @@ public final class RangeAccess extends IndexAccess {
 
   @Override
   public void plan(final FElem plan) {
-    addPlan(plan, planElem(INDEX, index.type(), MIN, index.min, MAX, index.max), db);
+    addPlan(plan, planElem(INDEX, index.type(), MIN, index.min, MAX, index.max, TYPED,
+        typed ? Boolean.TRUE : null), db);
   }
 
   @Override
@@ -0,0 +1,85 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This index class retrieves dateTime, date and time ranges from a value index.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRangeAccess extends IndexAccess {
+  /** Index token. */
+  private final TemporalRange index;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param index index token
+   * @param db index database
+   */
+  public TemporalRangeAccess(final InputInfo info, final TemporalRange index, final IndexDb db) {
+    super(db, info, index.type());
+    this.index = index;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final IndexType type = index.type();
+    final Data data = db.data(qc, type);
+    return new DBNodeIter(data) {
+      final byte kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+      final IndexIterator ii = data.iter(index);
+      @Override
+      public DBNode next() {
+        return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
+      }
+    };
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return new TemporalRangeAccess(info, index, db.copy(cc, vm));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return obj instanceof TemporalRangeAccess &&
+        index.equals(((TemporalRangeAccess) obj).index) && super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(INDEX, index.type(), MIN, limit(index.min), MAX, limit(index.max)), db);
+  }
+
+  @Override
+  public String toString() {
+    final Function func = index.type() == IndexType.TEXT ? Function._DB_TEXT_RANGE :
+      Function._DB_ATTRIBUTE_RANGE;
+    return func.args(db.source(), Str.get(limit(index.min)), Str.get(limit(index.max))).
+        substring(1);
+  }
+
+  /**
+   * Returns the string representation of a range limit.
+   * @param limit limit (can be {@code null})
+   * @return string
+   */
+  private static byte[] limit(final ADate limit) {
+    return limit != null ? limit.string(null) : Token.EMPTY;
+  }
+}
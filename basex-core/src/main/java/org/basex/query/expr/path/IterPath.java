@@ -2,10 +2,15 @@ package org.basex.query.expr.path;
 
 import static org.basex.query.QueryError.*;
 
+import java.util.*;
+
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.xquery.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.list.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.var.*;
@@ -19,6 +24,11 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class IterPath extends AxisPath {
+  /** Minimum number of descendant nodes to be scanned by a single task. */
+  private static final int CHUNK = 1 << 12;
+  /** Parallel evaluation of a leading descendant step. */
+  boolean parallel;
+
   /**
    * Constructor.
    * @param info input info
@@ -30,7 +40,11 @@ public final class IterPath extends AxisPath {
   }
 
   @Override
-  protected NodeIter nodeIter(final QueryContext qc) {
+  protected NodeIter nodeIter(final QueryContext qc) throws QueryException {
+    if(parallel) {
+      final ANodeList list = parallel(qc);
+      if(list != null) return list.iter();
+    }
     return new NodeIter() {
       QueryFocus focus;
       Expr[] exprs;
@@ -81,9 +95,75 @@ public final class IterPath extends AxisPath {
     };
   }
 
+  /**
+   * Evaluates a leading descendant step in parallel if the path is applied to a single database
+   * node. The range of descendant nodes is split into chunks, which are scanned by separate tasks.
+   * @param qc query context
+   * @return resulting nodes, or {@code null} if the path cannot be evaluated in parallel
+   * @throws QueryException query exception
+   */
+  private ANodeList parallel(final QueryContext qc) throws QueryException {
+    if(!(steps[0] instanceof IterStep)) return null;
+    final Value rt = root == null ? qc.focus.value : root instanceof Value ? (Value) root :
+      root instanceof Root ? root.value(qc) : null;
+    if(rt == null || rt.size() != 1 || !(rt.itemAt(0) instanceof DBNode)) return null;
+    final IterStep step = (IterStep) steps[0];
+    if(step.axis != Axis.DESCENDANT && step.axis != Axis.DESCENDANT_OR_SELF) return null;
+
+    final DBNode node = (DBNode) rt.itemAt(0);
+    final Data data = node.data();
+    final int pre = node.pre(), kind = data.kind(pre);
+    if(kind != Data.DOC && kind != Data.ELEM) return null;
+    final int first = step.axis == Axis.DESCENDANT ? pre + data.attSize(pre, kind) : pre;
+    final int size = pre + data.size(pre, kind) - first;
+    final int tasks = XQueryTask.tasks(size, CHUNK, qc);
+    if(tasks < 2) return null;
+
+    // remaining steps are evaluated for each result of the first step
+    final int sl = steps.length;
+    final IterPath rest = sl == 1 ? null :
+      new IterPath(info, null, Arrays.copyOfRange(steps, 1, sl));
+    final Value value = XQueryTask.invoke(tasks, (t, qctx) -> {
+      final ANodeList list = new ANodeList();
+      final int end = first + (int) ((long) size * (t + 1) / tasks);
+      for(int p = first + (int) ((long) size * t / tasks); p < end;) {
+        qctx.checkStop();
+        final int k = data.kind(p);
+        if(k == Data.ATTR) {
+          p++;
+          continue;
+        }
+        final DBNode n = new DBNode(data, p, k);
+        if(step.matches(n, qctx)) {
+          if(rest == null) {
+            list.add(n);
+          } else {
+            qctx.focus.value = n;
+            final NodeIter iter = rest.nodeIter(qctx);
+            for(ANode nd; (nd = iter.next()) != null;) list.add(nd.finish());
+          }
+        }
+        p += data.attSize(p, k);
+      }
+      return list.value();
+    }, qc, info);
+
+    // skip duplicates at the chunk boundaries
+    final ANodeList list = new ANodeList();
+    ANode last = null;
+    for(final Item item : value) {
+      final ANode n = (ANode) item;
+      if(last == null || !last.is(n)) list.add(n);
+      last = n;
+    }
+    return list;
+  }
+
   @Override
   public IterPath copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final Expr rt = root == null ? null : root.copy(cc, vm);
-    return copyType(new IterPath(info, rt,  Arr.copyAll(cc, vm, steps)));
+    final IterPath path = new IterPath(info, rt,  Arr.copyAll(cc, vm, steps));
+    path.parallel = parallel;
+    return copyType(path);
   }
 }
@@ -44,6 +44,17 @@ public final class IterStep extends Step {
     };
   }
 
+  /**
+   * Checks if the specified node matches the test and the predicates of this step.
+   * @param node node to be checked
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  boolean matches(final ANode node, final QueryContext qc) throws QueryException {
+    return test.eq(node) && preds(node, qc);
+  }
+
   @Override
   public IterStep copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new IterStep(info, axis, test.copy(), Arr.copyAll(cc, vm, exprs)));
@@ -5,6 +5,7 @@ import static org.basex.query.expr.path.Axis.*;
 import java.util.*;
 import java.util.function.*;
 
+import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.data.*;
 import org.basex.index.path.*;
@@ -190,7 +191,12 @@ public abstract class Path extends ParseExpr {
     if(expr != this) return expr.optimize(cc);
 
     // choose best path implementation and set type information
-    return copyType(get(info, root, steps));
+    final ParseExpr path = get(info, root, steps);
+    if(path instanceof IterPath) {
+      ((IterPath) path).parallel = this instanceof IterPath && ((IterPath) this).parallel ||
+        cc.qc.context.options.get(MainOptions.PARALLELIZE) && !has(Flag.NDT);
+    }
+    return copyType(path);
   }
 
   @Override
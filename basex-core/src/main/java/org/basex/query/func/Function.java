@@ -746,6 +746,9 @@ public enum Function {
   /** XQuery function. */
   _CSV_PARSE(CsvParse.class, "parse(string[,options])", arg(STR_ZO, MAP_ZO), ITEM_ZO, CSV_URI),
   /** XQuery function. */
+  _CSV_READ_ROWS(CsvReadRows.class, "read-rows(path[,options])", arg(STR_O, MAP_ZO), ITEM_ZM,
+      flag(NDT), CSV_URI),
+  /** XQuery function. */
   _CSV_SERIALIZE(CsvSerialize.class, "serialize(item[,options])", arg(ITEM_ZO, ITEM_ZO), STR_O,
       CSV_URI),
 
@@ -0,0 +1,61 @@
+package org.basex.query.func.csv;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+
+import org.basex.build.csv.*;
+import org.basex.io.*;
+import org.basex.io.parse.csv.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CsvReadRows extends StandardFunc {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final IO io = checkPath(0, qc);
+    final CsvParserOptions opts = toOptions(1, new CsvParserOptions(), qc);
+
+    // rows are parsed on demand; the input is closed when it is exhausted or the query is closed
+    final TempFiles files = qc.resources.index(TempFiles.class);
+    return new Iter() {
+      CsvRowConverter conv;
+      boolean more = true;
+
+      @Override
+      public Item next() throws QueryException {
+        if(!more) return null;
+        try {
+          if(conv == null) {
+            conv = new CsvRowConverter(io, opts);
+            files.register(conv);
+          }
+          final Item row = conv.next();
+          if(row == null) {
+            more = false;
+            files.release(conv);
+            conv = null;
+          }
+          return row;
+        } catch(final IOException ex) {
+          throw CSV_PARSE_X.get(info, ex);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc);
+  }
+}
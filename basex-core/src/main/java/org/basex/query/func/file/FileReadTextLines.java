@@ -11,6 +11,7 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -27,11 +28,6 @@ import org.basex.util.list.*;
 public final class FileReadTextLines extends FileRead {
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
-    return value(qc).iter();
-  }
-
-  @Override
-  public Value value(final QueryContext qc) throws QueryException {
     checkCreate(qc);
 
     final Path path = toPath(0, qc);
@@ -43,22 +39,60 @@ public final class FileReadTextLines extends FileRead {
     if(!Files.exists(path)) throw FILE_NOT_FOUND_X.get(info, path.toAbsolutePath());
     if(Files.isDirectory(path)) throw FILE_IS_DIR_X.get(info, path.toAbsolutePath());
 
-    try(NewlineInput ni = new NewlineInput(new IOFile(path.toFile()))) {
-      ni.encoding(encoding).validate(validate);
-
-      // end exceeds maximum: use maximum (too large to be reached)
-      final long end = start + length < 0 ? Long.MAX_VALUE : start + length;
+    // end exceeds maximum: use maximum (too large to be reached)
+    final long end = start + length < 0 ? Long.MAX_VALUE : start + length;
+    final IOFile file = new IOFile(path.toFile());
+    // lines are read on demand; the input is closed when all requested lines have been read,
+    // or when the query is closed
+    final TempFiles files = qc.resources.index(TempFiles.class);
+    return new Iter() {
       final TokenBuilder tb = new TokenBuilder();
-      final TokenList tl = new TokenList();
-      for(long c = 1; c < end; c++) {
-        if(!ni.readLine(tb)) break;
-        if(c >= start) tl.add(tb.toArray());
+      NewlineInput ni;
+      long c = 1;
+
+      @Override
+      public Item next() throws QueryException {
+        try {
+          while(c < end) {
+            if(ni == null) {
+              ni = new NewlineInput(file);
+              files.register(ni);
+              ni.encoding(encoding).validate(validate);
+            }
+            if(!ni.readLine(tb)) break;
+            if(c++ >= start) {
+              final Str line = Str.get(tb.toArray());
+              // last requested line: close input before the result is consumed
+              if(c == end) close();
+              return line;
+            }
+          }
+          c = end;
+          close();
+          return null;
+        } catch(final IOException ex) {
+          throw FILE_IO_ERROR_X.get(info, ex);
+        }
       }
-      return StrSeq.get(tl);
 
-    } catch(final IOException ex) {
-      throw FILE_IO_ERROR_X.get(info, ex);
-    }
+      /**
+       * Closes the input.
+       */
+      private void close() {
+        if(ni != null) {
+          files.release(ni);
+          ni = null;
+        }
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Iter iter = iter(qc);
+    final TokenList tl = new TokenList();
+    for(Item item; (item = qc.next(iter)) != null;) tl.add(item.string(info));
+    return StrSeq.get(tl);
   }
 
   /**
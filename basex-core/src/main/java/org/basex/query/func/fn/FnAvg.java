@@ -28,6 +28,9 @@ public class FnAvg extends FnSum {
       if(item != null) return item;
     }
     final Iter iter = expr.atomIter(qc, info);
+    final Value value = iter.value();
+    final Item sum = sum(value);
+    if(sum != null) return Calc.DIV.eval(sum, Int.get(value.size()), info);
     final Item item = iter.next();
     return item == null ? null : sum(iter, item, true, qc);
   }
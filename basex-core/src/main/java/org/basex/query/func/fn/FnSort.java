@@ -8,12 +8,14 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
+import org.basex.util.*;
 
 /**
  * Function implementation.
@@ -49,18 +51,34 @@ public final class FnSort extends StandardFunc {
     }
     final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
 
+    // sort keys and positions of the items
+    final Collation cl = coll;
+    final ExternalSort sort = new ExternalSort((k1, k2) -> compare(k1[0], k2[0], cl, info), qc,
+        info);
+    sort.numeric(false);
     final long size = value.size();
-    final ValueList values = new ValueList(size);
-    final Iter iter = value.iter();
-    for(Item item; (item = qc.next(iter)) != null;) {
-      values.add((key == null ? item : key.invokeValue(qc, info, item)).atomValue(qc, info));
+    for(long i = 0; i < size; i++) {
+      qc.checkStop();
+      final Item item = value.itemAt(i);
+      final Value k = (key == null ? item : key.invokeValue(qc, info, item)).atomValue(qc, info);
+      sort.add(new Value[] { k }, new Value[] { Int.get(i) });
     }
+    sort.sort();
 
-    final Integer[] order = sort(values, this, coll, qc);
-    return new BasicIter<Item>(size) {
+    if(!sort.spilled()) {
+      return new BasicIter<Item>(size) {
+        @Override
+        public Item get(final long i) {
+          return value.itemAt(((Int) sort.get((int) i)[0]).itr());
+        }
+      };
+    }
+    // tuples have been written to disk: merge them lazily
+    return new Iter() {
       @Override
-      public Item get(final long i) {
-        return value.itemAt(order[(int) i]);
+      public Item next() throws QueryException {
+        final Value[] pos = sort.next();
+        return pos != null ? value.itemAt(((Int) pos[0]).itr()) : null;
       }
     };
   }
@@ -84,20 +102,7 @@ public final class FnSort extends StandardFunc {
       Arrays.sort(order, (i1, i2) -> {
         qc.checkStop();
         try {
-          final Value value1 = values.get(i1), value2 = values.get(i2);
-          final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
-          for(int i = 0; i < il; i++) {
-            Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
-            if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
-            if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
-            if(item1 != null && item2 != null && !item1.comparable(item2))
-              throw diffError(item1, item2, sf.info);
-
-            final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
-              item1.diff(item2, coll, sf.info);
-            if(diff != 0 && diff != Item.UNDEF) return diff;
-          }
-          return (int) (size1 - size2);
+          return compare(values.get(i1), values.get(i2), coll, sf.info);
         } catch(final QueryException ex) {
           throw new QueryRTException(ex);
         }
@@ -108,6 +113,32 @@ public final class FnSort extends StandardFunc {
     return order;
   }
 
+  /**
+   * Compares two sort keys.
+   * @param value1 first key
+   * @param value2 second key
+   * @param coll collation
+   * @param info input info
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private static int compare(final Value value1, final Value value2, final Collation coll,
+      final InputInfo info) throws QueryException {
+    final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
+    for(int i = 0; i < il; i++) {
+      Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
+      if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
+      if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
+      if(item1 != null && item2 != null && !item1.comparable(item2))
+        throw diffError(item1, item2, info);
+
+      final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
+        item1.diff(item2, coll, info);
+      if(diff != 0 && diff != Item.UNDEF) return diff;
+    }
+    return (int) (size1 - size2);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     // optimize sort on sequences
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -186,8 +187,12 @@ public class FnSubsequence extends StandardFunc {
       if(range != null) {
         // all values?
         if(range == ALL) return expr;
+        // retrieve full-text results with highest scores
+        final long start = range[0], length = range[1];
+        if(expr instanceof GFLWOR && length != Long.MAX_VALUE)
+          ((GFLWOR) expr).limit(start + length - 1, cc);
         // faster retrieval of specified lines
-        return FileReadTextLines.rewrite(this, range[0], range[1], cc, info);
+        return FileReadTextLines.rewrite(this, start, length, cc, info);
       }
     }
     return this;
@@ -35,6 +35,8 @@ public class FnSum extends StandardFunc {
         if(item != null) return item;
       }
       final Iter iter = exprs[0].atomIter(qc, info);
+      final Item sum = sum(iter.value());
+      if(sum != null) return sum;
       final Item item = iter.next();
       if(item != null) return sum(iter, item, false, qc);
     }
@@ -118,6 +120,32 @@ public class FnSum extends StandardFunc {
     return item.type.isNumber() ? Calc.MULT.eval(item, Int.get(seq.size()), info) : null;
   }
 
+  /**
+   * Computes the sum of a sequence of integers or doubles from their primitive values.
+   * @param value value (can be {@code null})
+   * @return result, or {@code null} if the value is not supported or if an integer overflow
+   *   occurs (which will be reported by the default evaluation)
+   */
+  static Item sum(final Value value) {
+    if(value instanceof IntSeq) {
+      long sum = 0;
+      try {
+        for(final long l : ((IntSeq) value).values()) sum = Math.addExact(sum, l);
+      } catch(final ArithmeticException ex) {
+        return null;
+      }
+      return Int.get(sum);
+    }
+    if(value instanceof DblSeq) {
+      final double[] values = ((DblSeq) value).values();
+      double sum = values[0];
+      final int vl = values.length;
+      for(int v = 1; v < vl; v++) sum += values[v];
+      return Dbl.get(sum);
+    }
+    return null;
+  }
+
   /**
    * Sums up the specified item(s).
    * @param iter iterator
@@ -21,6 +21,16 @@ import org.basex.util.ft.*;
 public final class FtSearch extends FtAccess {
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
+    return access(qc).iter(qc);
+  }
+
+  /**
+   * Returns an index access expression for the function arguments.
+   * @param qc query context
+   * @return index access
+   * @throws QueryException query exception
+   */
+  public FTIndexAccess access(final QueryContext qc) throws QueryException {
     final Data data = checkData(qc);
     final Value terms = exprs[1].value(qc);
     final FtIndexOptions opts = toOptions(2, new FtIndexOptions(), qc);
@@ -33,7 +43,7 @@ public final class FtSearch extends FtAccess {
     if(opt.is(FZ) && opt.is(WC)) throw FT_OPTIONS.get(info, this);
 
     final FTWords ftw = new FTWords(info, db, terms, mode).init(qc, opt);
-    return new FTIndexAccess(info, options(ftw, opts), db).iter(qc);
+    return new FTIndexAccess(info, options(ftw, opts), db);
   }
 
   @Override
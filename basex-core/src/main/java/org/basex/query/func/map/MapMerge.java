@@ -1,5 +1,7 @@
 package org.basex.query.func.map;
 
+import static org.basex.query.QueryError.*;
+
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
@@ -18,6 +20,9 @@ import org.basex.util.options.*;
  * @author Leo Woerteler
  */
 public final class MapMerge extends StandardFunc {
+  /** Larger maps are merged structurally, without adding their entries one by one. */
+  private static final int MERGE = 32;
+
   /** Merge options. */
   public static final class MergeOptions extends Options {
     /** Handle duplicates. */
@@ -29,9 +34,45 @@ public final class MapMerge extends StandardFunc {
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final Iter maps = exprs[0].iter(qc);
     final MergeDuplicates merge = options(qc).get(MergeOptions.DUPLICATES);
-    Map map = Map.EMPTY;
-    for(Item item; (item = qc.next(maps)) != null;) map = map.addAll(toMap(item), merge, info, qc);
-    return map;
+
+    // adopt first map, add entries of remaining maps
+    Item item = qc.next(maps);
+    if(item == null) return Map.EMPTY;
+    Map map = toMap(item);
+    MapBuilder mb = null;
+    while((item = qc.next(maps)) != null) {
+      final Map add = toMap(item);
+      if(add.mapSize() > MERGE) {
+        // large map: merge tries, share untouched subtrees
+        if(mb != null) {
+          map = mb.finish();
+          mb = null;
+        }
+        map = map.addAll(add, merge, info, qc);
+        continue;
+      }
+      if(mb == null) mb = new MapBuilder(map);
+      for(final Item key : add.keys()) {
+        qc.checkStop();
+        final Value value = add.get(key, info), old = mb.get(key, info);
+        if(old == null) {
+          mb.put(key, value, info);
+        } else {
+          switch(merge) {
+            case USE_LAST:
+              mb.put(key, value, info);
+              break;
+            case COMBINE:
+              mb.put(key, ValueBuilder.concat(old, value, qc), info);
+              break;
+            case REJECT:
+              throw MERGE_DUPLICATE_X.get(info, key);
+            default:
+          }
+        }
+      }
+    }
+    return mb != null ? mb.finish() : map;
   }
 
   @Override
@@ -1,54 +1,86 @@
 package org.basex.query.func.xquery;
 
+import static org.basex.query.QueryError.*;
+
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
+import org.basex.core.jobs.*;
 import org.basex.query.*;
 import org.basex.query.value.*;
-import org.basex.query.value.item.*;
 import org.basex.util.*;
 
 /**
  * Forks a set of tasks, performing their computation in parallel followed by rejoining the results.
+ * Each task is evaluated with its own query context, which inherits the focus and the local
+ * variables of the parent context. The tasks are run by the shared pool of the job pool.
+ * If a task fails, the remaining tasks are skipped, and the first error is raised after all
+ * running tasks have been finished.
  *
  * @author James Wright
  */
-final class XQueryTask extends RecursiveTask<Value> {
-  /** Functions to evaluate in parallel. */
-  private final Value funcs;
+public final class XQueryTask extends RecursiveTask<Value> {
+  /** Evaluator for single tasks. */
+  private final Evaluator evaluator;
   /** Query context. */
   private final QueryContext qc;
-  /** Input info. */
-  private final InputInfo ii;
-  /** First function to evaluate. */
+  /** First error (shared by all tasks). */
+  private final AtomicReference<Throwable> error;
+  /** First task to evaluate. */
   private final int start;
-  /** Last function to evaluate. */
+  /** Last task to evaluate. */
   private final int end;
 
   /**
-   * Constructor.
-   * @param funcs functions to evaluate
+   * Private constructor.
+   * @param evaluator evaluator
    * @param qc query context
-   * @param ii input info
+   * @param start first task to evaluate
+   * @param end last task to evaluate
+   * @param error reference to the first error
    */
-  XQueryTask(final Value funcs, final QueryContext qc, final InputInfo ii) {
-    this(funcs, qc, ii, 0, (int) funcs.size());
+  private XQueryTask(final Evaluator evaluator, final QueryContext qc, final int start,
+      final int end, final AtomicReference<Throwable> error) {
+    this.evaluator = evaluator;
+    this.qc = qc;
+    this.error = error;
+    this.start = start;
+    this.end = end;
   }
 
   /**
-   * Private constructor.
-   * @param funcs functions to evaluate
+   * Evaluates the specified number of tasks in parallel and returns the concatenated results.
+   * @param tasks number of tasks
+   * @param evaluator evaluator
    * @param qc query context
    * @param ii input info
-   * @param start first function to evaluate
-   * @param end last function to evaluate
+   * @return result
+   * @throws QueryException query exception
    */
-  private XQueryTask(final Value funcs, final QueryContext qc, final InputInfo ii,
-      final int start, final int end) {
-    this.funcs = funcs;
-    this.qc = new QueryContext(qc);
-    this.ii = ii;
-    this.start = start;
-    this.end = end;
+  public static Value invoke(final int tasks, final Evaluator evaluator, final QueryContext qc,
+      final InputInfo ii) throws QueryException {
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final Value value = qc.context.jobs.pool().invoke(
+        new XQueryTask(evaluator, qc, 0, tasks, error));
+    final Throwable ex = error.get();
+    if(ex == null) return value;
+
+    // pass on query and job exceptions
+    final Throwable e = Util.rootException(ex);
+    if(e instanceof QueryException) throw (QueryException) e;
+    if(e instanceof JobException) throw (JobException) e;
+    throw XQUERY_UNEXPECTED_X.get(ii, e);
+  }
+
+  /**
+   * Returns the number of tasks that will be created to process the specified number of items.
+   * @param size number of items
+   * @param min minimum number of items per task
+   * @param qc query context
+   * @return number of tasks
+   */
+  public static int tasks(final long size, final long min, final QueryContext qc) {
+    return (int) Math.min(size / min, qc.context.jobs.pool().getParallelism() * 4L);
   }
 
   @Override
@@ -56,23 +88,40 @@ final class XQueryTask extends RecursiveTask<Value> {
     final ValueBuilder vb = new ValueBuilder(qc);
     final int s = start, e = end, l = e - s;
     if(l == 1) {
-      // perform the work
-      try {
-        vb.add(((FItem) funcs.itemAt(s)).invokeValue(qc, ii));
-      } catch(final QueryException ex) {
-        completeExceptionally(ex);
-        cancel(true);
-      } finally {
-        qc.close();
+      // perform the work (skipped if another task has failed)
+      if(error.get() == null) {
+        try(QueryContext qctx = new QueryContext(qc)) {
+          qctx.checkStop();
+          qctx.stack.init(qc.stack);
+          qctx.focus = qc.focus.copy();
+          vb.add(evaluator.eval(s, qctx));
+        } catch(final QueryException | RuntimeException ex) {
+          error.compareAndSet(null, ex);
+        }
       }
     } else if(l > 1) {
       // split the work and join the results in the correct order
       final int m = s + l / 2;
-      final XQueryTask task2 = new XQueryTask(funcs, qc, ii, m, e);
+      final XQueryTask task2 = new XQueryTask(evaluator, qc, m, e, error);
       task2.fork();
-      final XQueryTask task1  = new XQueryTask(funcs, qc, ii, s, m);
+      final XQueryTask task1  = new XQueryTask(evaluator, qc, s, m, error);
       vb.add(task1.invoke()).add(task2.join());
     }
     return vb.value();
   }
+
+  /**
+   * Evaluator for a single task.
+   */
+  @FunctionalInterface
+  public interface Evaluator {
+    /**
+     * Evaluates a task.
+     * @param task index of the task
+     * @param qc query context of the task
+     * @return result
+     * @throws QueryException query exception
+     */
+    Value eval(int task, QueryContext qc) throws QueryException;
+  }
 }
@@ -12,4 +12,24 @@ import org.basex.query.value.node.*;
 public abstract class FTIter extends Iter {
   @Override
   public abstract FTNode next() throws QueryException;
+
+  /**
+   * Returns the next node. Nodes whose scores will not exceed the specified minimum
+   * may be skipped.
+   * @param min minimum score
+   * @return next node or {@code null}
+   * @throws QueryException query exception
+   */
+  public FTNode next(@SuppressWarnings("unused") final double min) throws QueryException {
+    return next();
+  }
+
+  /**
+   * Returns an upper bound for the scores of the returned nodes.
+   * @return maximum score
+   * @throws QueryException query exception
+   */
+  public double max() throws QueryException {
+    return Double.POSITIVE_INFINITY;
+  }
 }
@@ -25,10 +25,11 @@ public final class DBOptions {
     MainOptions.DTD, MainOptions.CATFILE, MainOptions.XINCLUDE };
   /** Indexing options. */
   public static final Option<?>[] INDEXING = { MainOptions.MAXCATS, MainOptions.MAXLEN,
-    MainOptions.SPLITSIZE, MainOptions.LANGUAGE, MainOptions.STOPWORDS, MainOptions.TEXTINDEX,
-    MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.FTINDEX, MainOptions.TEXTINCLUDE,
-    MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE, MainOptions.FTINCLUDE, MainOptions.STEMMING,
-    MainOptions.CASESENS, MainOptions.DIACRITICS, MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE };
+    MainOptions.SPLITSIZE, MainOptions.INDEXMEMORY, MainOptions.LANGUAGE, MainOptions.STOPWORDS,
+    MainOptions.TEXTINDEX, MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.FTINDEX,
+    MainOptions.NUMINDEX, MainOptions.TEXTINCLUDE, MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE,
+    MainOptions.FTINCLUDE, MainOptions.STEMMING, MainOptions.CASESENS, MainOptions.DIACRITICS,
+    MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE, MainOptions.MMAP, MainOptions.WAL };
 
   /** Runtime options. */
   private final HashMap<Option<?>, Object> map = new HashMap<>();
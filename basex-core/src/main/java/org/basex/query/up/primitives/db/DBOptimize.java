@@ -73,8 +73,12 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
     options.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
+    options.assignIfAbsent(MainOptions.INDEXMEMORY, meta.indexmemory);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    options.assignIfAbsent(MainOptions.MMAP, meta.mmap);
+    options.assignIfAbsent(MainOptions.WAL, meta.wal);
+    options.assignIfAbsent(MainOptions.NUMINDEX, meta.numindex);
     options.assignTo(opts);
 
     // adopt options to database meta data
@@ -85,7 +89,10 @@ public final class DBOptimize extends DBUpdate {
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
+    meta.mmap = opts.get(MainOptions.MMAP);
+    meta.wal = opts.get(MainOptions.WAL);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
+    meta.indexmemory = opts.get(MainOptions.INDEXMEMORY);
 
     // check if other indexing options have changed
     final int maxcats = opts.get(MainOptions.MAXCATS);
@@ -93,15 +100,19 @@ public final class DBOptimize extends DBUpdate {
     final String textinclude = opts.get(MainOptions.TEXTINCLUDE);
     final String attrinclude = opts.get(MainOptions.ATTRINCLUDE);
     final String tokeninclude = opts.get(MainOptions.TOKENINCLUDE);
+    final boolean numindex = opts.get(MainOptions.NUMINDEX);
     final boolean rebuild = maxlen != meta.maxlen;
-    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild;
-    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild;
+    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild ||
+        numindex != meta.numindex;
+    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild ||
+        numindex != meta.numindex;
     final boolean rebuildToken = !meta.tokeninclude.equals(tokeninclude);
     meta.textinclude = textinclude;
     meta.attrinclude = attrinclude;
     meta.tokeninclude = tokeninclude;
     meta.maxcats = maxcats;
     meta.maxlen = maxlen;
+    meta.numindex = numindex;
 
     // check if fulltext indexing options have changed
     final String ftinclude = opts.get(MainOptions.FTINCLUDE);
@@ -0,0 +1,507 @@
+package org.basex.query.util;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Sorts tuples, consisting of sort keys and values.
+ *
+ * If the number of cached tuples exceeds {@link MainOptions#SORTLIMIT}, or if memory gets short,
+ * the cached tuples are sorted and written to a temporary file (run). The runs are merged
+ * lazily when the tuples are requested, so only the runs' heads need to be kept in memory.
+ * Tuples are only written to disk if they consist of database nodes and atomic items of basic
+ * types. Otherwise, all remaining tuples are kept in main memory.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ExternalSort {
+  /** Number of cached tuples after which the memory consumption is checked. */
+  private static final int CHECK = 1 << 16;
+  /** Serialization type: database node. */
+  private static final int NODE = 0;
+  /** Serialization types: atomic items. */
+  private static final AtomType[] TYPES = {
+    null, AtomType.STR, AtomType.ATM, AtomType.DBL, AtomType.FLT, AtomType.ITR, AtomType.DEC,
+    AtomType.BLN
+  };
+
+  /** Comparison of sort keys. */
+  private final Comparison comparison;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input info. */
+  private final InputInfo info;
+  /** Maximum number of cached tuples (0: no limit). */
+  private final long limit;
+
+  /** Cached sort keys. */
+  private ArrayList<Value[]> keys = new ArrayList<>();
+  /** Cached values. */
+  private ArrayList<Value[]> values = new ArrayList<>();
+  /** Order of the cached tuples (assigned by {@link #sort()}). */
+  private int[] order;
+  /** Order of a single numeric sort key (0: unknown, 1: ascending, -1: descending). */
+  private int numeric;
+  /** Position of the next cached tuple to be returned. */
+  private int pos;
+
+  /** Indicates if tuples can be written to disk. */
+  private boolean spill = true;
+  /** Runs (sorted tuples written to disk). */
+  private final ArrayList<IOFile> runs = new ArrayList<>();
+  /** Number of tuples in each run. */
+  private final IntList sizes = new IntList();
+  /** Databases of the written nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Heads of the merged runs (assigned by {@link #sort()}). */
+  private PriorityQueue<Run> queue;
+
+  /**
+   * Constructor.
+   * @param comparison comparison of sort keys
+   * @param qc query context
+   * @param info input info
+   */
+  public ExternalSort(final Comparison comparison, final QueryContext qc, final InputInfo info) {
+    this.comparison = comparison;
+    this.qc = qc;
+    this.info = info;
+    limit = qc.context.options.get(MainOptions.SORTLIMIT);
+  }
+
+  /**
+   * Indicates that the tuples are sorted by a single key. If all keys are integers or doubles
+   * (excluding NaN), the cached tuples will be sorted by their primitive values.
+   * @param desc descending order
+   */
+  public void numeric(final boolean desc) {
+    numeric = desc ? -1 : 1;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param key sort keys (single entries can be {@code null})
+   * @param value values (single entries can be {@code null})
+   * @throws QueryException query exception
+   */
+  public void add(final Value[] key, final Value[] value) throws QueryException {
+    keys.add(key);
+    values.add(value);
+    if(spill) {
+      spill = spillable(key) && spillable(value);
+      final int size = keys.size();
+      if(spill && (limit > 0 ? size >= limit : size % CHECK == 0 && lowMemory())) write();
+    }
+  }
+
+  /**
+   * Sorts the tuples. Must be called after the last tuple has been added.
+   * @throws QueryException query exception
+   */
+  public void sort() throws QueryException {
+    order = order();
+    if(runs.isEmpty()) return;
+
+    // merge runs with the cached tuples, which are treated as last run
+    queue = new PriorityQueue<>((run1, run2) -> {
+      try {
+        final int c = comparison.compare(run1.key, run2.key);
+        return c != 0 ? c : run1.id - run2.id;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    });
+    final int rs = runs.size();
+    for(int r = 0; r <= rs; r++) {
+      final Run run = new Run(r);
+      if(run.next()) add(run);
+    }
+  }
+
+  /**
+   * Indicates if tuples have been written to disk.
+   * If not, the sorted tuples can be accessed via {@link #get(int)}.
+   * @return result of check
+   */
+  public boolean spilled() {
+    return !runs.isEmpty();
+  }
+
+  /**
+   * Returns the specified tuple in the sorted order. Can only be called if no tuples have been
+   * written to disk.
+   * @param index index of the tuple
+   * @return values
+   */
+  public Value[] get(final int index) {
+    return values.get(order[index]);
+  }
+
+  /**
+   * Returns the values of the next tuple in the sorted order.
+   * @return values or {@code null}
+   * @throws QueryException query exception
+   */
+  public Value[] next() throws QueryException {
+    if(queue == null) {
+      if(pos == order.length) return null;
+      // free the space occupied by the tuple
+      final int p = order[pos++];
+      final Value[] value = values.get(p);
+      keys.set(p, null);
+      values.set(p, null);
+      return value;
+    }
+
+    final Run run;
+    try {
+      run = queue.poll();
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    if(run == null) return null;
+    final Value[] value = run.value;
+    if(run.next()) add(run);
+    return value;
+  }
+
+  /**
+   * Sorts the cached tuples and writes them to a new run.
+   * @throws QueryException query exception
+   */
+  private void write() throws QueryException {
+    final TempFiles files = qc.resources.index(TempFiles.class);
+    try {
+      final IOFile file = files.create();
+      try(DataOutput out = new DataOutput(file)) {
+        for(final int o : order()) {
+          write(keys.get(o), out);
+          write(values.get(o), out);
+        }
+      }
+      runs.add(file);
+      sizes.add(keys.size());
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+    keys = new ArrayList<>();
+    values = new ArrayList<>();
+  }
+
+  /**
+   * Sorts the cached tuples and returns their order.
+   * @return order
+   * @throws QueryException query exception
+   */
+  private int[] order() throws QueryException {
+    final long[] nums = numeric != 0 ? numbers() : null;
+    if(nums != null) return order(nums);
+
+    final int size = keys.size();
+    final Integer[] ord = new Integer[size];
+    for(int o = 0; o < size; o++) ord[o] = o;
+    try {
+      Arrays.sort(ord, (x, y) -> {
+        try {
+          return comparison.compare(keys.get(x), keys.get(y));
+        } catch(final QueryException ex) {
+          throw new QueryRTException(ex);
+        }
+      });
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    final int[] result = new int[size];
+    for(int o = 0; o < size; o++) result[o] = ord[o];
+    return result;
+  }
+
+  /**
+   * Returns the primitive values of single integer or double keys.
+   * Doubles are converted to long values with the same order.
+   * @return values, or {@code null} if the keys have other types
+   */
+  private long[] numbers() {
+    final int size = keys.size();
+    final long[] nums = new long[size];
+    final boolean ints = size > 0 && keys.get(0)[0] instanceof Int;
+    for(int n = 0; n < size; n++) {
+      final Value[] key = keys.get(n);
+      final Value value = key.length == 1 ? key[0] : null;
+      if(ints ? !(value instanceof Int) : !(value instanceof Dbl)) return null;
+      if(ints) {
+        nums[n] = ((Int) value).itr();
+      } else {
+        final double d = ((Dbl) value).dbl();
+        if(Double.isNaN(d)) return null;
+        // normalize negative zero, flip bits of negative values
+        final long l = Double.doubleToLongBits(d + 0.0);
+        nums[n] = l ^ l >> 63 & Long.MAX_VALUE;
+      }
+    }
+    return nums;
+  }
+
+  /**
+   * Returns the order of the specified values. Tuples with equal values keep their order.
+   * @param nums values
+   * @return order
+   */
+  private int[] order(final long[] nums) {
+    final int size = nums.length;
+    int[] ord = new int[size], tmp = new int[size];
+    for(int o = 0; o < size; o++) ord[o] = o;
+
+    // bottom-up merge sort
+    for(int w = 1; w < size; w <<= 1) {
+      for(int l = 0; l < size; l += w << 1) {
+        final int m = Math.min(l + w, size), r = Math.min(m + w, size);
+        int i = l, j = m, t = l;
+        while(i < m && j < r) {
+          final int c = Long.compare(nums[ord[j]], nums[ord[i]]);
+          tmp[t++] = (numeric < 0 ? -c : c) < 0 ? ord[j++] : ord[i++];
+        }
+        while(i < m) tmp[t++] = ord[i++];
+        while(j < r) tmp[t++] = ord[j++];
+      }
+      final int[] swap = ord;
+      ord = tmp;
+      tmp = swap;
+    }
+    return ord;
+  }
+
+  /**
+   * Adds a run to the queue.
+   * @param run run
+   * @throws QueryException query exception
+   */
+  private void add(final Run run) throws QueryException {
+    try {
+      queue.add(run);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Checks if the available memory is getting short.
+   * @return result of check
+   */
+  private static boolean lowMemory() {
+    return Performance.memory() > Runtime.getRuntime().maxMemory() / 4 * 3;
+  }
+
+  /**
+   * Checks if the specified values can be written to disk.
+   * @param vals values
+   * @return result of check
+   */
+  private static boolean spillable(final Value[] vals) {
+    for(final Value value : vals) {
+      if(value == null) continue;
+      for(final Item item : value) {
+        if(!(item instanceof DBNode || type(item) != -1)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the serialization type of an atomic item.
+   * @param item item
+   * @return type, or {@code -1} if the item cannot be serialized
+   */
+  private static int type(final Item item) {
+    final int tl = TYPES.length;
+    for(int t = 1; t < tl; t++) {
+      if(item.type == TYPES[t]) return t;
+    }
+    return -1;
+  }
+
+  /**
+   * Writes values.
+   * @param vals values
+   * @param out output stream
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Value[] vals, final DataOutput out)
+      throws IOException, QueryException {
+    out.writeNum(vals.length);
+    for(final Value value : vals) {
+      if(value == null) {
+        out.writeNum(0);
+        continue;
+      }
+      out.writeNum((int) value.size() + 1);
+      for(final Item item : value) {
+        if(item instanceof DBNode) {
+          final DBNode node = (DBNode) item;
+          int d = datas.indexOf(node.data());
+          if(d == -1) {
+            d = datas.size();
+            datas.add(node.data());
+          }
+          out.write1(NODE);
+          out.writeNum(d);
+          out.writeNum(node.pre());
+          continue;
+        }
+        final int type = type(item);
+        out.write1(type);
+        final AtomType at = TYPES[type];
+        if(at == AtomType.DBL || at == AtomType.FLT) {
+          out.write8(Double.doubleToRawLongBits(item.dbl(info)));
+        } else if(at == AtomType.ITR) {
+          out.write8(item.itr(info));
+        } else if(at == AtomType.BLN) {
+          out.write1(item.bool(info) ? 1 : 0);
+        } else if(at == AtomType.DEC) {
+          out.writeToken(Token.token(item.dec(info).toString()));
+        } else {
+          out.writeToken(item.string(info));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads values.
+   * @param in input stream
+   * @return values
+   * @throws IOException I/O exception
+   */
+  private Value[] read(final DataInput in) throws IOException {
+    final int vl = in.readNum();
+    final Value[] vals = new Value[vl];
+    for(int v = 0; v < vl; v++) {
+      final int size = in.readNum() - 1;
+      if(size == -1) continue;
+      final ValueBuilder vb = new ValueBuilder(qc);
+      for(int s = 0; s < size; s++) {
+        final int type = in.read();
+        final AtomType at = TYPES[type];
+        final Item item;
+        if(type == NODE) {
+          final Data data = datas.get(in.readNum());
+          item = new DBNode(data, in.readNum());
+        } else if(at == AtomType.DBL) {
+          item = Dbl.get(Double.longBitsToDouble(in.read8()));
+        } else if(at == AtomType.FLT) {
+          item = Flt.get((float) Double.longBitsToDouble(in.read8()));
+        } else if(at == AtomType.ITR) {
+          item = Int.get(in.read8());
+        } else if(at == AtomType.BLN) {
+          item = Bln.get(in.read() == 1);
+        } else if(at == AtomType.DEC) {
+          item = Dec.get(new BigDecimal(Token.string(in.readToken())));
+        } else if(at == AtomType.STR) {
+          item = Str.get(in.readToken());
+        } else {
+          item = new Atm(in.readToken());
+        }
+        vb.add(item);
+      }
+      vals[v] = size == 0 ? Empty.SEQ : vb.value();
+    }
+    return vals;
+  }
+
+  /**
+   * Comparison of sort keys.
+   */
+  @FunctionalInterface
+  public interface Comparison {
+    /**
+     * Compares two sort keys.
+     * @param key1 first key
+     * @param key2 second key
+     * @return result of comparison (negative, zero, positive)
+     * @throws QueryException query exception
+     */
+    int compare(Value[] key1, Value[] key2) throws QueryException;
+  }
+
+  /**
+   * Run of sorted tuples. The run with the highest id contains the cached tuples.
+   */
+  private final class Run {
+    /** Id of the run (tuples of runs with smaller ids were added first). */
+    private final int id;
+    /** Input stream ({@code null} for cached tuples). */
+    private DataInput in;
+    /** Number of remaining tuples. */
+    private int remaining;
+    /** Sort keys of the current tuple. */
+    private Value[] key;
+    /** Values of the current tuple. */
+    private Value[] value;
+
+    /**
+     * Constructor.
+     * @param id id of the run
+     */
+    private Run(final int id) {
+      this.id = id;
+      remaining = id < runs.size() ? sizes.get(id) : order.length;
+    }
+
+    /**
+     * Reads the next tuple.
+     * @return {@code true} if a tuple was read
+     * @throws QueryException query exception
+     */
+    private boolean next() throws QueryException {
+      qc.checkStop();
+      if(id == runs.size()) {
+        // cached tuples
+        if(pos == order.length) return false;
+        final int p = order[pos++];
+        key = keys.get(p);
+        value = values.get(p);
+        keys.set(p, null);
+        values.set(p, null);
+        return true;
+      }
+
+      final TempFiles files = qc.resources.index(TempFiles.class);
+      final IOFile file = runs.get(id);
+      try {
+        if(remaining == 0) {
+          files.delete(in, file);
+          return false;
+        }
+        if(in == null) {
+          in = new DataInput(file);
+          files.register(in);
+        }
+        key = read(in);
+        value = read(in);
+        remaining--;
+        return true;
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+    }
+  }
+}
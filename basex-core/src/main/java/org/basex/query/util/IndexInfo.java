@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
@@ -94,6 +95,37 @@ public final class IndexInfo {
         new IndexNames(it, data).contains(qname()) && check(it, last) ? it : null;
   }
 
+  /**
+   * Returns the statistics for the name of the elements or attributes that will be compared.
+   * @param input input expression
+   * @param type index type
+   * @return statistics, or {@code null} if they are not available
+   */
+  public Stats stats(final Expr input, final IndexType type) {
+    // statistics are not up-to-date
+    final Data data = db.data();
+    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty() ||
+        !(input instanceof AxisPath)) return null;
+
+    NameTest nt = test;
+    if(nt == null) {
+      final Step st;
+      final AxisPath path = (AxisPath) input;
+      final int sl = path.steps.length - 1;
+      if(type == IndexType.TEXT) {
+        st = sl == 0 ? step : path.step(sl - 1);
+        if(st.test.kind != Kind.NAME) return null;
+      } else {
+        st = path.step(sl);
+        if(!st.simple(Axis.ATTRIBUTE, true)) return null;
+      }
+      nt = (NameTest) st.test;
+    }
+
+    final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
+    return names.stats(names.id(nt.name.local()));
+  }
+
   /**
    * Tries to rewrite the specified input for index access.
    * @param search expression to find (can be {@code null})
@@ -0,0 +1,79 @@
+package org.basex.query.util;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files and streams created during query evaluation. Registered streams are closed
+ * and all files are deleted when the query is closed.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TempFiles implements QueryResource {
+  /** Temporary files. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Open streams. */
+  private final ArrayList<Closeable> streams = new ArrayList<>();
+
+  /**
+   * Creates a new temporary file.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  public synchronized IOFile create() throws IOException {
+    final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+    files.add(file);
+    return file;
+  }
+
+  /**
+   * Registers a stream that will be closed before the files are deleted.
+   * @param stream stream
+   */
+  public synchronized void register(final Closeable stream) {
+    streams.add(stream);
+  }
+
+  /**
+   * Closes and unregisters the specified stream.
+   * @param stream stream
+   */
+  public synchronized void release(final Closeable stream) {
+    if(streams.remove(stream)) close(stream);
+  }
+
+  /**
+   * Closes the specified stream and deletes a temporary file.
+   * @param stream stream (can be {@code null})
+   * @param file file
+   */
+  public synchronized void delete(final Closeable stream, final IOFile file) {
+    if(stream != null && streams.remove(stream)) close(stream);
+    if(files.remove(file)) file.delete();
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final Closeable stream : streams) close(stream);
+    for(final IOFile file : files) file.delete();
+    streams.clear();
+    files.clear();
+  }
+
+  /**
+   * Closes a stream.
+   * @param stream stream
+   */
+  private static void close(final Closeable stream) {
+    try {
+      stream.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+  }
+}
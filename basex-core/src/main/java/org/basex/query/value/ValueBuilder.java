@@ -8,10 +8,12 @@ import org.basex.query.value.seq.*;
 import org.basex.query.value.seq.tree.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * A builder for efficiently creating a {@link Value} by prepending and appending
- * {@link Item}s and {@link Value}s.
+ * {@link Item}s and {@link Value}s. As long as only integers or doubles are appended, their
+ * primitive values are cached, and an {@link IntSeq} or {@link DblSeq} is returned.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Leo Woerteler
@@ -24,6 +26,10 @@ public final class ValueBuilder {
   private Value firstValue;
   /** Underlying sequence builder, only instantiated if there are at least two items. */
   private TreeSeqBuilder builder;
+  /** Integers (only instantiated if all items are integers). */
+  private LongList ints;
+  /** Doubles (only instantiated if all items are doubles). */
+  private DoubleList dbls;
 
   /**
    * Constructor.
@@ -41,7 +47,8 @@ public final class ValueBuilder {
    */
   public ValueBuilder(final QueryContext qc, final Item item1, final Item item2) {
     this(qc);
-    builder = new TreeSeqBuilder().add(item1).add(item2);
+    add(item1);
+    add(item2);
   }
 
   /**
@@ -79,7 +86,7 @@ public final class ValueBuilder {
    */
   public ValueBuilder addFront(final Item item) {
     qc.checkStop();
-    final TreeSeqBuilder tree = builder;
+    final TreeSeqBuilder tree = tree();
     if(tree != null) {
       tree.addFront(item);
     } else {
@@ -101,13 +108,27 @@ public final class ValueBuilder {
    */
   public ValueBuilder add(final Item item) {
     qc.checkStop();
-    final TreeSeqBuilder tree = builder;
+    if(ints != null && integer(item)) {
+      ints.add(((Int) item).itr());
+      return this;
+    }
+    if(dbls != null && item instanceof Dbl) {
+      dbls.add(((Dbl) item).dbl());
+      return this;
+    }
+    final TreeSeqBuilder tree = tree();
     if(tree != null) {
       tree.add(item);
     } else {
       final Value first = firstValue;
       if(first != null) {
-        builder = new TreeSeqBuilder().add(first, qc).add(item);
+        if(integer(first) && integer(item)) {
+          ints = new LongList().add(((Int) first).itr()).add(((Int) item).itr());
+        } else if(first instanceof Dbl && item instanceof Dbl) {
+          dbls = new DoubleList().add(((Dbl) first).dbl()).add(((Dbl) item).dbl());
+        } else {
+          builder = new TreeSeqBuilder().add(first, qc).add(item);
+        }
         firstValue = null;
       } else {
         firstValue = item;
@@ -126,8 +147,19 @@ public final class ValueBuilder {
       qc.checkStop();
       return this;
     }
+    if(value instanceof Item) return add((Item) value);
+    if(ints != null && value instanceof IntSeq && value.type == AtomType.ITR) {
+      qc.checkStop();
+      ints.add(((IntSeq) value).values());
+      return this;
+    }
+    if(dbls != null && value instanceof DblSeq) {
+      qc.checkStop();
+      dbls.add(((DblSeq) value).values());
+      return this;
+    }
 
-    final TreeSeqBuilder tree = builder;
+    final TreeSeqBuilder tree = tree();
     if(tree != null) {
       tree.add(value, qc);
     } else {
@@ -157,17 +189,51 @@ public final class ValueBuilder {
    * @return contents of this builder
    */
   public Value value(final Type type) {
+    if(ints != null || dbls != null) firstValue = array();
     final Value first = firstValue;
     if(first != null) return first;
     final TreeSeqBuilder tree = builder;
     return tree != null ? tree.seq(type) : Empty.SEQ;
   }
 
+  /**
+   * Returns the sequence builder. If primitive values have been cached, they are added to a
+   * new builder.
+   * @return sequence builder, or {@code null} if less than two items have been added
+   */
+  private TreeSeqBuilder tree() {
+    if(ints != null || dbls != null) builder = new TreeSeqBuilder().add(array(), qc);
+    return builder;
+  }
+
+  /**
+   * Returns a sequence with the cached primitive values and invalidates the cached values.
+   * @return sequence
+   */
+  private Value array() {
+    final Value value = ints != null ? IntSeq.get(ints.finish(), AtomType.ITR) :
+      DblSeq.get(dbls.finish());
+    ints = null;
+    dbls = null;
+    return value;
+  }
+
+  /**
+   * Checks if the specified value is an item of type {@code xs:integer}.
+   * @param value value
+   * @return result of check
+   */
+  private static boolean integer(final Value value) {
+    return value instanceof Int && value.type == AtomType.ITR;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder(Util.className(this)).append('[');
     final Iterator<Item> iter = firstValue != null ? firstValue.iterator() :
-      builder != null ? builder.iterator() : Collections.emptyIterator();
+      builder != null ? builder.iterator() :
+      ints != null ? IntSeq.get(ints.toArray(), AtomType.ITR).iterator() :
+      dbls != null ? DblSeq.get(dbls.toArray()).iterator() : Collections.emptyIterator();
     if(iter.hasNext()) {
       sb.append(iter.next());
       while(iter.hasNext()) sb.append(", ").append(iter.next());
@@ -26,6 +26,8 @@ public abstract class ADate extends ADateDur {
   static final long MIN_YEAR = -MAX_YEAR;
   /** Constant for counting negative years (divisible by 400). */
   private static final long ADD_NEG = (MAX_YEAR / 400 + 1) * 400;
+  /** Day count of 1970-01-01. */
+  private static final BigDecimal EPOCH = days(1970 + ADD_NEG, 0, 0);
 
   /** Pattern for two digits. */
   static final String DD = "(\\d{2})";
@@ -315,6 +317,37 @@ public abstract class ADate extends ADateDur {
     return tz != Short.MAX_VALUE;
   }
 
+  /**
+   * Returns the number of seconds since 1970-01-01T00:00:00Z.
+   * Values without timezone are treated as UTC values.
+   * @return seconds
+   */
+  public final double epoch() {
+    final int z = hasTz() ? tz : 0;
+    final BigDecimal s = (sec == null ? BigDecimal.ZERO : sec).add(
+        BigDecimal.valueOf(Math.max(0, hou) * 3600L + Math.max(0, min) * 60L - z * 60L));
+    return s.add(days().subtract(EPOCH).multiply(DAYSECONDS)).doubleValue();
+  }
+
+  /**
+   * Parses a dateTime, date or time value. Leading and trailing whitespaces are ignored.
+   * @param value value
+   * @return item or {@code null} if the value is no valid dateTime, date or time
+   */
+  public static ADate parse(final byte[] value) {
+    final byte[] v = Token.trim(value);
+    // skip values that are too short or that start with an invalid character
+    if(v.length < 8 || !Token.digit(v[0]) && v[0] != '-') return null;
+    try {
+      if(Token.indexOf(v, 'T') != -1) return new Dtm(v, null);
+      if(v[2] == ':') return new Tim(v, null);
+      if(Token.indexOf(v, '-') != -1) return new Dat(v, null);
+    } catch(final QueryException ex) {
+      Util.debug(ex);
+    }
+    return null;
+  }
+
   @Override
   public byte[] string(final InputInfo info) {
     final TokenBuilder tb = new TokenBuilder();
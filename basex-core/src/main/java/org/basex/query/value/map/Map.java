@@ -30,13 +30,13 @@ public final class Map extends FItem {
   static final int BITS = 5;
 
   /** Wrapped immutable map. */
-  private final TrieNode root;
+  final TrieNode root;
 
   /**
    * Constructor.
    * @param root map
    */
-  private Map(final TrieNode root) {
+  Map(final TrieNode root) {
     super(SeqType.ANY_MAP, new AnnList());
     this.root = root;
   }
@@ -189,7 +189,7 @@ public final class Map extends FItem {
    * @throws QueryException query exception
    */
   public Map put(final Item key, final Value value, final InputInfo info) throws QueryException {
-    final TrieNode ins = root.put(key.hash(info), key, value, 0, info);
+    final TrieNode ins = root.put(key.hash(info), key, value, 0, null, info);
     return ins == root ? this : new Map(ins);
   }
 
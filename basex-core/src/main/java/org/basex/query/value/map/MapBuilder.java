@@ -4,16 +4,35 @@ import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
+import org.basex.util.*;
 
 /**
- * A convenience class for building new maps.
+ * A builder for creating a {@link Map}. The nodes created by the builder are updated in place
+ * until the map is returned.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public final class MapBuilder {
-  /** Map. */
-  private Map map = Map.EMPTY;
+  /** Owner of the transient nodes. */
+  private final Object owner = new Object();
+  /** Root node. */
+  private TrieNode root;
+
+  /**
+   * Constructor.
+   */
+  public MapBuilder() {
+    this(Map.EMPTY);
+  }
+
+  /**
+   * Constructor, adopting the entries of an existing map.
+   * @param map map
+   */
+  public MapBuilder(final Map map) {
+    root = map.root;
+  }
 
   /**
    * Adds a key/value pair to the map.
@@ -23,10 +42,34 @@ public final class MapBuilder {
    * @throws QueryException query exception
    */
   public MapBuilder put(final Item key, final Value value) throws QueryException {
-    map = map.put(key, value, null);
+    return put(key, value, null);
+  }
+
+  /**
+   * Adds a key/value pair to the map.
+   * @param key key
+   * @param value value
+   * @param info input info
+   * @return self reference
+   * @throws QueryException query exception
+   */
+  public MapBuilder put(final Item key, final Value value, final InputInfo info)
+      throws QueryException {
+    root = root.put(key.hash(info), key, value, 0, owner, info);
     return this;
   }
 
+  /**
+   * Returns the value bound to the specified key.
+   * @param key key to look for
+   * @param info input info
+   * @return bound value, or {@code null} if the key does not exist
+   * @throws QueryException query exception
+   */
+  public Value get(final Item key, final InputInfo info) throws QueryException {
+    return root.get(key.hash(info), key, 0, info);
+  }
+
   /**
    * Adds a key string and a value to the map.
    * @param key key
@@ -54,8 +97,8 @@ public final class MapBuilder {
    * @return map
    */
   public Map finish() {
-    final Map m = map;
-    map = null;
-    return m;
+    final TrieNode node = root;
+    root = null;
+    return node.size == 0 ? Map.EMPTY : new Map(node);
   }
 }
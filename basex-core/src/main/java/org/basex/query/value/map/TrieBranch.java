@@ -18,7 +18,9 @@ final class TrieBranch extends TrieNode {
   /** Child array. */
   private final TrieNode[] kids;
   /** Bit array with a bit set for every used slot. */
-  final int used;
+  int used;
+  /** Owner of a transient node, which may be updated in place ({@code null} if immutable). */
+  private final Object owner;
 
   /**
    * Constructor taking children array and the size of this map.
@@ -27,9 +29,21 @@ final class TrieBranch extends TrieNode {
    * @param size size of this node
    */
   TrieBranch(final TrieNode[] kids, final int used, final int size) {
+    this(kids, used, size, null);
+  }
+
+  /**
+   * Constructor taking children array, the size of this map and an owner.
+   * @param kids children
+   * @param used bit array
+   * @param size size of this node
+   * @param owner owner of a transient node (can be {@code null})
+   */
+  TrieBranch(final TrieNode[] kids, final int used, final int size, final Object owner) {
     super(size);
     this.kids = kids;
     this.used = used;
+    this.owner = owner;
     assert verify();
   }
 
@@ -47,23 +61,30 @@ final class TrieBranch extends TrieNode {
 
   @Override
   TrieNode put(final int hs, final Item key, final Value value, final int level,
-      final InputInfo info) throws QueryException {
+      final Object own, final InputInfo info) throws QueryException {
     final int k = key(hs, level);
     final TrieNode sub = kids[k], nsub;
     final int bs, rem;
     if(sub != null) {
-      nsub = sub.put(hs, key, value, level + 1, info);
-      if(nsub == sub) return this;
-      bs = used;
       rem = sub.size;
+      nsub = sub.put(hs, key, value, level + 1, own, info);
+      bs = used;
     } else {
       nsub = new TrieLeaf(hs, key, value);
       bs = used | 1 << k;
       rem = 0;
     }
+    // transient node: update in place
+    if(own != null && own == owner) {
+      kids[k] = nsub;
+      used = bs;
+      size += nsub.size - rem;
+      return this;
+    }
+    if(nsub == sub) return this;
     final TrieNode[] ks = copyKids();
     ks[k] = nsub;
-    return new TrieBranch(ks, bs, size - rem + nsub.size);
+    return new TrieBranch(ks, bs, size - rem + nsub.size, own);
   }
 
   @Override
@@ -84,7 +84,7 @@ final class TrieList extends TrieNode {
 
   @Override
   TrieNode put(final int hs, final Item key, final Value value, final int level,
-      final InputInfo info) throws QueryException {
+      final Object owner, final InputInfo info) throws QueryException {
 
     // same hash, replace or merge
     if(hs == hash) {
@@ -104,7 +104,7 @@ final class TrieList extends TrieNode {
     final int a = key(hs, level), b = key(hash, level);
     final int used;
     if(a == b) {
-      ch[a] = put(hs, key, value, level + 1, info);
+      ch[a] = put(hs, key, value, level + 1, owner, info);
       used = 1 << a;
     } else {
       ch[a] = new TrieLeaf(hs, key, value);
@@ -112,7 +112,7 @@ final class TrieList extends TrieNode {
       used = 1 << a | 1 << b;
     }
     // we definitely inserted one value
-    return new TrieBranch(ch, used, size + 1);
+    return new TrieBranch(ch, used, size + 1, owner);
   }
 
   @Override
@@ -65,7 +65,7 @@ abstract class TrieNode {
       return this == node; }
     @Override
     public TrieNode put(final int hash, final Item key, final Value value, final int level,
-        final InputInfo info) { return new TrieLeaf(hash, key, value); }
+        final Object owner, final InputInfo info) { return new TrieLeaf(hash, key, value); }
     @Override
     void forEach(final ValueBuilder vb, final FItem func, final QueryContext qc,
         final InputInfo info) { }
@@ -75,8 +75,8 @@ abstract class TrieNode {
     StringBuilder append(final StringBuilder sb) { return sb; }
   };
 
-  /** Size of this node. */
-  final int size;
+  /** Size of this node (may only be changed while a transient node is built). */
+  int size;
   /**
    * Constructor.
    * @param size size
@@ -87,15 +87,17 @@ abstract class TrieNode {
 
   /**
    * Puts the given value into this map and replaces existing keys.
+   * Branches created by the specified owner are updated in place.
    * @param hash hash code used as key
    * @param key key to insert
    * @param value value to insert
    * @param level level
+   * @param owner owner of transient nodes (can be {@code null})
    * @param info input info
    * @return updated map if changed, {@code this} otherwise
    * @throws QueryException query exception
    */
-  abstract TrieNode put(int hash, Item key, Value value, int level, InputInfo info)
+  abstract TrieNode put(int hash, Item key, Value value, int level, Object owner, InputInfo info)
       throws QueryException;
 
   /**
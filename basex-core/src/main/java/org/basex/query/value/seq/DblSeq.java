@@ -50,6 +50,14 @@ public final class DblSeq extends NativeSeq {
     return values;
   }
 
+  /**
+   * Returns the internal values.
+   * @return values
+   */
+  public double[] values() {
+    return values;
+  }
+
   // STATIC METHODS ===============================================================================
 
   /**
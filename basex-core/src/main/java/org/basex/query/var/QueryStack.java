@@ -36,6 +36,17 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame with the variable bindings of the current frame of another stack.
+   * @param qs query stack
+   */
+  public void init(final QueryStack qs) {
+    final int s = qs.start, size = qs.end - s;
+    enterFrame(size);
+    System.arraycopy(qs.stack, s, stack, start, size);
+    System.arraycopy(qs.vars, s, vars, start, size);
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
@@ -138,6 +138,14 @@ public final class StaticVar extends StaticDecl {
     return value;
   }
 
+  /**
+   * Returns the declared type.
+   * @return declared type (can be {@code null})
+   */
+  SeqType declType() {
+    return declType;
+  }
+
   @Override
   public boolean visit(final ASTVisitor visitor) {
     return expr == null || expr.accept(visitor);
@@ -79,8 +79,10 @@ final class StaticVarRef extends ParseExpr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    // resolve variable of the current query (differs if a cached query plan is copied)
+    final StaticVar sv = cc.qc.vars.get(name);
     final StaticVarRef ref = new StaticVarRef(info, name, sc);
-    ref.var = var;
+    ref.var = sv != null ? sv : var;
     return ref;
   }
 
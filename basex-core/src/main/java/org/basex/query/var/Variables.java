@@ -12,6 +12,7 @@ import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Container of global variables of a module.
@@ -41,6 +42,49 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     return sv;
   }
 
+  /**
+   * Declares copies of the specified variables.
+   * References in the copied expressions will point to the variables of this container.
+   * @param vrs variables to be copied
+   * @param cc compilation context
+   * @return map with the declared variables
+   * @throws QueryException query exception
+   */
+  public TokenObjMap<StaticVar> copy(final Variables vrs, final CompileContext cc)
+      throws QueryException {
+
+    // declare all variables before copying their expressions
+    final TokenObjMap<StaticVar> map = new TokenObjMap<>();
+    final ArrayList<StaticVar> list = new ArrayList<>();
+    for(final StaticVar sv : vrs) {
+      final Var var = new Var(sv.name, sv.declType(), false, cc.qc, sv.sc, sv.info);
+      final StaticVar copy = declare(var, sv.anns, null, sv.external, null, new VarScope(sv.sc));
+      map.put(copy.id(), copy);
+      list.add(sv);
+    }
+    for(final StaticVar sv : list) {
+      if(sv.expr == null) continue;
+      final StaticVar copy = map.get(sv.id());
+      cc.pushScope(copy.vs);
+      try {
+        copy.expr = sv.expr.copy(cc, new IntObjMap<>());
+      } finally {
+        cc.removeScope();
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Returns the declared variable with the specified name.
+   * @param name variable name
+   * @return variable or {@code null}
+   */
+  StaticVar get(final QNm name) {
+    final VarEntry ve = vars.get(name);
+    return ve != null ? ve.var : null;
+  }
+
   /**
    * Ensures that none of the variable expressions is updating.
    * @throws QueryException query exception
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.*;
@@ -26,8 +27,6 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class ClientListener extends Thread implements ClientInfo {
-  /** Timer for authentication time out. */
-  public final Timer timeout = new Timer();
   /** Timestamp of last interaction. */
   public long last;
 
@@ -50,6 +49,8 @@ public final class ClientListener extends Thread implements ClientInfo {
   private Command command;
   /** Query id counter. */
   private int id;
+  /** Nonce for authentication ({@code null} if no challenge has been sent yet). */
+  private String nonce;
   /** Indicates if the server thread is running. */
   private volatile boolean authenticated;
   /** Indicates if the server has been closed. */
@@ -71,113 +72,161 @@ public final class ClientListener extends Thread implements ClientInfo {
 
   @Override
   public void run() {
-    if(!authenticate()) return;
+    if(authenticate()) while(process());
+  }
+
+  /**
+   * Authenticates the client or processes incoming commands.
+   * Called by the {@link ClientSelector} when new input is available.
+   * @return {@code true} if the session is still active
+   */
+  boolean proceed() {
+    if(authenticated) return process();
+    if(in == null && authenticate()) return true;
+    close();
+    return false;
+  }
 
+  /**
+   * Processes incoming commands until the input buffer has been consumed.
+   * @return {@code true} if the session is still active
+   */
+  boolean process() {
     try {
-      while(authenticated) {
-        command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            close();
-            break;
-          }
-
-          last = System.currentTimeMillis();
-          perf.ns();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.REPLACE) {
-            replace();
-          } else if(sc == ServerCmd.STORE) {
-            store();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
-          Util.debug(ex);
-          close();
-          break;
-        }
-        if(sc != ServerCmd.COMMAND) continue;
-
-        // parse input and create command instance
-        try {
-          command = CommandParser.get(cmd, context).parseSingle();
-          command.jc().tracer = QueryTracer.EVALINFO;
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
-        }
+      do handle(); while(authenticated && in.buffered());
+    } catch(final IOException ex) {
+      log(LogType.ERROR, Util.message(ex));
+      command = null;
+      close();
+    }
+    command = null;
+    return authenticated;
+  }
 
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new ServerOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          Util.debug(ex);
-          ok = false;
-          info = ex.getMessage();
-        }
+  /**
+   * Returns the channel of the client socket.
+   * @return channel, or {@code null} if the socket was not created by a channel
+   */
+  SocketChannel channel() {
+    return socket.getChannel();
+  }
 
-        // send 0 to mark end of result
-        out.write(0);
-        // send info
-        info(info, ok);
+  /**
+   * Reads and processes a single command.
+   * @throws IOException I/O exception
+   */
+  private void handle() throws IOException {
+    command = null;
+    String cmd;
+    final ServerCmd sc;
+    try {
+      final int b = in.read();
+      if(b == -1) {
+        // end of stream: exit session
+        close();
+        return;
+      }
 
-        // stop console
-        if(command instanceof Exit) {
-          command = null;
-          close();
-        }
+      last = System.currentTimeMillis();
+      perf.ns();
+      sc = ServerCmd.get(b);
+      cmd = null;
+      if(sc == ServerCmd.CREATE) {
+        create();
+      } else if(sc == ServerCmd.ADD) {
+        add();
+      } else if(sc == ServerCmd.REPLACE) {
+        replace();
+      } else if(sc == ServerCmd.STORE) {
+        store();
+      } else if(sc != ServerCmd.COMMAND) {
+        query(sc);
+      } else {
+        // database command
+        cmd = new ByteList().add(b).add(in.readBytes()).toString();
       }
     } catch(final IOException ex) {
-      log(LogType.ERROR, Util.message(ex));
+      // this exception may be thrown if a session is stopped
+      Util.debug(ex);
+      close();
+      return;
+    }
+    if(sc != ServerCmd.COMMAND) return;
+
+    // parse input and create command instance
+    try {
+      command = CommandParser.get(cmd, context).parseSingle();
+      command.jc().tracer = QueryTracer.EVALINFO;
+      log(LogType.REQUEST, command.toString(true));
+    } catch(final QueryException ex) {
+      // log invalid command
+      final String msg = ex.getMessage();
+      log(LogType.REQUEST, cmd);
+      log(LogType.ERROR, msg);
+      // send 0 to mark end of potential result
+      out.write(0);
+      // send {INFO}0
+      out.print(msg);
+      out.write(0);
+      // send 1 to mark error
+      send(false);
+      return;
+    }
+
+    // execute command and send {RESULT}
+    boolean ok = true;
+    String info;
+    try {
+      // run command
+      command.execute(context, new ServerOutput(out));
+      info = command.info();
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+      ok = false;
+      info = ex.getMessage();
+    }
+
+    // send 0 to mark end of result
+    out.write(0);
+    // send info
+    info(info, ok);
+
+    // stop console
+    if(command instanceof Exit) {
       command = null;
       close();
     }
-    command = null;
   }
 
   /**
-   * Initializes a session via digest authentication.
+   * Sends the authentication challenge to the client.
    * @return success flag
    */
-  private boolean authenticate() {
-    boolean auth = false;
+  boolean challenge() {
     try {
-      final String nonce = Long.toString(System.nanoTime());
-      final byte[] address = socket.getInetAddress().getAddress();
-
+      nonce = Long.toString(System.nanoTime());
       // send {REALM:TIMESTAMP}0
       out = PrintOutput.get(socket.getOutputStream());
       out.print(Prop.NAME + ':' + nonce);
       send(true);
+      return true;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      server.remove(this);
+      return false;
+    }
+  }
+
+  /**
+   * Initializes a session via digest authentication.
+   * @return success flag
+   */
+  boolean authenticate() {
+    if(nonce == null && !challenge()) return false;
+
+    boolean auth = false;
+    try {
+      final byte[] address = socket.getInetAddress().getAddress();
 
       // evaluate login data
       in = BufferInput.get(socket.getInputStream());
@@ -227,6 +276,7 @@ public final class ClientListener extends Thread implements ClientInfo {
       do Performance.sleep(1); while(command != null);
     }
     context.sessions.remove(this);
+    authenticated = false;
 
     try {
       Close.close(context);
@@ -0,0 +1,125 @@
+package org.basex.server;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.util.*;
+
+/**
+ * Dispatcher for client sessions, which are processed by a bounded pool of worker threads.
+ * Idle sessions are registered with a selector and do not occupy a thread. As soon as new
+ * input arrives, a session is handed over to a worker, which reads and processes all
+ * commands that have been sent by the client, and registers the session again.
+ * The client/server protocol is not affected.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelector extends Thread {
+  /** Selector for idle sessions. */
+  private final Selector selector;
+  /** Worker threads. */
+  private final ExecutorService workers;
+  /** Sessions to be registered. */
+  private final Queue<ClientListener> pending = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Constructor.
+   * @param threads number of worker threads
+   * @throws IOException I/O exception
+   */
+  public ClientSelector(final int threads) throws IOException {
+    selector = Selector.open();
+    workers = Executors.newFixedThreadPool(threads, r -> {
+      final Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      return thread;
+    });
+    setDaemon(true);
+  }
+
+  /**
+   * Sends the authentication challenge to a new client and registers its session.
+   * @param client client
+   */
+  public void add(final ClientListener client) {
+    if(client.channel() == null) throw Util.notExpected("Socket has no channel: %", client);
+    if(client.challenge()) register(client);
+  }
+
+  /**
+   * Stops the dispatcher and all worker threads.
+   */
+  public void close() {
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    workers.shutdownNow();
+  }
+
+  @Override
+  public void run() {
+    final ArrayList<ClientListener> ready = new ArrayList<>();
+    while(selector.isOpen()) {
+      try {
+        selector.select();
+
+        // register idle sessions
+        for(ClientListener client; (client = pending.poll()) != null;) {
+          try {
+            final SocketChannel channel = client.channel();
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, client);
+          } catch(final IOException | CancelledKeyException ex) {
+            // channel has been closed in the meantime
+            Util.debug(ex);
+            client.close();
+          }
+        }
+
+        // collect sessions with new input. keys are cancelled and need to be
+        // flushed before the channels can be switched back to blocking mode
+        final Set<SelectionKey> keys = selector.selectedKeys();
+        while(!keys.isEmpty()) {
+          for(final SelectionKey key : keys) {
+            key.cancel();
+            ready.add((ClientListener) key.attachment());
+          }
+          keys.clear();
+          selector.selectNow();
+        }
+
+        // process input in worker threads
+        for(final ClientListener client : ready) {
+          try {
+            client.channel().configureBlocking(true);
+            workers.execute(() -> {
+              if(client.proceed()) register(client);
+            });
+          } catch(final IOException | RejectedExecutionException ex) {
+            Util.debug(ex);
+            client.close();
+          }
+        }
+        ready.clear();
+      } catch(final ClosedSelectorException ex) {
+        Util.debug(ex);
+      } catch(final IOException ex) {
+        Util.errln(ex);
+      }
+    }
+  }
+
+  /**
+   * Registers a session that is waiting for new input.
+   * @param client client
+   */
+  private void register(final ClientListener client) {
+    pending.add(client);
+    selector.wakeup();
+  }
+}
@@ -21,6 +21,8 @@ import org.basex.util.*;
  *   <li><b>Info</b>: Log message</li>
  *   <li><b>Performance</b>: Measured time in milliseconds</li>
  * </ul>
+ * If {@link StaticOptions#LOGQUEUE} is assigned a positive value, entries are queued and written
+ * by a separate thread.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
@@ -40,7 +42,11 @@ public final class Log {
   private final StaticOptions sopts;
 
   /** Current log file. */
-  private LogFile file;
+  private volatile LogFile file;
+  /** Asynchronous writer (can be {@code null}). */
+  private volatile LogWriter writer;
+  /** Indicates if the log has been closed (remaining entries will be written synchronously). */
+  private volatile boolean closed;
 
   /**
    * Constructor.
@@ -56,6 +62,7 @@ public final class Log {
    * @return log file, or {@code null} if it does not exist
    */
   public LogFile file(final String name) {
+    flush();
     LogFile lf = file;
     if(lf == null || !lf.valid(name)) lf = new LogFile(name, dir());
     return lf.exists() ? lf : null;
@@ -120,14 +127,24 @@ public final class Log {
     if(perf != null) tb.add('\t').add(perf.toString());
     tb.add(Prop.NL);
 
+    final String name = DateTime.format(date, DateTime.DATE);
+    final LogWriter lw = writer();
+    if(lw != null) lw.add(name, tb.finish());
+    else write(name, tb.finish());
+  }
+
+  /**
+   * Writes entries to the log file with the specified name.
+   * @param name name of log file
+   * @param entries log entries
+   */
+  void write(final String name, final byte[] entries) {
     try {
       synchronized(sopts) {
-        // create new log file and write log entry
-        final String name = DateTime.format(date, DateTime.DATE);
-        if(file != null && !file.valid(name)) close();
+        // create new log file and write log entries
+        if(file != null && !file.valid(name)) closeFile();
         if(file == null) file = LogFile.create(name, dir());
-        // write log entry
-        file.write(tb.finish());
+        file.write(entries);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -135,15 +152,19 @@ public final class Log {
   }
 
   /**
-   * Closes the log file.
+   * Writes all pending log entries and closes the log file.
    */
   public void close() {
+    final LogWriter lw;
+    synchronized(sopts) {
+      lw = writer;
+      writer = null;
+      closed = true;
+    }
+    if(lw != null) lw.close();
     try {
       synchronized(sopts) {
-        if(file != null) {
-          file.close();
-          file = null;
-        }
+        closeFile();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -155,9 +176,48 @@ public final class Log {
    * @return log directory
    */
   public IOFile[] files() {
+    flush();
     return dir().children(".*\\" + IO.LOGSUFFIX);
   }
 
+  /**
+   * Returns the asynchronous writer. The writer is created on demand, unless the log has been
+   * closed.
+   * @return writer, or {@code null} if entries are written synchronously
+   */
+  private LogWriter writer() {
+    LogWriter lw = writer;
+    if(lw == null && !closed) {
+      final int size = sopts.get(StaticOptions.LOGQUEUE);
+      if(size > 0) {
+        synchronized(sopts) {
+          lw = writer;
+          if(lw == null && !closed) writer = lw = new LogWriter(this, size);
+        }
+      }
+    }
+    return lw;
+  }
+
+  /**
+   * Waits until all pending log entries have been written.
+   */
+  private void flush() {
+    final LogWriter lw = writer;
+    if(lw != null) lw.flush();
+  }
+
+  /**
+   * Closes the current log file. Must be called while holding the lock on the options.
+   * @throws IOException I/O exception
+   */
+  private void closeFile() throws IOException {
+    if(file != null) {
+      file.close();
+      file = null;
+    }
+  }
+
   /**
    * Returns a reference to the log directory.
    * @return log directory
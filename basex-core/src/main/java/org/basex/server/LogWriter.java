@@ -0,0 +1,172 @@
+package org.basex.server;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.util.*;
+
+/**
+ * Asynchronous writer for log entries. Entries are added to a bounded queue; if the queue is
+ * full, the calling thread is blocked until space is available. A single thread takes all
+ * queued entries and writes them in batches.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class LogWriter {
+  /** Log. */
+  private final Log log;
+  /** Queued entries. */
+  private final ArrayBlockingQueue<Entry> queue;
+  /** Shutdown hook. */
+  private final Thread hook = new Thread(this::flush);
+  /** Lock: entries are added with the read lock, the writer is closed with the write lock. */
+  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+  /** Indicates if the writer has been closed. */
+  private volatile boolean closed;
+
+  /**
+   * Constructor.
+   * @param log log
+   * @param size maximum number of queued entries
+   */
+  LogWriter(final Log log, final int size) {
+    this.log = log;
+    queue = new ArrayBlockingQueue<>(size);
+    final Thread thread = new Thread(this::run, Util.className(this));
+    thread.setDaemon(true);
+    thread.start();
+    Runtime.getRuntime().addShutdownHook(hook);
+  }
+
+  /**
+   * Adds an entry to the queue.
+   * @param name name of the log file
+   * @param entry log entry
+   */
+  void add(final String name, final byte[] entry) {
+    // the read lock ensures that no entry will be queued after the closing marker
+    rwl.readLock().lock();
+    try {
+      if(!closed) {
+        queue.put(new Entry(name, entry, null));
+        return;
+      }
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    } finally {
+      rwl.readLock().unlock();
+    }
+    // writer has been closed, or thread was interrupted: write entry synchronously
+    log.write(name, entry);
+  }
+
+  /**
+   * Waits until all entries that have been queued before this call have been written.
+   */
+  synchronized void flush() {
+    if(closed) return;
+    final CountDownLatch latch = new CountDownLatch(1);
+    try {
+      queue.put(new Entry(null, null, latch));
+      latch.await();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Writes all queued entries and stops the writer.
+   */
+  synchronized void close() {
+    if(closed) return;
+    // the next marker will stop the writer
+    rwl.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      rwl.writeLock().unlock();
+    }
+    final CountDownLatch latch = new CountDownLatch(1);
+    try {
+      queue.put(new Entry(null, null, latch));
+      latch.await();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(hook);
+    } catch(final IllegalStateException ex) {
+      // JVM is shutting down
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Takes queued entries and writes them in batches.
+   */
+  private void run() {
+    final ArrayList<Entry> batch = new ArrayList<>();
+    final TokenBuilder tb = new TokenBuilder();
+    while(true) {
+      try {
+        batch.add(queue.take());
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+        continue;
+      }
+      queue.drainTo(batch);
+
+      // group consecutive entries of the same log file
+      String name = null;
+      for(final Entry entry : batch) {
+        if(entry.latch != null) {
+          write(name, tb);
+          entry.latch.countDown();
+          if(closed) return;
+        } else {
+          if(!entry.name.equals(name)) {
+            write(name, tb);
+            name = entry.name;
+          }
+          tb.add(entry.entry);
+        }
+      }
+      write(name, tb);
+      batch.clear();
+    }
+  }
+
+  /**
+   * Writes the cached entries and resets the token builder.
+   * @param name name of the log file (can be {@code null})
+   * @param tb token builder
+   */
+  private void write(final String name, final TokenBuilder tb) {
+    if(!tb.isEmpty()) log.write(name, tb.next());
+  }
+
+  /** Queue entry. */
+  private static final class Entry {
+    /** Name of the log file ({@code null} for markers). */
+    private final String name;
+    /** Log entry ({@code null} for markers). */
+    private final byte[] entry;
+    /** Latch of a marker ({@code null} for log entries). */
+    private final CountDownLatch latch;
+
+    /**
+     * Constructor.
+     * @param name name of the log file
+     * @param entry log entry
+     * @param latch latch
+     */
+    private Entry(final String name, final byte[] entry, final CountDownLatch latch) {
+      this.name = name;
+      this.entry = entry;
+      this.latch = latch;
+    }
+  }
+}
@@ -31,6 +31,10 @@ public interface HttpText {
   /** HTTP header string. */
   String EXPIRES = "Expires";
   /** HTTP header string. */
+  String ETAG = "ETag";
+  /** HTTP header string. */
+  String LAST_MODIFIED = "Last-Modified";
+  /** HTTP header string. */
   String LOCATION = "Location";
   /** HTTP header string. */
   String ACCEPT = "Accept";
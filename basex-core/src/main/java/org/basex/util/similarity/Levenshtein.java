@@ -88,24 +88,39 @@ public final class Levenshtein {
       matrix = mx;
     }
 
-    int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
-      final int e = noDiacritics(lc(cp(tk, t)));
+    final int[] tc = chars(tk, tl), sc = chars(sb, sl);
+    for(int t = 0; t < tl; t++) {
+      final int e = tc[t];
       int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
-        final int f = noDiacritics(lc(cp(sb, s)));
+      for(int s = 0; s < sl; s++) {
+        final int f = sc[s];
         int c = m(mx[t][s + 1] + 1, mx[t + 1][s] + 1, mx[t][s] + (e == f ? 0 : 1));
-        if(e == f2 && f == e2) c = mx[t][s];
+        // transposition of two adjacent characters
+        if(t > 0 && s > 0 && e == sc[s - 1] && f == tc[t - 1]) {
+          c = Math.min(c, mx[t - 1][s - 1] + 1);
+        }
         mx[t + 1][s + 1] = c;
         d = Math.min(d, c);
-        f2 = f;
       }
       if(d > k) return false;
-      e2 = e;
     }
     return mx[tl][sl] <= k;
   }
 
+  /**
+   * Returns the normalized characters of a token.
+   * @param token token
+   * @param length number of characters
+   * @return characters
+   */
+  private static int[] chars(final byte[] token, final int length) {
+    final int[] chars = new int[length];
+    for(int t = 0, c = 0; c < length; t += cl(token, t)) {
+      chars[c++] = noDiacritics(lc(cp(token, t)));
+    }
+    return chars;
+  }
+
   /**
    * <p>Computes the full Damerau-Levenshtein distance for two codepoint arrays and returns a
    * double value (0.0 - 1.0), which represents the distance. The value is computed as follows:</p>
@@ -160,7 +175,7 @@ public final class Levenshtein {
   private static boolean same(final byte[] tk, final byte[] sb) {
     final int tl = tk.length, sl = sb.length;
     for(int s = 0, t = 0; t < tl && s < sl; t += cl(tk, t), s += cl(sb, s)) {
-      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, t)))) return false;
+      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, s)))) return false;
     }
     return true;
   }
@@ -2,6 +2,8 @@ package org.basex.build;
 
 import static org.junit.Assert.*;
 
+import java.io.*;
+
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
@@ -247,6 +249,44 @@ public final class AddDeleteTest extends SandboxTest {
     } catch(final BaseXException ignored) { }
   }
 
+  /**
+   * Parses documents in parallel.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void parseThreads() throws IOException {
+    final IOFile dir = new IOFile(Prop.TEMPDIR, NAME + "Dir");
+    dir.md();
+    for(int d = 0; d < 200; d++) {
+      write(new IOFile(dir, "d" + d + IO.XMLSUFFIX),
+          "<x a='" + d + "'>" + d + "<!--c--><?pi " + d + "?><y xmlns='u' b=''/></x>");
+    }
+    write(new IOFile(dir, "corrupt.xml"), "<x");
+    new IOFile(ZIPFILE).copyTo(new IOFile(dir, "xml.zip"));
+
+    try {
+      set(MainOptions.SKIPCORRUPT, true);
+      execute(new CreateDB(NAME, dir.path()));
+      assertEquals(204, docs());
+      final IOFile[] files = context.soptions.dbPath(NAME).children();
+      final byte[][] contents = new byte[files.length][];
+      execute(new Close());
+      for(int f = 0; f < files.length; f++) contents[f] = files[f].read();
+
+      // database files must be identical
+      set(MainOptions.PARSETHREADS, 4);
+      execute(new CreateDB(NAME, dir.path()));
+      execute(new Close());
+      for(int f = 0; f < files.length; f++) {
+        assertArrayEquals(files[f].name(), contents[f], files[f].read());
+      }
+    } finally {
+      set(MainOptions.SKIPCORRUPT, false);
+      set(MainOptions.PARSETHREADS, 1);
+      dir.delete();
+    }
+  }
+
   /**
    * Returns the number of documents in the current database.
    * @return number of documents
@@ -313,6 +313,24 @@ public final class PermissionTest extends SandboxTest {
     ok(new DropUser(NAME), adminSession);
   }
 
+  /** Starts and stops timeouts for non-admin users. */
+  @Test
+  public void timeouts() {
+    final Thread thread = new Thread(() -> ok(new XQuery(_PROF_SLEEP.args(1000)), testSession));
+    thread.start();
+    while(server.context.jobs.timeouts() == 0) Performance.sleep(1);
+    assertEquals(1, server.context.jobs.timeouts());
+    try {
+      thread.join();
+    } catch(final InterruptedException ex) {
+      fail(Util.message(ex));
+    }
+    assertEquals(0, server.context.jobs.timeouts());
+    // admin users: no timeout
+    ok(new XQuery("1"), adminSession);
+    assertEquals(0, server.context.jobs.timeouts());
+  }
+
   /**
    * Assumes that this command is successful.
    * @param cmd command reference
@@ -0,0 +1,85 @@
+package org.basex.data;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Runs parallel read operations on a disk-based database.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ConcurrentReadTest extends SandboxTest {
+  /** Query. */
+  private static final String QUERY = "string-join(db:open('" + NAME + "')//*/(@a, text()), ',')";
+  /** Error. */
+  private Throwable error;
+  /** Reference result. */
+  private String result;
+
+  /**
+   * Creates the test database.
+   */
+  @Before
+  public void before() {
+    execute(new CreateDB(NAME));
+    query("db:add('" + NAME + "', <x>{ for $i in 1 to 20000 return " +
+        "<y a='attribute { $i }'>text value { $i }</y> }</x>, 'x.xml')");
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Test.
+   * @throws Throwable throwable
+   */
+  @Test
+  public void test() throws Throwable {
+    run();
+    // update database, compare results again
+    query("insert node <y a='new'>new</y> into db:open('" + NAME + "')/x");
+    run();
+    assertTrue(result.endsWith(",new,new"));
+  }
+
+  /**
+   * Runs parallel queries and compares the results.
+   * @throws Throwable throwable
+   */
+  private void run() throws Throwable {
+    // generate reference result
+    result = query(QUERY);
+    // generate results to be compared
+    final ArrayList<Query> queries = new ArrayList<>();
+    for(int i = 0; i < 8; i++) queries.add(new Query());
+    for(final Query q : queries) q.start();
+    for(final Query q : queries) q.join();
+    if(error != null) throw error;
+  }
+
+  /**
+   * Query instance.
+   */
+  private class Query extends Thread {
+    @Override
+    public void run() {
+      try {
+        assertEquals(result, query(QUERY));
+      } catch(final Throwable th) {
+        error = th;
+      }
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.basex.data;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import java.util.*;
 import java.util.List;
@@ -53,6 +54,8 @@ public final class IndexTest extends AdvancedQueryTest {
   public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.FTINCLUDE, "");
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -203,6 +206,153 @@ public final class IndexTest extends AdvancedQueryTest {
     execute(new Delete("A"));
   }
 
+  /**
+   * Test.
+   */
+  @Test
+  public void updindexFullText() {
+    // no full-text index in main memory
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    set(MainOptions.FTINCLUDE, "a");
+    execute(new CreateDB(NAME));
+    for(int i = 0; i < 5; i++) {
+      execute(new Replace("x.xml", "<x><a>A B</a><a>C D</a></x>"));
+    }
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+    query(_FT_SEARCH.args(NAME, "A") + "/string()", "A B");
+    query(_FT_SEARCH.args(NAME, "D") + "/string()", "C D");
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "");
+    query(_FT_TOKENS.args(NAME, "D") + "/string()", "d");
+
+    query("replace value of node " + _DB_OPEN.args(NAME) + "//a[1]/text() with 'E F'");
+    query("rename node " + _DB_OPEN.args(NAME) + "//a[2] as 'b'");
+    query(_FT_SEARCH.args(NAME, "A") + "/string()", "");
+    query(_FT_SEARCH.args(NAME, "C") + "/string()", "");
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "E F");
+
+    execute(new Close());
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "E F");
+    query(_FT_SEARCH.args(NAME, "A") + "/string()", "");
+    execute(new Open(NAME));
+    execute(new Optimize());
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "E F");
+    query(_FT_SEARCH.args(NAME, "C") + "/string()", "");
+    query(_FT_TOKENS.args(NAME) + "/string()", "e\nf");
+  }
+
+  /**
+   * Test.
+   */
+  @Test
+  public void updindexFullTextMerge() {
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x/>"));
+    // large number of updates: segments will be merged in the background
+    query("insert node (1 to 30000) ! <a>A{ . } B C</a> into " + _DB_OPEN.args(NAME) + "/x");
+    query("count(" + _FT_SEARCH.args(NAME, "B") + ')', 30000);
+    query("delete node " + _DB_OPEN.args(NAME) + "//a[position() mod 3 = 0]");
+    query("count(" + _FT_SEARCH.args(NAME, "C") + ')', 20000);
+    query(_FT_SEARCH.args(NAME, "A3") + "/string()", "");
+    query(_FT_SEARCH.args(NAME, "A29999") + "/string()", "A29999 B C");
+
+    execute(new Close());
+    query("count(" + _FT_SEARCH.args(NAME, "C") + ')', 20000);
+    execute(new Open(NAME));
+    execute(new Optimize());
+    query("count(" + _FT_SEARCH.args(NAME, "C") + ')', 20000);
+    query("count(" + _FT_TOKENS.args(NAME, "a") + ')', 20000);
+    query("count(" + _FT_SEARCH.args(NAME, "A2999.", " map { 'wildcards': true() }") + ')', 7);
+    query("count(" + _FT_SEARCH.args(NAME, ".*9999", " map { 'wildcards': true() }") + ')', 2);
+    query("count(" + _FT_SEARCH.args(NAME, "A29999", " map { 'fuzzy': true() }") + ')', 27);
+  }
+
+  /**
+   * Builds all index structures at the same time.
+   */
+  @Test
+  public void parallel() {
+    set(MainOptions.TOKENINDEX, true);
+    // no full-text index in main memory
+    set(MainOptions.FTINDEX, !(Boolean) mainmem);
+    execute(new CreateDB(NAME));
+    query(_DB_ADD.args(NAME,
+        " <x>{ (1 to 10000) ! <a b='{ . mod 10 } t{ . mod 3 }'>A{ . mod 7 }</a> }</x>", "x.xml"));
+    execute(new Optimize());
+    for(int i = 0; i < 2; i++) {
+      query("count(" + _DB_TEXT.args(NAME, "A3") + ')', 1429);
+      query("count(" + _DB_ATTRIBUTE.args(NAME, "5 t2") + ')', 334);
+      query("count(" + _DB_TOKEN.args(NAME, "t1") + ')', 3334);
+      if((Boolean) mainmem) break;
+      query("count(" + _FT_SEARCH.args(NAME, "A6") + ')', 1428);
+      execute(new OptimizeAll());
+    }
+  }
+
+  /**
+   * Builds index structures with a small memory budget.
+   */
+  @Test
+  public void indexMemory() {
+    set(MainOptions.INDEXMEMORY, 1);
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, !(Boolean) mainmem);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME,
+          " <x>{ (1 to 100000) ! <a b='{ . } t{ . mod 3 }'>A{ . } B</a> }</x>", "x.xml"));
+      execute(new Optimize());
+      query("count(" + _DB_TEXT.args(NAME, "A12345 B") + ')', 1);
+      query("count(" + _DB_ATTRIBUTE.args(NAME, "99999 t0") + ')', 1);
+      query("count(" + _DB_TOKEN.args(NAME, "t1") + ')', 33334);
+      if((Boolean) mainmem) return;
+      query("count(" + _FT_SEARCH.args(NAME, "B") + ')', 100000);
+      query("count(" + _FT_SEARCH.args(NAME, "A777") + ')', 1);
+      assertTrue(execute(new InfoIndex()).contains(Text.LI_BUDGET + "1024 kB"));
+    } finally {
+      set(MainOptions.INDEXMEMORY, 0);
+    }
+  }
+
+  /**
+   * Numeric range queries with typed indexes.
+   */
+  @Test
+  public void numIndex() {
+    // no typed indexes in main memory
+    if((Boolean) mainmem) return;
+    set(MainOptions.NUMINDEX, true);
+    set(MainOptions.UPDINDEX, true);
+    try {
+      execute(new CreateDB(NAME, "<x/>"));
+      query("insert node (1 to 10000) ! <a b='{ . div 4 }'>{ . mod 1000 - 300 }</a> into " +
+          _DB_OPEN.args(NAME) + "/x");
+      execute(new Optimize());
+
+      final String text = _DB_OPEN.args(NAME) + "//a[text() >= -10 and text() < 20]";
+      final String attr = _DB_OPEN.args(NAME) + "//a[@b > 2.1 and @b <= 10.25]";
+      query("count(" + text + ')', 300);
+      query("count(" + attr + ')', 33);
+      query("count(" + _DB_OPEN.args(NAME) + "//a[@b > 2499.5])", 2);
+
+      // updates
+      query("delete node " + _DB_OPEN.args(NAME) + "//a[text() = 5]");
+      query("for $a in " + _DB_OPEN.args(NAME) + "//a[text() = 6] " +
+          "return replace value of node $a/text() with '-300'");
+      query("insert node <a>1.5</a> into " + _DB_OPEN.args(NAME) + "/x");
+      execute(new Optimize());
+      query("count(" + text + ')', 281);
+      query("count(" + _DB_OPEN.args(NAME) + "//a[text() < -299])", 20);
+      execute(new Close());
+      query("count(" + text + ')', 281);
+    } finally {
+      set(MainOptions.NUMINDEX, false);
+    }
+  }
+
   /**
    * Test.
    */
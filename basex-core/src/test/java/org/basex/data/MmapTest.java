@@ -0,0 +1,71 @@
+package org.basex.data;
+
+import static org.basex.query.func.Function.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the {@link MainOptions#MMAP} option.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class MmapTest extends AdvancedQueryTest {
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    set(MainOptions.MMAP, true);
+  }
+
+  /**
+   * Finalize test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.MMAP, false);
+  }
+
+  /**
+   * Reads a mapped database.
+   */
+  @Test
+  public void read() {
+    execute(new CreateDB(NAME, "<x a='attribute value'><y>text value</y><z>123</z></x>"));
+    query(_DB_INFO.args(NAME) + "//mmap/text()", true);
+    query("string(//@a)", "attribute value");
+    query("//y/text()", "text value");
+    query("string-length(//y)", 10);
+    query("//z/text() + 1", 124);
+
+    execute(new Close());
+    set(MainOptions.MMAP, false);
+    execute(new Open(NAME));
+    query("//y/text()", "text value");
+  }
+
+  /**
+   * Updates a mapped database.
+   */
+  @Test
+  public void update() {
+    execute(new CreateDB(NAME, "<x/>"));
+    for(int i = 0; i < 300; i++) {
+      query("insert node <y>long text value " + i + "</y> into /x");
+    }
+    query("count(//y)", 300);
+    query("(//y)[last()]/text()", "long text value 299");
+    query("replace value of node (//y)[1] with 'new value'");
+    query("(//y)[1]/text()", "new value");
+
+    execute(new Optimize());
+    query("count(//y)", 300);
+    query("(//y)[last()]/text()", "long text value 299");
+  }
+}
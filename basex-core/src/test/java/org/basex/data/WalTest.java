@@ -0,0 +1,173 @@
+package org.basex.data;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the {@link MainOptions#WAL} option.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class WalTest extends AdvancedQueryTest {
+  /** Name of the database copy. */
+  private static final String COPY = NAME + "Copy";
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    set(MainOptions.WAL, true);
+    set(MainOptions.AUTOFLUSH, false);
+  }
+
+  /**
+   * Finalize test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    execute(new DropDB(COPY));
+    set(MainOptions.WAL, false);
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Creates and removes the log.
+   */
+  @Test
+  public void log() {
+    execute(new CreateDB(NAME, "<x/>"));
+    query(_DB_INFO.args(NAME) + "//wal/text()", true);
+    query("insert node <y/> into /x");
+    assertTrue(wal(NAME).exists());
+
+    execute(new Flush());
+    query("count(//y)", 1);
+    execute(new Close());
+    assertFalse(wal(NAME).exists());
+    execute(new Open(NAME));
+    query("count(//y)", 1);
+  }
+
+  /**
+   * Replays committed updates.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void replay() throws IOException {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<x/>"));
+    for(int i = 0; i < 200; i++) {
+      query("insert node <y a='" + i + "'>text " + i + ' ' + repeat("x", i) + "</y> into /x");
+    }
+    query("delete node //y[@a mod 2 = 0]");
+    query("replace value of node //y[@a = 101]/text() with 'new'");
+    // simulate crash: copy files of the opened database
+    crash();
+    execute(new Close());
+
+    execute(new Open(COPY));
+    query("count(//y)", 100);
+    query("sum(//y/@a)", 10000);
+    query(_DB_TEXT.args(COPY, "new") + "/../@a/string()", 101);
+    query(_DB_TEXT.args(COPY, "text 199 " + repeat("x", 199)) + "/../@a/string()", 199);
+    query("count(" + _DB_TEXT.args(COPY, "text 100 " + repeat("x", 100)) + ')', 0);
+    assertFalse(wal(COPY).exists());
+  }
+
+  /**
+   * Discards uncommitted updates.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void discard() throws IOException {
+    execute(new CreateDB(NAME, "<x>" + repeat("<y>text</y>", 5000) + "</x>"));
+    execute(new Close());
+    execute(new Open(NAME));
+    query("insert node <z/> into /x");
+
+    // write uncommitted changes to disk
+    final Data data = context.data();
+    data.startUpdate(context.options);
+    for(int pre = 0; pre < data.meta.size; pre++) {
+      if(data.kind(pre) == Data.TEXT) data.update(pre, Data.TEXT, Token.token("changed " + pre));
+    }
+    data.flush(false);
+    crash();
+    data.finishUpdate(context.options);
+    execute(new Close());
+
+    execute(new Open(COPY));
+    query("count(//y)", 5000);
+    query("count(//z)", 1);
+    query("distinct-values(//y)", "text");
+  }
+
+  /**
+   * Drops index structures if changes were made that have not been logged.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void unlogged() throws IOException {
+    execute(new CreateDB(NAME, "<x><y>text</y></x>"));
+    query("insert node <y>new</y> into /x");
+
+    final Data data = context.data();
+    data.startUpdate(context.options);
+    data.dropIndex(IndexType.TEXT);
+    crash();
+    data.finishUpdate(context.options);
+    execute(new Close());
+
+    execute(new Open(COPY));
+    query("count(//y)", 2);
+    query(_DB_INFO.args(COPY) + "//textindex/text()", false);
+    execute(new Optimize());
+    query(_DB_TEXT.args(COPY, "new"), "new");
+  }
+
+  /**
+   * Simulates a crash by copying the files of the opened database.
+   * @throws IOException I/O exception
+   */
+  private static void crash() throws IOException {
+    final IOFile source = context.soptions.dbPath(NAME), target = context.soptions.dbPath(COPY);
+    target.md();
+    for(final IOFile file : source.children()) file.copyTo(new IOFile(target, file.name()));
+  }
+
+  /**
+   * Repeats a string.
+   * @param string string
+   * @param count number of repetitions
+   * @return resulting string
+   */
+  private static String repeat(final String string, final int count) {
+    final StringBuilder sb = new StringBuilder();
+    for(int c = 0; c < count; c++) sb.append(string);
+    return sb.toString();
+  }
+
+  /**
+   * Returns the log file of a database.
+   * @param db name of database
+   * @return log file
+   */
+  private static IOFile wal(final String db) {
+    return MetaData.file(context.soptions.dbPath(db), DataText.DATAWAL);
+  }
+}
@@ -0,0 +1,69 @@
+package org.basex.index.value;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for building value indexes in partitions.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class DiskValuesBuilderTest extends SandboxTest {
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    DiskValuesBuilder.partitions = 0;
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.TOKENINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Compares partitioned index structures with the ones that are built sequentially.
+   */
+  @Test
+  public void partitions() {
+    set(MainOptions.TOKENINDEX, true);
+    execute(new CreateDB(NAME));
+    query(_DB_ADD.args(NAME, " <x>{ (1 to 3000) ! "
+        + "<a b='{ . mod 100 } t{ . mod 7 }'>A{ . mod 97 } B{ . mod 5 }</a> }</x>", "x.xml"));
+    DiskValuesBuilder.partitions = 1;
+    execute(new OptimizeAll());
+    final String expected = entries();
+
+    for(final int splitsize : new int[] { 0, 500 }) {
+      set(MainOptions.SPLITSIZE, splitsize);
+      for(final int partitions : new int[] { 2, 3, 7 }) {
+        DiskValuesBuilder.partitions = partitions;
+        execute(new OptimizeAll());
+        assertEquals("Partitions: " + partitions + ", split size: " + splitsize,
+            expected, entries());
+      }
+    }
+  }
+
+  /**
+   * Returns a string representation of all index entries and the nodes they refer to.
+   * @return string
+   */
+  private static String entries() {
+    return query("string-join(("
+        + "for $e in " + _INDEX_TEXTS.args(NAME) + " return $e || ':' || "
+        + "string-join(" + _DB_TEXT.args(NAME, " $e") + " ! " + _DB_NODE_PRE.args(" .") + ", ','),"
+        + "for $e in " + _INDEX_ATTRIBUTES.args(NAME) + " return $e || ':' || "
+        + "string-join(" + _DB_ATTRIBUTE.args(NAME, " $e") + " ! " + _DB_NODE_PRE.args(" .")
+        + ", ','),"
+        + "for $e in " + _INDEX_TOKENS.args(NAME) + " return $e || ':' || "
+        + "string-join(" + _DB_TOKEN.args(NAME, " $e") + " ! " + _DB_NODE_PRE.args(" .") + ", ',')"
+        + "), ' ')");
+  }
+}
@@ -0,0 +1,74 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.junit.*;
+
+/**
+ * Tests for class {@link TableCache}.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TableCacheTest {
+  /** Cache instance. */
+  private static final TableCache CACHE = TableCache.get();
+  /** Number of pages fitting into one megabyte. */
+  private static final int PAGES = (1 << 20) / IO.BLOCKSIZE;
+
+  /** Resets the cache size. */
+  @After
+  public void reset() {
+    CACHE.size(StaticOptions.TABLECACHE.value());
+  }
+
+  /** Checks if pages are written back to the cache. */
+  @Test
+  public void write() {
+    CACHE.size(1);
+    final int id = TableCache.id();
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    data[0] = 1;
+    CACHE.add(id, 0, data);
+    data[0] = 2;
+    CACHE.write(id, 0, data);
+
+    final byte[] cached = new byte[IO.BLOCKSIZE];
+    assertTrue(CACHE.read(id, 0, cached));
+    assertEquals(2, cached[0]);
+
+    CACHE.remove(id);
+    assertFalse(CACHE.read(id, 0, cached));
+  }
+
+  /** Checks if frequently accessed pages survive a scan. */
+  @Test
+  public void scan() {
+    CACHE.size(1);
+    final int id = TableCache.id();
+    final byte[] data = new byte[IO.BLOCKSIZE];
+
+    // request page twice: second access promotes it to the LRU queue
+    CACHE.add(id, 0, data);
+    for(int p = 1; p <= PAGES; p++) CACHE.add(id, p, data);
+    assertFalse(CACHE.read(id, 0, data));
+    CACHE.add(id, 0, data);
+
+    // scan more pages than the cache can hold
+    for(int p = PAGES + 1; p < PAGES * 4; p++) CACHE.add(id, p, data);
+    assertTrue(CACHE.read(id, 0, data));
+    CACHE.remove(id);
+  }
+
+  /** Checks if the cache can be disabled. */
+  @Test
+  public void disable() {
+    CACHE.size(0);
+    final int id = TableCache.id();
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    CACHE.add(id, 0, data);
+    assertFalse(CACHE.read(id, 0, data));
+  }
+}
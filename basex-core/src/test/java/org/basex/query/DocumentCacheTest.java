@@ -0,0 +1,156 @@
+package org.basex.query;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the cache of parsed external documents.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class DocumentCacheTest extends SandboxTest {
+  /** Test file. */
+  private static final IOFile FILE = new IOFile(sandbox(), "cache/doc.xml");
+  /** Database context with enabled document cache. */
+  private static Context ctx;
+
+  /**
+   * Creates the database context.
+   */
+  @BeforeClass
+  public static void init() {
+    Prop.put(StaticOptions.DOCCACHE, "1");
+    ctx = new Context();
+  }
+
+  /**
+   * Closes the database context.
+   */
+  @AfterClass
+  public static void close() {
+    ctx.close();
+    Prop.clear();
+  }
+
+  /**
+   * Reuses parsed documents and collections.
+   * @throws Exception exception
+   */
+  @Test
+  public void hits() throws Exception {
+    write(FILE, "<a>1</a>");
+    final String info = info();
+    final String doc = "doc('" + FILE + "')/a/string()";
+    assertEquals("1", new XQuery(doc).execute(ctx));
+    assertEquals("1", new XQuery(doc).execute(ctx));
+    assertEquals(hits(info) + 1, hits(info()));
+
+    final String coll = "collection('" + FILE.parent() + "')/a/string()";
+    assertEquals("1", new XQuery(coll).execute(ctx));
+    assertEquals("1", new XQuery(coll).execute(ctx));
+    assertEquals(hits(info) + 2, hits(info()));
+  }
+
+  /**
+   * Discards outdated documents.
+   * @throws Exception exception
+   */
+  @Test
+  public void outdated() throws Exception {
+    write(FILE, "<a>1</a>");
+    final String doc = "doc('" + FILE + "')/a/string()";
+    assertEquals("1", new XQuery(doc).execute(ctx));
+    write(FILE, "<a>22</a>");
+    final String info = info();
+    assertEquals("22", new XQuery(doc).execute(ctx));
+    assertEquals(hits(info), hits(info()));
+  }
+
+  /**
+   * Skips updating queries.
+   * @throws Exception exception
+   */
+  @Test
+  public void updating() throws Exception {
+    write(FILE, "<a>1</a>");
+    final String doc = "doc('" + FILE + "')";
+    assertEquals("1", new XQuery(doc + "/a/string()").execute(ctx));
+    final String info = info();
+    new XQuery("delete node " + doc + "/a/text()").execute(ctx);
+    assertEquals(hits(info), hits(info()));
+    assertEquals("1", new XQuery(doc + "/a/string()").execute(ctx));
+    assertEquals(hits(info) + 1, hits(info()));
+  }
+
+  /**
+   * Discards least recently used documents if the cache limit is exceeded.
+   * @throws Exception exception
+   */
+  @Test
+  public void evicted() throws Exception {
+    // each document takes more than half of the cache limit (1 MB)
+    final IOFile file1 = new IOFile(sandbox(), "cache/doc1.xml");
+    final IOFile file2 = new IOFile(sandbox(), "cache/doc2.xml");
+    write(file1, document(600000));
+    write(file2, document(600000));
+    final String doc1 = "string-length(doc('" + file1 + "'))", doc2 = doc1.replace("doc1", "doc2");
+    assertEquals("600000", new XQuery(doc1).execute(ctx));
+    final String info = info();
+    assertEquals("600000", new XQuery(doc1).execute(ctx));
+    assertEquals(hits(info) + 1, hits(info()));
+
+    // second document replaces the first one
+    assertEquals("600000", new XQuery(doc2).execute(ctx));
+    assertEquals("600000", new XQuery(doc1).execute(ctx));
+    assertEquals(hits(info) + 1, hits(info()));
+    assertEquals("600000", new XQuery(doc1).execute(ctx));
+    assertEquals(hits(info) + 2, hits(info()));
+
+    // documents exceeding the cache limit are not cached
+    final IOFile file3 = new IOFile(sandbox(), "cache/doc3.xml");
+    write(file3, document(1200000));
+    final String doc3 = doc1.replace("doc1", "doc3");
+    assertEquals("1200000", new XQuery(doc3).execute(ctx));
+    assertEquals("1200000", new XQuery(doc3).execute(ctx));
+    assertEquals(hits(info) + 2, hits(info()));
+  }
+
+  /**
+   * Returns a document with a single text node.
+   * @param length length of the text
+   * @return document
+   */
+  private static String document(final int length) {
+    final StringBuilder sb = new StringBuilder("<a>");
+    for(int l = 0; l < length; l++) sb.append('x');
+    return sb.append("</a>").toString();
+  }
+
+  /**
+   * Returns cache information.
+   * @return info string
+   * @throws Exception exception
+   */
+  private static String info() throws Exception {
+    final String info = new Info().execute(ctx);
+    assertTrue(info, info.contains(Text.DOCUMENT_CACHE));
+    return info;
+  }
+
+  /**
+   * Returns the number of cache hits.
+   * @param info info string
+   * @return hits
+   */
+  private static int hits(final String info) {
+    return Integer.parseInt(info.replaceAll("(?s).*Hits: (\\d+).*", "$1"));
+  }
+}
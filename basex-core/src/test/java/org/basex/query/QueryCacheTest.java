@@ -0,0 +1,137 @@
+package org.basex.query;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the query plan cache.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCacheTest extends SandboxTest {
+  /** Database context with enabled query cache. */
+  private static Context ctx;
+
+  /**
+   * Creates the database context.
+   */
+  @BeforeClass
+  public static void init() {
+    Prop.put(StaticOptions.QUERYCACHE, "2");
+    ctx = new Context();
+  }
+
+  /**
+   * Closes the database context.
+   */
+  @AfterClass
+  public static void close() {
+    ctx.close();
+    Prop.clear();
+  }
+
+  /**
+   * Reuses cached plans.
+   * @throws Exception exception
+   */
+  @Test
+  public void hits() throws Exception {
+    final String info = info();
+    assertEquals("3", new XQuery("1 + 2").execute(ctx));
+    assertEquals("3", new XQuery("1 + 2").execute(ctx));
+    assertEquals("3", new XQuery("1 + 2").execute(ctx));
+    assertEquals(hits(info) + 2, hits(info()));
+  }
+
+  /**
+   * Reuses plans with external and local variables.
+   * @throws Exception exception
+   */
+  @Test
+  public void variables() throws Exception {
+    final String query = "declare variable $x as xs:integer external;"
+        + "declare variable $y := $x * 2; for $i in 1 to $y return $i + $x";
+    final String info = info();
+    assertEquals("2\n3", new XQuery(query).bind("x", "1").execute(ctx));
+    assertEquals("3\n4\n5\n6", new XQuery(query).bind("x", "2").execute(ctx));
+    assertEquals(hits(info) + 1, hits(info()));
+
+    final String closure = "declare variable $a := 1; function($b) { $a + $b }(2)";
+    assertEquals("3", new XQuery(closure).execute(ctx));
+    assertEquals("3", new XQuery(closure).execute(ctx));
+  }
+
+  /**
+   * Reuses plans with namespace declarations and node constructors.
+   * @throws Exception exception
+   */
+  @Test
+  public void namespaces() throws Exception {
+    final String query = "declare namespace p = 'U'; <p:a xmlns:q='V'><q:b/></p:a>";
+    final String result = "<p:a xmlns:p=\"U\" xmlns:q=\"V\">\n  <q:b/>\n</p:a>";
+    assertEquals(result, new XQuery(query).execute(ctx));
+    assertEquals(result, new XQuery(query).execute(ctx));
+  }
+
+  /**
+   * Skips queries with functions and option declarations.
+   * @throws Exception exception
+   */
+  @Test
+  public void skip() throws Exception {
+    final String info = info();
+    for(final String query : new String[] {
+      "declare function local:f() { 1 }; local:f()",
+      "declare option output:method 'text'; 1",
+      "declare option db:chop 'false'; 1",
+      "declare context item := 1; ."
+    }) {
+      assertEquals("1", new XQuery(query).execute(ctx));
+      assertEquals("1", new XQuery(query).execute(ctx));
+    }
+    assertEquals(hits(info), hits(info()));
+  }
+
+  /**
+   * Discards least recently used plans.
+   * @throws Exception exception
+   */
+  @Test
+  public void evict() throws Exception {
+    final String info = info();
+    for(final String query : new String[] { "'a'", "'b'", "'c'", "'a'" }) {
+      new XQuery(query).execute(ctx);
+    }
+    assertEquals(hits(info), hits(info()));
+    new XQuery("'a'").execute(ctx);
+    new XQuery("'c'").execute(ctx);
+    assertEquals(hits(info) + 2, hits(info()));
+  }
+
+  /**
+   * Returns cache information.
+   * @return info string
+   * @throws Exception exception
+   */
+  private static String info() throws Exception {
+    final String info = new Info().execute(ctx);
+    assertTrue(info, info.contains(Text.QUERY_CACHE));
+    return info;
+  }
+
+  /**
+   * Returns the number of cache hits.
+   * @param info info string
+   * @return hits
+   */
+  private static int hits(final String info) {
+    return Integer.parseInt(info.replaceAll("(?s).*Hits: (\\d+).*", "$1"));
+  }
+}
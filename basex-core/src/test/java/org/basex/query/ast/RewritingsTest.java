@@ -7,6 +7,7 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
 import org.basex.query.expr.constr.*;
+import org.basex.query.expr.ft.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.func.util.*;
@@ -167,6 +168,18 @@ public final class RewritingsTest extends QueryPlanTest {
     check("<a>5</a>[text() > '1' and . < '9']", "<a>5</a>", count(CmpSR.class, 2));
   }
 
+  /** Checks {@link CmpTR} optimizations. */
+  @Test public void cmpTR() {
+    final String dt = "xs:dateTime('2018-01-01T12:00:00Z')";
+    check("<a>2018-01-01T13:00:00+01:00</a>[text() >= " + dt + ']',
+        "<a>2018-01-01T13:00:00+01:00</a>", count(CmpTR.class, 1));
+    check("<a>2018-01-01T12:00:00Z</a>[text() > " + dt + " and text() < " + dt + ']', "",
+        empty(CmpTR.class));
+    check("<a>2018-01-02</a>[text() > xs:date('2018-01-01') and text() <= xs:date('2018-01-02')]",
+        "<a>2018-01-02</a>", count(CmpTR.class, 1));
+    error("<a>2018</a>[text() = " + dt + ']', QueryError.DATEFORMAT_X_X_X);
+  }
+
   /** Checks string-length optimizations. */
   @Test public void stringLength() {
     final String filter = Util.className(IterFilter.class);
@@ -402,4 +415,19 @@ public final class RewritingsTest extends QueryPlanTest {
     check("(<a/>,comment{})/self::namespace-node()", "", exists(IterStep.class));
     check("(<a/>,comment{})/descendant-or-self::namespace-node()", "", exists(IterStep.class));
   }
+
+  /** Checks if top-k full-text requests are rewritten. */
+  @Test public void ftTopK() {
+    execute(new CreateDB(NAME, "<x><a>A</a><a>A B</a><a>B</a></x>"));
+    execute(new CreateIndex("fulltext"));
+
+    final String search = "for $n score $s in " + _FT_SEARCH.args(NAME, "A") +
+        " order by $s descending return $n";
+    check("(" + search + ")[position() <= 1]", "A", exists(FTTopK.class));
+    check(HEAD.args(" (" + search + ')'), "A", exists(FTTopK.class));
+    check(SUBSEQUENCE.args(" (" + search + ')', 2), "A B", empty(FTTopK.class));
+    check("(for $n in " + _FT_SEARCH.args(NAME, "A") + " order by ft:score($n) descending " +
+        "return $n)[1]", "A", empty(FTTopK.class));
+    execute(new DropDB(NAME));
+  }
 }
@@ -336,4 +336,82 @@ public final class GFLWORTest extends QueryPlanTest {
         1, count(Let.class, 1));
     error("let $x := <x>false</x> let $b as xs:boolean := $x/text() return $b", INVTYPE_X_X_X);
   }
+
+  /** Rewrites for and where clauses to joins. */
+  @Test public void join() {
+    check("for $a in ('x', 'y', 'z') for $b in ('y', 'x', 'y') where $b = $a return $a || $b",
+        "xx\nyy\nyy", exists(Join.class));
+    check("for $a in (1 to 3) ! <a id='{ . }'/> for $b in (3, 1, 2, 1) ! <b ref='{ . }'/> " +
+        "where $a/@id = $b/@ref return $b",
+        "<b ref=\"1\"/>\n<b ref=\"1\"/>\n<b ref=\"2\"/>\n<b ref=\"3\"/>", exists(Join.class));
+    check("for $a in (1 to 3) for $b in (1 to 6) where $b = ($a, $a * 2) return $a * 10 + $b",
+        "11\n12\n22\n24\n33\n36", exists(Join.class));
+    check("for $a in (1 to 4) for $b in (5, 1, 3, 2, 4) where $b < $a return $a * 10 + $b",
+        "21\n31\n32\n41\n43\n42", exists(Join.class));
+    check("for $a in (1, xs:double('NaN'), 3) for $b in (2, 4) where $a < $b return $a + $b",
+        "3\n5\n7", exists(Join.class));
+
+    // no join: single tuple, dependent sequence, incomparable types
+    check("for $a in 'x' for $b in ('y', 'x') where $b = $a return $b", "x", empty(Join.class));
+    check("for $a in (1 to 2) for $b in ($a to 3) where $b = $a return $b",
+        "1\n2", empty(Join.class));
+    check("for $a in (1 to 2) for $b in ('1', '2') where $b != $a ! string() return $b",
+        "2\n1", empty(Join.class));
+  }
+
+  /** Parallel evaluation. */
+  @Test public void parallel() {
+    query("(# basex:parallel #) { for $i in 1 to 10000 return $i * 2 } => sum()", 100010000);
+    query("(# basex:parallel #) { for $i in 1 to 20 let $j := $i * 2 where $j mod 3 = 0 " +
+        "return $j }", "6\n12\n18\n24\n30\n36");
+    query("let $a := 2 return (# basex:parallel #) { for $i in 1 to 3 for $j in $i to $a " +
+        "return $i * 10 + $j }", "11\n12\n22");
+    query("((# basex:parallel #) { for $i in 1 to 1000 for $j in (1 to 1000)[. = $i] " +
+        "return $j })[. != position()]", "");
+    query("(# basex:parallel #) { for $i in 1 to 3 order by -$i return $i }", "3\n2\n1");
+    error("(# basex:parallel #) { for $i in 1 to 1000 return if($i = 500) then error() " +
+        "else $i }", FUNERR1);
+  }
+
+  /** Order by clauses with sorted runs written to disk. */
+  @Test public void orderBySortLimit() {
+    final String limit = "declare option db:sortlimit '10'; ";
+    query(limit + "string-join(for $i in 1 to 30 order by $i mod 10 descending, -$i " +
+        "return $i, ',')", "29,19,9,28,18,8,27,17,7,26,16,6,25,15,5,24,14,4,23,13,3,22,12,2," +
+        "21,11,1,30,20,10");
+    query(limit + "(for $i in 1 to 100 let $k := ($i mod 3)[. != 0] " +
+        "order by $k empty greatest, $i return $i)[position() = (1, 33, 67, 100)]",
+        "1\n97\n98\n99");
+    query(limit + "(for $i in 1 to 100 let $n := <n>{ $i }</n> " +
+        "order by string($n) return $n)[position() < 3]", "<n>1</n>\n<n>10</n>");
+    query(limit + "(for $i in (1 to 100) ! xs:double(.) order by $i mod 2 empty least " +
+        "return $i)[last()]", 99);
+    error(limit + "for $i in 1 to 100 order by (if($i = 50) then 'x' else $i) return $i",
+        INVTYPE_X_X_X);
+  }
+
+  /** Arithmetic expressions, evaluated for all items at once. */
+  @Test public void vector() {
+    query("for $i in 1 to 5 return $i * 2", "2\n4\n6\n8\n10");
+    query("for $i in reverse(1 to 3) return 10 - $i", "7\n8\n9");
+    query("let $s := (1 to 3) ! (. + 0) return for $i in $s return $i - 1", "0\n1\n2");
+    query("for $i in (1 to 3) ! (. * 1.5e0) return $i div 2e0", "0.75\n1.5\n2.25");
+    query("for $i in 1 to 3 return $i div 2", "0.5\n1\n1.5");
+    query("for $i in (1 to 3) ! (. * 2) return $i + 1", "3\n5\n7");
+    query("sum(let $s := for $i in 1 to 100000 return $i * 2 return $s)", 10000100000L);
+    query("avg(let $s := for $i in 1 to 4 return $i * 1e0 return $s)", 2.5);
+    error("for $i in 1 to 2 return $i * 9223372036854775807", RANGE_X);
+  }
+
+  /** Order by clauses with numeric keys. */
+  @Test public void orderByNumeric() {
+    query("for $i in (3, 1, 2, 1) ! (. * 1) order by $i descending return $i", "3\n2\n1\n1");
+    query("for $d at $p in (3e0, -0e0, 0e0, 1e0, -1e0) order by $d return $p",
+        "5\n2\n3\n4\n1");
+    query("for $d at $p in (3e0, -0e0, 0e0, 1e0, -1e0) order by $d descending return $p",
+        "1\n4\n2\n3\n5");
+    query("for $d in (1e0, xs:double('NaN'), -1e0) order by $d return $d", "NaN\n-1\n1");
+    query("sort((5, 9223372036854775807, -9223372036854775807, 0) ! (. + 0))",
+        "-9223372036854775807\n0\n5\n9223372036854775807");
+  }
 }
@@ -260,4 +260,25 @@ public final class PathTest extends AdvancedQueryTest {
     query(".[/a]", "<a/>");
     query(".[/b]", "<b/>");
   }
+
+  /**
+   * Parallel evaluation of descendant steps.
+   */
+  @Test public void parallel() {
+    final StringBuilder sb = new StringBuilder("<r>");
+    for(int i = 1; i <= 10000; i++) sb.append("<a n='").append(i).append("'><b>").
+      append(i).append("</b><c/></a>");
+    execute(new CreateDB(NAME, sb.append("</r>").toString()));
+
+    for(final String query : new String[] {
+      "count(/descendant-or-self::node()[not(self::c)])",
+      "sum(/descendant::node()[@n mod 2 = 0]/b)",
+      "string-join(/descendant::node()[@n > 9990]/b/text())",
+      "count(//node()[. = '5000'])",
+      "(/descendant::node()[not(*)])[last()] ! name()",
+      "(/descendant::text() ! position())[. != position()]"
+    }) {
+      query("(# basex:parallel #) { " + query + " }", query(query));
+    }
+  }
 }
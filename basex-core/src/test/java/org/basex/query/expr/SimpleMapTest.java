@@ -85,4 +85,30 @@ public final class SimpleMapTest extends QueryPlanTest {
     check("(1 to 2) ! util:replicate('a', 2) ! util:replicate('a', 2)", "a\na\na\na\na\na\na\na",
         exists(SingletonSeq.class) + " and .//@size = 8");
   }
+
+  /** Parallel evaluation. */
+  @Test public void parallel() {
+    check("(# basex:parallel #) { (1 to 10000) ! (. * 2) } => sum()", 100010000,
+        exists(ParallelMap.class));
+    check("((# basex:parallel #) { (1 to 1000) ! position() })[. != position()]", "",
+        exists(ParallelMap.class));
+    check("((# basex:parallel #) { (1 to 1000) ! (last() - .) ! (. + 1) })[1000]", 1,
+        exists(ParallelMap.class));
+    check("let $a := 3 return (# basex:parallel #) { ('x', 'y') ! (. || $a) }", "x3\ny3",
+        exists(ParallelMap.class));
+    check("count((# basex:parallel #) { (1 to 10) ! random:integer(1) })", 10,
+        empty(ParallelMap.class));
+    error("(# basex:parallel #) { (1 to 1000) ! (if(. = 500) then error() else .) }", FUNERR1);
+  }
+
+  /** Arithmetic expressions, evaluated for all items at once. */
+  @Test public void vector() {
+    query("(1 to 5) ! (. * 2)", "2\n4\n6\n8\n10");
+    query("(1 to 3) ! (1 - .)", "0\n-1\n-2");
+    query("(1 to 3) ! (. * 0.5e0) ! (. mod 1e0)", "0.5\n0\n0.5");
+    query("(1 to 3) ! (. idiv 2)", "0\n1\n1");
+    query("(1, 2, 3)[. > 1] ! (. + 1) ! (. * 2)", "6\n8");
+    query("let $s := (1 to 100000) ! (. * 2) return sum($s)", 10000100000L);
+    error("(1 to 2) ! (. + 9223372036854775807)", RANGE_X);
+  }
 }
@@ -3,6 +3,7 @@ package org.basex.query.func;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
+import org.basex.io.*;
 import org.basex.query.*;
 import org.junit.*;
 
@@ -43,6 +44,25 @@ public final class CsvModuleTest extends AdvancedQueryTest {
     parse("X\nY", "'header':true(),'format':'xquery'", "...\"names\": [\"X\"]");
   }
 
+  /** Test method. */
+  @Test public void readRows() {
+    final String path = new IOFile(sandbox(), "rows.csv").path();
+    write(new IOFile(path), "A,B\n1,\"X\nY\"\n\n2,3");
+    final Function func = _CSV_READ_ROWS;
+    query("count(" + func.args(path) + ")", 3);
+    query(func.args(path) + "[1]/entry[2]/string()", "B");
+    query(func.args(path, " map {'header':true()}") + "/B/string()", "X\nY\n3");
+    query(func.args(path, " map {'header':true(),'format':'attributes'}") + "[2]/entry[1]",
+        "<entry name=\"A\">2</entry>");
+    query(func.args(path, " map {'header':true(),'format':'xquery'}") + "?A", "1\n2");
+    query(func.args(path, " map {'format':'xquery'}") + "[1](2)", "B");
+    query("head(" + func.args(path) + ")/entry[1]/string()", "A");
+    query("deep-equal(" + func.args(path, " map {'header':true()}") + ", " +
+        _CSV_PARSE.args(_FILE_READ_TEXT.args(path), " map {'header':true()}") + "/csv/record)",
+        true);
+    error(func.args(path + "x"), WHICHRES_X);
+  }
+
   /** Test method. */
   @Test public void serializeXml() {
     serial("<csv><record><A__>1</A__></record></csv>", "'header':true(),'lax':false()", "A_\n1\n");
@@ -227,6 +227,39 @@ public final class FileModuleTest extends AdvancedQueryTest {
     query(_FILE_DELETE.args(PATH1));
   }
 
+  /** Test method. */
+  @Test
+  public void readTextLines() {
+    error(_FILE_READ_TEXT_LINES.args(PATH1), FILE_NOT_FOUND_X);
+    error(_FILE_READ_TEXT_LINES.args(PATH), FILE_IS_DIR_X);
+    query(_FILE_WRITE_TEXT_LINES.args(PATH1, " (1 to 10) ! string()"));
+    query("count(" + _FILE_READ_TEXT_LINES.args(PATH1) + ')', 10);
+    query(_FILE_READ_TEXT_LINES.args(PATH1) + "[last()]", 10);
+
+    // windows
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 8), "8\n9\n10");
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 3, 2), "3\n4");
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 0, 2), 1);
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, -5, 8), "1\n2");
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 9, 5), "9\n10");
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 11), "");
+    query(_FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 2, 0), "");
+    query("count(" + _FILE_READ_TEXT_LINES.args(PATH1, "UTF-8", false, 2, Long.MAX_VALUE) + ')',
+        9);
+    query("subsequence(" + _FILE_READ_TEXT_LINES.args(PATH1) + ", 4, 2)", "4\n5");
+    query("count(tail(" + _FILE_READ_TEXT_LINES.args(PATH1) + "))", 9);
+    query(_FILE_READ_TEXT_LINES.args(PATH1) + "[5]", 5);
+
+    // lazy evaluation: input is closed after the last requested line
+    query(_FILE_WRITE_TEXT_LINES.args(PATH1, " (1 to 100000) ! string()"));
+    query("head(" + _FILE_READ_TEXT_LINES.args(PATH1) + ')', 1);
+    query("(" + _FILE_READ_TEXT_LINES.args(PATH1) + "[1], " + _FILE_DELETE.args(PATH1) + ')', 1);
+    query(_FILE_EXISTS.args(PATH1), false);
+    query(_FILE_WRITE_TEXT_LINES.args(PATH1, " (1 to 100000) ! string()"));
+    query("(head(" + _FILE_READ_TEXT_LINES.args(PATH1) + "), " + _FILE_DELETE.args(PATH1) + ')', 1);
+    query(_FILE_EXISTS.args(PATH1), false);
+  }
+
   /** Test method. */
   @Test
   public void readBinary() {
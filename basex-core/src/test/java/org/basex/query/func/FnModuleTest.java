@@ -601,6 +601,17 @@ public final class FnModuleTest extends QueryPlanTest {
 
     error(func.args(" true#0"), FIATOM_X);
     error(func.args(" (1 to 2) ! true#0"), FIATOM_X);
+
+    // sorted runs written to disk
+    final String limit = "declare option db:sortlimit '10'; ";
+    query(limit + func.args(" (1 to 100) ! (. mod 7)") + " => string-join()",
+        "00000000000000111111111111111222222222222222333333333333334444444444444455555555555555"
+        + "66666666666666");
+    query(limit + func.args(" reverse(1 to 100) ! string()", " ()",
+        " function($s) { -xs:double($s) }") + " => head()", "100");
+    query(limit + func.args(" (1 to 100) ! (if(. mod 2 = 0) then <a>{ . }</a> else .)", " ()",
+        " string#1") + " => subsequence(1, 4) => string-join(',')", "1,10,100,11");
+    error(limit + func.args(" (1 to 100) ! (if(. = 50) then 'x' else .)"), CMPTYPES_X_X);
   }
 
   /** Test method. */
@@ -3,10 +3,13 @@ package org.basex.query.func;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
+import java.io.*;
+
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.core.parse.Commands.CmdIndex;
 import org.basex.index.*;
+import org.basex.io.*;
 import org.basex.query.*;
 import org.junit.*;
 import org.junit.Test;
@@ -175,6 +178,116 @@ public final class FtModuleTest extends AdvancedQueryTest {
     query(func.args(_FT_SEARCH.args(NAME, "XML")), "1\n0.5");
   }
 
+  /** Test method. */
+  @Test
+  public void searchCandidates() {
+    final String[] words = { "house", "mouse", "houses", "hose", "ohuse", "huose", "horse",
+        "hause", "house", "use", "us", "spouse", "housekeeping", "warehouse", "hou", "ho" };
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(final String word : words) sb.append("<p>").append(word).append("</p>");
+    final String xml = sb.append("</x>").toString();
+    execute(new CreateDB(NAME, xml));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    // compare index results with results of sequential evaluation
+    final String[] fuzzy = { "house", "houze", "uohse", "mice", "us", "housekeepin" };
+    for(final String term : fuzzy) {
+      final String expected = query(xml + "//p[text() contains text '" + term + "' using fuzzy]");
+      query(_FT_SEARCH.args(NAME, term, " map { 'fuzzy': true() }") + "/..", expected);
+    }
+    final String[] wildcards = { "ho.*", ".*use", ".+ouse.*", "h.?use", ".*keep.*", ".*", ".us" };
+    for(final String term : wildcards) {
+      final String expected = query(xml + "//p[text() contains text '" + term +
+          "' using wildcards]");
+      query(_FT_SEARCH.args(NAME, term, " map { 'wildcards': true() }") + "/..", expected);
+    }
+  }
+
+  /** Test method. */
+  @Test
+  public void searchBlocks() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 3000; i++) {
+      sb.append("<p n='").append(i).append("'>").append(i % 2 == 0 ? "a " : "b ");
+      if(i % 7 == 0) sb.append("c a ");
+      if(i % 1000 == 0) sb.append("d ");
+      sb.append("</p>");
+    }
+    final String xml = sb.append("</x>").toString();
+    execute(new CreateDB(NAME, xml));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    // compare index results with results of sequential evaluation
+    final String[][] terms = { { "a", "all words" }, { "a c", "all words" },
+        { "c a", "all words" }, { "a d", "all words" }, { "d a", "all words" },
+        { "b d", "all words" }, { "c a", "all" }, { "a c", "phrase" }, { "b c a", "phrase" },
+        { "a b", "any word" } };
+    for(final String[] term : terms) {
+      final String expected = query("sum(" + xml + "//p[text() contains text '" + term[0] +
+          "' " + term[1] + "]/@n)");
+      query("sum(" + _FT_SEARCH.args(NAME, term[0], " map { 'mode': '" + term[1] + "' }") +
+          "/../@n)", expected);
+    }
+  }
+
+  /**
+   * Opens a full-text index that has been created by an older version.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void searchOldIndex() throws IOException {
+    // backup of a database with a full-text index, created with BaseX 9.0
+    final String old = "ftold";
+    new IOFile("src/test/resources/ftold.zip").copyTo(
+        new IOFile(context.soptions.dbPath(), old + "-2018-01-01-00-00-00.zip"));
+    execute(new Restore(old));
+
+    // index is ignored
+    query(_DB_INFO.args(old) + "//ftindex/string()", false);
+    query(_DB_OPEN.args(old) + "//*[text() contains text 'exercise'] ! name()", "li\nli");
+    error(_FT_SEARCH.args(old, "exercise"), DB_NOINDEX_X_X);
+
+    // index is rebuilt by OPTIMIZE
+    execute(new Open(old));
+    execute(new Optimize());
+    query(_DB_INFO.args(old) + "//ftindex/string()", true);
+    query(_FT_SEARCH.args(old, "exercise") + " ! name(..)", "li\nli");
+
+    execute(new DropBackup(old));
+    execute(new DropDB(old));
+  }
+
+  /** Test method. */
+  @Test
+  public void searchTopK() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 500; i++) {
+      sb.append("<p id='").append(i).append("'>");
+      for(int w = 0; w <= i % 13; w++) sb.append(w % 3 == 0 ? "a " : w % 3 == 1 ? "b " : "c ");
+      if(i % 7 == 0) sb.append("d");
+      sb.append("</p>");
+    }
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    final String[] terms = { "a", "d", "a d", "b c d" };
+    final String[] modes = { "any", "any word", "all words" };
+    for(final String term : terms) {
+      for(final String mode : modes) {
+        final String search = "for $n score $s in " + _FT_SEARCH.args(NAME, term,
+            " map { 'mode': '" + mode + "' }") + " order by $s descending return $n/../@id/data()";
+        final String all = query(search);
+        final String[] ids = all.isEmpty() ? new String[0] : all.split("\n");
+        final StringBuilder exp = new StringBuilder();
+        for(int i = 0; i < Math.min(5, ids.length); i++) {
+          exp.append(i == 0 ? "" : "\n").append(ids[i]);
+        }
+        query("(" + search + ")[position() <= 5]", exp);
+        query(HEAD.args(" (" + search + ')'), ids.length == 0 ? "" : ids[0]);
+      }
+    }
+  }
+
   /** Test method. */
   @Test
   public void tokens() {
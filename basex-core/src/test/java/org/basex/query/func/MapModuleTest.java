@@ -120,6 +120,16 @@ public final class MapModuleTest extends QueryPlanTest {
     // GH1602
     query("let $_ := 'combine' return " + func.args(" map { 0:1 }",
         " map { 'duplicates': $_ }") + "?0", 1);
+
+    // small and large maps (large maps are merged structurally)
+    final String arg2 = " (map { 0: 'a', 1: 'a' }, " + func.args(" (1 to 100) ! map { .: 'b' }") +
+        ", map { 1: 'c', 101: 'c' })";
+    query("map:size(" + func.args(arg2) + ")", 102);
+    query(func.args(arg2) + "(1)", "a");
+    query(func.args(arg2, " map{ 'duplicates': 'use-last' }") + "(1)", "c");
+    query(func.args(arg2, " map{ 'duplicates': 'combine' }") + "(1)", "a\nb\nc");
+    query(func.args(arg2, " map{ 'duplicates': 'combine' }") + "(50)", "b");
+    error(func.args(arg2, " map{ 'duplicates': 'reject' }"), MERGE_DUPLICATE_X);
   }
 
   /** Test method. */
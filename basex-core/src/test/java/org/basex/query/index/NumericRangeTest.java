@@ -0,0 +1,75 @@
+package org.basex.query.index;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with typed indexes.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends QueryPlanTest {
+  /** Test for typed range access. */
+  private static final String TYPED = "exists(//RangeAccess[@typed = 'true'])";
+  /** Test for untyped range access. */
+  private static final String UNTYPED = "exists(//RangeAccess[not(@typed)])";
+
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass
+  public static void start() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("<xml>");
+    for(int i = 0; i < 1000; i++) {
+      tb.add("<n a='").add(Token.token(i / 8d)).add("'>").addInt(i - 300).add("</n>");
+    }
+    tb.add("</xml>");
+    set(MainOptions.NUMINDEX, true);
+    execute(new CreateDB(NAME, tb.toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass
+  public static void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.NUMINDEX, false);
+  }
+
+  /**
+   * Ranges that can only be answered by the typed index.
+   */
+  @Test
+  public void typed() {
+    check("count(//n[text() >= -10 and text() < 20])", 30, TYPED);
+    check("count(//n[text() >= 5 and text() <= 250])", 246, TYPED);
+    check("count(//n[text() > 650])", 49, TYPED);
+    check("count(//n[@a >= 10.5 and @a < 12])", 12, TYPED);
+    check("count(//n[@a > 124.5])", 3, TYPED);
+    check("count(//n[@a = 3.125])", 1);
+    check("count(//n[text() >= 1000])", 0);
+  }
+
+  /**
+   * Switches typed indexes on and off.
+   */
+  @Test
+  public void optimize() {
+    final String query = "count(//n[text() >= 100 and text() <= 199])";
+    check(query, 100, TYPED);
+    set(MainOptions.NUMINDEX, false);
+    execute(new Optimize());
+    check(query, 100, UNTYPED);
+    check("count(//n[text() >= -10 and text() < 20])", 30, "empty(//RangeAccess)");
+    set(MainOptions.NUMINDEX, true);
+    execute(new Optimize());
+    check(query, 100, TYPED);
+  }
+}
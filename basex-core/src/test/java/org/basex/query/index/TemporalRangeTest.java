@@ -0,0 +1,78 @@
+package org.basex.query.index;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.*;
+import org.basex.query.ast.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if dateTime, date and time range queries are correctly evaluated with
+ * typed indexes.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRangeTest extends QueryPlanTest {
+  /** Test for temporal range access. */
+  private static final String TYPED = "exists(//TemporalRangeAccess)";
+  /** Test for missing range access. */
+  private static final String UNTYPED = "empty(//TemporalRangeAccess)";
+
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass
+  public static void start() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("<xml>");
+    for(int i = 0; i < 240; i++) {
+      final int d = i / 24 + 1, h = i % 24;
+      final String date = "2018-01-" + (d < 10 ? "0" : "") + d;
+      final String time = (h < 10 ? "0" : "") + h + ":00:00";
+      // attributes: alternating timezones; dates and times: no timezone
+      final String zone = i % 3 == 0 ? "Z" : i % 3 == 1 ? "+05:00" : "-08:00";
+      tb.add("<e ts='").add(date + 'T' + time + zone).add("'>");
+      tb.add("<d>").add(date).add("</d><t>").add(time).add("</t><s>").add(date).add("</s></e>");
+    }
+    tb.add("<e><s>x</s></e></xml>");
+    set(MainOptions.NUMINDEX, true);
+    execute(new CreateDB(NAME, tb.toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass
+  public static void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.NUMINDEX, false);
+  }
+
+  /**
+   * Ranges on dateTime values.
+   */
+  @Test
+  public void dateTime() {
+    check("count(//e[@ts >= xs:dateTime('2018-01-05T00:00:00Z') and " +
+        "@ts < xs:dateTime('2018-01-06T00:00:00Z')])", 24, TYPED);
+    check("count(//e[@ts = xs:dateTime('2018-01-01T01:00:00+05:00')])", 1, TYPED);
+    check("count(//e[@ts = xs:dateTime('2018-01-01T01:00:00Z')])", 0);
+    check("count(//e[@ts > xs:dateTime('2018-01-10T20:00:00-08:00')])", 1, TYPED);
+  }
+
+  /**
+   * Ranges on date and time values.
+   */
+  @Test
+  public void dateAndTime() {
+    check("count(//e[d >= xs:date('2018-01-03') and d <= xs:date('2018-01-04')])", 48, TYPED);
+    check("count(//e[d < xs:date('2018-01-02')])", 24, TYPED);
+    check("count(//e[t > xs:time('21:00:00')])", 20, TYPED);
+    // all values must be of the compared type
+    check("count(//e[s < xs:date('2018-01-02')][1])", 1, UNTYPED);
+    error("count(//e[s < xs:date('2018-01-02')])", QueryError.DATEFORMAT_X_X_X);
+  }
+}
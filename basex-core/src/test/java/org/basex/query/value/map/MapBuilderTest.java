@@ -0,0 +1,76 @@
+package org.basex.query.value.map;
+
+import static org.junit.Assert.*;
+
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link MapBuilder}.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class MapBuilderTest {
+  /** Number of entries. */
+  private static final int SIZE = 20_000;
+
+  /**
+   * Builds maps of increasing size.
+   * @throws QueryException query exception
+   */
+  @Test
+  public void build() throws QueryException {
+    for(int len = 0; len < 1_000; len++) {
+      final MapBuilder mb = new MapBuilder();
+      for(int i = 0; i < len; i++) mb.put(Int.get(i), Int.get(i));
+      check(mb.finish(), len, 0);
+    }
+    final MapBuilder mb = new MapBuilder();
+    for(int i = 0; i < SIZE; i++) mb.put(Int.get(i), Int.get(i));
+    // replace existing entries
+    for(int i = 0; i < SIZE; i++) mb.put(Int.get(i), Int.get(i + 1));
+    check(mb.finish(), SIZE, 1);
+  }
+
+  /**
+   * Checks that existing maps are not modified by builders or updates.
+   * @throws QueryException query exception
+   */
+  @Test
+  public void immutable() throws QueryException {
+    final MapBuilder mb1 = new MapBuilder();
+    for(int i = 0; i < SIZE; i++) mb1.put(Int.get(i), Int.get(i));
+    final Map map1 = mb1.finish();
+
+    // builder adopting an existing map
+    final MapBuilder mb2 = new MapBuilder(map1);
+    for(int i = 0; i < SIZE * 2; i++) mb2.put(Int.get(i), Int.get(i + 1));
+    final Map map2 = mb2.finish();
+    check(map1, SIZE, 0);
+    check(map2, SIZE * 2, 1);
+
+    // persistent updates of a built map
+    Map map3 = map2;
+    for(int i = 0; i < SIZE; i++) map3 = map3.put(Int.get(i), Int.get(i + 2), null);
+    check(map2, SIZE * 2, 1);
+    assertEquals(SIZE * 2, map3.mapSize());
+  }
+
+  /**
+   * Checks the entries of a map.
+   * @param map map
+   * @param size expected size
+   * @param offset offset of the values
+   * @throws QueryException query exception
+   */
+  private static void check(final Map map, final int size, final int offset)
+      throws QueryException {
+    assertEquals(size, map.mapSize());
+    for(int i = 0; i < size; i++) {
+      assertEquals(i + offset, ((Int) map.get(Int.get(i), null)).itr());
+    }
+    assertFalse(map.contains(Int.get(size), null));
+  }
+}
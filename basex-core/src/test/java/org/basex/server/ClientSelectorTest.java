@@ -0,0 +1,79 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * This class tests the client/server session API with a bounded number of worker threads
+ * (see {@link StaticOptions#SERVERTHREADS}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelectorTest extends SessionTest {
+  /** Number of worker threads. */
+  private static final int THREADS = 2;
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void startServer() throws IOException {
+    final String name = Prop.DBPREFIX + StaticOptions.SERVERTHREADS.name();
+    System.setProperty(name, Integer.toString(THREADS));
+    try {
+      server = createServer();
+    } finally {
+      System.clearProperty(name);
+    }
+  }
+
+  /**
+   * Stops the server.
+   */
+  @AfterClass
+  public static void stop() {
+    stopServer(server);
+  }
+
+  /** Starts a session. */
+  @Before
+  public void startSession() {
+    try {
+      session = createClient();
+      session.setOutputStream(out);
+    } catch(final IOException ex) {
+      fail(Util.message(ex));
+    }
+  }
+
+  /**
+   * Keeps more sessions open than worker threads are available.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void idleSessions() throws IOException {
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    try {
+      for(int s = 0; s < THREADS * 10; s++) sessions.add(createClient());
+      for(int r = 0; r < 3; r++) {
+        for(int s = 0; s < sessions.size(); s++) {
+          assertEquals(Integer.toString(s + r), sessions.get(s).query(s + " + " + r).execute());
+        }
+      }
+    } finally {
+      for(final ClientSession cs : sessions) cs.close();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.server.Log.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for asynchronous logging.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of threads. */
+  private static final int THREADS = 8;
+  /** Number of entries per thread. */
+  private static final int ENTRIES = 1000;
+  /** Database context with asynchronous logging. */
+  private static Context ctx;
+
+  /**
+   * Creates the database context.
+   */
+  @BeforeClass
+  public static void init() {
+    Prop.put(StaticOptions.LOGQUEUE, "16");
+    ctx = new Context();
+  }
+
+  /**
+   * Closes the database context.
+   */
+  @AfterClass
+  public static void close() {
+    ctx.close();
+    Prop.clear();
+  }
+
+  /**
+   * Writes entries from concurrent threads.
+   * @throws Exception exception
+   */
+  @Test
+  public void concurrent() throws Exception {
+    final String count = "count(admin:logs(admin:logs()[last()])[. = 'concurrent'])";
+    final ArrayList<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < THREADS; t++) {
+      threads.add(new Thread(() -> {
+        for(int e = 0; e < ENTRIES; e++) ctx.log.write(LogType.INFO, "concurrent", null, ctx);
+      }));
+    }
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    // pending entries are written before the log files are read
+    assertEquals(String.valueOf(THREADS * ENTRIES), new XQuery(count).execute(ctx));
+  }
+
+  /**
+   * Writes pending entries when the log is closed.
+   * @throws Exception exception
+   */
+  @Test
+  public void closeLog() throws Exception {
+    for(int e = 0; e < ENTRIES; e++) ctx.log.write(LogType.INFO, "close", null, ctx);
+    ctx.log.close();
+    // entries that are added after closing the log are written synchronously
+    ctx.log.write(LogType.INFO, "closed", null, ctx);
+    final String name = DateTime.format(new Date(), DateTime.DATE);
+    int entries = 0, closed = 0;
+    for(final String line : ctx.log.file(name).read()) {
+      if(line.endsWith("\tclose")) entries++;
+      else if(line.endsWith("\tclosed")) closed++;
+    }
+    assertEquals(ENTRIES, entries);
+    assertEquals(1, closed);
+  }
+}